@@ -0,0 +1,10 @@
+package lib280.base;
+
+/**	A Keyed280 item whose key is an int.  Containers specialized for int
+	keys use intKey() so that keys are never boxed; key() must return the
+	same value, boxed. */
+public interface IntKeyed280 extends Keyed280<Integer>
+{
+	/**	Key of the item, unboxed. */
+	public int intKey();
+}
@@ -0,0 +1,10 @@
+package lib280.base;
+
+/**	A Keyed280 item whose key is a long.  Containers specialized for long
+	keys use longKey() so that keys are never boxed; key() must return the
+	same value, boxed. */
+public interface LongKeyed280 extends Keyed280<Long>
+{
+	/**	Key of the item, unboxed. */
+	public long longKey();
+}
@@ -0,0 +1,10 @@
+package lib280.base;
+
+/**	An action applied to each item visited by a traversal or scan of a
+	data structure, such as the range scans of the ordered trees. */
+public interface Visitor280<I>
+{
+	/**	Visit item x.
+		@param x the item being visited */
+	public void visit(I x);
+}
@@ -6,6 +6,15 @@
 
 package lib280.dictionary;
 
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import lib280.exception.InvalidArgument280Exception;
+import lib280.exception.InvalidState280Exception;
+
 /**	A hash table version of a Dictionary used to store items by their hash value. 
 	It has functions to insert, delete, obtain, and  search for items, and
 	has a frequency function and a current item that can be deleted.  A linear
@@ -18,6 +27,12 @@ public abstract class HashTable280<I> implements Dict280<I>
 	/**	Should search continue from current item or start at the beginning?. */
 	protected boolean searchesContinue = false;
 
+	/**	Hash function used to place items. */
+	protected Hasher280 hasher = new MixingHasher280();
+
+	/**	Counters of the searches and resizes, or null if instrumentation is off. */
+	protected HashTableRecorder280 recorder = null;
+
 
 	/**	Size of the hash table. */
 	public abstract int capacity();
@@ -48,16 +63,224 @@ public abstract class HashTable280<I> implements Dict280<I>
 	}
 
 	/**	
-	 * Default hash position is obtained by the simple division method, which is
-	 * calculated by using the object's default hash code. <br>
+	 * Hash position of y: the hasher's hash code of y reduced to a position
+	 * between 0 and capacity() - 1.  By default the hash code is y.hashCode()
+	 * passed through a mixing finalizer (see setHasher()). <br>
 	 * @timing O(1)
 	 * @param y item to calculate its hash position 
 	 */
 	public int hashPos(Object y)
 	{
-		return Math.abs(y.hashCode()) % capacity();
+		return indexFor(hasher.hash(y), capacity());
+	}
+
+	/**	
+	 * Reduce hash code h to a position between 0 and length - 1.  A
+	 * power-of-two length is reduced by masking off the low bits, any other
+	 * length by the division method; either way the result is never negative.
+	 * @timing O(1)
+	 * @param h hash code
+	 * @param length number of positions
+	 */
+	public static int indexFor(int h, int length)
+	{
+		if ((length & (length - 1)) == 0)
+			return h & (length - 1);
+		else
+			return (h & 0x7fffffff) % length;
+	}
+
+	/**	
+	 * Count one more occurrence of value in histogram, which is returned,
+	 * grown if it did not have an entry for value.  Used to build the chain
+	 * length histograms of the chained tables.
+	 * @timing O(1) amortized
+	 * @param histogram histogram[i] is the number of occurrences of i so far
+	 * @param value the value that occurred
+	 */
+	protected static int[] countInHistogram(int[] histogram, int value)
+	{
+		if (value >= histogram.length)
+		{
+			int[] larger = new int[Math.max(value + 1, 2 * histogram.length)];
+			System.arraycopy(histogram, 0, larger, 0, histogram.length);
+			histogram = larger;
+		}
+		histogram[value]++;
+		return histogram;
+	}
+
+	/**	
+	 * Trim histogram so that its last entry is non-zero (keeping at least one entry).
+	 * @timing O(histogram.length)
+	 */
+	protected static int[] trimHistogram(int[] histogram)
+	{
+		int n = histogram.length;
+		while (n > 1 && histogram[n - 1] == 0)
+			n--;
+		int[] result = new int[n];
+		System.arraycopy(histogram, 0, result, 0, n);
+		return result;
+	}
+
+	/**	
+	 * The hash function used to place items.
+	 * @timing O(1)
+	 */
+	public Hasher280 hasher()
+	{
+		return hasher;
+	}
+
+	/**	
+	 * Set the hash function used to place items, e.g. one written for a key
+	 * type with a poor hashCode(), or an IdentityHasher280 to use hashCode()
+	 * as it is.  Since changing the hash function moves every item, it can
+	 * only be done while the table is empty.
+	 * @precond isEmpty()
+	 * @throws InvalidState280Exception if the table is not empty.
+	 * @timing O(1)
+	 * @param h the new hash function
+	 */
+	public void setHasher(Hasher280 h) throws InvalidState280Exception
+	{
+		if (!isEmpty())
+			throw new InvalidState280Exception("The hash function can only be changed while the table is empty.");
+		hasher = h;
+	}
+
+	/**	
+	 * Turn instrumentation on or off.  While it is on, the table records the
+	 * probes made by each search and the time and load factor of each resize;
+	 * see stats().  While it is off, the only cost is a test of the recorder
+	 * against null, so instrumentation can be left compiled in.  Turning it
+	 * on again starts from zero.
+	 * @timing O(1)
+	 * @param on true to record statistics, false to stop
+	 */
+	public void setInstrumentation(boolean on)
+	{
+		recorder = on ? new HashTableRecorder280() : null;
+	}
+
+	/**	
+	 * Is instrumentation on?
+	 * @timing O(1)
+	 */
+	public boolean isInstrumented()
+	{
+		return recorder != null;
+	}
+
+	/**	
+	 * The distribution of chain lengths: element i is the number of buckets
+	 * holding exactly i items.  Tables without chains return null.
+	 * @timing O(capacity() + count()) in the tables that have chains
+	 */
+	public int[] chainLengthHistogram()
+	{
+		return null;
+	}
+
+	/**	
+	 * A snapshot of the statistics recorded since instrumentation was
+	 * turned on or last reset, and of the table's present size, load factor
+	 * and chain lengths.
+	 * @precond isInstrumented()
+	 * @throws InvalidState280Exception if instrumentation is off.
+	 * @timing O(capacity() + count())
+	 */
+	public HashTableStats280 stats() throws InvalidState280Exception
+	{
+		HashTableRecorder280 r = recorder;
+		if (r == null)
+			throw new InvalidState280Exception("Instrumentation is off; call setInstrumentation(true) first.");
+		return new HashTableStats280(r, count(), capacity(), loadFactor(), chainLengthHistogram());
 	}
 
+	/**	
+	 * Forget the searches and resizes recorded so far.
+	 * @precond isInstrumented()
+	 * @throws InvalidState280Exception if instrumentation is off.
+	 * @timing O(1)
+	 */
+	public void resetStats() throws InvalidState280Exception
+	{
+		if (recorder == null)
+			throw new InvalidState280Exception("Instrumentation is off; call setInstrumentation(true) first.");
+		recorder.reset();
+	}
+
+	/**	
+	 * Register the statistics of this table with the platform MBean server
+	 * as a HashTableStatsMXBean280 named "lib280:type=HashTable280,name=" +
+	 * name, turning instrumentation on if it is off.  The bean reads the
+	 * table whenever a JMX client asks, so, like the table, it is not safe
+	 * to read while another thread changes the table.
+	 * @throws InvalidArgument280Exception if name is not a valid object name value.
+	 * @throws InvalidState280Exception if the bean cannot be registered, e.g. the name is taken.
+	 * @timing O(1)
+	 * @param name the name of the table in JMX
+	 * @return the name the bean was registered under, for unregisterMBean()
+	 */
+	public ObjectName registerMBean(String name) throws InvalidArgument280Exception, InvalidState280Exception
+	{
+		ObjectName objectName;
+		try
+		{
+			objectName = new ObjectName("lib280:type=HashTable280,name=" + name);
+		}
+		catch (MalformedObjectNameException e)
+		{
+			throw new InvalidArgument280Exception("Invalid MBean name " + name + ": " + e.getMessage());
+		}
+		if (recorder == null)
+			setInstrumentation(true);
+		final HashTable280<I> table = this;
+		HashTableStatsMXBean280 bean = new HashTableStatsMXBean280()
+		{
+			public long getSearches() { return table.stats().searches(); }
+			public double getAverageProbes() { return table.stats().averageProbes(); }
+			public int getMaxProbes() { return table.stats().maxProbes(); }
+			public int getResizes() { return table.stats().resizes(); }
+			public double getTotalResizeMillis() { return table.stats().totalResizeNanos() / 1e6; }
+			public double getMaxResizeMillis() { return table.stats().maxResizeNanos() / 1e6; }
+			public int getCount() { return table.count(); }
+			public int getCapacity() { return table.capacity(); }
+			public double getLoadFactor() { return table.loadFactor(); }
+			public int getMaxChainLength() { return table.stats().maxChainLength(); }
+			public double getAverageChainLength() { return table.stats().averageChainLength(); }
+			public void reset() { table.resetStats(); }
+		};
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().registerMBean(bean, objectName);
+		}
+		catch (JMException e)
+		{
+			throw new InvalidState280Exception("Cannot register MBean " + objectName + ": " + e.getMessage());
+		}
+		return objectName;
+	}
+
+	/**	
+	 * Remove a bean registered by registerMBean().  Instrumentation stays on.
+	 * @throws InvalidState280Exception if no such bean is registered.
+	 * @timing O(1)
+	 * @param objectName the name returned by registerMBean()
+	 */
+	public static void unregisterMBean(ObjectName objectName) throws InvalidState280Exception
+	{
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		}
+		catch (JMException e)
+		{
+			throw new InvalidState280Exception("Cannot unregister MBean " + objectName + ": " + e.getMessage());
+		}
+	}
 
 	/**	
 	 * Following searches start from the first position.
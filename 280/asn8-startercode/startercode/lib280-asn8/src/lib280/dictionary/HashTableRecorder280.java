@@ -0,0 +1,78 @@
+package lib280.dictionary;
+
+/**	The counters kept by an instrumented HashTable280: the number of probes
+	made by each search, and the time taken by each resize together with the
+	load factor that triggered it.  A table only has a recorder while
+	instrumentation is on (see HashTable280.setInstrumentation()).  Not
+	thread-safe; it is updated by the table's own operations. */
+public class HashTableRecorder280
+{
+	/**	Most resizes whose load factors are remembered. */
+	public static final int maxLoadFactorHistory = 1024;
+
+	/**	Number of searches recorded. */
+	protected long searches;
+
+	/**	Total probes made by the searches. */
+	protected long probes;
+
+	/**	Most probes made by any one search. */
+	protected int maxProbes;
+
+	/**	Number of resizes recorded. */
+	protected int resizes;
+
+	/**	Total time spent resizing, in nanoseconds. */
+	protected long resizeNanos;
+
+	/**	Longest single resize, in nanoseconds. */
+	protected long maxResizeNanos;
+
+	/**	Load factor at each of the first maxLoadFactorHistory resizes, just before the table was resized. */
+	protected double[] loadFactorHistory = new double[8];
+
+	/**	Record a search that made the given number of probes (key comparisons
+		or slots examined).
+		@timing O(1) */
+	public void recordSearch(int probes)
+	{
+		searches++;
+		this.probes += probes;
+		if (probes > maxProbes)
+			maxProbes = probes;
+	}
+
+	/**	Record a resize that took the given time, made when the table had
+		the given load factor.
+		@timing O(1) amortized */
+	public void recordResize(long nanos, double loadFactor)
+	{
+		if (resizes < maxLoadFactorHistory)
+		{
+			if (resizes == loadFactorHistory.length)
+			{
+				double[] larger = new double[2 * loadFactorHistory.length];
+				System.arraycopy(loadFactorHistory, 0, larger, 0, resizes);
+				loadFactorHistory = larger;
+			}
+			loadFactorHistory[resizes] = loadFactor;
+		}
+		resizes++;
+		resizeNanos += nanos;
+		if (nanos > maxResizeNanos)
+			maxResizeNanos = nanos;
+	}
+
+	/**	Forget everything recorded so far.
+		@timing O(1) */
+	public void reset()
+	{
+		searches = 0;
+		probes = 0;
+		maxProbes = 0;
+		resizes = 0;
+		resizeNanos = 0;
+		maxResizeNanos = 0;
+		loadFactorHistory = new double[8];
+	}
+}
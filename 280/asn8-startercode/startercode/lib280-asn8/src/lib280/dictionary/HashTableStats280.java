@@ -0,0 +1,152 @@
+package lib280.dictionary;
+
+/**	A snapshot of the statistics of an instrumented HashTable280, taken by
+	HashTable280.stats().  Later operations on the table do not change it. */
+public class HashTableStats280
+{
+	/**	Number of searches since instrumentation was turned on or reset. */
+	protected final long searches;
+
+	/**	Total probes made by those searches. */
+	protected final long probes;
+
+	/**	Most probes made by any one search. */
+	protected final int maxProbes;
+
+	/**	Number of resizes. */
+	protected final int resizes;
+
+	/**	Total and longest time spent resizing, in nanoseconds. */
+	protected final long resizeNanos, maxResizeNanos;
+
+	/**	Load factor just before each resize, oldest first. */
+	protected final double[] loadFactorHistory;
+
+	/**	Number of items, capacity and load factor when the snapshot was taken. */
+	protected final int count, capacity;
+	protected final double loadFactor;
+
+	/**	Chain length histogram when the snapshot was taken, or null if the table has no chains. */
+	protected final int[] chainLengthHistogram;
+
+	/**	Take a snapshot of the counters of r and the given state of a table.
+		@timing O(r.resizes + length of histogram) */
+	public HashTableStats280(HashTableRecorder280 r, int count, int capacity, double loadFactor, int[] chainLengthHistogram)
+	{
+		this.searches = r.searches;
+		this.probes = r.probes;
+		this.maxProbes = r.maxProbes;
+		this.resizes = r.resizes;
+		this.resizeNanos = r.resizeNanos;
+		this.maxResizeNanos = r.maxResizeNanos;
+		this.loadFactorHistory = new double[Math.min(r.resizes, HashTableRecorder280.maxLoadFactorHistory)];
+		System.arraycopy(r.loadFactorHistory, 0, this.loadFactorHistory, 0, this.loadFactorHistory.length);
+		this.count = count;
+		this.capacity = capacity;
+		this.loadFactor = loadFactor;
+		this.chainLengthHistogram = chainLengthHistogram;
+	}
+
+	/**	Number of searches recorded. */
+	public long searches()
+	{
+		return searches;
+	}
+
+	/**	Total probes made by the searches. */
+	public long probes()
+	{
+		return probes;
+	}
+
+	/**	Average probes per search, or 0 if there were no searches. */
+	public double averageProbes()
+	{
+		return searches == 0 ? 0 : ((double) probes) / searches;
+	}
+
+	/**	Most probes made by any one search. */
+	public int maxProbes()
+	{
+		return maxProbes;
+	}
+
+	/**	Number of resizes. */
+	public int resizes()
+	{
+		return resizes;
+	}
+
+	/**	Total time spent resizing, in nanoseconds. */
+	public long totalResizeNanos()
+	{
+		return resizeNanos;
+	}
+
+	/**	Longest single resize, in nanoseconds. */
+	public long maxResizeNanos()
+	{
+		return maxResizeNanos;
+	}
+
+	/**	The load factor just before each resize, oldest first (at most
+		HashTableRecorder280.maxLoadFactorHistory of them).  Together with
+		loadFactor() this traces the load factor over the table's life. */
+	public double[] loadFactorHistory()
+	{
+		return loadFactorHistory.clone();
+	}
+
+	/**	Number of items when the snapshot was taken. */
+	public int count()
+	{
+		return count;
+	}
+
+	/**	Capacity when the snapshot was taken. */
+	public int capacity()
+	{
+		return capacity;
+	}
+
+	/**	Load factor when the snapshot was taken. */
+	public double loadFactor()
+	{
+		return loadFactor;
+	}
+
+	/**	Element i is the number of chains holding exactly i items, or null if
+		the table has no chains. */
+	public int[] chainLengthHistogram()
+	{
+		return chainLengthHistogram == null ? null : chainLengthHistogram.clone();
+	}
+
+	/**	Length of the longest chain, or 0 if the table has no chains. */
+	public int maxChainLength()
+	{
+		return chainLengthHistogram == null ? 0 : chainLengthHistogram.length - 1;
+	}
+
+	/**	Average length of the chains that are not empty, or 0 if there are none. */
+	public double averageChainLength()
+	{
+		if (chainLengthHistogram == null)
+			return 0;
+		long chains = 0, items = 0;
+		for (int i = 1; i < chainLengthHistogram.length; i++)
+		{
+			chains += chainLengthHistogram[i];
+			items += (long) i * chainLengthHistogram[i];
+		}
+		return chains == 0 ? 0 : ((double) items) / chains;
+	}
+
+	public String toString()
+	{
+		return "searches: " + searches + ", probes/search: " + averageProbes() + " (max " + maxProbes + ")"
+				+ ", resizes: " + resizes + " (" + resizeNanos / 1000000.0 + " ms, max " + maxResizeNanos / 1000000.0 + " ms)"
+				+ ", items: " + count + ", capacity: " + capacity + ", load factor: " + loadFactor
+				+ ", chains: max " + maxChainLength() + ", average " + averageChainLength();
+	}
+}
@@ -0,0 +1,46 @@
+package lib280.dictionary;
+
+import javax.management.MXBean;
+
+/**	The statistics of an instrumented HashTable280 as a JMX MXBean, so that
+	they can be watched with jconsole or any other JMX client.  See
+	HashTable280.registerMBean(). */
+@MXBean
+public interface HashTableStatsMXBean280
+{
+	/**	Number of searches recorded. */
+	public long getSearches();
+
+	/**	Average probes per search. */
+	public double getAverageProbes();
+
+	/**	Most probes made by any one search. */
+	public int getMaxProbes();
+
+	/**	Number of resizes. */
+	public int getResizes();
+
+	/**	Total time spent resizing, in milliseconds. */
+	public double getTotalResizeMillis();
+
+	/**	Longest single resize, in milliseconds. */
+	public double getMaxResizeMillis();
+
+	/**	Number of items. */
+	public int getCount();
+
+	/**	Capacity of the table. */
+	public int getCapacity();
+
+	/**	Current load factor. */
+	public double getLoadFactor();
+
+	/**	Length of the longest chain. */
+	public int getMaxChainLength();
+
+	/**	Average length of the chains that are not empty. */
+	public double getAverageChainLength();
+
+	/**	Forget the searches and resizes recorded so far. */
+	public void reset();
+}
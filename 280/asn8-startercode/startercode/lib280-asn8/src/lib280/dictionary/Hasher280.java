@@ -0,0 +1,13 @@
+package lib280.dictionary;
+
+/**	A hash function used by a HashTable280 to place its items.  Tables use
+	the whole int returned, so a hasher should spread its input over all 32
+	bits; in particular a power-of-two table only uses the low bits. */
+public interface Hasher280
+{
+	/**	
+	 * Hash code of y.
+	 * @param y the item or key to be hashed 
+	 */
+	public int hash(Object y);
+}
@@ -0,0 +1,16 @@
+package lib280.dictionary;
+
+/**	A Hasher280 that uses y.hashCode() unchanged.  This was the only hash
+	function before hashers could be chosen; it is only a good choice when
+	the hash codes are known to be well distributed already. */
+public class IdentityHasher280 implements Hasher280
+{
+	/**	
+	 * Hash code of y: y.hashCode().
+	 * @timing O(1) plus the time of y.hashCode()
+	 */
+	public int hash(Object y)
+	{
+		return y.hashCode();
+	}
+}
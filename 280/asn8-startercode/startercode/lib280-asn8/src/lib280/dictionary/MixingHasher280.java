@@ -0,0 +1,32 @@
+package lib280.dictionary;
+
+/**	The default Hasher280: y.hashCode() put through the MurmurHash3 32-bit
+	finalizer, so that every bit of the hash code affects the low bits.  This
+	keeps weak hashCode()s, such as those of Integer keys that are all
+	multiples of a power of two, from piling up in a few chains. */
+public class MixingHasher280 implements Hasher280
+{
+	/**	
+	 * The MurmurHash3 32-bit finalizer.
+	 * @timing O(1)
+	 * @param h value to be mixed 
+	 */
+	public static int mix(int h)
+	{
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	/**	
+	 * Hash code of y: y.hashCode(), mixed.
+	 * @timing O(1) plus the time of y.hashCode()
+	 */
+	public int hash(Object y)
+	{
+		return mix(y.hashCode());
+	}
+}
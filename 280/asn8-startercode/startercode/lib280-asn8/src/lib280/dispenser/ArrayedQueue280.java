@@ -31,6 +31,13 @@ public class ArrayedQueue280<I> extends Queue280<I> {
 	public ArrayedQueue280(int capacity) {
 		queueItems = new ArrayedList280<I>(capacity);
 	}
+
+	/**
+	 * Create a queue with no maximum capacity, whose array grows as needed.
+	 */
+	public ArrayedQueue280() {
+		queueItems = new ArrayedList280<I>();
+	}
 	
 	
 	public static void main(String args[]) {
@@ -164,6 +171,18 @@ public class ArrayedQueue280<I> extends Queue280<I> {
 		System.out.println("  Cloned queue should be identical:  " + Q);
 		if( Q.count() != 0 ) System.out.println("Expected count() to be 0, got: " + Q.count());
 
+		// A queue created without a capacity grows as needed.
+		Q = new ArrayedQueue280<Integer>();
+		for(int i = 0; i < 1000; i++) {
+			if( Q.isFull() ) System.out.println("ERROR: isFull() returned true for a growable queue.");
+			Q.insert(i);
+		}
+		for(int i = 0; i < 1000; i++) {
+			x = Q.item();
+			if( x != i ) System.out.println("ERROR: Queue head should be " + i + ", got: " + x);
+			Q.deleteItem();
+		}
+		if( !Q.isEmpty() ) System.out.println("ERROR: Expected empty queue, but isEmpty() returned false.");
 	}
 
 
@@ -29,6 +29,13 @@ public class ArrayedStack280<I> extends Stack280<I> {
 	public ArrayedStack280(int capacity) {
 		stackItems = new ArrayedList280<I>(capacity);
 	}
+
+	/**
+	 * Create a stack with no maximum capacity, whose array grows as needed.
+	 */
+	public ArrayedStack280() {
+		stackItems = new ArrayedList280<I>();
+	}
 	
 
 }
@@ -0,0 +1,155 @@
+package lib280.dispenser;
+
+import lib280.exception.ContainerEmpty280Exception;
+import lib280.exception.ContainerFull280Exception;
+import lib280.exception.NoCurrentItem280Exception;
+import lib280.list.DoubleArrayedList280;
+
+/**
+ * A first-in, first-out queue of double values, held in a DoubleArrayedList280 so
+ * that they are never boxed.  It has the same operations as
+ * ArrayedQueue280&lt;Double&gt;.
+ */
+public class DoubleArrayedQueue280 implements Cloneable {
+
+	protected DoubleArrayedList280 queueItems;
+
+	/**
+	 * Create a queue that can hold at most capacity items.
+	 */
+	public DoubleArrayedQueue280(int capacity) {
+		queueItems = new DoubleArrayedList280(capacity);
+	}
+
+	/**
+	 * Create a queue with no maximum capacity, whose array grows as needed.
+	 */
+	public DoubleArrayedQueue280() {
+		queueItems = new DoubleArrayedList280();
+	}
+
+	/**
+	 * Insert x at the back of the queue.
+	 * @throws ContainerFull280Exception if the queue has a fixed capacity and is full.
+	 */
+	public void insert(double x) throws ContainerFull280Exception {
+		queueItems.insertLast(x);
+	}
+
+	/**
+	 * The item at the front of the queue.
+	 * @throws NoCurrentItem280Exception if the queue is empty.
+	 */
+	public double item() throws NoCurrentItem280Exception {
+		try {
+			return queueItems.firstItem();
+		}
+		catch( ContainerEmpty280Exception e ) {
+			throw new NoCurrentItem280Exception("Tried to obtain item from empty queue.");
+		}
+	}
+
+	/**
+	 * Delete the item at the front of the queue.
+	 * @throws NoCurrentItem280Exception if the queue is empty.
+	 */
+	public void deleteItem() throws NoCurrentItem280Exception {
+		try {
+			queueItems.deleteFirst();
+		}
+		catch( ContainerEmpty280Exception e ) {
+			throw new NoCurrentItem280Exception("Tried to delete item from the head of an empty queue.");
+		}
+	}
+
+	public boolean itemExists() {
+		return !this.isEmpty();
+	}
+
+	public void clear() {
+		queueItems.clear();
+	}
+
+	public boolean isEmpty() {
+		return queueItems.isEmpty();
+	}
+
+	public boolean isFull() {
+		return queueItems.isFull();
+	}
+
+	/**
+	 * Obtain the maximum number of items that can be in the queue.
+	 * @return Maximum capacity of the queue.
+	 */
+	public int capacity() {
+		return queueItems.capacity();
+	}
+
+	/**
+	 * Number of items in the queue.
+	 * @return number of items in the queue.
+	 */
+	public int count() {
+		return queueItems.count();
+	}
+
+	@Override
+	public DoubleArrayedQueue280 clone() throws CloneNotSupportedException {
+		DoubleArrayedQueue280 c = (DoubleArrayedQueue280) super.clone();
+		c.queueItems = this.queueItems.clone();
+		return c;
+	}
+
+	@Override
+	public String toString() {
+		return "Queue starting with front item: " + queueItems;
+	}
+
+	public static void main(String args[]) {
+		DoubleArrayedQueue280 Q = new DoubleArrayedQueue280(3);
+		if( !Q.isEmpty() || Q.itemExists() ) System.out.println("Error: a new queue should be empty.");
+		try {
+			Q.item();
+			System.out.println("Error: item() on an empty queue should throw an exception.");
+		}
+		catch( NoCurrentItem280Exception e ) {
+		}
+		try {
+			Q.deleteItem();
+			System.out.println("Error: deleteItem() on an empty queue should throw an exception.");
+		}
+		catch( NoCurrentItem280Exception e ) {
+		}
+		Q.insert(11);
+		Q.insert(12);
+		Q.insert(13);
+		if( !Q.isFull() ) System.out.println("Error: queue should be full.");
+		try {
+			Q.insert(14);
+			System.out.println("Error: inserting into a full queue should throw an exception.");
+		}
+		catch( ContainerFull280Exception e ) {
+		}
+		for(int i = 11; i <= 13; i++) {
+			if( Q.item() != i ) System.out.println("Error: front of queue should be " + i + ", got: " + Q.item());
+			Q.deleteItem();
+		}
+		if( !Q.isEmpty() ) System.out.println("Error: queue should be empty.");
+
+		// A queue created without a capacity grows as needed, and wraps around its array.
+		Q = new DoubleArrayedQueue280();
+		int front = 0, back = 0;
+		for(int round = 0; round < 100; round++) {
+			for(int i = 0; i < 30; i++) Q.insert(back++);
+			for(int i = 0; i < 20; i++) {
+				if( Q.item() != front ) System.out.println("Error: front of queue should be " + front + ", got: " + Q.item());
+				Q.deleteItem();
+				front++;
+			}
+		}
+		if( Q.count() != back - front ) System.out.println("Error: count should be " + (back - front) + ", got: " + Q.count());
+
+		System.out.println("Regression test complete.");
+	}
+}
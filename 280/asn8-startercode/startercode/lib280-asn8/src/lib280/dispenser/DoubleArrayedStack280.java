@@ -0,0 +1,108 @@
+package lib280.dispenser;
+
+import lib280.exception.ContainerEmpty280Exception;
+import lib280.exception.ContainerFull280Exception;
+import lib280.exception.NoCurrentItem280Exception;
+import lib280.list.DoubleArrayedList280;
+
+/**
+ * A last-in, first-out stack of double values, held in a DoubleArrayedList280 so
+ * that they are never boxed.  It has the same operations as
+ * ArrayedStack280&lt;Double&gt;.
+ */
+public class DoubleArrayedStack280 implements Cloneable {
+
+	protected DoubleArrayedList280 stackItems;
+
+	/**
+	 * Create a stack that can hold at most capacity items.
+	 */
+	public DoubleArrayedStack280(int capacity) {
+		stackItems = new DoubleArrayedList280(capacity);
+	}
+
+	/**
+	 * Create a stack with no maximum capacity, whose array grows as needed.
+	 */
+	public DoubleArrayedStack280() {
+		stackItems = new DoubleArrayedList280();
+	}
+
+	/**
+	 * Push x onto the stack.
+	 * @throws ContainerFull280Exception if the stack has a fixed capacity and is full.
+	 */
+	public void insert(double x) throws ContainerFull280Exception {
+		stackItems.insertFirst(x);
+	}
+
+	/**
+	 * The item at the top of the stack.
+	 * @throws NoCurrentItem280Exception if the stack is empty.
+	 */
+	public double item() throws NoCurrentItem280Exception {
+		try {
+			return stackItems.firstItem();
+		}
+		catch( ContainerEmpty280Exception e ) {
+			throw new NoCurrentItem280Exception("Tried to obtain item from empty stack.");
+		}
+	}
+
+	/**
+	 * Pop the item at the top of the stack.
+	 * @throws NoCurrentItem280Exception if the stack is empty.
+	 */
+	public void deleteItem() throws NoCurrentItem280Exception {
+		try {
+			stackItems.deleteFirst();
+		}
+		catch( ContainerEmpty280Exception e ) {
+			throw new NoCurrentItem280Exception("Tried to delete item from the top of an empty stack.");
+		}
+	}
+
+	public boolean itemExists() {
+		return !this.isEmpty();
+	}
+
+	public void clear() {
+		stackItems.clear();
+	}
+
+	public boolean isEmpty() {
+		return stackItems.isEmpty();
+	}
+
+	public boolean isFull() {
+		return stackItems.isFull();
+	}
+
+	/**
+	 * Obtain the maximum number of items that can be in the stack.
+	 * @return Maximum capacity of the stack.
+	 */
+	public int capacity() {
+		return stackItems.capacity();
+	}
+
+	/**
+	 * Number of items in the stack.
+	 * @return number of items in the stack.
+	 */
+	public int count() {
+		return stackItems.count();
+	}
+
+	@Override
+	public DoubleArrayedStack280 clone() throws CloneNotSupportedException {
+		DoubleArrayedStack280 c = (DoubleArrayedStack280) super.clone();
+		c.stackItems = this.stackItems.clone();
+		return c;
+	}
+
+	@Override
+	public String toString() {
+		return "Stack starting with top item: " + stackItems;
+	}
+}
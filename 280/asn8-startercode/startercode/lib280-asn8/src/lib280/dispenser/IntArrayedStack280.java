@@ -0,0 +1,108 @@
+package lib280.dispenser;
+
+import lib280.exception.ContainerEmpty280Exception;
+import lib280.exception.ContainerFull280Exception;
+import lib280.exception.NoCurrentItem280Exception;
+import lib280.list.IntArrayedList280;
+
+/**
+ * A last-in, first-out stack of int values, held in an IntArrayedList280 so
+ * that they are never boxed.  It has the same operations as
+ * ArrayedStack280&lt;Integer&gt;.
+ */
+public class IntArrayedStack280 implements Cloneable {
+
+	protected IntArrayedList280 stackItems;
+
+	/**
+	 * Create a stack that can hold at most capacity items.
+	 */
+	public IntArrayedStack280(int capacity) {
+		stackItems = new IntArrayedList280(capacity);
+	}
+
+	/**
+	 * Create a stack with no maximum capacity, whose array grows as needed.
+	 */
+	public IntArrayedStack280() {
+		stackItems = new IntArrayedList280();
+	}
+
+	/**
+	 * Push x onto the stack.
+	 * @throws ContainerFull280Exception if the stack has a fixed capacity and is full.
+	 */
+	public void insert(int x) throws ContainerFull280Exception {
+		stackItems.insertFirst(x);
+	}
+
+	/**
+	 * The item at the top of the stack.
+	 * @throws NoCurrentItem280Exception if the stack is empty.
+	 */
+	public int item() throws NoCurrentItem280Exception {
+		try {
+			return stackItems.firstItem();
+		}
+		catch( ContainerEmpty280Exception e ) {
+			throw new NoCurrentItem280Exception("Tried to obtain item from empty stack.");
+		}
+	}
+
+	/**
+	 * Pop the item at the top of the stack.
+	 * @throws NoCurrentItem280Exception if the stack is empty.
+	 */
+	public void deleteItem() throws NoCurrentItem280Exception {
+		try {
+			stackItems.deleteFirst();
+		}
+		catch( ContainerEmpty280Exception e ) {
+			throw new NoCurrentItem280Exception("Tried to delete item from the top of an empty stack.");
+		}
+	}
+
+	public boolean itemExists() {
+		return !this.isEmpty();
+	}
+
+	public void clear() {
+		stackItems.clear();
+	}
+
+	public boolean isEmpty() {
+		return stackItems.isEmpty();
+	}
+
+	public boolean isFull() {
+		return stackItems.isFull();
+	}
+
+	/**
+	 * Obtain the maximum number of items that can be in the stack.
+	 * @return Maximum capacity of the stack.
+	 */
+	public int capacity() {
+		return stackItems.capacity();
+	}
+
+	/**
+	 * Number of items in the stack.
+	 * @return number of items in the stack.
+	 */
+	public int count() {
+		return stackItems.count();
+	}
+
+	@Override
+	public IntArrayedStack280 clone() throws CloneNotSupportedException {
+		IntArrayedStack280 c = (IntArrayedStack280) super.clone();
+		c.stackItems = this.stackItems.clone();
+		return c;
+	}
+
+	@Override
+	public String toString() {
+		return "Stack starting with top item: " + stackItems;
+	}
+}
@@ -0,0 +1,34 @@
+/* Storage280Exception.java
+ * ---------------------------------------------
+ * Copyright (c) 2004 University of Saskatchewan
+ * All Rights Reserved
+ * --------------------------------------------- */
+
+package lib280.exception;
+
+/**	An exception for a failure reading or writing the file that holds a
+	disk-backed container.  The underlying I/O exception, if any, is the cause. */
+public class Storage280Exception extends Exception280
+{
+	/**	Create an exception with the specified message. <br>
+		Analysis: Time = O(1) */
+	public Storage280Exception(String message)
+	{
+		super(message);
+	}
+
+	/**	Create an exception with the specified message and cause. <br>
+		Analysis: Time = O(1) */
+	public Storage280Exception(String message, Throwable cause)
+	{
+		super(message);
+		initCause(cause);
+	}
+
+	/**	Create an exception with the default message. <br>
+		Analysis: Time = O(1) */
+	public Storage280Exception()
+	{
+		super("Storage280Exception thrown!");
+	}
+}
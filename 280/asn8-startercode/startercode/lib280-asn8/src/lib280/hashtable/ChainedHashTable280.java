@@ -8,12 +8,14 @@ package lib280.hashtable;
 
 import lib280.base.CursorPosition280;
 import lib280.dictionary.HashTable280;
+import lib280.dictionary.IdentityHasher280;
 import lib280.exception.AfterTheEnd280Exception;
 import lib280.exception.InvalidArgument280Exception;
 import lib280.exception.ItemNotFound280Exception;
 import lib280.exception.NoCurrentItem280Exception;
 import lib280.list.LinkedIterator280;
 import lib280.list.LinkedList280;
+import lib280.list.LinkedNode280;
 
 /**	A HashTable dictionary that uses chaining.  Items can be 
 	inserted, deleted, obtained, and searched for by hashValue.  
@@ -112,18 +114,28 @@ public class ChainedHashTable280<I> extends HashTable280<I>
 		return itemListLocation.item();
 	}
   
+	/**
+	 * The item in the table matching y, or null if there is none.  The chain
+	 * of y is walked directly, so the cursor is neither used nor saved and
+	 * nothing is allocated.
+	 * @timing O(1) expected
+	 * @param y item being sought
+	 */
+	protected I find(I y)
+	{
+		LinkedList280<I> chain = hashArray[hashPos(y)];
+		if (chain == null || chain.isEmpty())
+			return null;
+		for (LinkedNode280<I> node = chain.firstNode(); node != null; node = node.nextNode())
+			if (membershipEquals(y, node.item()))
+				return node.item();
+		return null;
+	}
+
 	@Override
 	public boolean has(I y)
 	{
-		LinkedIterator280<I> saveListLocation;
-		if(itemListLocation != null)
-			saveListLocation = itemListLocation.clone();
-		else
-			saveListLocation = null;
-		search(y);
-		boolean result = itemExists();
-		itemListLocation = saveListLocation;
-		return result;
+		return find(y) != null;
 	}
   
 	@Override
@@ -183,10 +195,11 @@ public class ChainedHashTable280<I> extends HashTable280<I>
 	@Override
 	public I obtain(I y) throws ItemNotFound280Exception
 	{
-		if (!has(y))
+		I result = find(y);
+		if (result == null)
 			throw new ItemNotFound280Exception("Cannot return an item that does not exist");
 	
-		return hashArray[hashPos(y)].obtain(y);
+		return result;
 	}
 
 	@Override
@@ -288,6 +301,40 @@ public class ChainedHashTable280<I> extends HashTable280<I>
 			itemListLocation = null;
 	}
 
+	/**	
+	 * Drop the empty chains that deletes and searches leave behind, so that
+	 * the table only holds chain objects for buckets that have items.  This
+	 * table never changes size, so its hash array is kept.
+	 * @timing O(capacity())
+	 */
+	public void compact()
+	{
+		for (int i=0; i<capacity(); i++)
+			if (hashArray[i] != null && hashArray[i].isEmpty())
+				hashArray[i] = null;
+		itemListLocation = null;
+	}
+
+	/**	
+	 * The distribution of chain lengths: element i of the result is the
+	 * number of buckets holding exactly i items.  The last element is non-zero
+	 * unless the table is empty.
+	 * @timing O(capacity() + count())
+	 */
+	public int[] chainLengthHistogram()
+	{
+		int[] histogram = new int[1];
+		for (int i=0; i<capacity(); i++)
+		{
+			int length = 0;
+			if (hashArray[i] != null && !hashArray[i].isEmpty())
+				for (LinkedNode280<I> node = hashArray[i].firstNode(); node != null; node = node.nextNode())
+					length++;
+			histogram = countInHistogram(histogram, length);
+		}
+		return trimHistogram(histogram);
+	}
+
     @Override
 	public String toString()
 	{
@@ -311,6 +358,8 @@ public class ChainedHashTable280<I> extends HashTable280<I>
 		
 		
 		ChainedHashTable280<Double> H = new ChainedHashTable280<Double>(10);
+		// The cursor tests below expect items in the order hashCode() alone puts them.
+		H.setHasher(new IdentityHasher280());
 		
 		// Test isEmpty on empty table
 		if(!H.isEmpty()) System.out.println("Error: hash table is empty but isEmpty() says otherwise.");
@@ -347,6 +396,38 @@ public class ChainedHashTable280<I> extends HashTable280<I>
 			System.out.println("Error: cursor should be on 19.0 but it isn't!");
 
 
+		// Test has() and obtain(): they must not move the cursor.
+		if(!H.has(99.0)) System.out.println("Error: has(99.0) should be true.");
+		if(H.has(98.0)) System.out.println("Error: has(98.0) should be false.");
+		if(H.obtain(99.0) != 99.0) System.out.println("Error: obtain(99.0) should return 99.0.");
+		try {
+			H.obtain(98.0);
+			System.out.println("Error: expected exception from obtain(98.0), got none.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+		if(!H.itemExists() || H.item() != 19.0)
+			System.out.println("Error: has() and obtain() should not move the cursor, but it is no longer on 19.0.");
+
+		// Test chainLengthHistogram(): 3 items in 10 buckets.
+		int[] histogram = H.chainLengthHistogram();
+		int buckets = 0, items = 0;
+		for (int i = 0; i < histogram.length; i++) {
+			buckets += histogram[i];
+			items += i * histogram[i];
+		}
+		if (buckets != 10 || items != 3)
+			System.out.println("Error: chain length histogram should cover 10 buckets and 3 items, but covers " + buckets + " and " + items + ".");
+
+		// Test compact(): empty chains are dropped, items are kept.
+		H.search(100.0);
+		H.compact();
+		for (int i = 0; i < H.capacity(); i++)
+			if (H.hashArray[i] != null && H.hashArray[i].isEmpty())
+				System.out.println("Error: compact() left an empty chain in bucket " + i);
+		if (H.count() != 3 || !H.has(19.0))
+			System.out.println("Error: compact() should keep every item.");
+
 		// Needs more regression testing!
 		
 		// Use iterators to print the items forward and backward.
@@ -0,0 +1,730 @@
+package lib280.hashtable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import lib280.base.CursorPosition280;
+import lib280.base.Keyed280;
+import lib280.base.Pair280;
+import lib280.dictionary.HashTable280;
+import lib280.dictionary.KeyedDict280;
+import lib280.exception.*;
+
+/**	A keyed, separately chained hash table that can be shared between threads.
+
+	Reads (has, obtain, get, search and the cursor movements) take no locks.
+	Chains are made of nodes whose links never change once published: an
+	insert publishes a new head node, and a delete publishes a copy of the
+	nodes in front of the deleted one, so a reader always walks a consistent
+	chain.  Writes to a bucket are serialized by one of a fixed set of stripe
+	locks, so writers to different buckets rarely contend.  Growing the table
+	takes every stripe lock, builds a new bucket array and publishes it.
+
+	Every thread has its own cursor (and its own restartSearches() /
+	resumeSearches() setting), so the KeyedDict280 cursor API can be used by
+	many threads at once.  A cursor iterates over the bucket array it started
+	in and is weakly consistent: it sees every item that was in the table
+	when it started and was not since deleted, and may or may not see
+	changes made while it moves. */
+public class ConcurrentKeyedChainedHashTable280<K extends Comparable<? super K>, I extends Keyed280<K>> extends HashTable280<I> implements
+		KeyedDict280<K, I> {
+
+	/**	A chain node.  The key, hash and link are fixed; only the item can be replaced by set(). */
+	protected static class Node<K, I> {
+		final int hash;
+		final K key;
+		volatile I item;
+		final Node<K, I> next;
+
+		Node(int hash, K key, I item, Node<K, I> next) {
+			this.hash = hash;
+			this.key = key;
+			this.item = item;
+			this.next = next;
+		}
+	}
+
+	/**	The cursor of one thread. */
+	protected static class Cursor<K, I> implements CursorPosition280 {
+		/** Bucket array the cursor is iterating over. */
+		AtomicReferenceArray<Node<K, I>> table;
+		/** Bucket of the current node; -1 is before and table.length() is after. */
+		int bucket;
+		/** Current node, or null if the cursor is before or after. */
+		Node<K, I> node;
+		/** Should searches continue from the current item? */
+		boolean searchesContinue;
+
+		Cursor<K, I> copy() {
+			Cursor<K, I> c = new Cursor<K, I>();
+			c.table = this.table;
+			c.bucket = this.bucket;
+			c.node = this.node;
+			c.searchesContinue = this.searchesContinue;
+			return c;
+		}
+	}
+
+	/**	Array of chain heads; always a power of two in length.  Replaced as a whole when the table grows. */
+	protected volatile AtomicReferenceArray<Node<K, I>> table;
+
+	/**	Locks serializing writes; bucket i is guarded by locks[i % locks.length]. */
+	protected final Object[] locks;
+
+	/**	Number of items, kept atomically instead of in count. */
+	protected final AtomicInteger size;
+
+	/**	The cursor of each thread. */
+	protected final ThreadLocal<Cursor<K, I>> cursors;
+
+	/** Default maximum load factor. */
+	protected static final double defaultMaxLoadFactor = 1.5;
+
+	/** Starting size of the hash table. */
+	protected static final int defaultHashArrayLength = 32;
+
+	/** Default number of stripe locks. */
+	protected static final int defaultNumLocks = 32;
+
+	/** Actual maximum load factor for this instance */
+	protected double maxLoadFactor;
+
+	/**
+	 * Create an empty table with the default size and number of locks.
+	 * @timing O(1)
+	 */
+	public ConcurrentKeyedChainedHashTable280() {
+		this(defaultHashArrayLength, defaultNumLocks);
+	}
+
+	/**
+	 * Create an empty table.
+	 * @timing O(newSize + numLocks)
+	 * @param newSize minimum number of buckets; it is rounded up to a power of two
+	 * @param numLocks number of stripe locks; more locks let more writers proceed at once
+	 */
+	public ConcurrentKeyedChainedHashTable280(int newSize, int numLocks) {
+		if( newSize < 1 || numLocks < 1 )
+			throw new InvalidArgument280Exception("The size and number of locks of a hash table must be at least 1.");
+		int length = 1;
+		while( length < newSize )
+			length = length << 1;
+		this.table = new AtomicReferenceArray<Node<K, I>>(length);
+		this.locks = new Object[numLocks];
+		for(int i = 0; i < numLocks; i++)
+			this.locks[i] = new Object();
+		this.size = new AtomicInteger(0);
+		this.maxLoadFactor = defaultMaxLoadFactor;
+		this.cursors = new ThreadLocal<Cursor<K, I>>() {
+			@Override
+			protected Cursor<K, I> initialValue() {
+				Cursor<K, I> c = new Cursor<K, I>();
+				c.table = ConcurrentKeyedChainedHashTable280.this.table;
+				c.bucket = -1;
+				return c;
+			}
+		};
+	}
+
+	/**
+	 * Hash code of key k from the table's hasher, made non-negative.
+	 * @timing O(1)
+	 */
+	protected int hash(Object k) {
+		return this.hasher.hash(k) & 0x7fffffff;
+	}
+
+	/**
+	 * The node with key k in the chain starting at n, or null.
+	 * @timing O(length of the chain)
+	 */
+	protected static <K, I> Node<K, I> findInChain(Node<K, I> n, int hash, Object k) {
+		while( n != null && (n.hash != hash || !k.equals(n.key)) )
+			n = n.next;
+		return n;
+	}
+
+	/**
+	 * The node with key k in the current table, or null.  Takes no locks.
+	 * @timing O(1) expected
+	 */
+	protected Node<K, I> findNode(K k) {
+		AtomicReferenceArray<Node<K, I>> tab = this.table;
+		int hash = this.hash(k);
+		return findInChain(tab.get(hash & (tab.length() - 1)), hash, k);
+	}
+
+	/**
+	 * The cursor of the calling thread.
+	 * @timing O(1)
+	 */
+	protected Cursor<K, I> cursor() {
+		return this.cursors.get();
+	}
+
+	/**
+	 * Double the number of buckets, unless another thread has already
+	 * replaced oldTable.  All stripe locks are held while the new bucket
+	 * array is built, so no write is lost; readers keep using the old array
+	 * until the new one is published.
+	 * @timing O(capacity())
+	 * @param oldTable the bucket array that was found to be too full
+	 */
+	protected void expandHashArray(AtomicReferenceArray<Node<K, I>> oldTable) {
+		this.lockAllAndRun(oldTable, new Runnable() {
+			public void run() {
+				AtomicReferenceArray<Node<K, I>> tab = ConcurrentKeyedChainedHashTable280.this.table;
+				AtomicReferenceArray<Node<K, I>> newTable = new AtomicReferenceArray<Node<K, I>>(tab.length() * 2);
+				int mask = newTable.length() - 1;
+				for(int i = 0; i < tab.length(); i++) {
+					for(Node<K, I> n = tab.get(i); n != null; n = n.next) {
+						int j = n.hash & mask;
+						newTable.set(j, new Node<K, I>(n.hash, n.key, n.item, newTable.get(j)));
+					}
+				}
+				ConcurrentKeyedChainedHashTable280.this.table = newTable;
+			}
+		});
+	}
+
+	/**
+	 * Run action while holding every stripe lock, if the table is still
+	 * expected (or always, if expected is null).
+	 * @timing O(number of locks) plus the time of action
+	 */
+	protected void lockAllAndRun(AtomicReferenceArray<Node<K, I>> expected, Runnable action) {
+		this.lockAllAndRun(0, expected, action);
+	}
+
+	/** Take locks i, i+1, ... in order, then run action. */
+	private void lockAllAndRun(int i, AtomicReferenceArray<Node<K, I>> expected, Runnable action) {
+		if( i == this.locks.length ) {
+			if( expected == null || expected == this.table )
+				action.run();
+			return;
+		}
+		synchronized(this.locks[i]) {
+			this.lockAllAndRun(i + 1, expected, action);
+		}
+	}
+
+	@Override
+	public void insert(I x) throws ContainerFull280Exception,
+			DuplicateItems280Exception {
+		K k = x.key();
+		int hash = this.hash(k);
+		AtomicReferenceArray<Node<K, I>> tab;
+		while( true ) {
+			tab = this.table;
+			int i = hash & (tab.length() - 1);
+			synchronized(this.locks[i % this.locks.length]) {
+				// If the table grew while we waited for the lock, start over.
+				if( tab != this.table ) continue;
+				Node<K, I> head = tab.get(i);
+				if( findInChain(head, hash, k) != null )
+					throw new DuplicateItems280Exception("Error: table already has an item with key " + k);
+				tab.set(i, new Node<K, I>(hash, k, x, head));
+			}
+			break;
+		}
+		if( (double) this.size.incrementAndGet() / tab.length() > this.maxLoadFactor )
+			this.expandHashArray(tab);
+	}
+
+	@Override
+	public void set(I x) throws ItemNotFound280Exception {
+		K k = x.key();
+		int hash = this.hash(k);
+		while( true ) {
+			AtomicReferenceArray<Node<K, I>> tab = this.table;
+			int i = hash & (tab.length() - 1);
+			synchronized(this.locks[i % this.locks.length]) {
+				if( tab != this.table ) continue;
+				Node<K, I> n = findInChain(tab.get(i), hash, k);
+				if( n == null )
+					throw new ItemNotFound280Exception("No item with key x.key() was found in the table.");
+				n.item = x;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * The item with key k, or null if there is none.  Takes no locks and does
+	 * not use the cursor.
+	 * @timing O(1) expected
+	 * @param k key being sought
+	 */
+	public I get(K k) {
+		Node<K, I> n = this.findNode(k);
+		return n == null ? null : n.item;
+	}
+
+	@Override
+	public boolean has(K k) {
+		return this.findNode(k) != null;
+	}
+
+	@Override
+	public I obtain(K k) throws ItemNotFound280Exception {
+		Node<K, I> n = this.findNode(k);
+		if( n == null )
+			throw new ItemNotFound280Exception("No item with the specified key exists in the table.");
+		return n.item;
+	}
+
+	@Override
+	public void delete(K k) throws ItemNotFound280Exception {
+		int hash = this.hash(k);
+		while( true ) {
+			AtomicReferenceArray<Node<K, I>> tab = this.table;
+			int i = hash & (tab.length() - 1);
+			synchronized(this.locks[i % this.locks.length]) {
+				if( tab != this.table ) continue;
+				Node<K, I> head = tab.get(i);
+				Node<K, I> target = findInChain(head, hash, k);
+				if( target == null )
+					throw new ItemNotFound280Exception("No item with key k was found in the table.");
+
+				// Copy the nodes in front of the target onto the nodes after it.
+				Node<K, I> newHead = target.next;
+				for(Node<K, I> n = head; n != target; n = n.next)
+					newHead = new Node<K, I>(n.hash, n.key, n.item, newHead);
+				tab.set(i, newHead);
+				this.size.decrementAndGet();
+				return;
+			}
+		}
+	}
+
+	@Override
+	public int count() {
+		return this.size.get();
+	}
+
+	@Override
+	public double loadFactor() {
+		return ((double) this.size.get()) / this.capacity();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size.get() == 0;
+	}
+
+	@Override
+	public int capacity() {
+		return this.table.length();
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		this.lockAllAndRun(null, new Runnable() {
+			public void run() {
+				ConcurrentKeyedChainedHashTable280.this.table = new AtomicReferenceArray<Node<K, I>>(
+						ConcurrentKeyedChainedHashTable280.this.table.length());
+				ConcurrentKeyedChainedHashTable280.this.size.set(0);
+			}
+		});
+		this.goBefore();
+	}
+
+	/**	The calling thread's searches start from the first position. */
+	@Override
+	public void restartSearches() {
+		this.cursor().searchesContinue = false;
+	}
+
+	/**	The calling thread's searches continue from its current position. */
+	@Override
+	public void resumeSearches() {
+		this.cursor().searchesContinue = true;
+	}
+
+	/**
+	 * Move the calling thread's cursor to the first node at or after node n
+	 * of bucket b in its table, or after if there is none.
+	 * @timing O(capacity()) worst case
+	 */
+	protected void advance(Cursor<K, I> c, int b, Node<K, I> n) {
+		while( n == null && ++b < c.table.length() )
+			n = c.table.get(b);
+		c.bucket = (n == null) ? c.table.length() : b;
+		c.node = n;
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		Cursor<K, I> c = this.cursor();
+		if( c.node == null )
+			throw new NoCurrentItem280Exception("Cannot return an item that does not exist.");
+		return c.node.item;
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.cursor().node != null;
+	}
+
+	@Override
+	public K itemKey() throws NoCurrentItem280Exception {
+		Cursor<K, I> c = this.cursor();
+		if( c.node == null )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return c.node.key;
+	}
+
+	@Override
+	public Pair280<K, I> keyItemPair() throws NoCurrentItem280Exception {
+		Cursor<K, I> c = this.cursor();
+		if( c.node == null )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return new Pair280<K, I>(c.node.key, c.node.item);
+	}
+
+	@Override
+	public boolean before() {
+		return this.cursor().bucket < 0;
+	}
+
+	@Override
+	public boolean after() {
+		Cursor<K, I> c = this.cursor();
+		return c.node == null && c.bucket >= 0;
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		Cursor<K, I> c = this.cursor();
+		c.table = this.table;
+		this.advance(c, 0, c.table.get(0));
+	}
+
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		Cursor<K, I> c = this.cursor();
+		if( c.node == null && c.bucket >= 0 )
+			throw new AfterTheEnd280Exception("Cannot goForth() when at the end of the table");
+		if( c.node == null )
+			this.goFirst();
+		else
+			this.advance(c, c.bucket, c.node.next);
+	}
+
+	@Override
+	public void goBefore() {
+		Cursor<K, I> c = this.cursor();
+		c.table = this.table;
+		c.bucket = -1;
+		c.node = null;
+	}
+
+	@Override
+	public void goAfter() {
+		Cursor<K, I> c = this.cursor();
+		c.bucket = c.table.length();
+		c.node = null;
+	}
+
+	@Override
+	public CursorPosition280 currentPosition() {
+		return this.cursor().copy();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void goPosition(CursorPosition280 pos) {
+		if( !(pos instanceof Cursor) )
+			throw new InvalidArgument280Exception("The cursor position parameter"
+					+ " must be a position of a ConcurrentKeyedChainedHashTable280");
+		Cursor<K, I> saved = (Cursor<K, I>) pos;
+		Cursor<K, I> c = this.cursor();
+		c.table = saved.table;
+		c.bucket = saved.bucket;
+		c.node = saved.node;
+	}
+
+	@Override
+	public void search(K k) {
+		Cursor<K, I> c = this.cursor();
+		// Keys are unique, so a continued search cannot find another item with key k.
+		if( c.searchesContinue && c.node != null && k.equals(c.node.key) ) {
+			this.goAfter();
+			return;
+		}
+		c.table = this.table;
+		int hash = this.hash(k);
+		int i = hash & (c.table.length() - 1);
+		Node<K, I> n = findInChain(c.table.get(i), hash, k);
+		c.bucket = (n == null) ? c.table.length() : i;
+		c.node = n;
+	}
+
+	/**
+	 * Searches the table for the first item, in bucket order, with key at
+	 * least as large as k.  Searching begins from the first bucket, or the
+	 * item after the current one if searches have been set to continue.
+	 * @timing O(capacity() + count())
+	 * @param k The key value -- search will find items with key at least as large as k.
+	 */
+	@Override
+	public void searchCeilingOf(K k) {
+		Cursor<K, I> c = this.cursor();
+		if( c.searchesContinue && c.node != null )
+			this.advance(c, c.bucket, c.node.next);
+		else
+			this.goFirst();
+		while( c.node != null && c.node.key.compareTo(k) < 0 )
+			this.advance(c, c.bucket, c.node.next);
+	}
+
+	/**
+	 * Delete the current item of the calling thread's cursor and move the
+	 * cursor to the next item.
+	 * @precond itemExists()
+	 * @throws NoCurrentItem280Exception if there is no current item.
+	 */
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		Cursor<K, I> c = this.cursor();
+		if( c.node == null )
+			throw new NoCurrentItem280Exception("There is no current item to delete.");
+		Node<K, I> current = c.node;
+		this.delete(current.key);
+		this.advance(c, c.bucket, current.next);
+	}
+
+	@Override
+	public void setItem(I x) throws NoCurrentItem280Exception,
+			InvalidArgument280Exception {
+		Cursor<K, I> c = this.cursor();
+		if( c.node == null )
+			throw new NoCurrentItem280Exception("There is no current item to replace.");
+		if( x.key().compareTo(c.node.key) != 0 )
+			throw new InvalidArgument280Exception("The current item's key does not match that of x.");
+		this.set(x);
+	}
+
+	/**
+	 * Obtain the object matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @precond y is in the hash table
+	 * @throws ItemNotFound280Exception if y is not in the hash table.
+	 * @return The matching object in the hash table if it exists.
+	 */
+	public I obtain(I y) throws ItemNotFound280Exception {
+		I existingItem = this.get(y.key());
+		if( existingItem == null || !this.membershipEquals(existingItem, y) )
+			throw new ItemNotFound280Exception("The table has no item matching " + y);
+		return existingItem;
+	}
+
+	/**
+	 * Delete the object matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @precond y is in the hash table
+	 * @throws ItemNotFound280Exception if y is not in the hash table.
+	 */
+	public void delete(I y) throws ItemNotFound280Exception {
+		this.obtain(y);
+		this.delete(y.key());
+	}
+
+	/**
+	 * Determine if there is an item matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @return true if y is in the hash table, false otherwise.
+	 */
+	public boolean has(I y) {
+		I existingItem = this.get(y.key());
+		return existingItem != null && this.membershipEquals(existingItem, y);
+	}
+
+	/**
+	 * Place the calling thread's cursor on the item in the hash table that
+	 * matches y, or after if there is none.
+	 */
+	public void search(I y) {
+		this.search(y.key());
+		if( this.itemExists() && !this.membershipEquals(this.item(), y) )
+			this.goAfter();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean membershipEquals(I x, I y) {
+		if ((x instanceof Comparable) && (y instanceof Comparable))
+			return  0 == ((Comparable<I>) x).compareTo(y);
+		else
+			return x.equals(y);
+	}
+
+	/**
+	 * The distribution of chain lengths: element i of the result is the
+	 * number of buckets holding exactly i items.  The last element is non-zero
+	 * unless the table is empty.  Other threads may change the table while
+	 * the chains are counted.
+	 * @timing O(capacity() + count())
+	 */
+	public int[] chainLengthHistogram() {
+		AtomicReferenceArray<Node<K, I>> tab = this.table;
+		int[] histogram = new int[1];
+		for(int i = 0; i < tab.length(); i++) {
+			int length = 0;
+			for(Node<K, I> n = tab.get(i); n != null; n = n.next)
+				length++;
+			histogram = countInHistogram(histogram, length);
+		}
+		return trimHistogram(histogram);
+	}
+
+	@Override
+	public int frequency(I i) {
+		return this.has(i) ? 1 : 0;
+	}
+
+	@Override
+	public String toString() {
+		AtomicReferenceArray<Node<K, I>> tab = this.table;
+		String result = "";
+		for (int i = 0; i < tab.length(); i++) {
+			if (tab.get(i) != null) {
+				result += "\n" + i + ":";
+				for (Node<K, I> n = tab.get(i); n != null; n = n.next)
+					result += " " + n.item;
+			}
+		}
+		return result;
+	}
+
+	public static void main(String args[]) throws InterruptedException {
+
+		class Quest implements Keyed280<Integer> {
+			Integer id;
+			int stage;
+
+			public Quest(int id, int stage) {
+				this.id = id;
+				this.stage = stage;
+			}
+			public Integer key() { return id; }
+
+			public String toString() {
+				return id + ":" + stage;
+			}
+		}
+
+		final ConcurrentKeyedChainedHashTable280<Integer, Quest> H = new ConcurrentKeyedChainedHashTable280<Integer, Quest>(4, 4);
+
+		// Single threaded tests of the dictionary and cursor.
+		for(int i = 0; i < 100; i++)
+			H.insert(new Quest(i, 0));
+		if( H.count() != 100 ) System.out.println("Error: table should have 100 items but has " + H.count());
+		if( H.capacity() <= 4 ) System.out.println("Error: table should have grown but has capacity " + H.capacity());
+		try {
+			H.insert(new Quest(5, 0));
+			System.out.println("Error: expected duplicate items exception when inserting a duplicate item, but got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+			// Expected, do nothing.
+		}
+		H.set(new Quest(5, 3));
+		if( H.obtain(5).stage != 3 ) System.out.println("Error: set() should have changed the stage of quest 5 to 3.");
+		try {
+			H.set(new Quest(500, 3));
+			System.out.println("Error: expected exception when setting an item that is not in the table.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+		H.delete(7);
+		if( H.has(7) || H.count() != 99 ) System.out.println("Error: quest 7 should have been deleted.");
+		try {
+			H.delete(7);
+			System.out.println("Error: expected exception when deleting quest 7 twice.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+
+		H.search(42);
+		if( !H.itemExists() || H.itemKey() != 42 ) System.out.println("Error: search(42) should find quest 42.");
+		H.setItem(new Quest(42, 9));
+		if( H.item().stage != 9 ) System.out.println("Error: setItem() should have replaced the current item.");
+		H.deleteItem();
+		if( H.has(42) ) System.out.println("Error: deleteItem() should have deleted quest 42.");
+		H.search(42);
+		if( H.itemExists() ) System.out.println("Error: search(42) should fail after quest 42 was deleted.");
+
+		H.searchCeilingOf(98);
+		if( !H.itemExists() || H.itemKey() < 98 ) System.out.println("Error: searchCeilingOf(98) should find a key >= 98.");
+
+		int n = 0;
+		H.goFirst();
+		while( H.itemExists() ) {
+			n++;
+			H.goForth();
+		}
+		if( n != 98 ) System.out.println("Error: iteration should visit 98 items but visited " + n);
+		if( !H.after() ) System.out.println("Error: cursor should be after the last item.");
+
+		// Each thread has its own cursor.
+		H.search(10);
+		Thread other = new Thread() {
+			public void run() {
+				if( H.itemExists() ) System.out.println("Error: a new thread's cursor should not be on an item.");
+				H.search(20);
+			}
+		};
+		other.start();
+		other.join();
+		if( !H.itemExists() || H.itemKey() != 10 ) System.out.println("Error: another thread's search moved this thread's cursor.");
+
+		// Concurrent writers on disjoint key ranges with concurrent readers.
+		final ConcurrentKeyedChainedHashTable280<Integer, Quest> C = new ConcurrentKeyedChainedHashTable280<Integer, Quest>();
+		final int perThread = 20000;
+		Thread[] threads = new Thread[8];
+		for(int t = 0; t < threads.length; t++) {
+			final int base = t * perThread;
+			final boolean writer = t < 4;
+			threads[t] = new Thread() {
+				public void run() {
+					if( writer ) {
+						for(int i = 0; i < perThread; i++)
+							C.insert(new Quest(base + i, 0));
+						for(int i = 0; i < perThread; i += 2)
+							C.delete(base + i);
+					}
+					else {
+						// Readers only ever see quests with non-negative ids and count their iterations.
+						for(int r = 0; r < 20; r++) {
+							C.goFirst();
+							while( C.itemExists() ) {
+								if( C.item().id < 0 ) System.out.println("Error: reader saw a corrupt item.");
+								C.goForth();
+							}
+						}
+					}
+				}
+			};
+		}
+		for(Thread t : threads) t.start();
+		for(Thread t : threads) t.join();
+		if( C.count() != 4 * perThread / 2 )
+			System.out.println("Error: table should have " + (4 * perThread / 2) + " items but has " + C.count());
+		for(int i = 0; i < 4 * perThread; i++)
+			if( C.has(i) != (i % 2 == 1) )
+				System.out.println("Error: has(" + i + ") is wrong after the concurrent inserts and deletes.");
+
+		System.out.println("Regression test complete.");
+	}
+}
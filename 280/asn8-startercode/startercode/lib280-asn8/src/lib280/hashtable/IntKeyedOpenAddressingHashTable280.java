@@ -0,0 +1,280 @@
+package lib280.hashtable;
+
+import lib280.base.IntKeyed280;
+import lib280.dictionary.MixingHasher280;
+import lib280.exception.*;
+
+/**	An open addressing hash table specialized for items with int keys.  The
+	keys are kept unboxed in an int array parallel to the items, and
+	has/obtain/delete/search have int overloads, so lookups neither box nor
+	dereference the items.  The boxed KeyedDict280 methods still work, so
+	the table can be used anywhere a KeyedDict280&lt;Integer, I&gt; is. */
+public class IntKeyedOpenAddressingHashTable280<I extends IntKeyed280> extends KeyedOpenAddressingHashTable280<Integer, I> {
+
+	/**	Keys of the items, parallel to items.  intKeys[i] is only meaningful if items[i] != null. */
+	protected int[] intKeys;
+
+	/**
+	 * Create an empty table with the default starting size.
+	 * @timing O(1)
+	 */
+	public IntKeyedOpenAddressingHashTable280() {
+		super();
+	}
+
+	/**
+	 * Create an empty table with room for at least newSize slots.
+	 * @timing O(newSize)
+	 * @param newSize minimum number of slots; it is rounded up to a power of two
+	 */
+	public IntKeyedOpenAddressingHashTable280(int newSize) {
+		super(newSize);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	protected void allocate(int length) {
+		this.intKeys = new int[length];
+		this.items = (I[]) new IntKeyed280[length];
+	}
+
+	/**
+	 * Hash code of an int key.  Primitive keys never go through the table's
+	 * hasher, so they are always mixed with MixingHasher280.mix().
+	 * @timing O(1)
+	 */
+	protected static int hash(int k) {
+		return MixingHasher280.mix(k);
+	}
+
+	@Override
+	protected int hashOfItem(I x) {
+		return hash(x.intKey());
+	}
+
+	@Override
+	protected int hashOfSlot(int slot) {
+		return hash(this.intKeys[slot]);
+	}
+
+	@Override
+	protected void storeSlot(int slot, I x) {
+		this.intKeys[slot] = x.intKey();
+		this.items[slot] = x;
+	}
+
+	@Override
+	protected void moveSlot(int from, int to) {
+		this.intKeys[to] = this.intKeys[from];
+		this.items[to] = this.items[from];
+	}
+
+	@Override
+	protected void clearSlot(int slot) {
+		this.items[slot] = null;
+	}
+
+	/**
+	 * The slot holding the item with key k, or -1 if there is none.
+	 * @timing O(1) expected
+	 * @param k key being sought
+	 */
+	protected int find(int k) {
+		int mask = this.items.length - 1;
+		int home = this.homeSlot(hash(k));
+		for(int i = home; this.items[i] != null; i = (i + 1) & mask)
+			if( this.intKeys[i] == k ) {
+				if( this.recorder != null ) this.recordFind(home, i);
+				return i;
+			}
+		if( this.recorder != null ) this.recordFind(home, -1);
+		return -1;
+	}
+
+	@Override
+	protected int find(Integer k) {
+		return this.find(k.intValue());
+	}
+
+	@Override
+	protected int probe(I x) {
+		int k = x.intKey();
+		int mask = this.items.length - 1;
+		int i = this.homeSlot(hash(k));
+		while( this.items[i] != null && this.intKeys[i] != k )
+			i = (i + 1) & mask;
+		return i;
+	}
+
+	/**
+	 * Does the table contain an item with key k?
+	 * @timing O(1) expected
+	 * @param k key whose presence is to be determined
+	 */
+	public boolean has(int k) {
+		return this.find(k) >= 0;
+	}
+
+	/**
+	 * The item with key k.
+	 * @precond has(k)
+	 * @throws ItemNotFound280Exception if there is no item with key k.
+	 * @timing O(1) expected
+	 * @param k key of the item to be obtained
+	 */
+	public I obtain(int k) throws ItemNotFound280Exception {
+		int slot = this.find(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with the specified key exists in the table.");
+		return this.items[slot];
+	}
+
+	/**
+	 * Delete the item with key k.
+	 * @precond has(k)
+	 * @throws ItemNotFound280Exception if there is no item with key k.
+	 * @timing O(1) expected
+	 * @param k the key of the item to be deleted
+	 */
+	public void delete(int k) throws ItemNotFound280Exception {
+		int slot = this.find(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with key k was found in the table.");
+		this.deleteSlot(slot);
+	}
+
+	/**
+	 * Move to the item with key k or else set to !itemExists.
+	 * @timing O(1) expected
+	 * @param k key being sought
+	 */
+	public void search(int k) {
+		this.moveTo(this.find(k));
+	}
+
+	/**
+	 * Move to the first item, in slot order, with key at least as large as k.
+	 * @timing O(capacity())
+	 * @param k key being sought
+	 */
+	public void searchCeilingOf(int k) {
+		int i = this.startOfScan();
+		while( i < this.items.length && (this.items[i] == null || this.intKeys[i] < k) )
+			i++;
+		this.position = i;
+	}
+
+	@Override
+	public void searchCeilingOf(Integer k) {
+		this.searchCeilingOf(k.intValue());
+	}
+
+	/**
+	 * The key of the current item, unboxed.
+	 * @precond itemExists()
+	 * @throws NoCurrentItem280Exception if there is no current item.
+	 */
+	public int intItemKey() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return this.intKeys[this.position];
+	}
+
+	@Override
+	public Integer itemKey() throws NoCurrentItem280Exception {
+		return this.intItemKey();
+	}
+
+	public static void main(String args[]) {
+
+		class Account implements IntKeyed280 {
+			int id;
+			long balance;
+
+			public Account(int id, long balance) {
+				this.id = id;
+				this.balance = balance;
+			}
+			public int intKey() { return id; }
+			public Integer key() { return id; }
+
+			public String toString() {
+				return id + ":" + balance;
+			}
+		}
+
+		IntKeyedOpenAddressingHashTable280<Account> H = new IntKeyedOpenAddressingHashTable280<Account>();
+
+		// Keys that all share their low bits, plus negative keys and the extremes.
+		int[] keys = new int[2000];
+		for(int i = 0; i < 1000; i++) {
+			keys[i] = i << 16;
+			keys[1000 + i] = -i - 1;
+		}
+		keys[999] = Integer.MAX_VALUE;
+		keys[1999] = Integer.MIN_VALUE;
+		for(int i = 0; i < keys.length; i++)
+			H.insert(new Account(keys[i], i));
+		if( H.count() != keys.length )
+			System.out.println("Error: table should have " + keys.length + " items but has " + H.count());
+
+		try {
+			H.insert(new Account(keys[5], 0));
+			System.out.println("Error: expected duplicate items exception when inserting a duplicate key, but got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+			// Expected, do nothing.
+		}
+
+		for(int i = 0; i < keys.length; i++) {
+			if( !H.has(keys[i]) )
+				System.out.println("Error: has(" + keys[i] + ") should be true.");
+			else if( H.obtain(keys[i]).balance != i )
+				System.out.println("Error: obtain(" + keys[i] + ") returned the wrong item.");
+		}
+		if( H.has(1) ) System.out.println("Error: has(1) should be false.");
+
+		// The boxed methods agree with the int ones.
+		if( !H.has(Integer.valueOf(keys[7])) ) System.out.println("Error: has(Integer) should be true.");
+		H.search(Integer.valueOf(keys[7]));
+		if( !H.itemExists() || H.intItemKey() != keys[7] || H.itemKey() != keys[7] )
+			System.out.println("Error: search(Integer) should have found " + keys[7]);
+
+		// Delete every other key.
+		for(int i = 0; i < keys.length; i += 2)
+			H.delete(keys[i]);
+		try {
+			H.delete(keys[0]);
+			System.out.println("Error: expected exception deleting a key that was already deleted.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+		for(int i = 0; i < keys.length; i++)
+			if( H.has(keys[i]) != (i % 2 == 1) )
+				System.out.println("Error: has(" + keys[i] + ") is wrong after deleting every other key.");
+
+		// Iterate.
+		int n = 0;
+		H.goFirst();
+		while( H.itemExists() ) {
+			if( H.item().id != H.intItemKey() ) System.out.println("Error: intItemKey() does not match item.");
+			n++;
+			H.goForth();
+		}
+		if( n != keys.length / 2 ) System.out.println("Error: iteration should visit " + keys.length / 2 + " items but visited " + n);
+
+		// Search and searchCeilingOf
+		H.search(keys[1]);
+		if( !H.itemExists() || H.item().id != keys[1] ) System.out.println("Error: search(" + keys[1] + ") failed.");
+		H.search(keys[0]);
+		if( H.itemExists() ) System.out.println("Error: search(" + keys[0] + ") should fail since it was deleted.");
+		H.searchCeilingOf(Integer.MAX_VALUE);
+		if( !H.itemExists() || H.intItemKey() != Integer.MAX_VALUE )
+			System.out.println("Error: searchCeilingOf(MAX_VALUE) should find MAX_VALUE.");
+
+		H.clear();
+		if( !H.isEmpty() || H.has(keys[1]) ) System.out.println("Error: table should be empty after clear().");
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -1,13 +1,27 @@
 package lib280.hashtable;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 import lib280.base.CursorPosition280;
 import lib280.base.Keyed280;
 import lib280.base.Pair280;
 import lib280.dictionary.HashTable280;
+import lib280.dictionary.HashTableStats280;
+import lib280.dictionary.Hasher280;
+import lib280.dictionary.IdentityHasher280;
 import lib280.dictionary.KeyedDict280;
+import lib280.dictionary.MixingHasher280;
 import lib280.exception.*;
 import lib280.list.LinkedIterator280;
 import lib280.list.LinkedList280;
+import lib280.list.LinkedNode280;
 
 public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends Keyed280<K>> extends HashTable280<I> implements
 		KeyedDict280<K, I> {
@@ -26,6 +40,24 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 	 
 	/** Actual maximum load factor for this instance */
 	protected double maxLoadFactor;
+
+	/** Default minimum load factor; zero means the table never shrinks. */
+	protected static final double defaultMinLoadFactor = 0.0;
+
+	/** Load factor below which a delete halves the hash array, or zero to never shrink. */
+	protected double minLoadFactor;
+
+	/** Should the table grow by incremental rehashing? */
+	protected boolean incrementalRehashing;
+
+	/** Hash array being drained by an incremental rehash, or null if there is no rehash in progress. */
+	protected LinkedList280<I>[] oldHashArray;
+
+	/** Next bucket of oldHashArray to be moved to hashArray. */
+	protected int rehashIndex;
+
+	/** Number of buckets of oldHashArray moved by each operation during an incremental rehash. */
+	protected static final int rehashBucketsPerOperation = 2;
 	
 	/**	
 	 * Create a new hash list for a new chain.
@@ -43,37 +75,379 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 		this.count = 0;
 		this.itemListLocation = null;
 		this.maxLoadFactor = KeyedChainedHashTable280.defaultMaxLoadFactor;
+		this.minLoadFactor = KeyedChainedHashTable280.defaultMinLoadFactor;
+		this.incrementalRehashing = false;
+		this.oldHashArray = null;
+	}
+
+	/**
+	 * Create an empty table sized so that expectedSize items can be inserted
+	 * without it ever growing.
+	 * @timing O(expectedSize / maxLoadFactor)
+	 * @param expectedSize number of items the table is expected to hold
+	 * @param maxLoadFactor the load factor above which the table grows
+	 * @throws InvalidArgument280Exception if expectedSize is negative or maxLoadFactor is not positive.
+	 */
+	@SuppressWarnings("unchecked")
+	public KeyedChainedHashTable280(int expectedSize, double maxLoadFactor)
+	{
+		if (expectedSize < 0 || !(maxLoadFactor > 0))
+			throw new InvalidArgument280Exception("The expected size must not be negative and the maximum load factor must be positive.");
+		this.hashArray = (LinkedList280<I>[]) new LinkedList280<?>[KeyedChainedHashTable280.lengthFor(expectedSize, maxLoadFactor)];
+		this.count = 0;
+		this.itemListLocation = null;
+		this.maxLoadFactor = maxLoadFactor;
+		this.minLoadFactor = KeyedChainedHashTable280.defaultMinLoadFactor;
+		this.incrementalRehashing = false;
+		this.oldHashArray = null;
+	}
+
+	/**
+	 * The smallest power-of-two hash array length that holds n items within
+	 * the given load factor.
+	 * @timing O(log n)
+	 */
+	protected static int lengthFor(int n, double loadFactor)
+	{
+		int length = 1;
+		while (length < (int) Math.ceil(n / loadFactor))
+			length = length << 1;
+		return length;
 	}
 
+	/**
+	 * Double the length of the hash array.  Normally every item is moved to
+	 * the new array immediately; with incremental rehashing the old array is
+	 * kept and drained a few buckets at a time by later operations.  Growing
+	 * the table invalidates the cursor.
+	 * @timing O(capacity()), or O(1) with incremental rehashing
+	 */
 	@SuppressWarnings("unchecked")
 	protected void expandHashArray() {
+		long start = this.recorder != null ? System.nanoTime() : 0;
+		double loadFactor = this.loadFactor();
+		this.finishRehash();
 		LinkedList280<I>[] oldHashArray = this.hashArray;
-		
 		this.hashArray = new LinkedList280[this.capacity()*2];
-		this.count = 0;
+
+		if( this.incrementalRehashing ) {
+			this.oldHashArray = oldHashArray;
+			this.rehashIndex = 0;
+		}
+		else {
+			for(int i = 0; i < oldHashArray.length; i++) {
+				if( oldHashArray[i] != null )
+					this.moveChain(oldHashArray[i]);
+			}
+		}
+		if( this.recorder != null )
+			this.recorder.recordResize(System.nanoTime() - start, loadFactor);
+	}
+
+	/**
+	 * Move every item of chain to its bucket in hashArray.  The items are
+	 * known to be unique, so there is no duplicate check and no further growth.
+	 * The chain may be empty (left so by deletes or searches).
+	 * @timing O(chain length)
+	 */
+	protected void moveChain(LinkedList280<I> chain) {
+		if( chain.isEmpty() ) return;
+		for(LinkedNode280<I> node = chain.firstNode(); node != null; node = node.nextNode()) {
+			I x = node.item();
+			int itemHashLocation = this.hashPos(x.key());
+			if (hashArray[itemHashLocation]==null)
+				hashArray[itemHashLocation] = newChain();
+			hashArray[itemHashLocation].insert(x);
+		}
+	}
+
+	/**
+	 * Hash position of y in the old hash array of an incremental rehash.
+	 * @precond oldHashArray != null
+	 * @timing O(1)
+	 */
+	protected int oldHashPos(Object y) {
+		return indexFor(this.hasher.hash(y), this.oldHashArray.length);
+	}
+
+	/**
+	 * Move bucket i of the old hash array, if it is still there, to the new one.
+	 * @precond oldHashArray != null
+	 * @timing O(length of bucket i)
+	 */
+	protected void moveOldBucket(int i) {
+		if( this.oldHashArray[i] != null ) {
+			this.moveChain(this.oldHashArray[i]);
+			this.oldHashArray[i] = null;
+		}
+	}
+
+	/**
+	 * Do one step of an incremental rehash, if one is in progress, before an
+	 * insert, search or delete of key k: move the next rehashBucketsPerOperation
+	 * old buckets, and also the old bucket of key k so that the caller only
+	 * has to look in the new array.  The table
+	 * takes one and a half times as many inserts as there are old buckets
+	 * before it grows again, so every rehash finishes long before the next
+	 * one is needed.
+	 * @timing O(1) expected
+	 * @param k key about to be used
+	 */
+	protected void rehashStep(K k) {
+		if( this.oldHashArray == null ) return;
+
+		this.moveOldBucket(this.oldHashPos(k));
+		for(int n = 0; n < rehashBucketsPerOperation && this.rehashIndex < this.oldHashArray.length; n++)
+			this.moveOldBucket(this.rehashIndex++);
+		if( this.rehashIndex >= this.oldHashArray.length )
+			this.oldHashArray = null;
+	}
+
+	/**
+	 * Move everything left in the old hash array of an incremental rehash, if
+	 * one is in progress, to the new one.
+	 * @timing O(capacity())
+	 */
+	protected void finishRehash() {
+		if( this.oldHashArray == null ) return;
+
+		while( this.rehashIndex < this.oldHashArray.length )
+			this.moveOldBucket(this.rehashIndex++);
+		this.oldHashArray = null;
+	}
+
+	/**
+	 * Set whether the table grows by incremental rehashing.  When it is on,
+	 * the insert that crosses the maximum load factor only allocates the new
+	 * bucket array; the items are moved over a few buckets at a time by the
+	 * following inserts, searches and deletes (get(), has() and obtain() look
+	 * in both arrays without moving anything), so no single operation pays
+	 * for the whole rehash.  Iterating from goFirst() or searchCeilingOf()
+	 * finishes any rehash in progress, since it visits every bucket anyway.
+	 * @timing O(1), or O(capacity()) if a rehash in progress is finished
+	 * @param incremental true to grow incrementally, false to move every item at once
+	 */
+	public void setIncrementalRehashing(boolean incremental) {
+		if( !incremental )
+			this.finishRehash();
+		this.incrementalRehashing = incremental;
+	}
+
+	/**
+	 * Is a rehash in progress?
+	 * @timing O(1)
+	 */
+	public boolean isRehashing() {
+		return this.oldHashArray != null;
+	}
+
+	/**
+	 * Grow the hash array, if necessary, so that n items fit without
+	 * exceeding the maximum load factor.  Every item is moved at once, even
+	 * with incremental rehashing.  Growing the table invalidates the cursor.
+	 * @timing O(capacity() + count()) if the table grows, otherwise O(log n)
+	 * @param n number of items the table should have room for
+	 */
+	public void ensureCapacity(int n) {
+		int length = lengthFor(n, this.maxLoadFactor);
+		if( length > this.capacity() )
+			this.rehashTo(length);
+	}
+
+	/**
+	 * Replace the hash array by an empty one of the given length and move
+	 * every item to it at once, finishing any incremental rehash first.
+	 * @timing O(capacity() + length)
+	 * @param length length of the new hash array
+	 */
+	@SuppressWarnings("unchecked")
+	protected void rehashTo(int length) {
+		long start = this.recorder != null ? System.nanoTime() : 0;
+		double loadFactor = this.loadFactor();
+		this.finishRehash();
+		LinkedList280<I>[] oldHashArray = this.hashArray;
+		this.hashArray = (LinkedList280<I>[]) new LinkedList280<?>[length];
 		for(int i = 0; i < oldHashArray.length; i++) {
-			if( oldHashArray[i] != null && !oldHashArray[i].isEmpty() ) {
-				oldHashArray[i].goFirst();
-				while(oldHashArray[i].itemExists()) {
-					this.insert(oldHashArray[i].item());
-					oldHashArray[i].goForth();
-				}
+			if( oldHashArray[i] != null )
+				this.moveChain(oldHashArray[i]);
+		}
+		if( this.recorder != null )
+			this.recorder.recordResize(System.nanoTime() - start, loadFactor);
+	}
+
+	/**
+	 * Set the minimum load factor.  When a delete takes the load factor
+	 * below it, the hash array is halved (but never below the default
+	 * starting size), so that memory and the time to iterate over the table
+	 * follow the number of items rather than the most the table ever held.
+	 * Shrinking, like growing, invalidates the cursor, so a table that
+	 * deletes items while iterating should leave this at zero.
+	 * @precond 0 &lt;= minLoadFactor &lt; half the maximum load factor, so that
+	 *   a table that has just grown or shrunk is not immediately resized again
+	 * @throws InvalidArgument280Exception if minLoadFactor is out of range.
+	 * @timing O(1)
+	 * @param minLoadFactor the new minimum load factor, or zero to never shrink
+	 */
+	public void setMinLoadFactor(double minLoadFactor) throws InvalidArgument280Exception {
+		if( !(minLoadFactor >= 0 && minLoadFactor < this.maxLoadFactor / 2) )
+			throw new InvalidArgument280Exception("The minimum load factor must be at least 0 and less than half the maximum load factor.");
+		this.minLoadFactor = minLoadFactor;
+	}
+
+	/**
+	 * Halve the hash array if the load factor has dropped below the minimum
+	 * load factor and the array is larger than the default starting size.
+	 * @timing O(capacity()) if the table shrinks, otherwise O(1)
+	 */
+	protected void shrinkIfSparse() {
+		if( this.loadFactor() < this.minLoadFactor && this.capacity() > defaultHashArrayLength )
+			this.rehashTo(this.capacity() / 2);
+	}
+
+	/**
+	 * Release the space held for items that are gone: shrink the hash
+	 * array to the smallest power-of-two length that holds count() items
+	 * within the maximum load factor, and drop the empty chains that
+	 * deletes and unsuccessful searches leave behind.  Afterwards a scan of
+	 * the whole table costs O(count()).  Invalidates the cursor.
+	 * @timing O(capacity() + count())
+	 */
+	public void compact() {
+		int length = lengthFor(this.count, this.maxLoadFactor);
+		if( length < this.capacity() )
+			this.rehashTo(length);
+		else {
+			this.finishRehash();
+			for(int i = 0; i < this.hashArray.length; i++)
+				if( this.hashArray[i] != null && this.hashArray[i].isEmpty() )
+					this.hashArray[i] = null;
+		}
+		this.itemListLocation = null;
+	}
+
+	/**
+	 * Add x to its chain with no load factor check and no rehash step.
+	 * @precond there is no rehash in progress
+	 * @throws DuplicateItems280Exception if trustUniqueKeys is false and the table already has an item with the key of x.
+	 * @timing O(1) if trustUniqueKeys, otherwise O(length of the chain)
+	 * @param x item to be added
+	 * @param trustUniqueKeys if true, x is not checked against the items already in its chain
+	 */
+	protected void bulkAdd(I x, boolean trustUniqueKeys) throws DuplicateItems280Exception {
+		K k = x.key();
+		int itemHashLocation = this.hashPos(k);
+		LinkedList280<I> L = hashArray[itemHashLocation];
+		if( L == null )
+			L = hashArray[itemHashLocation] = newChain();
+		else if( !trustUniqueKeys && this.findInChain(L, k) != null )
+			throw new DuplicateItems280Exception("Error: table already has an item with key " + k);
+		L.insert(x);
+		count++;
+	}
+
+	/**
+	 * Insert every item of items.  If items is a java.util.Collection the
+	 * table is grown once, up front, to hold them all; otherwise it grows by
+	 * doubling as they arrive.  Either way the items skip the per-item rehash
+	 * steps of insert().
+	 * @precond no item of items has the same key as another or as an item in the table
+	 * @throws DuplicateItems280Exception if an item has the same key as an earlier one or one already in the table.  The items before it stay inserted.
+	 * @timing O(count() + number of items) expected
+	 * @param items the items to be inserted
+	 */
+	public void insertAll(Iterable<I> items) throws DuplicateItems280Exception {
+		this.insertAll(items, false);
+	}
+
+	/**
+	 * Insert every item of items, as insertAll(items) does.  If
+	 * trustUniqueKeys is true, the caller promises that the precondition
+	 * holds and the duplicate checks are skipped, which leaves only the
+	 * work of linking each item into its chain.  If the promise is broken,
+	 * the table will hold two items with the same key.
+	 * @precond no item of items has the same key as another or as an item in the table
+	 * @throws DuplicateItems280Exception if trustUniqueKeys is false and an item has the same key as an earlier one or one already in the table.  The items before it stay inserted.
+	 * @timing O(count() + number of items) expected
+	 * @param items the items to be inserted
+	 * @param trustUniqueKeys if true, keys are assumed to be unique and are not checked
+	 */
+	public void insertAll(Iterable<I> items, boolean trustUniqueKeys) throws DuplicateItems280Exception {
+		if( items instanceof Collection )
+			this.ensureCapacity(this.count + ((Collection<?>) items).size());
+		this.finishRehash();
+
+		int threshold = (int) (this.capacity() * this.maxLoadFactor);
+		for(I x : items) {
+			this.bulkAdd(x, trustUniqueKeys);
+			if( count > threshold ) {
+				this.rehashTo(this.capacity() * 2);
+				threshold = (int) (this.capacity() * this.maxLoadFactor);
 			}
 		}
 	}
-	
-	
+
+	/**
+	 * Insert every item of the array items, growing the table once, up
+	 * front, to hold them all.  See insertAll(Iterable, boolean).
+	 * @precond no item of items has the same key as another or as an item in the table
+	 * @throws DuplicateItems280Exception if trustUniqueKeys is false and an item has the same key as an earlier one or one already in the table.  The items before it stay inserted.
+	 * @timing O(count() + items.length) expected
+	 * @param items the items to be inserted
+	 * @param trustUniqueKeys if true, keys are assumed to be unique and are not checked
+	 */
+	public void insertAll(I[] items, boolean trustUniqueKeys) throws DuplicateItems280Exception {
+		this.ensureCapacity(this.count + items.length);
+		this.finishRehash();
+		for(int i = 0; i < items.length; i++)
+			this.bulkAdd(items[i], trustUniqueKeys);
+	}
+
+	/**
+	 * A new table, with the default maximum load factor, holding the items
+	 * of the array items.  The table is sized once for all of them, so
+	 * building it never rehashes.
+	 * @precond no item of items has the same key as another
+	 * @throws DuplicateItems280Exception if two items have the same key.
+	 * @timing O(items.length) expected
+	 * @param items the items of the new table
+	 */
+	public static <K extends Comparable<? super K>, I extends Keyed280<K>> KeyedChainedHashTable280<K, I> buildFrom(I[] items) throws DuplicateItems280Exception {
+		return buildFrom(items, false);
+	}
+
+	/**
+	 * A new table, with the default maximum load factor, holding the items
+	 * of the array items, as buildFrom(items) does.  If trustUniqueKeys is
+	 * true the duplicate checks are skipped (see insertAll(Iterable, boolean)).
+	 * @precond no item of items has the same key as another
+	 * @throws DuplicateItems280Exception if trustUniqueKeys is false and two items have the same key.
+	 * @timing O(items.length) expected
+	 * @param items the items of the new table
+	 * @param trustUniqueKeys if true, keys are assumed to be unique and are not checked
+	 */
+	public static <K extends Comparable<? super K>, I extends Keyed280<K>> KeyedChainedHashTable280<K, I> buildFrom(I[] items, boolean trustUniqueKeys) throws DuplicateItems280Exception {
+		KeyedChainedHashTable280<K, I> table = new KeyedChainedHashTable280<K, I>(items.length, defaultMaxLoadFactor);
+		table.insertAll(items, trustUniqueKeys);
+		return table;
+	}
+
 	@Override
 	public void insert(I x) throws ContainerFull280Exception,
 			DuplicateItems280Exception {
 
 		if( this.isFull() ) throw new ContainerFull280Exception("Error inserting item.  Table is full.");
-		if( this.has(x.key()) ) throw new DuplicateItems280Exception("Error: table already has an item with key " + x.key());
-		
-		int itemHashLocation =  this.hashPos(x.key());
+
+		K k = x.key();
+		this.rehashStep(k);
+		int itemHashLocation =  this.hashPos(k);
 		if (hashArray[itemHashLocation]==null)
 			hashArray[itemHashLocation] = newChain();
-		hashArray[itemHashLocation].insert(x);
+
+		// Check for a duplicate and insert in a single walk of the chain.
+		LinkedList280<I> L = hashArray[itemHashLocation];
+		if( this.findInChain(L, k) != null )
+			throw new DuplicateItems280Exception("Error: table already has an item with key " + k);
+		L.insert(x);
 		count++;
 		
 		// Check if the load factor is too high, if it is, double the length of the hash
@@ -84,17 +458,18 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 
 	@Override
 	public void set(I x) throws ItemNotFound280Exception {
-		if( !this.has(x.key()) ) {
-			throw new ItemNotFound280Exception("No item with key x.key() was not found in the table.");
-		}
-		
-		LinkedList280<I> L = hashArray[this.hashPos(x.key())];
-		
-		// We know that L contains an item with key x.key()
+		K k = x.key();
+		this.rehashStep(k);
+		LinkedList280<I> L = hashArray[this.hashPos(k)];
+		if( L == null || L.isEmpty() )
+			throw new ItemNotFound280Exception("No item with key x.key() was found in the table.");
+
 		L.goFirst();
-		while(L.itemExists() && x.key().compareTo(L.item().key()) != 0) {
+		while(L.itemExists() && k.compareTo(L.item().key()) != 0) {
 			L.goForth();
 		}
+		if( !L.itemExists() )
+			throw new ItemNotFound280Exception("No item with key x.key() was found in the table.");
 		
 		// Remove the old item
 		L.deleteItem();
@@ -104,60 +479,105 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 		
 	}
 
+	/**
+	 * The item with key k in chain L, or null if there is none.  Neither the
+	 * table's cursor nor the chain's cursor is used, so nothing is allocated.
+	 * @timing O(length of L)
+	 * @param L a chain, which may be null
+	 * @param k key being sought
+	 */
+	protected I findInChain(LinkedList280<I> L, K k) {
+		if( L == null || L.isEmpty() ) return null;
+		for(LinkedNode280<I> node = L.firstNode(); node != null; node = node.nextNode()) {
+			if( k.compareTo(node.item().key()) == 0 )
+				return node.item();
+		}
+		return null;
+	}
+
+	/**
+	 * Record the number of keys that a search for k compares with, which
+	 * is the position of k in its chain, or the length of the chain if k is
+	 * not there.  Only called while instrumentation is on, so the chain is
+	 * walked a second time just for the count.
+	 * @precond recorder != null
+	 * @timing O(length of the chain of k)
+	 */
+	protected void recordSearch(K k) {
+		LinkedList280<I> L = hashArray[this.hashPos(k)];
+		if( this.oldHashArray != null && this.oldHashArray[this.oldHashPos(k)] != null )
+			L = this.oldHashArray[this.oldHashPos(k)];
+		int probes = 0;
+		if( L != null && !L.isEmpty() ) {
+			for(LinkedNode280<I> node = L.firstNode(); node != null; node = node.nextNode()) {
+				probes++;
+				if( k.compareTo(node.item().key()) == 0 )
+					break;
+			}
+		}
+		this.recorder.recordSearch(probes);
+	}
+
+	/**
+	 * The item with key k, or null if there is none.  Unlike obtain() and
+	 * search(), this neither uses nor saves the cursor, and allocates nothing.
+	 * During an incremental rehash it looks in whichever bucket array
+	 * currently holds k, without moving any buckets.
+	 * @timing O(1) expected
+	 * @param k key being sought
+	 */
+	public I get(K k) {
+		if( this.recorder != null )
+			this.recordSearch(k);
+		if( this.oldHashArray != null ) {
+			int oldLocation = this.oldHashPos(k);
+			if( this.oldHashArray[oldLocation] != null )
+				return this.findInChain(this.oldHashArray[oldLocation], k);
+		}
+		return this.findInChain(hashArray[this.hashPos(k)], k);
+	}
+
+	/**
+	 * Does the table contain an item with key k?  Like get(), this neither uses
+	 * nor saves the cursor, and allocates nothing.
+	 * @timing O(1) expected
+	 * @param k key whose presence is to be determined
+	 */
+	public boolean containsKey(K k) {
+		return this.get(k) != null;
+	}
+
 	@Override
 	public boolean has(K k) {
-		LinkedIterator280<I> saveListLocation;
-		if(itemListLocation != null)
-			saveListLocation = itemListLocation.clone();
-		else
-			saveListLocation = null;
-		search(k);
-		boolean result = itemExists();
-		itemListLocation = saveListLocation;
-		return result;
+		return this.containsKey(k);
 	}
 
 	@Override
 	public I obtain(K k) throws ItemNotFound280Exception {
-
-		// Save cursor position
-		LinkedIterator280<I> saveListLocation;
-		if(itemListLocation != null)
-			saveListLocation = itemListLocation.clone();
-		else
-			saveListLocation = null;
-		
-		// Look for the item with key k.
-		search(k);
-		
-		// If it wasn't found, then error.
-		if(!this.itemExists()) 
+		I result = this.get(k);
+		if( result == null )
 			throw new ItemNotFound280Exception("No item with the specified key exists in the table.");
-		
-		// Otherwise, restore the cursor position and return the item with key k.
-		I result = this.item();
-		itemListLocation = saveListLocation;
-
 		return result;
-
 	}
 
 	@Override
 	public void delete(K k) throws ItemNotFound280Exception {
-		if( !this.has(k) ) {
-			throw new ItemNotFound280Exception("No item with key k was not found in the table.");
-		}
-		
+		this.rehashStep(k);
 		LinkedList280<I> L = hashArray[this.hashPos(k)];
+		if( L == null || L.isEmpty() )
+			throw new ItemNotFound280Exception("No item with key k was found in the table.");
 		
-		// At this point, we know that L contains an item with key k
 		L.goFirst();
 		while(L.itemExists() && k.compareTo(L.item().key()) != 0) {
 			L.goForth();
 		}
+		if( !L.itemExists() )
+			throw new ItemNotFound280Exception("No item with key k was found in the table.");
 		
 		// Remove the existing item
-		L.deleteItem();		
+		L.deleteItem();
+		count--;
+		this.shrinkIfSparse();
 	}
 
 	@Override
@@ -240,6 +660,7 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 
 	@Override
 	public void goFirst() throws ContainerEmpty280Exception {
+		this.finishRehash();
 		findNextItem(0);
 	}
 
@@ -365,6 +786,7 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 	@Override
 	public void clear() {
 		this.hashArray = new LinkedList280[this.hashArray.length];
+		this.oldHashArray = null;
 		this.count = 0;
 		this.itemListLocation = null;
 	}
@@ -387,6 +809,9 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 
 	@Override
 	public void search(K k) {
+		this.rehashStep(k);
+		if( this.recorder != null )
+			this.recordSearch(k);
 		int itemHashLocation = this.hashPos(k);
 		if (searchesContinue && itemListLocation!=null)
 			goForth();
@@ -410,6 +835,7 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 	 * 
 	 */
 	public void searchCeilingOf(K k) {
+		this.finishRehash();
 		
 		int currentList=0;
 		// If searches continue and we are currently at an item, move to the next one.
@@ -463,6 +889,37 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 
 	
 	
+	/**
+	 * The distribution of chain lengths: element i of the result is the
+	 * number of buckets holding exactly i items (a bucket that has never been
+	 * used counts as an empty chain).  The last element is non-zero unless the
+	 * table is empty.  During an incremental rehash, the buckets not yet moved
+	 * from the old array are included.
+	 * @timing O(capacity() + count())
+	 */
+	public int[] chainLengthHistogram() {
+		int[] histogram = new int[1];
+		histogram = this.addChainLengths(histogram, this.hashArray, 0);
+		if( this.oldHashArray != null )
+			histogram = this.addChainLengths(histogram, this.oldHashArray, this.rehashIndex);
+		return trimHistogram(histogram);
+	}
+
+	/**
+	 * Count the lengths of the chains of array, from index start on, in histogram.
+	 * @timing O(length of array + number of items in it)
+	 */
+	protected int[] addChainLengths(int[] histogram, LinkedList280<I>[] array, int start) {
+		for(int i = start; i < array.length; i++) {
+			int length = 0;
+			if( array[i] != null && !array[i].isEmpty() )
+				for(LinkedNode280<I> node = array[i].firstNode(); node != null; node = node.nextNode())
+					length++;
+			histogram = countInHistogram(histogram, length);
+		}
+		return histogram;
+	}
+
 	@Override
 	public int frequency(I i) {
 		if( this.has(i.key())) return 1;
@@ -475,6 +932,10 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 		for (int i=0; i<capacity(); i++)
 			if (hashArray[i] != null)
 				result += "\n" + i + ": " + hashArray[i].toString();
+		if (oldHashArray != null)
+			for (int i=rehashIndex; i<oldHashArray.length; i++)
+				if (oldHashArray[i] != null)
+					result += "\nold " + i + ": " + oldHashArray[i].toString();
 		return result;
 	}
 	
@@ -497,6 +958,8 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 		}
 		
 		KeyedChainedHashTable280<String, Skill> H = new KeyedChainedHashTable280<String, Skill>();
+		// The cursor tests below expect items in the order hashCode() alone puts them.
+		H.setHasher(new IdentityHasher280());
 		
 		// Test insert
 		H.insert(new Skill("Shield Bash", 5));
@@ -729,9 +1192,256 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 			System.out.println(H.item());
 			H.goForth();
 		}
-	
-		
-	
+
+		// Test get() and containsKey(): they must not move the cursor.
+		H.restartSearches();
+		H.search("Shield Bash");
+		if( H.get("Explosive Arrow") == null ) System.out.println("Error: get(\"Explosive Arrow\") should find an item.");
+		if( H.get("Stab") != null ) System.out.println("Error: get(\"Stab\") should return null.");
+		if( !H.containsKey("Infernal Blow") ) System.out.println("Error: containsKey(\"Infernal Blow\") should be true.");
+		if( !H.itemExists() || !H.item().name.equals("Shield Bash") )
+			System.out.println("Error: get() and containsKey() should not move the cursor.");
+
+		// Test that delete() updates count() and insert() rejects duplicates.
+		int before = H.count();
+		H.delete("Shield Bash");
+		if( H.count() != before - 1 ) System.out.println("Error: count() should be " + (before - 1) + " after delete but is " + H.count());
+		H.insert(new Skill("Shield Bash", 5));
+		if( H.count() != before ) System.out.println("Error: count() should be " + before + " after insert but is " + H.count());
+
+		// Test incremental rehashing.
+		KeyedChainedHashTable280<String, Skill> R = new KeyedChainedHashTable280<String, Skill>();
+		R.setIncrementalRehashing(true);
+		boolean sawRehash = false;
+		for(int i = 0; i < 5000; i++) {
+			R.insert(new Skill("s" + i, i));
+			sawRehash = sawRehash || R.isRehashing();
+			// Items inserted so far must be found whether or not their bucket has moved yet.
+			if( i % 97 == 0 && !R.has("s" + (i / 2)) )
+				System.out.println("Error: s" + (i / 2) + " not found during incremental rehashing.");
+		}
+		if( !sawRehash ) System.out.println("Error: incremental rehashing never kept an old hash array.");
+		if( R.count() != 5000 ) System.out.println("Error: table should have 5000 items but has " + R.count());
+		for(int i = 0; i < 5000; i++)
+			if( R.obtain("s" + i).skillCost != i )
+				System.out.println("Error: obtain(\"s" + i + "\") returned the wrong item.");
+		for(int i = 0; i < 5000; i += 2)
+			R.delete("s" + i);
+		int n = 0;
+		R.goFirst();
+		if( R.isRehashing() ) System.out.println("Error: goFirst() should finish the rehash in progress.");
+		while(R.itemExists()) {
+			if( R.item().skillCost % 2 != 1 ) System.out.println("Error: found deleted item " + R.item());
+			n++;
+			R.goForth();
+		}
+		if( n != 2500 ) System.out.println("Error: iteration should visit 2500 items but visited " + n);
+
+		// Test hashers: Integer keys that are all multiples of 1024 only
+		// differ in their high bits.
+		class Slot implements Keyed280<Integer> {
+			int id;
+			public Slot(int id) { this.id = id; }
+			public Integer key() { return id; }
+			public String toString() { return "slot " + id; }
+		}
+		KeyedChainedHashTable280<Integer, Slot> mixed = new KeyedChainedHashTable280<Integer, Slot>();
+		KeyedChainedHashTable280<Integer, Slot> identity = new KeyedChainedHashTable280<Integer, Slot>();
+		identity.setHasher(new IdentityHasher280());
+		for(int i = 0; i < 500; i++) {
+			mixed.insert(new Slot(i * 1024));
+			identity.insert(new Slot(i * 1024));
+		}
+		if( mixed.chainLengthHistogram().length > 8 )
+			System.out.println("Error: the mixing hasher should keep chains short, but the longest has " + (mixed.chainLengthHistogram().length - 1) + " items.");
+		if( identity.chainLengthHistogram().length < 100 )
+			System.out.println("Error: the identity hasher should pile multiples of 1024 into few chains.");
+		int buckets = 0, items = 0;
+		int[] histogram = mixed.chainLengthHistogram();
+		for(int i = 0; i < histogram.length; i++) {
+			buckets += histogram[i];
+			items += i * histogram[i];
+		}
+		if( buckets != mixed.capacity() || items != 500 )
+			System.out.println("Error: chain length histogram should cover " + mixed.capacity() + " buckets and 500 items, but covers " + buckets + " and " + items + ".");
+		for(int i = 0; i < 500; i++)
+			if( !mixed.has(i * 1024) || !identity.has(i * 1024) )
+				System.out.println("Error: key " + (i * 1024) + " not found.");
+
+		// A key whose hash code is Integer.MIN_VALUE must not give a negative position.
+		identity.insert(new Slot(Integer.MIN_VALUE));
+		if( !identity.has(Integer.MIN_VALUE) ) System.out.println("Error: key Integer.MIN_VALUE not found.");
+
+		// The hash function can only be changed while the table is empty.
+		try {
+			mixed.setHasher(new IdentityHasher280());
+			System.out.println("Error: expected exception changing the hasher of a non-empty table.");
+		}
+		catch(InvalidState280Exception e) {
+			// Expected, do nothing.
+		}
+
+		// A user-supplied hasher: skill names that differ only in case hash alike.
+		KeyedChainedHashTable280<String, Skill> C = new KeyedChainedHashTable280<String, Skill>();
+		C.setHasher(new Hasher280() {
+			public int hash(Object y) {
+				return MixingHasher280.mix(((String) y).toLowerCase().hashCode());
+			}
+		});
+		C.insert(new Skill("Cleave", 3));
+		C.insert(new Skill("Heavy Strike", 2));
+		if( !C.has("Cleave") || C.has("Stab") )
+			System.out.println("Error: table with a user-supplied hasher gives wrong results.");
+		if( C.hashPos("cleave") != C.hashPos("CLEAVE") )
+			System.out.println("Error: the user-supplied hasher is not being used.");
+
+		// Test the bulk build methods.
+		Skill[] skills = new Skill[10000];
+		for(int i = 0; i < skills.length; i++)
+			skills[i] = new Skill("b" + i, i);
+		KeyedChainedHashTable280<String, Skill> B = KeyedChainedHashTable280.buildFrom(skills);
+		if( B.count() != skills.length ) System.out.println("Error: built table should have " + skills.length + " items but has " + B.count());
+		if( B.capacity() != lengthFor(skills.length, defaultMaxLoadFactor) )
+			System.out.println("Error: built table should have " + lengthFor(skills.length, defaultMaxLoadFactor) + " buckets but has " + B.capacity());
+		for(int i = 0; i < skills.length; i++)
+			if( B.get("b" + i) != skills[i] )
+				System.out.println("Error: built table does not have b" + i);
+		B = KeyedChainedHashTable280.buildFrom(skills, true);
+		if( B.count() != skills.length || !B.has("b9999") ) System.out.println("Error: built table trusting unique keys is wrong.");
+		try {
+			B.insertAll(new Skill[] { new Skill("new", 0), new Skill("b5", 0) }, false);
+			System.out.println("Error: expected duplicate items exception from insertAll(), but got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+			if( !B.has("new") || B.count() != skills.length + 1 )
+				System.out.println("Error: insertAll() should keep the items before a duplicate.");
+		}
+
+		// insertAll() from a collection into a table that is part way through an incremental rehash.
+		KeyedChainedHashTable280<String, Skill> E = new KeyedChainedHashTable280<String, Skill>(0, 0.75);
+		if( E.capacity() != 1 ) System.out.println("Error: a table expecting no items should have 1 bucket but has " + E.capacity());
+		E.setIncrementalRehashing(true);
+		for(int i = 0; i < 100 && !E.isRehashing(); i++)
+			E.insert(new Skill("e" + i, i));
+		ArrayList<Skill> list = new ArrayList<Skill>();
+		for(int i = 0; i < skills.length; i++)
+			list.add(skills[i]);
+		int expected = E.count() + list.size();
+		E.insertAll(list);
+		if( E.isRehashing() ) System.out.println("Error: insertAll() should finish the rehash in progress.");
+		if( E.count() != expected || !E.has("e0") || !E.has("b0") )
+			System.out.println("Error: insertAll() into a rehashing table is wrong.");
+		if( E.loadFactor() > 0.75 ) System.out.println("Error: insertAll() should grow the table to its maximum load factor.");
+
+		// insertAll() from an Iterable that is not a Collection grows as it goes.
+		final Skill[] more = new Skill[1000];
+		for(int i = 0; i < more.length; i++)
+			more[i] = new Skill("m" + i, i);
+		Iterable<Skill> it = new Iterable<Skill>() {
+			public Iterator<Skill> iterator() {
+				return Arrays.asList(more).iterator();
+			}
+		};
+		E.insertAll(it);
+		if( E.count() != expected + more.length || !E.has("m999") || E.loadFactor() > 0.75 )
+			System.out.println("Error: insertAll() from an Iterable is wrong.");
+
+		// Test shrinking on delete.
+		KeyedChainedHashTable280<String, Skill> S = KeyedChainedHashTable280.buildFrom(skills);
+		try {
+			S.setMinLoadFactor(defaultMaxLoadFactor / 2);
+			System.out.println("Error: expected exception setting the minimum load factor to half the maximum.");
+		}
+		catch(InvalidArgument280Exception e) {
+			// Expected, do nothing.
+		}
+		S.setMinLoadFactor(0.25);
+		int grown = S.capacity();
+		for(int i = 10; i < skills.length; i++)
+			S.delete(skills[i].key());
+		if( S.capacity() != defaultHashArrayLength )
+			System.out.println("Error: table of 10 items should have shrunk from " + grown + " to " + defaultHashArrayLength + " buckets, but has " + S.capacity());
+		for(int i = 0; i < 10; i++)
+			if( S.get(skills[i].key()) != skills[i] )
+				System.out.println("Error: " + skills[i].key() + " lost when the table shrank.");
+		if( S.count() != 10 ) System.out.println("Error: table should have 10 items but has " + S.count());
+
+		// Without a minimum load factor the table keeps its size until compact().
+		KeyedChainedHashTable280<String, Skill> P = KeyedChainedHashTable280.buildFrom(skills);
+		for(int i = 10; i < skills.length; i++)
+			P.delete(skills[i].key());
+		for(int i = 0; i < 1000; i++)
+			P.search("missing" + i);
+		if( P.capacity() != grown ) System.out.println("Error: table without a minimum load factor should not shrink.");
+		P.compact();
+		if( P.capacity() != lengthFor(10, defaultMaxLoadFactor) )
+			System.out.println("Error: compact() should shrink the table to " + lengthFor(10, defaultMaxLoadFactor) + " buckets, but it has " + P.capacity());
+		n = 0;
+		P.goFirst();
+		while( P.itemExists() ) {
+			n++;
+			P.goForth();
+		}
+		if( n != 10 ) System.out.println("Error: iteration after compact() should visit 10 items but visited " + n);
+
+		// compact() drops empty chains even when the array is already the right size.
+		KeyedChainedHashTable280<String, Skill> D = new KeyedChainedHashTable280<String, Skill>(8, 1.0);
+		for(int i = 0; i < 8; i++)
+			D.insert(skills[i]);
+		for(int i = 0; i < 100; i++)
+			D.search("missing" + i);
+		D.compact();
+		int chains = 0;
+		for(int i = 0; i < D.hashArray.length; i++)
+			if( D.hashArray[i] != null ) {
+				chains++;
+				if( D.hashArray[i].isEmpty() ) System.out.println("Error: compact() left an empty chain in bucket " + i);
+			}
+		if( D.capacity() != 8 || chains == 0 || D.count() != 8 )
+			System.out.println("Error: compact() of a full table should keep its size and items.");
+
+		// Test instrumentation.
+		KeyedChainedHashTable280<String, Skill> I = new KeyedChainedHashTable280<String, Skill>();
+		try {
+			I.stats();
+			System.out.println("Error: expected exception asking for the stats of a table that is not instrumented.");
+		}
+		catch(InvalidState280Exception e) {
+			// Expected, do nothing.
+		}
+		I.setInstrumentation(true);
+		for(int i = 0; i < 1000; i++)
+			I.insert(skills[i]);
+		for(int i = 0; i < 1000; i++)
+			I.has(skills[i].key());
+		I.has("missing");
+		HashTableStats280 stats = I.stats();
+		if( stats.searches() != 1001 ) System.out.println("Error: 1001 searches should be recorded but " + stats.searches() + " were.");
+		if( stats.probes() < 1000 || stats.averageProbes() > 3 )
+			System.out.println("Error: searches of a table with short chains should average 1 to 3 probes, not " + stats.averageProbes());
+		if( stats.resizes() != 5 || stats.loadFactorHistory().length != 5 )
+			System.out.println("Error: growing from 32 to 1024 buckets should record 5 resizes, but " + stats.resizes() + " were recorded.");
+		for(double lf : stats.loadFactorHistory())
+			if( lf <= defaultMaxLoadFactor ) System.out.println("Error: resize recorded at load factor " + lf + ", below the maximum.");
+		if( stats.count() != 1000 || stats.capacity() != I.capacity() || stats.maxChainLength() != I.chainLengthHistogram().length - 1 )
+			System.out.println("Error: stats snapshot does not match the table: " + stats);
+		I.resetStats();
+		if( I.stats().searches() != 0 || I.stats().resizes() != 0 ) System.out.println("Error: resetStats() should clear the counters.");
+		if( stats.searches() != 1001 ) System.out.println("Error: resetStats() should not change an earlier snapshot.");
+
+		// The stats can be read through JMX.
+		ObjectName bean = I.registerMBean("regression");
+		try {
+			I.get("b1");
+			Object searches = ManagementFactory.getPlatformMBeanServer().getAttribute(bean, "Searches");
+			if( !Long.valueOf(1).equals(searches) ) System.out.println("Error: JMX should report 1 search, but reports " + searches);
+		}
+		catch(JMException e) {
+			System.out.println("Error: unexpected exception reading the MBean: " + e);
+		}
+		unregisterMBean(bean);
+		I.setInstrumentation(false);
+		if( I.isInstrumented() ) System.out.println("Error: instrumentation should be off.");
 	}
 
 	
@@ -0,0 +1,632 @@
+package lib280.hashtable;
+
+import lib280.base.Keyed280;
+import lib280.base.Pair280;
+import lib280.dictionary.Hasher280;
+import lib280.dictionary.KeyedDict280;
+import lib280.exception.*;
+
+/**	A keyed hash table that uses open addressing with linear probing instead
+	of separate chaining.  Keys and items are kept in two flat parallel arrays
+	(an empty slot has a null item), so an insert allocates nothing and a
+	probe touches consecutive array slots rather than following list nodes.
+	Deletion shifts the rest of the probe run back into the hole, so there are
+	no tombstones and the table never degrades with churn.
+
+	The array length is always a power of two, and the table doubles when the
+	load factor would exceed its maximum load factor.  The cursor moves
+	through the items in slot order, starting from the first empty slot and
+	wrapping around (see OpenAddressingHashTable280).  Subclasses may store
+	the keys differently (see IntKeyedOpenAddressingHashTable280) by
+	overriding the slot methods. */
+public class KeyedOpenAddressingHashTable280<K extends Comparable<? super K>, I extends Keyed280<K>> extends OpenAddressingHashTable280<I> implements
+		KeyedDict280<K, I> {
+
+	/**	Keys of the items, parallel to items.  keys[i] is only meaningful if items[i] != null. */
+	protected Object[] keys;
+
+	/**	Items of the table; a null entry is an empty slot. */
+	protected I[] items;
+
+	/** Default maximum load factor.  Linear probing slows down sharply as the table fills. */
+	protected static final double defaultMaxLoadFactor = 0.75;
+
+	/** Starting size of the hash table. */
+	protected static final int defaultHashArrayLength = 32;
+
+	/** Actual maximum load factor for this instance */
+	protected double maxLoadFactor;
+
+	/**
+	 * Create an empty table with the default starting size.
+	 * @timing O(1)
+	 */
+	public KeyedOpenAddressingHashTable280() {
+		this(defaultHashArrayLength);
+	}
+
+	/**
+	 * Create an empty table with room for at least newSize slots.
+	 * @timing O(newSize)
+	 * @param newSize minimum number of slots; it is rounded up to a power of two
+	 */
+	public KeyedOpenAddressingHashTable280(int newSize) {
+		if( newSize < 1 )
+			throw new InvalidArgument280Exception("The size of a hash table must be at least 1.");
+		int length = 1;
+		while( length < newSize )
+			length = length << 1;
+		this.allocate(length);
+		this.count = 0;
+		this.position = -1;
+		this.maxLoadFactor = defaultMaxLoadFactor;
+	}
+
+	/**
+	 * Allocate empty slot arrays of the given length.
+	 * @timing O(length)
+	 * @param length number of slots, a power of two
+	 */
+	@SuppressWarnings("unchecked")
+	protected void allocate(int length) {
+		this.keys = new Object[length];
+		this.items = (I[]) new Keyed280<?>[length];
+	}
+
+	/**
+	 * The home slot of a key with hash code h, which should already be well
+	 * mixed (as the default hasher's are), since only its low bits are used.
+	 * @timing O(1)
+	 * @param h hash code of a key
+	 */
+	protected int homeSlot(int h) {
+		return h & (this.items.length - 1);
+	}
+
+	/**
+	 * Hash code of the key of x.
+	 * @timing O(1)
+	 */
+	protected int hashOfItem(I x) {
+		return this.hasher.hash(x.key());
+	}
+
+	/**
+	 * Hash code of the key stored in slot.
+	 * @precond items[slot] != null
+	 * @timing O(1)
+	 */
+	protected int hashOfSlot(int slot) {
+		return this.hasher.hash(this.keys[slot]);
+	}
+
+	@Override
+	protected boolean occupied(int slot) {
+		return this.items[slot] != null;
+	}
+
+	@Override
+	protected int homeOfSlot(int slot) {
+		return this.homeSlot(this.hashOfSlot(slot));
+	}
+
+	/**
+	 * Put x and its key in slot.
+	 * @timing O(1)
+	 */
+	protected void storeSlot(int slot, I x) {
+		this.keys[slot] = x.key();
+		this.items[slot] = x;
+	}
+
+	@Override
+	protected void moveSlot(int from, int to) {
+		this.keys[to] = this.keys[from];
+		this.items[to] = this.items[from];
+	}
+
+	@Override
+	protected void clearSlot(int slot) {
+		this.keys[slot] = null;
+		this.items[slot] = null;
+	}
+
+	/**
+	 * The slot holding the item with key k, or -1 if there is none.
+	 * @timing O(1) expected
+	 * @param k key being sought
+	 */
+	protected int find(K k) {
+		int mask = this.items.length - 1;
+		int home = this.homeSlot(this.hasher.hash(k));
+		for(int i = home; this.items[i] != null; i = (i + 1) & mask)
+			if( k.equals(this.keys[i]) ) {
+				if( this.recorder != null ) this.recordFind(home, i);
+				return i;
+			}
+		if( this.recorder != null ) this.recordFind(home, -1);
+		return -1;
+	}
+
+	/**
+	 * Record a search that started at slot home and found its key in slot,
+	 * or, if slot is -1, ran to the end of the probe run.  The probes are
+	 * the slots examined, counted after the fact so that find() does no
+	 * extra work while instrumentation is off.
+	 * @precond recorder != null
+	 * @timing O(1), or O(length of the probe run) for a search that failed
+	 */
+	protected void recordFind(int home, int slot) {
+		int mask = this.items.length - 1;
+		int probes;
+		if( slot >= 0 )
+			probes = ((slot - home) & mask) + 1;
+		else {
+			probes = 1;
+			for(int i = home; this.items[i] != null; i = (i + 1) & mask)
+				probes++;
+		}
+		this.recorder.recordSearch(probes);
+	}
+
+	/**
+	 * The slot holding the item with the same key as x or, if there is none,
+	 * the empty slot where x belongs.
+	 * @timing O(1) expected
+	 * @param x item whose key is being sought
+	 */
+	protected int probe(I x) {
+		K k = x.key();
+		int mask = this.items.length - 1;
+		int i = this.homeSlot(this.hasher.hash(k));
+		while( this.items[i] != null && !k.equals(this.keys[i]) )
+			i = (i + 1) & mask;
+		return i;
+	}
+
+	/**
+	 * Put x in the first empty slot of its probe sequence.
+	 * @precond no item with the key of x is in the table
+	 * @timing O(1) expected
+	 * @return the slot x was put in
+	 */
+	protected int place(I x) {
+		int mask = this.items.length - 1;
+		int i = this.homeSlot(this.hashOfItem(x));
+		while( this.items[i] != null )
+			i = (i + 1) & mask;
+		this.storeSlot(i, x);
+		return i;
+	}
+
+	/**
+	 * Double the length of the slot arrays and reinsert every item.  The
+	 * cursor stays on the same item (or before/after).
+	 * @timing O(capacity())
+	 */
+	protected void expandHashArray() {
+		long start = this.recorder != null ? System.nanoTime() : 0;
+		double loadFactor = this.loadFactor();
+		I[] oldItems = this.items;
+		int oldPosition = this.position;
+
+		this.allocate(oldItems.length * 2);
+		this.origin = 0;
+		if( oldPosition >= oldItems.length )
+			this.position = this.items.length;
+		for(int i = 0; i < oldItems.length; i++) {
+			if( oldItems[i] != null ) {
+				int slot = this.place(oldItems[i]);
+				if( i == oldPosition )
+					this.position = slot;
+			}
+		}
+		if( this.recorder != null )
+			this.recorder.recordResize(System.nanoTime() - start, loadFactor);
+	}
+
+	@Override
+	public void insert(I x) throws ContainerFull280Exception,
+			DuplicateItems280Exception {
+		int slot = this.probe(x);
+		if( this.items[slot] != null )
+			throw new DuplicateItems280Exception("Error: table already has an item with key " + x.key());
+
+		this.storeSlot(slot, x);
+		count++;
+
+		if( this.loadFactor() > this.maxLoadFactor )
+			this.expandHashArray();
+	}
+
+	@Override
+	public void set(I x) throws ItemNotFound280Exception {
+		int slot = this.probe(x);
+		if( this.items[slot] == null )
+			throw new ItemNotFound280Exception("No item with key x.key() was found in the table.");
+		this.storeSlot(slot, x);
+	}
+
+	@Override
+	public boolean has(K k) {
+		return this.find(k) >= 0;
+	}
+
+	@Override
+	public I obtain(K k) throws ItemNotFound280Exception {
+		int slot = this.find(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with the specified key exists in the table.");
+		return this.items[slot];
+	}
+
+	@Override
+	public void delete(K k) throws ItemNotFound280Exception {
+		int slot = this.find(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with key k was found in the table.");
+		this.deleteSlot(slot);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public K itemKey() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return (K) this.keys[this.position];
+	}
+
+	@Override
+	public Pair280<K, I> keyItemPair() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return new Pair280<K, I>(this.itemKey(), this.items[this.position]);
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("Cannot return an item that does not exist.");
+		return this.items[this.position];
+	}
+
+	/**
+	 * Obtain the object matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @precond y is in the hash table
+	 * @throws ItemNotFound280Exception if y is not in the hash table.
+	 * @return The matching object in the hash table if it exists.
+	 */
+	public I obtain(I y) throws ItemNotFound280Exception {
+		int slot = this.probe(y);
+		if( this.items[slot] == null || !this.membershipEquals(this.items[slot], y) )
+			throw new ItemNotFound280Exception("The table has no item matching " + y);
+		return this.items[slot];
+	}
+
+	/**
+	 * Delete the object matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @precond y is in the hash table
+	 * @throws ItemNotFound280Exception if y is not in the hash table.
+	 */
+	public void delete(I y) throws ItemNotFound280Exception {
+		int slot = this.probe(y);
+		if( this.items[slot] == null || !this.membershipEquals(this.items[slot], y) )
+			throw new ItemNotFound280Exception("The table has no item matching " + y);
+		this.deleteSlot(slot);
+	}
+
+	/**
+	 * Determine if there is an item matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @return true if y is in the hash table, false otherwise.
+	 */
+	public boolean has(I y) {
+		int slot = this.probe(y);
+		return this.items[slot] != null && this.membershipEquals(this.items[slot], y);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean membershipEquals(I x, I y) {
+		if ((x instanceof Comparable) && (y instanceof Comparable))
+			return  0 == ((Comparable<I>) x).compareTo(y);
+		else
+			return x.equals(y);
+	}
+
+	/**
+	 * Place the cursor on the item in the hash table that matches y.
+	 * This only succeeds if y is the exact object in the hash table, or the
+	 * table contains an item that is equal according to y's compareTo method
+	 * (if it has one).
+	 */
+	public void search(I y) {
+		int slot = this.probe(y);
+		if( this.items[slot] == null || !this.membershipEquals(this.items[slot], y) )
+			slot = -1;
+		this.moveTo(slot);
+	}
+
+	@Override
+	public void search(K k) {
+		this.moveTo(this.find(k));
+	}
+
+	/**
+	 * Searches the table for the first item, in slot order, with key at least
+	 * as large as k.  Searching begins from the first slot, or the slot after
+	 * the current item if searches have been set to continue.
+	 * @timing O(capacity())
+	 * @param k The key value -- search will find items with key at least as large as k.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void searchCeilingOf(K k) {
+		int i = this.startOfScan();
+		while( i < this.items.length && (this.items[i] == null || ((K) this.keys[i]).compareTo(k) < 0) )
+			i++;
+		this.position = i;
+	}
+
+	@Override
+	public void setItem(I x) throws NoCurrentItem280Exception,
+			InvalidArgument280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item to replace.");
+		if( x.key().compareTo(this.item().key()) != 0 )
+			throw new InvalidArgument280Exception("The current item's key does not match that of x.");
+		this.storeSlot(this.position, x);
+	}
+
+	@Override
+	public int capacity() {
+		return this.items.length;
+	}
+
+	@Override
+	public int frequency(I i) {
+		return this.has(i) ? 1 : 0;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		this.allocate(this.items.length);
+		this.count = 0;
+		this.position = -1;
+		this.origin = 0;
+	}
+
+	@Override
+	public String toString() {
+		String result = "";
+		for (int i = 0; i < capacity(); i++)
+			if (items[i] != null)
+				result += "\n" + i + ": " + items[i].toString();
+		return result;
+	}
+
+	public static void main(String args[]) {
+
+		class Skill implements Keyed280<String> {
+			String name;
+			private int skillCost;
+
+			public Skill(String s, int c) {
+				this.name = s;
+				this.skillCost = c;
+			}
+			public String key() { return name; }
+
+			public String toString() {
+				return name + ":" + this.skillCost;
+			}
+		}
+
+		KeyedOpenAddressingHashTable280<String, Skill> H = new KeyedOpenAddressingHashTable280<String, Skill>();
+
+		// Test insert
+		H.insert(new Skill("Shield Bash", 5));
+		try {
+			H.insert(new Skill("Shield Bash", 5));
+			System.out.println("Error: expected duplicate items exception when inserting a duplicate item, but got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+			// Expected, do nothing.
+		}
+
+		// Test obtain(k)
+		try {
+			H.obtain("Shield Bash");
+		}
+		catch(ItemNotFound280Exception e) {
+			System.out.println("Error: caught unexpected exception when trying to obtain(\"Shield Bash\").");
+		}
+		try {
+			H.obtain("Shield Crash");
+			System.out.println("Error: expected exception when trying to obtain(\"Shield Crash\"), got none.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+
+		// Test obtain(x): only the object itself matches since Skill is not Comparable.
+		Skill existing = H.obtain("Shield Bash");
+		if( H.obtain(existing) != existing )
+			System.out.println("Error: obtain(x) did not return x.");
+		try {
+			H.obtain(new Skill("Shield Bash", 5));
+			System.out.println("Error: Expected exception when trying to obtain() an object not in the table, but got none.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+
+		// Test set
+		H.set(new Skill("Shield Bash", 77));
+		if( H.obtain("Shield Bash").skillCost != 77 )
+			System.out.println("Error: skill cost of Shield Bash should have been updated to 77 but it wasn't.");
+		try {
+			H.set(new Skill("Shield Crash", 1));
+			System.out.println("Error: expected exception when setting an item that is not in the table.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+
+		H.insert(new Skill("Ground Slam", 2));
+		H.insert(new Skill("Heavy Strike", 5));
+		H.insert(new Skill("Explosive Arrow", 11));
+		H.insert(new Skill("Infernal Blow", 16));
+		H.insert(new Skill("Lightning Strike", 6));
+		if( H.count() != 6 )
+			System.out.println("Error: table should have 6 items but has " + H.count());
+
+		// Test delete(k)
+		H.delete("Lightning Strike");
+		H.delete("Ground Slam");
+		try {
+			H.delete("Fake Skill");
+			System.out.println("Error: expected exception while deleting \"Fake Skill\" did not occur.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+		if( H.count() != 4 )
+			System.out.println("Error: table should have 4 items after deletions but has " + H.count());
+		if( H.has("Ground Slam") )
+			System.out.println("Error: has reports that \"Ground Slam\" is in the table after it was deleted.");
+
+		// Test has(x), delete(x) and search(x)
+		Skill cleave = new Skill("Cleave", 1);
+		Skill fakeCleave = new Skill("Cleave", 99);
+		H.insert(cleave);
+		if( !H.has(cleave) ) System.out.println("Error: has reports that table does not contain cleave object but it does.");
+		if( H.has(fakeCleave) ) System.out.println("Error: has reports that table contains fakeCleave object but it doesn't.");
+		H.search(fakeCleave);
+		if( H.itemExists() ) System.out.println("Error: search should have failed, but it found: " + H.item());
+		H.search(cleave);
+		if( !H.itemExists() || H.item() != cleave ) System.out.println("Error: search should have found cleave.");
+		try {
+			H.delete(fakeCleave);
+			System.out.println("Error: expected exception while deleting fakeCleave did not occur.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+		H.delete(cleave);
+
+		// Test search(k), setItem and deleteItem
+		H.search("Unknown Skill");
+		if( H.itemExists() ) System.out.println("Error: search should have failed, but it found: " + H.item());
+		try {
+			H.deleteItem();
+			System.out.println("Error: expected an exception calling deleteItem() when there is no current item.");
+		}
+		catch(NoCurrentItem280Exception e) {
+		}
+		H.search("Heavy Strike");
+		if( !H.itemExists() ) System.out.println("Error: search should have found \"Heavy Strike\".");
+		H.setItem(new Skill("Heavy Strike", 42));
+		if( H.obtain("Heavy Strike").skillCost != 42 )
+			System.out.println("Error: replaced item should have cost 42, but it does not.");
+		try {
+			H.setItem(new Skill("Cleave", 1));
+			System.out.println("Error: expected an exception calling setItem() with a different key.");
+		}
+		catch(InvalidArgument280Exception e) {
+		}
+		H.deleteItem();
+		if( H.has("Heavy Strike") ) System.out.println("Error: deleteItem() did not delete \"Heavy Strike\".");
+
+		// Test searchCeilingOf: the remaining keys are Explosive Arrow, Infernal Blow and Shield Bash.
+		H.restartSearches();
+		H.searchCeilingOf("Stab");
+		if( H.itemExists() ) System.out.println("Error: cursor should not be on any item, but is on " + H.item());
+		H.searchCeilingOf("Puncture");
+		if( !H.itemExists() || !H.item().name.equals("Shield Bash") )
+			System.out.println("Error: cursor should be on Shield Bash.");
+		H.searchCeilingOf("A");
+		if( !H.itemExists() ) System.out.println("Error: searchCeilingOf(\"A\") should find an item.");
+
+		// Iterate, growing and shrinking the table through many inserts and deletes.
+		KeyedOpenAddressingHashTable280<String, Skill> T = new KeyedOpenAddressingHashTable280<String, Skill>(4);
+		for(int i = 0; i < 1000; i++)
+			T.insert(new Skill("s" + i, i));
+		if( T.count() != 1000 ) System.out.println("Error: table should have 1000 items but has " + T.count());
+		if( T.loadFactor() > 0.75 ) System.out.println("Error: table did not grow; load factor is " + T.loadFactor());
+		for(int i = 0; i < 1000; i += 2)
+			T.delete("s" + i);
+		for(int i = 0; i < 1000; i++)
+			if( T.has("s" + i) != (i % 2 == 1) )
+				System.out.println("Error: has(\"s" + i + "\") is wrong after deleting the even keys.");
+		long sum = 0;
+		int n = 0;
+		T.goFirst();
+		while( T.itemExists() ) {
+			sum += T.item().skillCost;
+			n++;
+			T.goForth();
+		}
+		if( n != 500 || sum != 250000 )
+			System.out.println("Error: iteration visited " + n + " items with cost sum " + sum + "; expected 500 and 250000.");
+		if( !T.after() ) System.out.println("Error: cursor should be after the last item.");
+
+		// Test instrumentation: probes per search and resizes.
+		KeyedOpenAddressingHashTable280<String, Skill> I = new KeyedOpenAddressingHashTable280<String, Skill>(4);
+		I.setInstrumentation(true);
+		for(int i = 0; i < 1000; i++)
+			I.insert(new Skill("s" + i, i));
+		for(int i = 0; i < 1000; i++)
+			I.has("s" + i);
+		if( I.stats().searches() != 1000 || I.stats().averageProbes() < 1 || I.stats().averageProbes() > 4 )
+			System.out.println("Error: unexpected probe statistics: " + I.stats());
+		if( I.stats().resizes() != 9 ) System.out.println("Error: growing from 4 to 2048 slots should record 9 resizes, but " + I.stats().resizes() + " were recorded.");
+		if( I.stats().chainLengthHistogram() != null ) System.out.println("Error: an open addressing table has no chains.");
+		I.has("missing");
+		if( I.stats().maxProbes() < 1 ) System.out.println("Error: a failed search makes at least one probe.");
+
+		// Delete everything with deleteItem() while iterating.
+		T.goFirst();
+		while( T.itemExists() )
+			T.deleteItem();
+		if( !T.isEmpty() ) System.out.println("Error: table should be empty after deleting every item but has " + T.count());
+
+		// Delete at random while iterating over a probe run that wraps past
+		// the end of the table: every item must be visited exactly once.
+		Hasher280 nearTheEnd = new Hasher280() {
+			public int hash(Object y) { return 56 + (y.hashCode() & 15); }
+		};
+		java.util.Random random = new java.util.Random(280);
+		int wrongVisits = 0;
+		for(int trial = 0; trial < 2000; trial++) {
+			KeyedOpenAddressingHashTable280<String, Skill> W = new KeyedOpenAddressingHashTable280<String, Skill>(64);
+			W.setHasher(nearTheEnd);
+			for(int i = 0; i < 40; i++)
+				W.insert(new Skill("w" + random.nextInt(1000000) + "." + i, i));
+			int[] visits = new int[40];
+			W.goFirst();
+			while( W.itemExists() ) {
+				visits[W.item().skillCost]++;
+				if( random.nextBoolean() )
+					W.deleteItem();
+				else
+					W.goForth();
+			}
+			for(int i = 0; i < 40; i++)
+				if( visits[i] != 1 )
+					wrongVisits++;
+		}
+		if( wrongVisits != 0 )
+			System.out.println("Error: deleting while iterating over a wrapped run visited " + wrongVisits + " items other than once.");
+
+		System.out.println("Regression test complete.");
+	}
+}
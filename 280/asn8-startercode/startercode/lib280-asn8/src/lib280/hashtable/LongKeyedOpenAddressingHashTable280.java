@@ -0,0 +1,281 @@
+package lib280.hashtable;
+
+import lib280.base.LongKeyed280;
+import lib280.dictionary.MixingHasher280;
+import lib280.exception.*;
+
+/**	An open addressing hash table specialized for items with long keys.  The
+	keys are kept unboxed in a long array parallel to the items, and
+	has/obtain/delete/search have long overloads, so lookups neither box nor
+	dereference the items.  The boxed KeyedDict280 methods still work, so
+	the table can be used anywhere a KeyedDict280&lt;Long, I&gt; is. */
+public class LongKeyedOpenAddressingHashTable280<I extends LongKeyed280> extends KeyedOpenAddressingHashTable280<Long, I> {
+
+	/**	Keys of the items, parallel to items.  longKeys[i] is only meaningful if items[i] != null. */
+	protected long[] longKeys;
+
+	/**
+	 * Create an empty table with the default starting size.
+	 * @timing O(1)
+	 */
+	public LongKeyedOpenAddressingHashTable280() {
+		super();
+	}
+
+	/**
+	 * Create an empty table with room for at least newSize slots.
+	 * @timing O(newSize)
+	 * @param newSize minimum number of slots; it is rounded up to a power of two
+	 */
+	public LongKeyedOpenAddressingHashTable280(int newSize) {
+		super(newSize);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	protected void allocate(int length) {
+		this.longKeys = new long[length];
+		this.items = (I[]) new LongKeyed280[length];
+	}
+
+	/**
+	 * Fold a long key into an int hash code, as Long.hashCode() does, and mix
+	 * it.  Primitive keys never go through the table's hasher, so they are
+	 * always mixed this way.
+	 * @timing O(1)
+	 */
+	protected static int hash(long k) {
+		return MixingHasher280.mix((int) (k ^ (k >>> 32)));
+	}
+
+	@Override
+	protected int hashOfItem(I x) {
+		return hash(x.longKey());
+	}
+
+	@Override
+	protected int hashOfSlot(int slot) {
+		return hash(this.longKeys[slot]);
+	}
+
+	@Override
+	protected void storeSlot(int slot, I x) {
+		this.longKeys[slot] = x.longKey();
+		this.items[slot] = x;
+	}
+
+	@Override
+	protected void moveSlot(int from, int to) {
+		this.longKeys[to] = this.longKeys[from];
+		this.items[to] = this.items[from];
+	}
+
+	@Override
+	protected void clearSlot(int slot) {
+		this.items[slot] = null;
+	}
+
+	/**
+	 * The slot holding the item with key k, or -1 if there is none.
+	 * @timing O(1) expected
+	 * @param k key being sought
+	 */
+	protected int find(long k) {
+		int mask = this.items.length - 1;
+		int home = this.homeSlot(hash(k));
+		for(int i = home; this.items[i] != null; i = (i + 1) & mask)
+			if( this.longKeys[i] == k ) {
+				if( this.recorder != null ) this.recordFind(home, i);
+				return i;
+			}
+		if( this.recorder != null ) this.recordFind(home, -1);
+		return -1;
+	}
+
+	@Override
+	protected int find(Long k) {
+		return this.find(k.longValue());
+	}
+
+	@Override
+	protected int probe(I x) {
+		long k = x.longKey();
+		int mask = this.items.length - 1;
+		int i = this.homeSlot(hash(k));
+		while( this.items[i] != null && this.longKeys[i] != k )
+			i = (i + 1) & mask;
+		return i;
+	}
+
+	/**
+	 * Does the table contain an item with key k?
+	 * @timing O(1) expected
+	 * @param k key whose presence is to be determined
+	 */
+	public boolean has(long k) {
+		return this.find(k) >= 0;
+	}
+
+	/**
+	 * The item with key k.
+	 * @precond has(k)
+	 * @throws ItemNotFound280Exception if there is no item with key k.
+	 * @timing O(1) expected
+	 * @param k key of the item to be obtained
+	 */
+	public I obtain(long k) throws ItemNotFound280Exception {
+		int slot = this.find(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with the specified key exists in the table.");
+		return this.items[slot];
+	}
+
+	/**
+	 * Delete the item with key k.
+	 * @precond has(k)
+	 * @throws ItemNotFound280Exception if there is no item with key k.
+	 * @timing O(1) expected
+	 * @param k the key of the item to be deleted
+	 */
+	public void delete(long k) throws ItemNotFound280Exception {
+		int slot = this.find(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with key k was found in the table.");
+		this.deleteSlot(slot);
+	}
+
+	/**
+	 * Move to the item with key k or else set to !itemExists.
+	 * @timing O(1) expected
+	 * @param k key being sought
+	 */
+	public void search(long k) {
+		this.moveTo(this.find(k));
+	}
+
+	/**
+	 * Move to the first item, in slot order, with key at least as large as k.
+	 * @timing O(capacity())
+	 * @param k key being sought
+	 */
+	public void searchCeilingOf(long k) {
+		int i = this.startOfScan();
+		while( i < this.items.length && (this.items[i] == null || this.longKeys[i] < k) )
+			i++;
+		this.position = i;
+	}
+
+	@Override
+	public void searchCeilingOf(Long k) {
+		this.searchCeilingOf(k.longValue());
+	}
+
+	/**
+	 * The key of the current item, unboxed.
+	 * @precond itemExists()
+	 * @throws NoCurrentItem280Exception if there is no current item.
+	 */
+	public long longItemKey() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return this.longKeys[this.position];
+	}
+
+	@Override
+	public Long itemKey() throws NoCurrentItem280Exception {
+		return this.longItemKey();
+	}
+
+	public static void main(String args[]) {
+
+		class Event implements LongKeyed280 {
+			long timestamp;
+			String name;
+
+			public Event(long timestamp, String name) {
+				this.timestamp = timestamp;
+				this.name = name;
+			}
+			public long longKey() { return timestamp; }
+			public Long key() { return timestamp; }
+
+			public String toString() {
+				return timestamp + ":" + name;
+			}
+		}
+
+		LongKeyedOpenAddressingHashTable280<Event> H = new LongKeyedOpenAddressingHashTable280<Event>();
+
+		// Keys that differ only in their high 32 bits, and keys with both halves set.
+		long[] keys = new long[2000];
+		for(int i = 0; i < 1000; i++) {
+			keys[i] = ((long) i) << 32;
+			keys[1000 + i] = (((long) i) << 32) | (i + 5000);
+		}
+		keys[1] = Long.MAX_VALUE;
+		keys[3] = Long.MIN_VALUE;
+		for(int i = 0; i < keys.length; i++)
+			H.insert(new Event(keys[i], "e" + i));
+		if( H.count() != keys.length )
+			System.out.println("Error: table should have " + keys.length + " items but has " + H.count());
+
+		try {
+			H.insert(new Event(keys[5], "duplicate"));
+			System.out.println("Error: expected duplicate items exception when inserting a duplicate key, but got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+			// Expected, do nothing.
+		}
+
+		for(int i = 0; i < keys.length; i++) {
+			if( !H.has(keys[i]) )
+				System.out.println("Error: has(" + keys[i] + ") should be true.");
+			else if( !H.obtain(keys[i]).name.equals("e" + i) )
+				System.out.println("Error: obtain(" + keys[i] + ") returned the wrong item.");
+		}
+		if( H.has(5L) ) System.out.println("Error: has(5) should be false.");
+
+		// The boxed methods agree with the long ones.
+		if( !H.has(Long.valueOf(keys[7])) ) System.out.println("Error: has(Long) should be true.");
+		H.search(Long.valueOf(keys[7]));
+		if( !H.itemExists() || H.longItemKey() != keys[7] || H.itemKey() != keys[7] )
+			System.out.println("Error: search(Long) should have found " + keys[7]);
+
+		// Delete every other key.
+		for(int i = 0; i < keys.length; i += 2)
+			H.delete(keys[i]);
+		try {
+			H.delete(keys[0]);
+			System.out.println("Error: expected exception deleting a key that was already deleted.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+		for(int i = 0; i < keys.length; i++)
+			if( H.has(keys[i]) != (i % 2 == 1) )
+				System.out.println("Error: has(" + keys[i] + ") is wrong after deleting every other key.");
+
+		// Iterate.
+		int n = 0;
+		H.goFirst();
+		while( H.itemExists() ) {
+			if( H.item().timestamp != H.longItemKey() ) System.out.println("Error: longItemKey() does not match item.");
+			n++;
+			H.goForth();
+		}
+		if( n != keys.length / 2 ) System.out.println("Error: iteration should visit " + keys.length / 2 + " items but visited " + n);
+
+		// Search and searchCeilingOf
+		H.search(keys[1]);
+		if( !H.itemExists() || H.item().timestamp != keys[1] ) System.out.println("Error: search(" + keys[1] + ") failed.");
+		H.search(keys[0]);
+		if( H.itemExists() ) System.out.println("Error: search(" + keys[0] + ") should fail since it was deleted.");
+		H.searchCeilingOf(Long.MAX_VALUE);
+		if( !H.itemExists() || H.longItemKey() != Long.MAX_VALUE )
+			System.out.println("Error: searchCeilingOf(MAX_VALUE) should find MAX_VALUE.");
+
+		H.clear();
+		if( !H.isEmpty() || H.has(keys[1]) ) System.out.println("Error: table should be empty after clear().");
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,669 @@
+package lib280.hashtable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import lib280.base.Keyed280;
+import lib280.base.Pair280;
+import lib280.dictionary.Hasher280;
+import lib280.dictionary.KeyedDict280;
+import lib280.exception.*;
+
+/**	A keyed hash table kept in a memory-mapped file, so that it survives the
+	process that built it.  Opening an existing table maps the file and
+	reads a short header; nothing is parsed or copied onto the heap, and the
+	operating system pages the slots in as they are touched.
+
+	The file holds a header followed by a fixed number of slots, a power of
+	two, chosen when the table is created.  A slot is a used flag, the hash
+	code of its key, and the key and item encoded by a SlotCodec280.  As in
+	KeyedOpenAddressingHashTable280, collisions are resolved by linear
+	probing and deletion shifts the rest of the probe run back, so there are
+	no tombstones.  Lookups compare hash codes and encoded keys in place;
+	only item(), obtain() and the other methods that return an item decode
+	one, and each call returns a new object.
+
+	The table does not grow: it is full once its load factor reaches
+	0.75.  Keys must have a hashCode() that is the same in every run (as
+	String, Integer and Long do), and a table must be reopened with the
+	same hasher and an equivalent codec.  Changes reach the file when the
+	operating system writes the pages back, or at force() or close(); a
+	crash part way through a change can leave the file inconsistent. */
+public class MappedKeyedHashTable280<K extends Comparable<? super K>, I extends Keyed280<K>> extends OpenAddressingHashTable280<I> implements
+		KeyedDict280<K, I> {
+
+	/** First int of every table file. */
+	protected static final int MAGIC = 0x4C323830;
+
+	/** Version of the file layout. */
+	protected static final int VERSION = 1;
+
+	/** Bytes in the header: magic, version, slot count, key size, item size and item count. */
+	protected static final int HEADER_SIZE = 32;
+
+	/** Offsets of the header fields. */
+	protected static final int SLOTS_OFFSET = 8, KEY_SIZE_OFFSET = 12, ITEM_SIZE_OFFSET = 16, COUNT_OFFSET = 20;
+
+	/** Bytes before the key in a slot: the used flag and the hash code. */
+	protected static final int SLOT_PREFIX = 5;
+
+	/** Maximum load factor; linear probing slows down sharply as the table fills. */
+	protected static final double maxLoadFactor = 0.75;
+
+	/** The file the table is kept in. */
+	protected RandomAccessFile file;
+
+	/** The mapping of the whole file. */
+	protected MappedByteBuffer buf;
+
+	/** Encodes and decodes keys and items. */
+	protected SlotCodec280<K, I> codec;
+
+	/** Number of slots, a power of two. */
+	protected int slots;
+
+	/** Bytes in each slot. */
+	protected int slotSize;
+
+	/** Holds the encoding of the key being sought. */
+	protected ByteBuffer keyScratch;
+
+	/**
+	 * Create a new, empty table in file, replacing anything already there.
+	 * @timing O(capacity())
+	 * @param f the file to keep the table in
+	 * @param maxItems the number of items the table must be able to hold
+	 * @param codec encodes and decodes the keys and items
+	 * @throws IOException if the file cannot be created or mapped.
+	 * @throws InvalidArgument280Exception if maxItems is less than 1 or the table would be larger than 2GB.
+	 */
+	public MappedKeyedHashTable280(File f, int maxItems, SlotCodec280<K, I> codec) throws IOException {
+		if( maxItems < 1 )
+			throw new InvalidArgument280Exception("A mapped hash table must be able to hold at least one item.");
+		int length = 1;
+		while( length * maxLoadFactor < maxItems && length < (1 << 30) )
+			length = length << 1;
+		long size = HEADER_SIZE + (long) length * (SLOT_PREFIX + codec.keySize() + codec.itemSize());
+		if( size > Integer.MAX_VALUE )
+			throw new InvalidArgument280Exception("A mapped hash table cannot be larger than 2GB.");
+
+		this.file = new RandomAccessFile(f, "rw");
+		this.file.setLength(0);
+		this.file.setLength(size);
+		this.map(codec, size);
+		this.buf.putInt(0, MAGIC);
+		this.buf.putInt(4, VERSION);
+		this.buf.putInt(SLOTS_OFFSET, length);
+		this.buf.putInt(KEY_SIZE_OFFSET, codec.keySize());
+		this.buf.putInt(ITEM_SIZE_OFFSET, codec.itemSize());
+		this.buf.putInt(COUNT_OFFSET, 0);
+		this.readHeader();
+	}
+
+	/**
+	 * Open the table already kept in file.  Only the header is read.
+	 * @timing O(1)
+	 * @param f the file the table is kept in
+	 * @param codec encodes and decodes the keys and items, as when the table was created
+	 * @throws IOException if the file cannot be mapped or does not hold a table.
+	 * @throws InvalidArgument280Exception if the codec's sizes differ from those the table was created with.
+	 */
+	public MappedKeyedHashTable280(File f, SlotCodec280<K, I> codec) throws IOException {
+		this.file = new RandomAccessFile(f, "rw");
+		long size = this.file.length();
+		if( size < HEADER_SIZE || size > Integer.MAX_VALUE ) {
+			this.file.close();
+			throw new IOException(f + " is not a mapped hash table file.");
+		}
+		this.map(codec, size);
+		if( this.buf.getInt(0) != MAGIC || this.buf.getInt(4) != VERSION ) {
+			this.close();
+			throw new IOException(f + " is not a mapped hash table file.");
+		}
+		if( this.buf.getInt(KEY_SIZE_OFFSET) != codec.keySize() || this.buf.getInt(ITEM_SIZE_OFFSET) != codec.itemSize() ) {
+			this.close();
+			throw new InvalidArgument280Exception("The codec does not match the one " + f + " was created with.");
+		}
+		this.readHeader();
+		if( HEADER_SIZE + (long) this.slots * this.slotSize != size ) {
+			this.close();
+			throw new IOException(f + " is not a mapped hash table file.");
+		}
+	}
+
+	/**
+	 * Map size bytes of the file and set up the codec.
+	 * @timing O(1)
+	 */
+	protected void map(SlotCodec280<K, I> codec, long size) throws IOException {
+		this.codec = codec;
+		this.buf = this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+		this.keyScratch = ByteBuffer.allocate(codec.keySize());
+		this.position = -1;
+	}
+
+	/**
+	 * Set the fields that describe the layout from the header.
+	 * @timing O(1)
+	 */
+	protected void readHeader() {
+		this.slots = this.buf.getInt(SLOTS_OFFSET);
+		this.slotSize = SLOT_PREFIX + this.codec.keySize() + this.codec.itemSize();
+		this.count = this.buf.getInt(COUNT_OFFSET);
+	}
+
+	/**
+	 * Write any changes still in memory to the file.
+	 * @timing O(number of changed pages)
+	 */
+	public void force() {
+		this.buf.force();
+	}
+
+	/**
+	 * Write any changes to the file and close it.  The table cannot be used afterwards.
+	 * @timing O(number of changed pages)
+	 * @throws IOException if the file cannot be closed.
+	 */
+	public void close() throws IOException {
+		this.buf.force();
+		this.file.close();
+	}
+
+	/**
+	 * Offset in the file of slot i.
+	 * @timing O(1)
+	 */
+	protected int offset(int i) {
+		return HEADER_SIZE + i * this.slotSize;
+	}
+
+	@Override
+	protected boolean occupied(int i) {
+		return this.buf.get(this.offset(i)) != 0;
+	}
+
+	/**
+	 * Hash code of the key in slot i.
+	 * @precond occupied(i)
+	 * @timing O(1)
+	 */
+	protected int hashAt(int i) {
+		return this.buf.getInt(this.offset(i) + 1);
+	}
+
+	/**
+	 * Store the count in the header.
+	 * @timing O(1)
+	 */
+	@Override
+	protected void setCount(int n) {
+		this.count = n;
+		this.buf.putInt(COUNT_OFFSET, n);
+	}
+
+	/**
+	 * Encode k into keyScratch.
+	 * @timing O(keySize)
+	 */
+	protected void encodeKey(K k) {
+		this.codec.writeKey(k, this.keyScratch, 0);
+	}
+
+	/**
+	 * Is the key in slot i the one in keyScratch?
+	 * @precond occupied(i)
+	 * @timing O(keySize)
+	 */
+	protected boolean keyMatches(int i) {
+		int start = this.offset(i) + SLOT_PREFIX;
+		for(int b = 0; b < this.keyScratch.capacity(); b++)
+			if( this.buf.get(start + b) != this.keyScratch.get(b) )
+				return false;
+		return true;
+	}
+
+	/**
+	 * The slot holding the item with key k or, if there is none, the
+	 * empty slot where it belongs.  The key is left encoded in keyScratch.
+	 * @timing O(1) expected
+	 * @param k key being sought
+	 */
+	protected int probe(K k) {
+		int h = this.hasher.hash(k);
+		this.encodeKey(k);
+		int mask = this.slots - 1;
+		int i = h & mask;
+		while( this.occupied(i) && (this.hashAt(i) != h || !this.keyMatches(i)) )
+			i = (i + 1) & mask;
+		return i;
+	}
+
+	/**
+	 * The slot holding the item with key k, or -1 if there is none.
+	 * @timing O(1) expected
+	 * @param k key being sought
+	 */
+	protected int find(K k) {
+		int i = this.probe(k);
+		return this.occupied(i) ? i : -1;
+	}
+
+	/**
+	 * Write x, with hash code h, into slot i and mark it used.
+	 * @timing O(keySize + itemSize)
+	 */
+	protected void storeSlot(int i, int h, I x) {
+		int start = this.offset(i);
+		this.codec.writeKey(x.key(), this.buf, start + SLOT_PREFIX);
+		this.codec.writeItem(x, this.buf, start + SLOT_PREFIX + this.codec.keySize());
+		this.buf.putInt(start + 1, h);
+		this.buf.put(start, (byte) 1);
+	}
+
+	/**
+	 * The item in slot i, decoded.
+	 * @precond occupied(i)
+	 * @timing O(itemSize)
+	 */
+	protected I itemAt(int i) {
+		return this.codec.readItem(this.buf, this.offset(i) + SLOT_PREFIX + this.codec.keySize());
+	}
+
+	/**
+	 * The key in slot i, decoded.
+	 * @precond occupied(i)
+	 * @timing O(keySize)
+	 */
+	protected K keyAt(int i) {
+		return this.codec.readKey(this.buf, this.offset(i) + SLOT_PREFIX);
+	}
+
+	@Override
+	protected int homeOfSlot(int slot) {
+		return this.hashAt(slot) & (this.slots - 1);
+	}
+
+	@Override
+	protected void moveSlot(int from, int to) {
+		int source = this.offset(from), target = this.offset(to);
+		for(int b = 0; b < this.slotSize; b++)
+			this.buf.put(target + b, this.buf.get(source + b));
+	}
+
+	@Override
+	protected void clearSlot(int slot) {
+		this.buf.put(this.offset(slot), (byte) 0);
+	}
+
+	@Override
+	public void insert(I x) throws ContainerFull280Exception,
+			DuplicateItems280Exception {
+		if( this.isFull() )
+			throw new ContainerFull280Exception("Error inserting item.  Table is full.");
+		K k = x.key();
+		int slot = this.probe(k);
+		if( this.occupied(slot) )
+			throw new DuplicateItems280Exception("Error: table already has an item with key " + k);
+		this.storeSlot(slot, this.hasher.hash(k), x);
+		this.setCount(this.count + 1);
+	}
+
+	@Override
+	public void set(I x) throws ItemNotFound280Exception {
+		K k = x.key();
+		int slot = this.find(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with key x.key() was found in the table.");
+		this.storeSlot(slot, this.hashAt(slot), x);
+	}
+
+	@Override
+	public boolean has(K k) {
+		return this.find(k) >= 0;
+	}
+
+	@Override
+	public I obtain(K k) throws ItemNotFound280Exception {
+		int slot = this.find(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with the specified key exists in the table.");
+		return this.itemAt(slot);
+	}
+
+	@Override
+	public void delete(K k) throws ItemNotFound280Exception {
+		int slot = this.find(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with key k was found in the table.");
+		this.deleteSlot(slot);
+	}
+
+	@Override
+	public K itemKey() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return this.keyAt(this.position);
+	}
+
+	@Override
+	public Pair280<K, I> keyItemPair() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return new Pair280<K, I>(this.keyAt(this.position), this.itemAt(this.position));
+	}
+
+	/**
+	 * The current item, decoded: every call returns a new object.
+	 * @precond itemExists()
+	 * @throws NoCurrentItem280Exception if there is no current item.
+	 */
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("Cannot return an item that does not exist.");
+		return this.itemAt(this.position);
+	}
+
+	/**
+	 * Obtain the item in the table matching y.  Since items are stored
+	 * encoded, this only succeeds if y is Comparable and compares equal to
+	 * the stored item, or equals() it.
+	 *
+	 * @precond y is in the hash table
+	 * @throws ItemNotFound280Exception if y is not in the hash table.
+	 * @return The matching item, decoded from the table.
+	 */
+	public I obtain(I y) throws ItemNotFound280Exception {
+		int slot = this.find(y.key());
+		I existing = slot < 0 ? null : this.itemAt(slot);
+		if( existing == null || !this.membershipEquals(existing, y) )
+			throw new ItemNotFound280Exception("The table has no item matching " + y);
+		return existing;
+	}
+
+	/**
+	 * Delete the item in the table matching y (see obtain(I)).
+	 * @precond y is in the hash table
+	 * @throws ItemNotFound280Exception if y is not in the hash table.
+	 */
+	public void delete(I y) throws ItemNotFound280Exception {
+		int slot = this.find(y.key());
+		if( slot < 0 || !this.membershipEquals(this.itemAt(slot), y) )
+			throw new ItemNotFound280Exception("The table has no item matching " + y);
+		this.deleteSlot(slot);
+	}
+
+	/**
+	 * Determine if there is an item in the table matching y (see obtain(I)).
+	 * @return true if y is in the hash table, false otherwise.
+	 */
+	public boolean has(I y) {
+		int slot = this.find(y.key());
+		return slot >= 0 && this.membershipEquals(this.itemAt(slot), y);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean membershipEquals(I x, I y) {
+		if ((x instanceof Comparable) && (y instanceof Comparable))
+			return  0 == ((Comparable<I>) x).compareTo(y);
+		else
+			return x.equals(y);
+	}
+
+	/**
+	 * Place the cursor on the item in the table matching y (see obtain(I)).
+	 */
+	public void search(I y) {
+		int slot = this.find(y.key());
+		if( slot >= 0 && !this.membershipEquals(this.itemAt(slot), y) )
+			slot = -1;
+		this.moveTo(slot);
+	}
+
+	@Override
+	public void search(K k) {
+		this.moveTo(this.find(k));
+	}
+
+	/**
+	 * Searches the table for the first item, in slot order, with key at least
+	 * as large as k.  Searching begins from the first slot, or the slot after
+	 * the current item if searches have been set to continue.  Every key
+	 * passed over is decoded.
+	 * @timing O(capacity())
+	 * @param k The key value -- search will find items with key at least as large as k.
+	 */
+	@Override
+	public void searchCeilingOf(K k) {
+		int i = this.startOfScan();
+		while( i < this.slots && (!this.occupied(i) || this.keyAt(i).compareTo(k) < 0) )
+			i++;
+		this.position = i;
+	}
+
+	@Override
+	public void setItem(I x) throws NoCurrentItem280Exception,
+			InvalidArgument280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item to replace.");
+		if( x.key().compareTo(this.itemKey()) != 0 )
+			throw new InvalidArgument280Exception("The current item's key does not match that of x.");
+		this.storeSlot(this.position, this.hashAt(this.position), x);
+	}
+
+	@Override
+	public int capacity() {
+		return this.slots;
+	}
+
+	@Override
+	public int frequency(I i) {
+		return this.has(i) ? 1 : 0;
+	}
+
+	/**
+	 * Is the table full?  The table never grows, and is full once its load
+	 * factor reaches its maximum of 0.75.
+	 * @timing O(1)
+	 */
+	@Override
+	public boolean isFull() {
+		return this.count + 1 > this.slots * maxLoadFactor;
+	}
+
+	@Override
+	public void clear() {
+		for(int i = 0; i < this.slots; i++)
+			this.buf.put(this.offset(i), (byte) 0);
+		this.setCount(0);
+		this.position = -1;
+		this.origin = 0;
+	}
+
+	@Override
+	public String toString() {
+		String result = "";
+		for (int i = 0; i < capacity(); i++)
+			if (occupied(i))
+				result += "\n" + i + ": " + itemAt(i).toString();
+		return result;
+	}
+
+	public static void main(String args[]) throws IOException {
+
+		class Skill implements Keyed280<String>, Comparable<Skill> {
+			String name;
+			int skillCost;
+
+			public Skill(String s, int c) {
+				this.name = s;
+				this.skillCost = c;
+			}
+			public String key() { return name; }
+			public int compareTo(Skill other) { return name.compareTo(other.name); }
+
+			public String toString() {
+				return name + ":" + this.skillCost;
+			}
+		}
+
+		// Names of up to 20 characters, zero padded; an item is its name and cost.
+		class SkillCodec implements SlotCodec280<String, Skill> {
+			final int NAME_CHARS = 20;
+			public int keySize() { return 2 * NAME_CHARS; }
+			public int itemSize() { return 2 * NAME_CHARS + 4; }
+			public void writeKey(String k, ByteBuffer buf, int offset) {
+				for(int c = 0; c < NAME_CHARS; c++)
+					buf.putChar(offset + 2 * c, c < k.length() ? k.charAt(c) : 0);
+			}
+			public String readKey(ByteBuffer buf, int offset) {
+				StringBuilder sb = new StringBuilder();
+				for(int c = 0; c < NAME_CHARS && buf.getChar(offset + 2 * c) != 0; c++)
+					sb.append(buf.getChar(offset + 2 * c));
+				return sb.toString();
+			}
+			public void writeItem(Skill x, ByteBuffer buf, int offset) {
+				this.writeKey(x.name, buf, offset);
+				buf.putInt(offset + 2 * NAME_CHARS, x.skillCost);
+			}
+			public Skill readItem(ByteBuffer buf, int offset) {
+				return new Skill(this.readKey(buf, offset), buf.getInt(offset + 2 * NAME_CHARS));
+			}
+		}
+
+		File f = File.createTempFile("skills", ".280");
+		f.deleteOnExit();
+		SkillCodec codec = new SkillCodec();
+		MappedKeyedHashTable280<String, Skill> H = new MappedKeyedHashTable280<String, Skill>(f, 5000, codec);
+		if( H.isFull() || H.capacity() < 5000 / 0.75 )
+			System.out.println("Error: table for 5000 items has only " + H.capacity() + " slots.");
+
+		// Test insert, obtain and has.
+		for(int i = 0; i < 5000; i++)
+			H.insert(new Skill("s" + i, i));
+		if( H.count() != 5000 ) System.out.println("Error: table should have 5000 items but has " + H.count());
+		try {
+			H.insert(new Skill("s17", 0));
+			System.out.println("Error: expected duplicate items exception when inserting a duplicate key, but got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+			// Expected, do nothing.
+		}
+		for(int i = 0; i < 5000; i++)
+			if( H.obtain("s" + i).skillCost != i )
+				System.out.println("Error: obtain(\"s" + i + "\") returned the wrong item.");
+		if( H.has("Stab") ) System.out.println("Error: has(\"Stab\") should be false.");
+		if( !H.has(new Skill("s3", 3)) ) System.out.println("Error: has(x) should find an equal item.");
+
+		// Fill the table up.
+		int extra = 0;
+		try {
+			while( true ) {
+				H.insert(new Skill("x" + extra, extra));
+				extra++;
+			}
+		}
+		catch(ContainerFull280Exception e) {
+			// Expected, do nothing.
+		}
+		if( H.count() != (int) (H.capacity() * maxLoadFactor) )
+			System.out.println("Error: full table should hold " + (int) (H.capacity() * maxLoadFactor) + " items but holds " + H.count());
+
+		// Test delete, set and setItem.
+		for(int i = 0; i < 5000; i += 2)
+			H.delete("s" + i);
+		for(int i = 0; i < extra; i++)
+			H.delete("x" + i);
+		try {
+			H.delete("s0");
+			System.out.println("Error: expected exception deleting a key that was already deleted.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+		H.set(new Skill("s1", 1001));
+		H.search("s3");
+		H.setItem(new Skill("s3", 1003));
+		try {
+			H.set(new Skill("s0", 0));
+			System.out.println("Error: expected exception setting an item that is not in the table.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+
+		// Close and reopen: everything must still be there.
+		H.close();
+		H = new MappedKeyedHashTable280<String, Skill>(f, codec);
+		if( H.count() != 2500 ) System.out.println("Error: reopened table should have 2500 items but has " + H.count());
+		for(int i = 0; i < 5000; i++) {
+			int expected = (i == 1 || i == 3) ? 1000 + i : i;
+			if( H.has("s" + i) != (i % 2 == 1) )
+				System.out.println("Error: has(\"s" + i + "\") is wrong after reopening.");
+			else if( i % 2 == 1 && H.obtain("s" + i).skillCost != expected )
+				System.out.println("Error: obtain(\"s" + i + "\") returned the wrong item after reopening.");
+		}
+
+		// Iterate, then delete everything with deleteItem().
+		int n = 0;
+		H.goFirst();
+		while( H.itemExists() ) {
+			if( !H.itemKey().equals(H.item().name) ) System.out.println("Error: itemKey() does not match item().");
+			n++;
+			H.goForth();
+		}
+		if( n != 2500 ) System.out.println("Error: iteration should visit 2500 items but visited " + n);
+		H.goFirst();
+		while( H.itemExists() )
+			H.deleteItem();
+		if( !H.isEmpty() ) System.out.println("Error: table should be empty after deleting every item.");
+		H.close();
+
+		// Delete at random while iterating over a probe run that wraps past
+		// the end of the table: every item must be visited exactly once.
+		Hasher280 nearTheEnd = new Hasher280() {
+			public int hash(Object y) { return 56 + (y.hashCode() & 15); }
+		};
+		File g = File.createTempFile("wrapped", ".280");
+		g.deleteOnExit();
+		java.util.Random random = new java.util.Random(280);
+		int wrongVisits = 0;
+		for(int trial = 0; trial < 200; trial++) {
+			MappedKeyedHashTable280<String, Skill> W = new MappedKeyedHashTable280<String, Skill>(g, 40, codec);
+			W.setHasher(nearTheEnd);
+			for(int i = 0; i < 40; i++)
+				W.insert(new Skill("w" + random.nextInt(100000) + "." + i, i));
+			int[] visits = new int[40];
+			W.goFirst();
+			while( W.itemExists() ) {
+				visits[W.item().skillCost]++;
+				if( random.nextBoolean() )
+					W.deleteItem();
+				else
+					W.goForth();
+			}
+			for(int i = 0; i < 40; i++)
+				if( visits[i] != 1 )
+					wrongVisits++;
+			W.close();
+		}
+		if( wrongVisits != 0 )
+			System.out.println("Error: deleting while iterating over a wrapped run visited " + wrongVisits + " items other than once.");
+
+		// A codec of a different size is refused.
+		try {
+			new MappedKeyedHashTable280<String, Skill>(f, new SkillCodec() {
+				public int itemSize() { return 8; }
+			});
+			System.out.println("Error: expected exception opening the table with a different codec.");
+		}
+		catch(InvalidArgument280Exception e) {
+		}
+
+		System.out.println("Regression test complete.");
+	}
+}
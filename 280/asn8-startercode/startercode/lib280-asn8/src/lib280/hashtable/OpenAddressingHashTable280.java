@@ -0,0 +1,211 @@
+package lib280.hashtable;
+
+import lib280.base.CursorPosition280;
+import lib280.dictionary.HashTable280;
+import lib280.exception.*;
+
+/**	The part of a linear probing hash table that does not depend on how its
+	slots are stored: deletion by shifting the rest of the probe run back
+	into the hole, and the cursor.  Subclasses say whether a slot is in use,
+	give the home slot of the key in a slot, and move and clear slots.
+
+	The cursor visits the slots from the first empty slot to the end of the
+	table, and then wraps around to the slots before it.  No probe run
+	crosses an empty slot, so deleting the current item only ever shifts
+	items the cursor has not reached yet, and a loop that deletes some items
+	as it goes visits every item exactly once.  The number of slots must be
+	a power of two. */
+public abstract class OpenAddressingHashTable280<I> extends HashTable280<I> {
+
+	/**	Slot of the current item; -1 is before the first slot and capacity() is after the last. */
+	protected int position;
+
+	/**	Slot the cursor's traversal started from: the first empty slot when
+		goFirst() was last called.  Slots before it are visited last. */
+	protected int origin;
+
+	/**
+	 * Is slot in use?
+	 * @timing O(1)
+	 */
+	protected abstract boolean occupied(int slot);
+
+	/**
+	 * The home slot of the key stored in slot.
+	 * @precond occupied(slot)
+	 * @timing O(1)
+	 */
+	protected abstract int homeOfSlot(int slot);
+
+	/**
+	 * Move the key and item in slot from to slot to.
+	 * @timing O(1)
+	 */
+	protected abstract void moveSlot(int from, int to);
+
+	/**
+	 * Empty slot.
+	 * @timing O(1)
+	 */
+	protected abstract void clearSlot(int slot);
+
+	/**
+	 * Set the number of items to n.
+	 * @timing O(1)
+	 */
+	protected void setCount(int n) {
+		this.count = n;
+	}
+
+	/**
+	 * Empty slot by shifting back every later item of its probe run that
+	 * would otherwise become unreachable.  If the cursor's item is moved, the
+	 * cursor moves with it.
+	 * @precond occupied(slot)
+	 * @timing O(1) expected
+	 */
+	protected void deleteSlot(int slot) {
+		int mask = this.capacity() - 1;
+		int hole = slot;
+		for(int i = (slot + 1) & mask; this.occupied(i); i = (i + 1) & mask) {
+			// The item at i can fill the hole unless its home slot lies
+			// (cyclically) strictly after the hole.
+			int home = this.homeOfSlot(i);
+			if( ((i - home) & mask) >= ((i - hole) & mask) ) {
+				this.moveSlot(i, hole);
+				if( this.position == i )
+					this.position = hole;
+				hole = i;
+			}
+		}
+		this.clearSlot(hole);
+		this.setCount(this.count - 1);
+	}
+
+	/**
+	 * Move the cursor to the item in slot, or after if slot is -1 (not found).
+	 * Keys are unique, so a continued search cannot find the current item again.
+	 * @timing O(1)
+	 */
+	protected void moveTo(int slot) {
+		if( slot < 0 || (this.searchesContinue && slot == this.position) )
+			this.position = this.capacity();
+		else
+			this.position = slot;
+	}
+
+	/**
+	 * The slot from which a scan of the whole table starts: the first slot,
+	 * or the one after the current item if searches continue.
+	 * @timing O(1)
+	 */
+	protected int startOfScan() {
+		return (this.searchesContinue && this.itemExists()) ? this.position + 1 : 0;
+	}
+
+	/**
+	 * The first used slot at or after slot in the cursor's traversal, or
+	 * capacity() if there is none.
+	 * @timing O(capacity()) worst case
+	 * @param slot where to start looking
+	 * @param wrapped is slot among the slots before origin, which are visited last?
+	 */
+	protected int nextOccupied(int slot, boolean wrapped) {
+		int length = this.capacity();
+		if( !wrapped ) {
+			while( slot < length && !this.occupied(slot) )
+				slot++;
+			if( slot < length )
+				return slot;
+			slot = 0;
+		}
+		while( slot < this.origin && !this.occupied(slot) )
+			slot++;
+		return slot < this.origin ? slot : length;
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.position >= 0 && this.position < this.capacity() && this.occupied(this.position);
+	}
+
+	@Override
+	public boolean before() {
+		return this.position < 0;
+	}
+
+	@Override
+	public boolean after() {
+		return this.position >= this.capacity();
+	}
+
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		if( this.after() )
+			throw new AfterTheEnd280Exception("Cannot goForth() when at the end of the table");
+		if( this.before() )
+			this.goFirst();
+		else
+			this.position = this.nextOccupied(this.position + 1, this.position < this.origin);
+	}
+
+	/**
+	 * Go to the first item.  The traversal starts at the first empty slot,
+	 * which is found in O(1) expected time since the table is never full.
+	 * @timing O(1) expected
+	 */
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		int length = this.capacity();
+		this.origin = 0;
+		while( this.origin < length && this.occupied(this.origin) )
+			this.origin++;
+		if( this.origin == length )
+			this.origin = 0;
+		this.position = this.nextOccupied(this.origin, false);
+	}
+
+	@Override
+	public void goBefore() {
+		this.position = -1;
+	}
+
+	@Override
+	public void goAfter() {
+		this.position = this.capacity();
+	}
+
+	/**
+	 * The current position.  It is only valid until the table next grows.
+	 * @timing O(1)
+	 */
+	@Override
+	public CursorPosition280 currentPosition() {
+		return new OpenAddressingPosition280(this.position, this.origin);
+	}
+
+	@Override
+	public void goPosition(CursorPosition280 pos) {
+		if( !(pos instanceof OpenAddressingPosition280) )
+			throw new InvalidArgument280Exception("The cursor position parameter"
+					+ " must be an OpenAddressingPosition280");
+		this.position = ((OpenAddressingPosition280) pos).slot;
+		this.origin = ((OpenAddressingPosition280) pos).origin;
+	}
+
+	/**
+	 * Delete the current item.  Afterwards the cursor is on the next item
+	 * of its traversal: the item shifted into the current slot, if any, is
+	 * one the cursor has not visited yet.
+	 * @precond itemExists()
+	 * @throws NoCurrentItem280Exception if there is no current item.
+	 */
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item to delete.");
+		this.deleteSlot(this.position);
+		if( !this.occupied(this.position) )
+			this.position = this.nextOccupied(this.position, this.position < this.origin);
+	}
+}
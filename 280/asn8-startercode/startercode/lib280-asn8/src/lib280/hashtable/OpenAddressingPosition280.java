@@ -0,0 +1,16 @@
+package lib280.hashtable;
+
+import lib280.base.CursorPosition280;
+
+/**	The saved cursor position of an open addressing hash table: the slot
+	the cursor was at and the slot its traversal started from. */
+public class OpenAddressingPosition280 implements CursorPosition280 {
+	int slot;
+
+	int origin;
+
+	OpenAddressingPosition280(int slot, int origin) {
+		this.slot = slot;
+		this.origin = origin;
+	}
+}
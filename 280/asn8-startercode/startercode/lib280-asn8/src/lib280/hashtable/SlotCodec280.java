@@ -0,0 +1,48 @@
+package lib280.hashtable;
+
+import java.nio.ByteBuffer;
+
+/**	Converts keys and items to and from the fixed-size byte records of a
+	MappedKeyedHashTable280.  Every key takes exactly keySize() bytes and
+	every item exactly itemSize() bytes.  Keys are compared in their encoded
+	form, so equal keys must always encode to the same bytes (pad unused
+	space with zeros, for example).  All access is by absolute offset, so
+	the codec never changes the position of the buffer. */
+public interface SlotCodec280<K, I>
+{
+	/**	Number of bytes written by writeKey(). */
+	public int keySize();
+
+	/**	Number of bytes written by writeItem(). */
+	public int itemSize();
+
+	/**
+	 * Write k into buf starting at offset.
+	 * @param k the key to be written
+	 * @param buf buffer to write into
+	 * @param offset index of the first byte to write
+	 */
+	public void writeKey(K k, ByteBuffer buf, int offset);
+
+	/**
+	 * The key written into buf starting at offset.
+	 * @param buf buffer to read from
+	 * @param offset index of the first byte of the key
+	 */
+	public K readKey(ByteBuffer buf, int offset);
+
+	/**
+	 * Write x into buf starting at offset.
+	 * @param x the item to be written
+	 * @param buf buffer to write into
+	 * @param offset index of the first byte to write
+	 */
+	public void writeItem(I x, ByteBuffer buf, int offset);
+
+	/**
+	 * A new item read from buf starting at offset.
+	 * @param buf buffer to read from
+	 * @param offset index of the first byte of the item
+	 */
+	public I readItem(ByteBuffer buf, int offset);
+}
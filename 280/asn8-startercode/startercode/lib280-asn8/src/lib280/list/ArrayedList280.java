@@ -12,6 +12,18 @@ import lib280.exception.*;
 /**
  * This arrayed list is implemented as a circular list to allow for
  * constant-time insertions and deletions at the beginning and the end.
+ * 
+ * A list is either fixed-capacity, in which case inserting into a full list
+ * throws ContainerFull280Exception, or growable, in which case the array is
+ * replaced by one twice the size whenever it fills up.  The copy unwraps the
+ * circular layout so that the last item lands at index 0; each insertion at
+ * either end then takes amortized constant time.  A growable list can also be
+ * made shrinkable, so that its array is halved whenever it is a quarter full
+ * (but never below the initial capacity), keeping its memory proportional to
+ * the number of items rather than to the largest number it ever held.
+ * 
+ * Resizing invalidates any cursor position obtained from currentPosition()
+ * and any iterator obtained from iterator().
  * @author eramian
  *
  * @param <I>
@@ -51,6 +63,26 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 	 */
 	protected boolean continueSearch;
 	
+	/**
+	 * Does the array grow when the list is full, rather than insertions failing?
+	 */
+	protected boolean growable;
+	
+	/**
+	 * Does the array of a growable list shrink when it is mostly empty?
+	 */
+	protected boolean shrinkable;
+	
+	/**
+	 * The capacity below which a growable list never shrinks.
+	 */
+	protected int minCapacity;
+	
+	/**
+	 * Initial capacity of a list created with the default constructor.
+	 */
+	public static final int DEFAULT_CAPACITY = 8;
+	
 
 	private int mod( int a, int b ) {
 		return ((a % b) + b) % b;
@@ -60,27 +92,136 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 	 * Create a new, empty list.
 	 * @param capacity The maximum number of elements in the list.
 	 */
-	@SuppressWarnings("unchecked")
 	public ArrayedList280(int capacity) {
+		this(capacity, false);
+	}
+	
+	/**
+	 * Create a new, empty, growable list with the default initial capacity.
+	 */
+	public ArrayedList280() {
+		this(DEFAULT_CAPACITY, true);
+	}
+	
+	/**
+	 * Create a new, empty list.
+	 * @param capacity The initial number of elements the list can hold; for a
+	 *        fixed-capacity list, the maximum.
+	 * @param growable Whether the list grows when it is full, rather than
+	 *        insertions throwing ContainerFull280Exception.
+	 * @throws InvalidArgument280Exception if a growable list is given a capacity less than 1.
+	 */
+	@SuppressWarnings("unchecked")
+	public ArrayedList280(int capacity, boolean growable) {
+		if( growable && capacity < 1 )
+			throw new InvalidArgument280Exception("A growable list must have a capacity of at least 1.");
 		this.head = 0;
 		this.tail = 0;
 		this.capacity = capacity;
 		this.position = 0;
 		this.listElements = (I[]) new Object[capacity];
+		this.growable = growable;
+		this.minCapacity = capacity;
+	}
+	
+	/**
+	 * Does the list grow when it is full?
+	 * @return true if the list is growable, false if its capacity is fixed.
+	 */
+	public boolean isGrowable() {
+		return this.growable;
+	}
+	
+	/**
+	 * Choose whether a growable list halves its array whenever it becomes a
+	 * quarter full.  Its capacity never drops below the initial capacity.
+	 * Halving at a quarter rather than at a half means that alternating
+	 * insertions and deletions cannot make every operation resize, so each
+	 * stays amortized constant time.
+	 * @param shrinkable Whether the list shrinks.
+	 * @throws InvalidState280Exception if the list is not growable.
+	 */
+	public void setShrinkable(boolean shrinkable) throws InvalidState280Exception {
+		if( !this.growable )
+			throw new InvalidState280Exception("Only a growable list can shrink.");
+		this.shrinkable = shrinkable;
+		this.shrinkIfSparse();
+	}
+	
+	/**
+	 * Make sure the list can hold at least n elements without resizing its array.
+	 * Also raises the capacity below which a shrinkable list will not shrink.
+	 * Analysis: Time = O(n) if the array is replaced, O(1) otherwise.
+	 * @param n The number of elements.
+	 * @throws InvalidState280Exception if the list is not growable.
+	 */
+	public void ensureCapacity(int n) throws InvalidState280Exception {
+		if( !this.growable )
+			throw new InvalidState280Exception("The capacity of a fixed-capacity list cannot be changed.");
+		if( n > this.minCapacity ) this.minCapacity = n;
+		if( n > this.capacity ) this.resize(n);
+	}
+	
+	/**
+	 * Replace the array with one of size newCapacity, unwrapping the circular
+	 * layout so that the last item is at index 0 and the first at numEl-1.
+	 * The cursor stays on the same item.
+	 * Analysis: Time = O(numEl + newCapacity)
+	 * @param newCapacity The size of the new array.
+	 * @precond newCapacity > numEl
+	 */
+	@SuppressWarnings("unchecked")
+	protected void resize(int newCapacity) {
+		I[] newElements = (I[]) new Object[newCapacity];
+		int upper = Math.min(this.numEl, this.capacity - this.tail);
+		System.arraycopy(this.listElements, this.tail, newElements, 0, upper);
+		System.arraycopy(this.listElements, 0, newElements, upper, this.numEl - upper);
+		if( this.itemExists() )
+			this.position = this.mod(this.position - this.tail, this.capacity);
+		this.listElements = newElements;
+		this.capacity = newCapacity;
+		this.tail = 0;
+		this.head = this.numEl;
+	}
+	
+	/**
+	 * Make room for one more element, doubling the array of a growable list if it is full.
+	 * @throws ContainerFull280Exception if a fixed-capacity list is full.
+	 */
+	protected void makeRoom() throws ContainerFull280Exception {
+		if( this.numEl < this.capacity ) return;
+		if( !this.growable ) throw new ContainerFull280Exception();
+		this.resize(2 * this.capacity);
+	}
+	
+	/**
+	 * Halve the array of a shrinkable list while it is at most a quarter full.
+	 */
+	protected void shrinkIfSparse() {
+		if( !this.shrinkable ) return;
+		int newCapacity = this.capacity;
+		while( newCapacity / 2 >= this.minCapacity && 4 * this.numEl <= newCapacity )
+			newCapacity = newCapacity / 2;
+		if( newCapacity != this.capacity )
+			this.resize(newCapacity);
 	}
 	
 	@Override
 	public void deleteFirst() throws ContainerEmpty280Exception {
 		if(isEmpty()) throw new ContainerEmpty280Exception();
 		
-		// If the cursor is on the first item, we have to move it.
-		if( this.position == this.head )
-			this.position = this.mod(this.head - 1, this.capacity);
+		int first = this.mod(this.head - 1, this.capacity);
+		
+		// If the cursor is on the first item, move it to the new first item.
+		if( this.position == first )
+			this.position = this.mod(first - 1, this.capacity);
 		
-		this.head = this.mod(this.head - 1, this.capacity);
+		this.listElements[first] = null;
+		this.head = first;
 		this.numEl--;
 		
 		if( isEmpty() ) this.position = ArrayedListIterator280.beforePos;
+		this.shrinkIfSparse();
 	}
 
 
@@ -93,10 +234,12 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 		if( this.position == this.tail )
 			this.position = this.mod(this.tail + 1,  this.capacity);
 		
+		this.listElements[this.tail] = null;
 		this.tail = this.mod(this.tail + 1,  this.capacity);
 		this.numEl--;
 		
 		if( isEmpty() ) this.position = ArrayedListIterator280.beforePos;
+		this.shrinkIfSparse();
 	}
 
 
@@ -112,7 +255,7 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 
 	@Override
 	public void insertFirst(I x) throws ContainerFull280Exception {
-		if(this.isFull()) throw new ContainerFull280Exception();
+		this.makeRoom();
 		
 		this.listElements[this.head] = x;
 		this.head = this.mod( this.head + 1, this.capacity);
@@ -123,7 +266,7 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 
 	@Override
 	public void insertLast(I x) throws ContainerFull280Exception {
-		if(this.isFull()) throw new ContainerFull280Exception();
+		this.makeRoom();
 		
 		this.tail = this.mod(this.tail - 1, this.capacity);
 		
@@ -205,7 +348,10 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 	public void goForth() throws AfterTheEnd280Exception {
 		if( this.position == ArrayedListIterator280.afterPos )
 			throw new AfterTheEnd280Exception();
-		else if( this.position == ArrayedListIterator280.beforePos ) this.position = head;
+		else if( this.position == ArrayedListIterator280.beforePos ) {
+			if( this.isEmpty() ) this.position = ArrayedListIterator280.afterPos;
+			else this.position = this.mod(this.head - 1, capacity);
+		}
 		else if( this.position == this.tail ) this.position = ArrayedListIterator280.afterPos;
 		else this.position = this.mod(this.position - 1, capacity);
 	}
@@ -332,16 +478,26 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 
 
 
+	/**
+	 * Delete the item at the cursor.  The cursor moves to the following item,
+	 * or to 'after' if the last item was deleted.
+	 * @throws NoCurrentItem280Exception if there is no item at the cursor.
+	 */
 	@Override
 	public void deleteItem() throws NoCurrentItem280Exception {
 		if( !itemExists() )
 			throw new NoCurrentItem280Exception();
 		
-		for(int i = this.position; i != this.head; i = this.mod(i + 1, this.capacity) ) {
-			listElements[i] = listElements[this.mod(i+1, this.capacity)];
+		// Close the gap by moving the items after the cursor up one place.
+		for(int i = this.position; i != this.tail; i = this.mod(i - 1, this.capacity) ) {
+			listElements[i] = listElements[this.mod(i - 1, this.capacity)];
 		}
-		this.head = this.mod(this.head - 1, this.capacity);
-		this.numEl--;	
+		if( this.position == this.tail )
+			this.position = ArrayedListIterator280.afterPos;
+		this.listElements[this.tail] = null;
+		this.tail = this.mod(this.tail + 1, this.capacity);
+		this.numEl--;
+		this.shrinkIfSparse();
 	}
 
 
@@ -373,8 +529,17 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 
 	
 
+	/**
+	 * Remove all items from the list.  A shrinkable list returns to its
+	 * initial capacity.
+	 */
+	@SuppressWarnings("unchecked")
 	@Override
 	public void clear() {
+		if( this.shrinkable && this.capacity > this.minCapacity ) {
+			this.listElements = (I[]) new Object[this.minCapacity];
+			this.capacity = this.minCapacity;
+		}
 		this.head = 0;
 		this.tail = 0;
 		this.numEl = 0;
@@ -390,9 +555,12 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 
 
 
+	/**
+	 * Is the list full?  A growable list is never full.
+	 */
 	@Override
 	public boolean isFull() {
-		return this.head == this.tail && this.numEl == this.capacity;
+		return !this.growable && this.head == this.tail && this.numEl == this.capacity;
 	}
 
 
@@ -406,7 +574,8 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 	}
 	
 	/**
-	 * Obtain the maximum number of elements that can be in the list.
+	 * Obtain the maximum number of elements that can be in the list.  For a
+	 * growable list this is the number it can hold before its array next grows.
 	 * @return The capacity of the list.
 	 */
 	public int capacity() {
@@ -861,5 +1030,100 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 		if( L.isEmpty() ) System.out.println("and it is.");
 		else System.out.println("ERROR: and it is *NOT*.");
 
+		// Test deleteItem(): the cursor moves to the following item.
+		L.insertLast(1);
+		L.insertLast(2);
+		L.insertLast(3);
+		L.goFirst();
+		L.goForth();
+		L.deleteItem();
+		if( !L.itemExists() || L.item() != 3 )
+			System.out.println("Error: after deleting 2 the cursor should be at 3.");
+		L.deleteItem();
+		if( !L.after() )
+			System.out.println("Error: after deleting the last item the cursor should be 'after'.");
+		if( L.count() != 1 || L.firstItem() != 1 || L.lastItem() != 1 )
+			System.out.println("Error: list should be 1, but it is: " + L);
+		L.goBefore();
+		L.goForth();
+		if( !L.itemExists() || L.item() != 1 )
+			System.out.println("Error: goForth() from 'before' should move to the first item.");
+		L.deleteFirst();
+
+		// Test growable lists.
+		ArrayedList280<Integer> G = new ArrayedList280<Integer>(2, true);
+		if( !G.isGrowable() ) System.out.println("Error: list should be growable.");
+		for(int i = 0; i < 100; i++) {
+			if( G.isFull() ) System.out.println("Error: a growable list should never be full.");
+			if( i % 2 == 0 ) G.insertLast(i);
+			else G.insertFirst(i);
+		}
+		if( G.count() != 100 ) System.out.println("Error: count should be 100, but it is " + G.count());
+		if( G.capacity() != 128 ) System.out.println("Error: capacity should be 128, but it is " + G.capacity());
+		// Odd items in descending order, then even items in ascending order.
+		for(int i = 0; i < 100; i++) {
+			int expected = i < 50 ? 99 - 2 * i : 2 * (i - 50);
+			if( G.getItemAtIndex(i) != expected )
+				System.out.println("Error: item at index " + i + " should be " + expected + " but it is " + G.getItemAtIndex(i));
+		}
+
+		// The cursor stays on its item when the array grows.
+		G.search(0);
+		for(int i = 100; i < 200; i++) G.insertLast(i);
+		if( !G.itemExists() || G.item() != 0 )
+			System.out.println("Error: the cursor should still be at 0 after the list grew.");
+		G.goForth();
+		if( !G.itemExists() || G.item() != 2 )
+			System.out.println("Error: the item after 0 should be 2.");
+
+		// Check against java.util.ArrayDeque under random operations, with shrinking.
+		G = new ArrayedList280<Integer>();
+		G.setShrinkable(true);
+		java.util.ArrayDeque<Integer> D = new java.util.ArrayDeque<Integer>();
+		java.util.Random r = new java.util.Random(280);
+		int peak = 0;
+		for(int step = 0; step < 20000; step++) {
+			// Grow for the first half, then drain.
+			int op = r.nextInt(step < 10000 ? 3 : 6);
+			if( op == 0 ) { G.insertFirst(step); D.addFirst(step); }
+			else if( op == 1 ) { G.insertLast(step); D.addLast(step); }
+			else if( op == 2 && !D.isEmpty() ) {
+				if( !G.firstItem().equals(D.peekFirst()) ) System.out.println("Error: firstItem() should be " + D.peekFirst());
+				if( !G.lastItem().equals(D.peekLast()) ) System.out.println("Error: lastItem() should be " + D.peekLast());
+			}
+			else if( op == 3 && !D.isEmpty() ) { G.deleteFirst(); D.removeFirst(); }
+			else if( op >= 4 && !D.isEmpty() ) { G.deleteLast(); D.removeLast(); }
+			peak = Math.max(peak, G.capacity());
+			if( G.count() != D.size() )
+				System.out.println("Error: count should be " + D.size() + " but it is " + G.count());
+			if( G.capacity() < DEFAULT_CAPACITY || (G.count() > DEFAULT_CAPACITY && G.capacity() > 4 * G.count()) )
+				System.out.println("Error: capacity " + G.capacity() + " is out of proportion to count " + G.count());
+		}
+		int i = 0;
+		for(Integer x : D) {
+			if( !G.getItemAtIndex(i).equals(x) )
+				System.out.println("Error: item at index " + i + " should be " + x + " but it is " + G.getItemAtIndex(i));
+			i++;
+		}
+		if( peak < 4096 ) System.out.println("Error: the list should have grown past 4096, but peaked at " + peak);
+		G.clear();
+		if( G.capacity() != DEFAULT_CAPACITY )
+			System.out.println("Error: clear() should restore a shrinkable list to capacity " + DEFAULT_CAPACITY + ", but it is " + G.capacity());
+
+		// A fixed-capacity list cannot grow or shrink.
+		try {
+			L.setShrinkable(true);
+			System.out.println("Error: setShrinkable() on a fixed-capacity list should throw an exception.");
+		}
+		catch( InvalidState280Exception e ) {
+		}
+		try {
+			new ArrayedList280<Integer>(0, true);
+			System.out.println("Error: a growable list with capacity 0 should throw an exception.");
+		}
+		catch( InvalidArgument280Exception e ) {
+		}
+
+		System.out.println("Regression test complete.");
 	}
 }
@@ -54,11 +54,13 @@ public class BilinkedList280<I> extends LinkedList280<I> implements BilinearIter
 			((BilinkedNode280<I>)this.head).setPreviousNode(newNode);
 		}
 		// If the cursor was on the first item, then the cursor's predecessor has to be the new first item.
-		if( this.position == this.head ) 
+		// Not so if the list was empty, or the cursor would move from before to after.
+		if( this.head != null && this.position == this.head ) 
 			this.prevPosition = newNode;
 		
 		// New node becomes the head.
 		this.head = newNode;
+		this.indexInsertedFirst();
 	}
 
 	/**
@@ -94,6 +96,7 @@ public class BilinkedList280<I> extends LinkedList280<I> implements BilinearIter
 			
 			// since position didn't change, but we changed it's predecessor, prevPosition needs to be updated to be the new previous node.
 			prevPosition = newNode;			
+			this.invalidateIndex();
 		}
 	}
 	
@@ -128,6 +131,7 @@ public class BilinkedList280<I> extends LinkedList280<I> implements BilinearIter
 			temp.setPreviousNode((BilinkedNode280<I>)this.position);
 			((BilinkedNode280<I>) this.position.nextNode()).setPreviousNode(temp);
 			this.position.setNextNode(temp);
+			this.invalidateIndex();
 		}
 	}
 
@@ -147,6 +151,7 @@ public class BilinkedList280<I> extends LinkedList280<I> implements BilinearIter
 			this.tail = temp;
 			if (this.after()) 
 				this.prevPosition = this.tail;
+			this.indexInsertedLast();
 		}
 	}
 
@@ -167,8 +172,12 @@ public class BilinkedList280<I> extends LinkedList280<I> implements BilinearIter
 			this.prevPosition.setNextNode(this.position.nextNode());
 			if(this.position.nextNode() != null)
 				((BilinkedNode280<I>) this.position.nextNode()).setPreviousNode((BilinkedNode280<I>)this.prevPosition);
-			if (this.position==this.tail)
+			if (this.position==this.tail) {
 				this.tail = this.prevPosition;
+				this.indexRemovedLast();
+			}
+			else
+				this.invalidateIndex();
 			this.position = this.position.nextNode();
 		}     
 	}
@@ -197,14 +206,8 @@ public class BilinkedList280<I> extends LinkedList280<I> implements BilinearIter
 			// If savePos.prev is the first node, then the first node is being deleted
 			// and savePos.prev has to be null.
 			if( savePos.prev == this.head ) savePos.prev = null;
-			else {
-				// Otherwise, Find the node preceding savePos.prev
-				LinkedNode280<I> tmp = this.head;
-				while(tmp.nextNode() != savePos.prev) tmp = tmp.nextNode();
-				
-				// Update the cursor position to be restored.
-				savePos.prev = tmp;
-			}
+			// Otherwise, the node preceding savePos.prev is linked from it.
+			else savePos.prev = ((BilinkedNode280<I>)savePos.prev).previousNode();
 		}
 				
 		// Unlink the node to be deleted.
@@ -220,7 +223,12 @@ public class BilinkedList280<I> extends LinkedList280<I> implements BilinearIter
 		
 		// If we deleted the first or last node (or both, in the case
 		// that the list only contained one element), update head/tail.
-		if( this.position == this.head ) this.head = this.head.nextNode();
+		if( this.position == this.head ) {
+			this.head = this.head.nextNode();
+			this.indexRemovedFirst();
+		}
+		else if( this.position == this.tail ) this.indexRemovedLast();
+		else this.invalidateIndex();
 		if( this.position == this.tail ) this.tail = this.prevPosition;
 		
 		// Clean up references in the node being deleted.
@@ -275,6 +283,7 @@ public class BilinkedList280<I> extends LinkedList280<I> implements BilinearIter
 			
 			if (this.tail!=null) 
 				this.tail.setNextNode(null);
+			this.indexRemovedLast();
 		}
 	}
 
@@ -858,7 +867,10 @@ public class BilinkedList280<I> extends LinkedList280<I> implements BilinearIter
 		S.search(y);
 		if( !S.itemExists() )
 			System.out.println("Error: search for equal (but not actually the same) compound comparable object in T failed when it should not have.");
-	
-		
+
+		// Random operations, with and without the index, checked against java.util.ArrayList.
+		randomTest(new BilinkedList280<Integer>(), false);
+		randomTest(new BilinkedList280<Integer>(), true);
+		System.out.println("Regression test complete.");
 	}
 } 
@@ -0,0 +1,323 @@
+package lib280.list;
+
+import lib280.exception.*;
+
+/**
+ * An arrayed list of int values with the same circular layout, cursor and
+ * growth policy as ArrayedList280&lt;Integer&gt;, but with the values held in
+ * an int[] so that inserting, reading and searching never box them.
+ */
+public class IntArrayedList280 extends PrimitiveArrayedList280 {
+
+	/**
+	 * Array where the elements are stored.
+	 */
+	protected int[] listElements;
+
+	/**
+	 * Create a new, empty, fixed-capacity list.
+	 * @param capacity The maximum number of elements in the list.
+	 */
+	public IntArrayedList280(int capacity) {
+		this(capacity, false);
+	}
+
+	/**
+	 * Create a new, empty, growable list with the default initial capacity.
+	 */
+	public IntArrayedList280() {
+		this(ArrayedList280.DEFAULT_CAPACITY, true);
+	}
+
+	/**
+	 * Create a new, empty list.
+	 * @param capacity The initial number of elements the list can hold; for a
+	 *        fixed-capacity list, the maximum.
+	 * @param growable Whether the list grows when it is full.
+	 * @throws InvalidArgument280Exception if a growable list is given a capacity less than 1.
+	 */
+	public IntArrayedList280(int capacity, boolean growable) {
+		super(capacity, growable);
+		this.listElements = new int[capacity];
+	}
+
+	@Override
+	protected Object elements() {
+		return this.listElements;
+	}
+
+	@Override
+	protected void setElements(Object elements) {
+		this.listElements = (int[]) elements;
+	}
+
+	@Override
+	protected Object newElements(int n) {
+		return new int[n];
+	}
+
+	@Override
+	protected void move(int from, int to) {
+		this.listElements[to] = this.listElements[from];
+	}
+
+	@Override
+	protected void appendElement(StringBuilder s, int i) {
+		s.append(this.listElements[i]);
+	}
+
+	/**
+	 * Insert x as the first element in the list.
+	 * Analysis: Time = O(1), amortized if the list is growable.
+	 * @throws ContainerFull280Exception if a fixed-capacity list is full.
+	 */
+	public void insertFirst(int x) throws ContainerFull280Exception {
+		int i = this.addFirst();
+		this.listElements[i] = x;
+	}
+
+	/**
+	 * Insert x as the last element in the list.
+	 * Analysis: Time = O(1), amortized if the list is growable.
+	 * @throws ContainerFull280Exception if a fixed-capacity list is full.
+	 */
+	public void insertLast(int x) throws ContainerFull280Exception {
+		int i = this.addLast();
+		this.listElements[i] = x;
+	}
+
+	/**
+	 * Insert x as the first element in the list.
+	 * @throws ContainerFull280Exception if a fixed-capacity list is full.
+	 */
+	public void insert(int x) throws ContainerFull280Exception {
+		this.insertFirst(x);
+	}
+
+	/**
+	 * The first item in the list.
+	 * @throws ContainerEmpty280Exception if the list is empty.
+	 */
+	public int firstItem() throws ContainerEmpty280Exception {
+		return this.listElements[this.firstIndex()];
+	}
+
+	/**
+	 * The last item in the list.
+	 * @throws ContainerEmpty280Exception if the list is empty.
+	 */
+	public int lastItem() throws ContainerEmpty280Exception {
+		return this.listElements[this.lastIndex()];
+	}
+
+	/**
+	 * The item at the cursor.
+	 * @throws NoCurrentItem280Exception if there is no item at the cursor.
+	 */
+	public int item() throws NoCurrentItem280Exception {
+		return this.listElements[this.cursorIndex()];
+	}
+
+	/**
+	 * Obtain the item at position idx in the list. The first element is at index 0.
+	 * @throws InvalidArgument280Exception if there is no item at the specified index.
+	 */
+	public int getItemAtIndex(int idx) throws InvalidArgument280Exception {
+		return this.listElements[this.index(idx)];
+	}
+
+	/**
+	 * Index in the array of the first occurrence of x at or after array index
+	 * from, or -1 if there is none.
+	 */
+	protected int find(int x, int from) {
+		if( from < 0 ) return -1;
+		for(int i = from; ; i = this.mod(i - 1)) {
+			if( this.listElements[i] == x ) return i;
+			if( i == this.tail ) return -1;
+		}
+	}
+
+	/**
+	 * Move the cursor to the first occurrence of x (or, if searches resume, to
+	 * the next occurrence after the cursor), or to 'after' if there is none.
+	 * Analysis: Time = O(count())
+	 */
+	public void search(int x) {
+		this.startSearch();
+		int i = this.itemExists() ? this.find(x, this.position) : -1;
+		this.position = i < 0 ? ArrayedListIterator280.afterPos : i;
+	}
+
+	/**
+	 * Is x in the list?  The cursor does not move.
+	 * Analysis: Time = O(count())
+	 */
+	public boolean has(int x) {
+		return !this.isEmpty() && this.find(x, this.firstIndex()) >= 0;
+	}
+
+	/**
+	 * Delete the first occurrence of x.  The cursor stays on its item, or if
+	 * it was on the deleted item, moves to the following one.
+	 * Analysis: Time = O(count())
+	 * @throws ContainerEmpty280Exception if the list is empty.
+	 * @throws ItemNotFound280Exception if x is not in the list.
+	 */
+	public void delete(int x) throws ContainerEmpty280Exception, ItemNotFound280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot delete from an empty list.");
+		int i = this.find(x, this.firstIndex());
+		if( i < 0 ) throw new ItemNotFound280Exception();
+		this.deleteAt(i);
+	}
+
+	/**
+	 * The items of the list in order, in a new array.
+	 * Analysis: Time = O(count())
+	 */
+	public int[] toArray() {
+		int[] a = new int[this.numEl];
+		for(int k = 0, i = this.mod(this.head - 1); k < this.numEl; k++, i = this.mod(i - 1))
+			a[k] = this.listElements[i];
+		return a;
+	}
+
+	@Override
+	public IntArrayedList280 clone() throws CloneNotSupportedException {
+		return (IntArrayedList280) super.clone();
+	}
+
+	/**
+	 * Regression test.
+	 */
+	public static void main(String[] args) {
+		IntArrayedList280 L = new IntArrayedList280(5);
+		if( !L.isEmpty() ) System.out.println("Error: a new list should be empty.");
+		if( L.itemExists() ) System.out.println("Error: a new list should have no current item.");
+
+		L.insert(5);
+		L.insert(4);
+		L.insertLast(3);
+		L.insertLast(10);
+		L.insertFirst(2);
+		if( !L.isFull() ) System.out.println("Error: list should be full.");
+		if( !L.toString().equals("2, 4, 5, 3, 10, ") )
+			System.out.println("Error: list should be 2, 4, 5, 3, 10, but it is: " + L);
+		int[] expected = {2, 4, 5, 3, 10};
+		for(int i = 0; i < expected.length; i++)
+			if( L.getItemAtIndex(i) != expected[i] )
+				System.out.println("Error: item at index " + i + " should be " + expected[i] + " but it is " + L.getItemAtIndex(i));
+		if( !java.util.Arrays.equals(L.toArray(), expected) )
+			System.out.println("Error: toArray() should match the list.");
+		try {
+			L.insertLast(1);
+			System.out.println("Error: inserting into a full list should throw an exception.");
+		}
+		catch( ContainerFull280Exception e ) {
+		}
+		try {
+			L.getItemAtIndex(5);
+			System.out.println("Error: getting the item at index 5 should throw an exception.");
+		}
+		catch( InvalidArgument280Exception e ) {
+		}
+
+		// Cursor movement and searching.
+		L.goBefore();
+		int k = 0;
+		L.goForth();
+		while( L.itemExists() ) {
+			if( L.item() != expected[k] )
+				System.out.println("Error: item " + k + " should be " + expected[k] + " but it is " + L.item());
+			k++;
+			L.goForth();
+		}
+		if( k != 5 || !L.after() ) System.out.println("Error: iteration should visit 5 items and end 'after'.");
+		try {
+			L.goForth();
+			System.out.println("Error: goForth() from 'after' should throw an exception.");
+		}
+		catch( AfterTheEnd280Exception e ) {
+		}
+		if( !L.has(3) || L.has(7) ) System.out.println("Error: has() is wrong.");
+		if( !L.after() ) System.out.println("Error: has() should not move the cursor.");
+		L.search(5);
+		if( !L.itemExists() || L.item() != 5 ) System.out.println("Error: search(5) should find 5.");
+		L.search(7);
+		if( !L.after() ) System.out.println("Error: search(7) should end 'after'.");
+
+		// Deleting keeps the cursor on its item.
+		L.search(3);
+		L.delete(4);
+		if( L.item() != 3 ) System.out.println("Error: deleting 4 should leave the cursor at 3.");
+		L.delete(10);
+		if( L.item() != 3 ) System.out.println("Error: deleting 10 should leave the cursor at 3.");
+		L.deleteItem();
+		if( !L.after() ) System.out.println("Error: deleting the last item should leave the cursor 'after'.");
+		if( !L.toString().equals("2, 5, ") ) System.out.println("Error: list should be 2, 5, but it is: " + L);
+		try {
+			L.delete(7);
+			System.out.println("Error: deleting an absent item should throw an exception.");
+		}
+		catch( ItemNotFound280Exception e ) {
+		}
+		L.goFirst();
+		L.deleteFirst();
+		if( L.item() != 5 ) System.out.println("Error: after deleteFirst() the cursor should move to 5.");
+		L.deleteLast();
+		if( !L.isEmpty() || !L.before() ) System.out.println("Error: list should be empty with the cursor 'before'.");
+		try {
+			L.firstItem();
+			System.out.println("Error: firstItem() of an empty list should throw an exception.");
+		}
+		catch( ContainerEmpty280Exception e ) {
+		}
+		L.search(3);
+		if( !L.after() ) System.out.println("Error: searching an empty list should end 'after'.");
+
+		// Growable lists, checked against java.util.ArrayDeque.
+		IntArrayedList280 G = new IntArrayedList280();
+		G.setShrinkable(true);
+		java.util.ArrayDeque<Integer> D = new java.util.ArrayDeque<Integer>();
+		java.util.Random r = new java.util.Random(280);
+		for(int step = 0; step < 20000; step++) {
+			int op = r.nextInt(step < 10000 ? 3 : 6);
+			if( op == 0 ) { G.insertFirst(step); D.addFirst(step); }
+			else if( op == 1 ) { G.insertLast(step); D.addLast(step); }
+			else if( op == 2 && !D.isEmpty() ) {
+				if( G.firstItem() != D.peekFirst() || G.lastItem() != D.peekLast() )
+					System.out.println("Error: first and last items should be " + D.peekFirst() + " and " + D.peekLast());
+			}
+			else if( op == 3 && !D.isEmpty() ) { G.deleteFirst(); D.removeFirst(); }
+			else if( op >= 4 && !D.isEmpty() ) { G.deleteLast(); D.removeLast(); }
+			if( G.count() != D.size() )
+				System.out.println("Error: count should be " + D.size() + " but it is " + G.count());
+			if( G.count() > ArrayedList280.DEFAULT_CAPACITY && G.capacity() > 4 * G.count() )
+				System.out.println("Error: capacity " + G.capacity() + " is out of proportion to count " + G.count());
+		}
+		k = 0;
+		for(Integer x : D) {
+			if( G.getItemAtIndex(k) != x )
+				System.out.println("Error: item at index " + k + " should be " + x + " but it is " + G.getItemAtIndex(k));
+			k++;
+		}
+
+		// The cursor stays on its item as the array grows, and clones are independent.
+		G = new IntArrayedList280(1, true);
+		G.insertLast(1);
+		G.goFirst();
+		for(int i = 2; i <= 100; i++) G.insertLast(i);
+		if( G.item() != 1 ) System.out.println("Error: the cursor should still be at 1 after the list grew.");
+		try {
+			IntArrayedList280 C = G.clone();
+			C.deleteFirst();
+			C.insertFirst(-1);
+			if( G.firstItem() != 1 ) System.out.println("Error: changing a clone should not change the original.");
+		}
+		catch( CloneNotSupportedException e ) {
+			System.out.println("Error: clone() failed.");
+		}
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,986 @@
+package lib280.list;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import lib280.base.Container280;
+import lib280.base.CursorPosition280;
+import lib280.base.Keyed280;
+import lib280.base.Pair280;
+import lib280.dictionary.KeyedDict280;
+import lib280.exception.*;
+
+/**
+ * An ordered keyed dictionary kept as a skip list: a linked list of the
+ * items in key order, with sparser linked lists above it as express lanes.
+ * Every node is on level 0, and on each level above with probability 1/4,
+ * so a search that descends from the top level takes O(log n) expected
+ * time.  The cursor and range scans walk level 0 in key order.
+ *
+ * No insertion or deletion changes more than the links next to its own
+ * node, so, unlike the balanced trees, the list needs no locks: links are
+ * changed only by compare-and-set, and any number of threads may insert,
+ * delete and search at once.  A node is deleted by marking its links from
+ * the top level down and then unlinking it.  A link is marked by replacing
+ * it with a marker node that points to the same successor, so that no
+ * insertion can follow the node.  Searches by inserting and deleting threads
+ * unlink any marked nodes they pass.  This is the lock-free skip list of
+ * Herlihy and Shavit, with marker nodes in place of marked references.
+ *
+ * A list made with KeyedSkipList280(true) gives each thread its own cursor,
+ * as ConcurrentKeyedChainedHashTable280 does; otherwise there is one cursor,
+ * and only the methods that do not use it (insert, set, get, has, obtain,
+ * delete and scan) may be called from several threads at once.  After an
+ * insert or delete the cursor stays on the same item, or moves to the
+ * successor of an item that was deleted.  A cursor or scan is weakly
+ * consistent: it sees every item that was in the list when it started and
+ * was not since deleted, and may or may not see changes made while it moves.
+ */
+public class KeyedSkipList280<K extends Comparable<? super K>, I extends Keyed280<K>> implements KeyedDict280<K,I>, Container280 {
+
+	/** Maximum number of levels, enough for about 4^16 items. */
+	protected static final int maxLevels = 16;
+
+	/**
+	 * A node of the list.  The key and the number of levels are fixed; only
+	 * the item (by set()) and the links (by compare-and-set) change.
+	 */
+	protected static class Node<K, I> {
+		/** Key of the item, or null in the head and in markers. */
+		final K key;
+		volatile I item;
+		/** Successor on each level the node is on, read and changed through NEXT. */
+		final Node<?, ?>[] next;
+		/** Is this a marker, whose next(0) is the successor of the node that links to it? */
+		final boolean isMarker;
+
+		/** Volatile and compare-and-set access to the elements of next. */
+		static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(Node[].class);
+
+		Node(K key, I item, int levels) {
+			this.key = key;
+			this.item = item;
+			this.next = new Node<?, ?>[levels];
+			this.isMarker = false;
+		}
+
+		/** A marker pointing to succ. */
+		Node(Node<K, I> succ) {
+			this.key = null;
+			this.next = new Node<?, ?>[] { succ };
+			this.isMarker = true;
+		}
+
+		/** Number of levels the node is on. */
+		int levels() {
+			return this.next.length;
+		}
+
+		/** The link on the given level, which may be a marker. */
+		@SuppressWarnings("unchecked")
+		Node<K, I> next(int level) {
+			return (Node<K, I>) NEXT.getVolatile(this.next, level);
+		}
+
+		/** Set the link on the given level. */
+		void setNext(int level, Node<K, I> n) {
+			NEXT.setVolatile(this.next, level, n);
+		}
+
+		/** Change the link on the given level from expect to update, if it is still expect. */
+		boolean casNext(int level, Node<K, I> expect, Node<K, I> update) {
+			return NEXT.compareAndSet(this.next, level, expect, update);
+		}
+
+		/** Is the link on the given level marked? */
+		boolean isMarkedAt(int level) {
+			Node<K, I> s = this.next(level);
+			return s != null && s.isMarker;
+		}
+
+		/** Has the node been deleted, that is, is its link on level 0 marked? */
+		boolean isDeleted() {
+			return this.isMarkedAt(0);
+		}
+
+		/** The successor on the given level, whether or not the link is marked. */
+		Node<K, I> succ(int level) {
+			Node<K, I> s = this.next(level);
+			return s != null && s.isMarker ? s.next(0) : s;
+		}
+	}
+
+	/** A cursor: a node, or before or after the list. */
+	protected static class Cursor<K, I> implements CursorPosition280 {
+		/** The current node, or null if the cursor is before or after. */
+		Node<K, I> node;
+		/** If node is null, is the cursor after the list rather than before it? */
+		boolean pastEnd;
+
+		Cursor<K, I> copy() {
+			Cursor<K, I> c = new Cursor<K, I>();
+			c.node = this.node;
+			c.pastEnd = this.pastEnd;
+			return c;
+		}
+	}
+
+	/**
+	 * An iterator over the items of a KeyedSkipList280 whose keys lie in a
+	 * range, in ascending order.  It walks level 0 directly, so a step takes
+	 * O(1) time; it does not use or move the list's cursor.  Other threads
+	 * may change the list during the scan.
+	 */
+	public static class Scan<K extends Comparable<? super K>, I> implements Iterator<I> {
+
+		/** The node holding the next item to return, or null if there is none. */
+		protected Node<K, I> node;
+
+		/** The end of the range at which the scan stops, or null if it runs to the end of the list. */
+		protected K end;
+
+		/** Is the item with key 'end', if any, part of the scan? */
+		protected boolean endInclusive;
+
+		/** The key of the item last returned by next(). */
+		protected K key;
+
+		protected Scan(Node<K, I> first, K end, boolean endInclusive) {
+			this.node = first;
+			this.end = end;
+			this.endInclusive = endInclusive;
+			this.stopIfPastEnd();
+		}
+
+		/** Drop the current node, ending the scan, if its key is past the end of the range. */
+		protected void stopIfPastEnd() {
+			if( this.node == null || this.end == null ) return;
+			int c = this.node.key.compareTo(this.end);
+			if( c > 0 || (c == 0 && !this.endInclusive) )
+				this.node = null;
+		}
+
+		/**
+		 * Is there another item in the scan?
+		 * @timing O(1)
+		 */
+		@Override
+		public boolean hasNext() {
+			return this.node != null;
+		}
+
+		/**
+		 * The next item of the scan.
+		 * @timing O(1) plus the number of deleted nodes skipped
+		 * @throws NoSuchElementException if the scan has ended.
+		 */
+		@Override
+		public I next() throws NoSuchElementException {
+			if( this.node == null )
+				throw new NoSuchElementException("The scan has no more items.");
+			I x = this.node.item;
+			this.key = this.node.key;
+			Node<K, I> n = this.node.succ(0);
+			while( n != null && n.isDeleted() )
+				n = n.succ(0);
+			this.node = n;
+			this.stopIfPastEnd();
+			return x;
+		}
+
+		/**
+		 * The key of the item last returned by next(), without calling its key() method.
+		 * @precond next() has been called
+		 * @timing O(1)
+		 */
+		public K key() {
+			return this.key;
+		}
+	}
+
+	/** Head of the list: a node with no key that is on every level and is never deleted. */
+	protected volatile Node<K, I> head;
+
+	/** Number of items, kept atomically. */
+	protected final AtomicInteger size;
+
+	/** Number of levels any node has been on; searches start at the top of these. */
+	protected final AtomicInteger levels;
+
+	/** The cursor of every thread, if the list is not concurrent. */
+	protected final Cursor<K, I> sharedCursor;
+
+	/** The cursor of each thread, if the list is concurrent. */
+	protected final ThreadLocal<Cursor<K, I>> cursors;
+
+	/**
+	 * Create an empty list with one cursor.
+	 * @timing O(1)
+	 */
+	public KeyedSkipList280() {
+		this(false);
+	}
+
+	/**
+	 * Create an empty list.
+	 * @timing O(1)
+	 * @param concurrent whether every thread has its own cursor
+	 */
+	public KeyedSkipList280(boolean concurrent) {
+		this.head = new Node<K, I>(null, null, maxLevels);
+		this.size = new AtomicInteger(0);
+		this.levels = new AtomicInteger(1);
+		if( concurrent ) {
+			this.sharedCursor = null;
+			this.cursors = new ThreadLocal<Cursor<K, I>>() {
+				@Override
+				protected Cursor<K, I> initialValue() {
+					return new Cursor<K, I>();
+				}
+			};
+		}
+		else {
+			this.sharedCursor = new Cursor<K, I>();
+			this.cursors = null;
+		}
+	}
+
+	/**
+	 * Does every thread have its own cursor?
+	 * @timing O(1)
+	 */
+	public boolean isConcurrent() {
+		return this.cursors != null;
+	}
+
+	/**
+	 * The cursor of the calling thread.
+	 * @timing O(1)
+	 */
+	protected Cursor<K, I> cursor() {
+		return this.cursors == null ? this.sharedCursor : this.cursors.get();
+	}
+
+	/**
+	 * Number of levels above level 0 to put a new node on: 0 with
+	 * probability 3/4, 1 with probability 3/16, and so on.
+	 * @timing O(1)
+	 */
+	protected int randomLevel() {
+		int x = ThreadLocalRandom.current().nextInt();
+		return Integer.numberOfTrailingZeros(x | (1 << 2 * (maxLevels - 1))) / 2;
+	}
+
+	/**
+	 * Find the nodes before and after key k on every level, unlinking any
+	 * marked nodes on the way.  On return, preds[i] is the last node on level
+	 * i with a key less than k, and succs[i] is the node after it.
+	 * @timing O(log n) expected, if no other thread interferes
+	 * @return whether succs[0] has key k.
+	 */
+	protected boolean find(K k, Node<K, I>[] preds, Node<K, I>[] succs) {
+		retry:
+		while( true ) {
+			Node<K, I> pred = this.head;
+			for(int level = maxLevels - 1; level >= 0; level--) {
+				Node<K, I> curr = pred.next(level);
+				// If pred has been marked since we reached it, start over.
+				if( curr != null && curr.isMarker ) continue retry;
+				while( curr != null ) {
+					Node<K, I> s = curr.next(level);
+					if( s != null && s.isMarker ) {
+						// curr is being deleted: unlink it from this level.
+						Node<K, I> after = s.next(0);
+						if( !pred.casNext(level, curr, after) ) continue retry;
+						curr = after;
+					}
+					else if( curr.key.compareTo(k) < 0 ) {
+						pred = curr;
+						curr = s;
+					}
+					else break;
+				}
+				preds[level] = pred;
+				succs[level] = curr;
+			}
+			return succs[0] != null && succs[0].key.compareTo(k) == 0;
+		}
+	}
+
+	/**
+	 * The first node on level 0 with key at least k (or, if inclusive is
+	 * false, greater than k) that has not been deleted.  Changes no links.
+	 * @timing O(log n) expected
+	 * @return the node, or null if there is none.
+	 */
+	protected Node<K, I> ceilingNode(K k, boolean inclusive) {
+		Node<K, I> pred = this.head;
+		Node<K, I> curr = null;
+		for(int level = this.levels.get() - 1; level >= 0; level--) {
+			curr = pred.succ(level);
+			while( curr != null ) {
+				// Compare first, so that stopping does not touch the next node;
+				// a deleted node is only skipped if it is passed or is the result.
+				int c = curr.key.compareTo(k);
+				if( (c > 0 || (c == 0 && inclusive)) && (level > 0 || !curr.isDeleted()) ) break;
+				Node<K, I> s = curr.next(level);
+				if( s != null && s.isMarker )
+					curr = s.next(0);
+				else {
+					pred = curr;
+					curr = s;
+				}
+			}
+		}
+		return curr;
+	}
+
+	/**
+	 * The node with key k, or null if there is none.  Changes no links.
+	 * @timing O(log n) expected
+	 */
+	protected Node<K, I> findNode(K k) {
+		Node<K, I> n = this.ceilingNode(k, true);
+		return n != null && n.key.compareTo(k) == 0 ? n : null;
+	}
+
+	/**
+	 * The first node on level 0 that has not been deleted, or null.
+	 * @timing O(1) plus the number of deleted nodes skipped
+	 */
+	protected Node<K, I> firstNode() {
+		Node<K, I> n = this.head.succ(0);
+		while( n != null && n.isDeleted() )
+			n = n.succ(0);
+		return n;
+	}
+
+	@SuppressWarnings("unchecked")
+	protected Node<K, I>[] newNodeArray() {
+		return (Node<K, I>[]) new Node<?, ?>[maxLevels];
+	}
+
+	/**
+	 * Insert x into the list.
+	 * @timing O(log n) expected
+	 * @throws DuplicateItems280Exception if the list already has an item with key x.key().
+	 */
+	@Override
+	public void insert(I x) throws ContainerFull280Exception, DuplicateItems280Exception {
+		K k = x.key();
+		int top = this.randomLevel();
+		Node<K, I>[] preds = this.newNodeArray();
+		Node<K, I>[] succs = this.newNodeArray();
+		Node<K, I> node;
+		while( true ) {
+			if( this.find(k, preds, succs) )
+				throw new DuplicateItems280Exception("Error: the list already has an item with key " + k);
+			node = new Node<K, I>(k, x, top + 1);
+			for(int level = 0; level <= top; level++)
+				node.setNext(level, succs[level]);
+			// Linking the node into level 0 puts the item in the list.
+			if( preds[0].casNext(0, succs[0], node) ) break;
+		}
+		this.size.incrementAndGet();
+		int l = this.levels.get();
+		while( top >= l && !this.levels.compareAndSet(l, top + 1) )
+			l = this.levels.get();
+
+		// Link it into the levels above, finding them again whenever another thread gets in first.
+		for(int level = 1; level <= top; level++) {
+			while( true ) {
+				Node<K, I> s = node.next(level);
+				// If the node is already being deleted, leave it off the remaining levels.
+				if( s != null && s.isMarker ) return;
+				if( s != succs[level] && !node.casNext(level, s, succs[level]) ) continue;
+				if( preds[level].casNext(level, succs[level], node) ) break;
+				this.find(k, preds, succs);
+			}
+		}
+	}
+
+	@Override
+	public void set(I x) throws ItemNotFound280Exception {
+		Node<K, I> n = this.findNode(x.key());
+		if( n == null )
+			throw new ItemNotFound280Exception("No item with key x.key() was found in the list.");
+		n.item = x;
+	}
+
+	/**
+	 * The item with key k, or null if there is none.  Does not use the cursor.
+	 * @timing O(log n) expected
+	 * @param k key being sought
+	 */
+	public I get(K k) {
+		Node<K, I> n = this.findNode(k);
+		return n == null ? null : n.item;
+	}
+
+	@Override
+	public boolean has(K k) {
+		return this.findNode(k) != null;
+	}
+
+	@Override
+	public I obtain(K k) throws ItemNotFound280Exception {
+		Node<K, I> n = this.findNode(k);
+		if( n == null )
+			throw new ItemNotFound280Exception("No item with the specified key exists in the list.");
+		return n.item;
+	}
+
+	/**
+	 * Delete the item with key k.
+	 * @timing O(log n) expected
+	 * @throws ItemNotFound280Exception if there is no item with key k.
+	 */
+	@Override
+	public void delete(K k) throws ItemNotFound280Exception {
+		Node<K, I>[] preds = this.newNodeArray();
+		Node<K, I>[] succs = this.newNodeArray();
+		if( !this.find(k, preds, succs) )
+			throw new ItemNotFound280Exception("No item with key k was found in the list.");
+		Node<K, I> node = succs[0];
+
+		// Mark the links above level 0, from the top down.
+		for(int level = node.levels() - 1; level > 0; level--) {
+			Node<K, I> s = node.next(level);
+			while( s == null || !s.isMarker ) {
+				node.casNext(level, s, new Node<K, I>(s));
+				s = node.next(level);
+			}
+		}
+
+		// Marking the link on level 0 removes the item; if another thread
+		// marks it first, that thread deleted the item.
+		Node<K, I> s = node.next(0);
+		while( true ) {
+			if( s != null && s.isMarker )
+				throw new ItemNotFound280Exception("No item with key k was found in the list.");
+			if( node.casNext(0, s, new Node<K, I>(s)) ) break;
+			s = node.next(0);
+		}
+		this.size.decrementAndGet();
+		// Unlink the node from every level.
+		this.find(k, preds, succs);
+	}
+
+	/**
+	 * Number of items in the list.
+	 * @timing O(1)
+	 */
+	public int count() {
+		return this.size.get();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.firstNode() == null;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	/**
+	 * Remove every item.  Items inserted by other threads while the list
+	 * is cleared may be lost.
+	 * @timing O(1)
+	 */
+	@Override
+	public void clear() {
+		this.head = new Node<K, I>(null, null, maxLevels);
+		this.size.set(0);
+		this.levels.set(1);
+		this.goBefore();
+	}
+
+	/**
+	 * The current node of cursor c, moving c to the successor first if its
+	 * node has been deleted.
+	 * @timing O(1), or O(log n) expected if the node was deleted
+	 */
+	protected Node<K, I> current(Cursor<K, I> c) {
+		Node<K, I> n = c.node;
+		if( n != null && n.isDeleted() ) {
+			n = this.ceilingNode(n.key, false);
+			c.node = n;
+			c.pastEnd = n == null;
+		}
+		return n;
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		Node<K, I> n = this.current(this.cursor());
+		if( n == null )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return n.item;
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.current(this.cursor()) != null;
+	}
+
+	@Override
+	public K itemKey() throws NoCurrentItem280Exception {
+		Node<K, I> n = this.current(this.cursor());
+		if( n == null )
+			throw new NoCurrentItem280Exception("There is no current item from which to obtain its key.");
+		return n.key;
+	}
+
+	@Override
+	public Pair280<K, I> keyItemPair() throws NoCurrentItem280Exception {
+		Node<K, I> n = this.current(this.cursor());
+		if( n == null )
+			throw new NoCurrentItem280Exception("There is no current item from which to obtain its key.");
+		return new Pair280<K, I>(n.key, n.item);
+	}
+
+	@Override
+	public boolean before() {
+		Cursor<K, I> c = this.cursor();
+		return this.current(c) == null && !c.pastEnd;
+	}
+
+	@Override
+	public boolean after() {
+		Cursor<K, I> c = this.cursor();
+		return this.current(c) == null && c.pastEnd || this.isEmpty();
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		Node<K, I> n = this.firstNode();
+		if( n == null ) throw new ContainerEmpty280Exception("Attempted to move linear iterator to first element of an empty list.");
+		Cursor<K, I> c = this.cursor();
+		c.node = n;
+		c.pastEnd = false;
+	}
+
+	/**
+	 * Advance the cursor to the next item in key order.
+	 * @timing O(1) plus the number of deleted nodes skipped
+	 */
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		Cursor<K, I> c = this.cursor();
+		Node<K, I> n = this.current(c);
+		if( n != null ) n = n.succ(0);
+		else if( c.pastEnd || this.isEmpty() ) throw new AfterTheEnd280Exception("Cannot advance the cursor past the end.");
+		else n = this.firstNode();
+		while( n != null && n.isDeleted() )
+			n = n.succ(0);
+		c.node = n;
+		c.pastEnd = n == null;
+	}
+
+	@Override
+	public void goBefore() {
+		Cursor<K, I> c = this.cursor();
+		c.node = null;
+		c.pastEnd = false;
+	}
+
+	@Override
+	public void goAfter() {
+		Cursor<K, I> c = this.cursor();
+		c.node = null;
+		c.pastEnd = true;
+	}
+
+	@Override
+	public CursorPosition280 currentPosition() {
+		return this.cursor().copy();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void goPosition(CursorPosition280 pos) {
+		if( !(pos instanceof Cursor) )
+			throw new InvalidArgument280Exception("The cursor position parameter"
+					+ " must be a position of a KeyedSkipList280");
+		Cursor<K, I> saved = (Cursor<K, I>) pos;
+		Cursor<K, I> c = this.cursor();
+		c.node = saved.node;
+		c.pastEnd = saved.pastEnd;
+	}
+
+	/**
+	 * Position the cursor at the item with key k, or in the after position
+	 * if there is no such item.
+	 * @timing O(log n) expected
+	 */
+	@Override
+	public void search(K k) {
+		Cursor<K, I> c = this.cursor();
+		c.node = this.findNode(k);
+		c.pastEnd = c.node == null;
+	}
+
+	/**
+	 * Position the cursor at the smallest item with key at least k, or in the
+	 * after position if there is no such item.
+	 * @timing O(log n) expected
+	 */
+	@Override
+	public void searchCeilingOf(K k) {
+		Cursor<K, I> c = this.cursor();
+		c.node = this.ceilingNode(k, true);
+		c.pastEnd = c.node == null;
+	}
+
+	/**
+	 * Remove the current item from the list, leaving the cursor on its successor.
+	 * @timing O(log n) expected
+	 */
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item to delete.");
+		this.delete(this.itemKey());
+	}
+
+	@Override
+	public void setItem(I x) throws NoCurrentItem280Exception, InvalidArgument280Exception {
+		Node<K, I> n = this.current(this.cursor());
+		if( n == null )
+			throw new NoCurrentItem280Exception("There is no current item to alter.");
+		if( n.key.compareTo(x.key()) != 0 )
+			throw new InvalidArgument280Exception("The item x does not have the same key as the current item.");
+		n.item = x;
+	}
+
+	/**
+	 * Iterate in ascending order over the items with keys between lo and hi.
+	 * The cursor is not used or moved.
+	 * @param lo the smallest key of the range, or null for no lower bound
+	 * @param loInclusive whether the item with key lo, if any, is included
+	 * @param hi the largest key of the range, or null for no upper bound
+	 * @param hiInclusive whether the item with key hi, if any, is included
+	 * @timing O(log n) expected to start, then O(1) per item
+	 * @return an iterator over the items in the range.
+	 */
+	public Scan<K, I> scan(K lo, boolean loInclusive, K hi, boolean hiInclusive) {
+		Node<K, I> first = lo == null ? this.firstNode() : this.ceilingNode(lo, loInclusive);
+		return new Scan<K, I>(first, hi, hiInclusive);
+	}
+
+	/**
+	 * String representation of the items in key order.
+	 */
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		for(Node<K, I> n = this.firstNode(); n != null; n = n.succ(0))
+			if( !n.isDeleted() ) s.append(n.item).append(", ");
+		return s.toString();
+	}
+
+	/**
+	 * Check that every level is in key order and holds only nodes of the
+	 * level below, that no marked nodes are left, and that level 0 holds
+	 * count() nodes, printing an error for any violation.  Other threads
+	 * must not change the list during the check.  If deletions may have
+	 * raced with insertions, first unlink the marked nodes they left by a
+	 * find() past every key.
+	 */
+	protected void check() {
+		for(int level = 0; level < maxLevels; level++) {
+			int n = 0;
+			Node<K, I> below = this.head;
+			for(Node<K, I> p = this.head.next(level); p != null; p = p.next(level)) {
+				if( p.isMarker || p.isMarkedAt(level) ) {
+					System.out.println("Error: a marked node is still linked on level " + level + ".");
+					return;
+				}
+				if( p.levels() <= level )
+					System.out.println("Error: node " + p.key + " is linked on level " + level + " but has only " + p.levels() + " levels.");
+				Node<K, I> s = p.next(level);
+				if( s != null && !s.isMarker && s.key.compareTo(p.key) <= 0 )
+					System.out.println("Error: key " + s.key + " follows " + p.key + " on level " + level + ".");
+				if( level > 0 ) {
+					while( below != null && below != p )
+						below = below.next(level - 1);
+					if( below == null )
+						System.out.println("Error: node " + p.key + " is on level " + level + " but not on level " + (level - 1) + ".");
+				}
+				n++;
+			}
+			if( level == 0 && n != this.count() )
+				System.out.println("Error: level 0 holds " + n + " items but the count is " + this.count() + ".");
+			if( level >= this.levels.get() && n > 0 )
+				System.out.println("Error: level " + level + " is in use but levels is " + this.levels.get() + ".");
+		}
+	}
+
+	public static void main(String args[]) throws InterruptedException {
+
+		class Item implements Keyed280<Integer> {
+			int num;
+			int stage;
+
+			@Override
+			public Integer key() {
+				return num;
+			}
+
+			Item(int i) {
+				num = i;
+			}
+
+			public String toString() {
+				return num + ":" + stage;
+			}
+		}
+
+		for(boolean concurrent : new boolean[] { false, true }) {
+			KeyedSkipList280<Integer, Item> T = new KeyedSkipList280<Integer, Item>(concurrent);
+
+			// Check goFirst() on an empty list.
+			try {
+				T.goFirst();
+				System.out.println("Error: expected ContainerEmpty280 exception calling goFirst() on empty list, got none.");
+			}
+			catch(ContainerEmpty280Exception e) {
+			}
+			if( !T.isEmpty() || T.itemExists() || !T.after() ) System.out.println("Error: a new list should be empty with the cursor after.");
+
+			// Insert the even numbers 0..1998 in a scrambled order.
+			int n = 1000;
+			for(int i = 0; i < n; i++)
+				T.insert(new Item(2 * ((i * 389) % n)));
+			T.check();
+			if( T.count() != n ) System.out.println("Error: count is " + T.count() + ", expected " + n + ".");
+			for(int i = 0; i < 2 * n; i++)
+				if( T.has(i) != (i % 2 == 0) ) System.out.println("Error: has(" + i + ") is wrong.");
+			if( T.obtain(500).key() != 500 ) System.out.println("Error: obtain(500) returned the wrong item.");
+			if( T.get(501) != null ) System.out.println("Error: get(501) should be null.");
+
+			try {
+				T.insert(new Item(10));
+				System.out.println("Error: expected DuplicateItems280Exception, got none.");
+			}
+			catch(DuplicateItems280Exception e) {
+			}
+			try {
+				T.delete(11);
+				System.out.println("Error: expected ItemNotFound280Exception deleting an absent key, got none.");
+			}
+			catch(ItemNotFound280Exception e) {
+			}
+			T.check();
+
+			// Iterate in order.
+			int expected = 0;
+			for(T.goFirst(); T.itemExists(); T.goForth()) {
+				if( T.itemKey() != expected ) System.out.println("Error: iteration gave " + T.itemKey() + ", expected " + expected + ".");
+				expected += 2;
+			}
+			if( expected != 2 * n || !T.after() ) System.out.println("Error: iteration did not end after the last item.");
+			try {
+				T.goForth();
+				System.out.println("Error: expected AfterTheEnd280Exception from goForth() after the end, got none.");
+			}
+			catch(AfterTheEnd280Exception e) {
+			}
+			T.goBefore();
+			T.goForth();
+			if( !T.itemExists() || T.itemKey() != 0 ) System.out.println("Error: goForth() from before should go to the first item.");
+
+			// searchCeilingOf on present and absent keys.
+			T.searchCeilingOf(37);
+			if( !T.itemExists() || T.itemKey() != 38 ) System.out.println("Error: searchCeilingOf(37) should find 38.");
+			T.searchCeilingOf(38);
+			if( !T.itemExists() || T.itemKey() != 38 ) System.out.println("Error: searchCeilingOf(38) should find 38.");
+			T.searchCeilingOf(-5);
+			if( !T.itemExists() || T.itemKey() != 0 ) System.out.println("Error: searchCeilingOf(-5) should find 0.");
+			T.searchCeilingOf(2 * n - 1);
+			if( !T.after() ) System.out.println("Error: searchCeilingOf past the largest key should leave the cursor after the end.");
+			T.search(37);
+			if( !T.after() ) System.out.println("Error: search for an absent key should leave the cursor after the end.");
+
+			// A range scan the way existing KeyedDict280 code does it, and with scan().
+			int inRange = 0;
+			for(T.searchCeilingOf(101); T.itemExists() && T.itemKey() <= 201; T.goForth())
+				inRange++;
+			if( inRange != 50 ) System.out.println("Error: cursor scan of [101, 201] visited " + inRange + " items, expected 50.");
+			T.search(300);
+			inRange = 0;
+			expected = 102;
+			for(Scan<Integer, Item> s = T.scan(100, false, 200, true); s.hasNext(); ) {
+				if( s.next().key() != expected || s.key() != expected ) System.out.println("Error: scan(100, 200] gave " + s.key() + ", expected " + expected + ".");
+				expected += 2;
+				inRange++;
+			}
+			if( inRange != 50 ) System.out.println("Error: scan(100, 200] visited " + inRange + " items, expected 50.");
+			if( T.itemKey() != 300 ) System.out.println("Error: scans should not move the cursor.");
+			inRange = 0;
+			for(Scan<Integer, Item> s = T.scan(null, false, null, false); s.hasNext(); s.next())
+				inRange++;
+			if( inRange != n ) System.out.println("Error: an unbounded scan visited " + inRange + " items, expected " + n + ".");
+			if( T.scan(100, false, 100, true).hasNext() || T.scan(2 * n, true, null, false).hasNext() )
+				System.out.println("Error: a scan of an empty range should be empty.");
+			try {
+				T.scan(2 * n, true, null, false).next();
+				System.out.println("Error: expected NoSuchElementException from next() on an empty scan, got none.");
+			}
+			catch(NoSuchElementException e) {
+			}
+
+			// The cursor follows its item through inserts and deletes.
+			T.search(600);
+			T.insert(new Item(601));
+			T.delete(598);
+			if( !T.itemExists() || T.itemKey() != 600 ) System.out.println("Error: cursor did not stay on 600 through an insert and a delete.");
+			T.deleteItem();
+			if( !T.itemExists() || T.itemKey() != 601 ) System.out.println("Error: deleteItem() should leave the cursor on the successor.");
+			T.delete(601);
+			if( !T.itemExists() || T.itemKey() != 602 ) System.out.println("Error: deleting the current item by key should move the cursor to the successor.");
+			T.insert(new Item(598));
+			T.insert(new Item(600));
+			T.check();
+
+			// setItem and set.
+			T.search(100);
+			Item hundred = new Item(100);
+			T.setItem(hundred);
+			if( T.obtain(100) != hundred ) System.out.println("Error: setItem() should have replaced the current item.");
+			try {
+				T.setItem(new Item(101));
+				System.out.println("Error: expected InvalidArgument280Exception from setItem with another key, got none.");
+			}
+			catch(InvalidArgument280Exception e) {
+			}
+			try {
+				T.set(new Item(101));
+				System.out.println("Error: expected ItemNotFound280Exception from set with an absent key, got none.");
+			}
+			catch(ItemNotFound280Exception e) {
+			}
+
+			// Saved positions.
+			T.search(300);
+			CursorPosition280 p = T.currentPosition();
+			T.goFirst();
+			T.goPosition(p);
+			if( T.itemKey() != 300 ) System.out.println("Error: goPosition did not restore the cursor.");
+
+			// Delete every other item, then the rest, checking along the way.
+			for(int i = 0; i < n; i += 2)
+				T.delete(2 * i);
+			T.check();
+			if( T.count() != n / 2 ) System.out.println("Error: count is " + T.count() + " after deleting half the items.");
+			for(int i = 0; i < 2 * n; i++)
+				if( T.has(i) != (i % 4 == 2) ) System.out.println("Error: has(" + i + ") is wrong after deletes.");
+			for(int i = 1; i < n; i += 2) {
+				T.delete(2 * i);
+				if( i % 97 == 0 ) T.check();
+			}
+			if( !T.isEmpty() || T.count() != 0 ) System.out.println("Error: list is not empty after deleting every item.");
+			T.check();
+
+			T.insert(new Item(1));
+			T.clear();
+			if( !T.isEmpty() || T.itemExists() || T.has(1) ) System.out.println("Error: list is not empty after clear().");
+		}
+
+		// Each thread has its own cursor in a concurrent list.
+		final KeyedSkipList280<Integer, Item> S = new KeyedSkipList280<Integer, Item>(true);
+		for(int i = 0; i < 100; i++)
+			S.insert(new Item(i));
+		S.search(10);
+		Thread other = new Thread() {
+			public void run() {
+				if( S.itemExists() ) System.out.println("Error: a new thread's cursor should not be on an item.");
+				S.search(20);
+			}
+		};
+		other.start();
+		other.join();
+		if( !S.itemExists() || S.itemKey() != 10 ) System.out.println("Error: another thread's search moved this thread's cursor.");
+
+		// Concurrent writers on interleaved keys, with concurrent readers
+		// iterating in key order and scanning.
+		final KeyedSkipList280<Integer, Item> C = new KeyedSkipList280<Integer, Item>(true);
+		final int writers = 4, perThread = 20000;
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		Thread[] threads = new Thread[8];
+		for(int t = 0; t < threads.length; t++) {
+			final int id = t;
+			threads[t] = new Thread() {
+				public void run() {
+					try {
+						work();
+					}
+					catch(Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+
+				void work() {
+					if( id < writers ) {
+						for(int i = 0; i < perThread; i++)
+							C.insert(new Item(i * writers + id));
+						for(int i = 0; i < perThread; i += 2)
+							C.delete(i * writers + id);
+						// Every writer tries to delete the same keys; exactly one succeeds for each.
+						for(int i = 1; i < 1000; i += 2) {
+							try {
+								C.delete(i * writers);
+							}
+							catch(ItemNotFound280Exception e) {
+							}
+						}
+					}
+					else {
+						// Wait for the first insert: goForth() from before the
+						// start of an empty list is an error.  The writers never
+						// delete every item, so the list stays non-empty.
+						while( C.isEmpty() )
+							Thread.yield();
+						for(int r = 0; r < 20; r++) {
+							int last = -1;
+							for(C.goBefore(), C.goForth(); C.itemExists(); C.goForth()) {
+								if( C.itemKey() <= last ) System.out.println("Error: reader saw key " + C.itemKey() + " after " + last + ".");
+								last = C.itemKey();
+							}
+							last = -1;
+							for(Scan<Integer, Item> s = C.scan(1000, true, 50000, false); s.hasNext(); ) {
+								int k = s.next().num;
+								if( k <= last || k < 1000 || k >= 50000 ) System.out.println("Error: scan saw key " + k + " after " + last + ".");
+								last = k;
+							}
+						}
+					}
+				}
+			};
+		}
+		for(Thread t : threads) t.start();
+		for(Thread t : threads) t.join();
+		if( failure.get() != null )
+			System.out.println("Error: a concurrent thread failed with " + failure.get() + ".");
+		// A deletion racing with an insertion can leave a marked node linked
+		// until a later find() passes it; one past every key unlinks them all.
+		C.find(Integer.MAX_VALUE, C.newNodeArray(), C.newNodeArray());
+		C.check();
+		int remaining = writers * perThread / 2 - 500;
+		if( C.count() != remaining )
+			System.out.println("Error: list should have " + remaining + " items but has " + C.count());
+		for(int i = 0; i < writers * perThread; i++) {
+			boolean shouldHave = (i / writers) % 2 == 1 && !(i % writers == 0 && i / writers < 1000);
+			if( C.has(i) != shouldHave )
+				System.out.println("Error: has(" + i + ") is wrong after the concurrent inserts and deletes.");
+		}
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -38,6 +38,11 @@ public class LinkedList280<I> implements SimpleList280<I> {
 	 */
 	protected boolean continueSearch;
 
+	/**
+	 * Optional skip-list index over the nodes, or null if the list is not indexed.
+	 */
+	protected LinkedListIndex280<I> index;
+
 	
 	/**
 	 * Create an empty list.
@@ -85,11 +90,101 @@ public class LinkedList280<I> implements SimpleList280<I> {
 			
 			// since position didn't change, but we changed it's predecessor, prevPosition needs to be updated to be the new previous node.
 			prevPosition = newNode;			
+			this.invalidateIndex();
 		}
 	}
-	
-	
-	
+
+	/**
+	 * Choose whether the list keeps a skip-list index over its nodes.  An
+	 * indexed list finds the item at any position, and deletes its last
+	 * item, in expected O(log n) time rather than O(n), at the cost of about
+	 * a third of an index entry per node and O(log n) expected time for each
+	 * insertion or deletion at either end.  Insertions and deletions in the
+	 * middle of the list stay O(1) but leave the index to be rebuilt, in
+	 * O(n) time, the next time it is used.
+	 * @param indexed Whether to keep the index.
+	 * @timing O(n) to turn the index on, O(1) to turn it off
+	 */
+	public void setIndexed(boolean indexed) {
+		if( !indexed ) this.index = null;
+		else if( this.index == null ) {
+			this.index = new LinkedListIndex280<I>();
+			this.index.rebuild(this.head);
+		}
+	}
+
+	/**
+	 * Does the list keep a skip-list index over its nodes?
+	 */
+	public boolean isIndexed() {
+		return this.index != null;
+	}
+
+	/**
+	 * The index, rebuilt first if changes in the middle of the list made it
+	 * invalid, or null if the list is not indexed.
+	 */
+	protected LinkedListIndex280<I> readyIndex() {
+		if( this.index != null && !this.index.valid ) this.index.rebuild(this.head);
+		return this.index;
+	}
+
+	/**
+	 * Record in the index, if any, that the list changed other than at its ends.
+	 */
+	protected void invalidateIndex() {
+		if( this.index != null ) this.index.valid = false;
+	}
+
+	/**
+	 * Record in the index, if any, that a node was inserted at the front.
+	 */
+	protected void indexInsertedFirst() {
+		if( this.index != null && this.index.valid ) this.index.insertedFirst(this.head);
+	}
+
+	/**
+	 * Record in the index, if any, that a node was inserted at the end.
+	 */
+	protected void indexInsertedLast() {
+		if( this.index != null && this.index.valid ) this.index.insertedLast(this.tail);
+	}
+
+	/**
+	 * Record in the index, if any, that the first node was deleted.
+	 */
+	protected void indexRemovedFirst() {
+		if( this.index != null && this.index.valid ) this.index.removedFirst();
+	}
+
+	/**
+	 * Record in the index, if any, that the last node was deleted.
+	 */
+	protected void indexRemovedLast() {
+		if( this.index != null && this.index.valid ) this.index.removedLast();
+	}
+
+	/**
+	 * Obtain the item at position idx in the list. The first element is at index 0.
+	 * @param idx - index (position) of the desired list element
+	 * @return the element at index idx in the list.
+	 * @timing O(log n) expected if the list is indexed, O(idx) otherwise
+	 * @throws InvalidArgument280Exception if there is no item at the specified index.
+	 */
+	public I getItemAtIndex(int idx) throws InvalidArgument280Exception {
+		LinkedListIndex280<I> ix = this.readyIndex();
+		if( ix != null ) {
+			if( idx < 0 || idx >= ix.size )
+				throw new InvalidArgument280Exception("There is no element at position " + idx + " in the list.");
+			return ix.nodeAt(idx, this.head).item();
+		}
+		LinkedNode280<I> p = idx < 0 ? null : this.head;
+		for(int i = 0; p != null && i < idx; i++) p = p.nextNode();
+		if( p == null )
+			throw new InvalidArgument280Exception("There is no element at position " + idx + " in the list.");
+		return p.item();
+	}
+
 	/**
 	 * Obtain the last node in the list.
 	 * @precond !isEmpty()
@@ -152,7 +247,9 @@ public class LinkedList280<I> implements SimpleList280<I> {
 			// Reset the tail reference if we deleted the last node.
 			if( this.position == this.tail ) {
 				this.tail = this.prevPosition;
+				this.indexRemovedLast();
 			}
+			else this.invalidateIndex();
 			this.position = this.position.nextNode();
 		}
 	}
@@ -174,6 +271,7 @@ public class LinkedList280<I> implements SimpleList280<I> {
 		this.tail = null;
 		this.position = null;
 		this.prevPosition = null;
+		if( this.index != null ) this.index.rebuild(null);
 	}
 
 	@Override
@@ -189,7 +287,10 @@ public class LinkedList280<I> implements SimpleList280<I> {
 	@SuppressWarnings("unchecked")
 	@Override
 	public LinkedList280<I> clone() throws CloneNotSupportedException {
-		return (LinkedList280<I>)super.clone();
+		LinkedList280<I> c = (LinkedList280<I>)super.clone();
+		// The clone must not share the index; it builds its own when first needed.
+		if( this.index != null ) c.index = new LinkedListIndex280<I>();
+		return c;
 	}
 
 	@Override
@@ -233,6 +334,7 @@ public class LinkedList280<I> implements SimpleList280<I> {
 		LinkedNode280<I> oldhead = this.head;
 		this.head = this.head.nextNode();
 		oldhead.setNextNode(null);
+		this.indexRemovedFirst();
 	}
 
 	@Override
@@ -241,38 +343,40 @@ public class LinkedList280<I> implements SimpleList280<I> {
 		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot delete an item from an empty list.");
 		else if( this.head != null && this.head == this.tail ) this.deleteFirst();
 		else {
-			// There are at least two nodes.
-		
-			// If the cursor is on the last node, we need to update the cursor.
+			// There are at least two nodes.  Finding the second-last node takes a
+			// walk from the head unless the cursor is on the last node or the list
+			// is indexed.
+			LinkedListIndex280<I> ix = this.readyIndex();
+			LinkedNode280<I> penultimate;
+			if( this.position == this.tail ) penultimate = this.prevPosition;
+			else if( ix != null ) penultimate = ix.nodeAt(ix.size - 2, this.head);
+			else {
+				penultimate = this.head;
+				while(penultimate.nextNode() != this.tail) penultimate = penultimate.nextNode();
+			}
+
+			// If the cursor is on the last node, it moves back to the second-last
+			// node, whose predecessor is found the same way.
 			if( this.position == this.tail ) {
-                if(prevPosition==head && position==tail){
-                    tail = head;
-                    position = head;
-                    prevPosition = null;
-                    this.head.nextNode = null;
-                    return;
-                }
-                // Find the node prior to this.position
-				LinkedNode280<I> newPrev = this.head;
-				while( newPrev.nextNode() != this.prevPosition)
-                    newPrev = newPrev.nextNode();
-				this.position = this.prevPosition;
-				this.prevPosition = newPrev;
+				this.position = penultimate;
+				if( penultimate == this.head ) this.prevPosition = null;
+				else if( ix != null ) this.prevPosition = ix.nodeAt(ix.size - 3, this.head);
+				else {
+					LinkedNode280<I> newPrev = this.head;
+					while( newPrev.nextNode() != penultimate ) newPrev = newPrev.nextNode();
+					this.prevPosition = newPrev;
+				}
 			}
-		
-			// 	Find the second-last node -- note this makes the deleteLast() algorithm O(n)
-			LinkedNode280<I> penultimate = this.head;
-			while(penultimate.nextNode() != this.tail) penultimate = penultimate.nextNode();
-		
 			// If the cursor is in the after() position, then prevPosition
 			// has to become the second last node.
-			if( this.after() ) {
+			else if( this.after() ) {
 				this.prevPosition = penultimate;
 			}
 
 			// Unlink the last node.
 			penultimate.setNextNode(null);
 			this.tail = penultimate;
+			this.indexRemovedLast();
 		}
 	}
 
@@ -297,6 +401,7 @@ public class LinkedList280<I> implements SimpleList280<I> {
 		// Special case: if the list is empty, the new item also becomes the tail.
 		if( this.isEmpty() ) this.tail = newItem;
 		this.head = newItem;
+		this.indexInsertedFirst();
 	}
 
 	@Override
@@ -318,6 +423,7 @@ public class LinkedList280<I> implements SimpleList280<I> {
 			this.tail.setNextNode(newItem);
 			this.tail = newItem;
 		}
+		this.indexInsertedLast();
 	}
 
 	@Override
@@ -464,7 +570,12 @@ public class LinkedList280<I> implements SimpleList280<I> {
 		
 		// If we deleted the first or last node (or both, in the case
 		// that the list only contained one element), update head/tail.
-		if( this.position == this.head ) this.head = this.head.nextNode();
+		if( this.position == this.head ) {
+			this.head = this.head.nextNode();
+			this.indexRemovedFirst();
+		}
+		else if( this.position == this.tail ) this.indexRemovedLast();
+		else this.invalidateIndex();
 		if( this.position == this.tail ) this.tail = this.prevPosition;
 		
 		this.position.setNextNode(null);
@@ -980,7 +1091,102 @@ public class LinkedList280<I> implements SimpleList280<I> {
         if(l.tail != l.head || l.tail.item() == 1 || l.item() != 0 || l.head.nextNode() != null) {
 			System.out.println("Error: Last node was not correctly deleted from two-element list.");
 		}
+
+		// Random operations, with and without the index, checked against java.util.ArrayList.
+		randomTest(new LinkedList280<Integer>(), false);
+		randomTest(new LinkedList280<Integer>(), true);
+		System.out.println("Regression test complete.");
     }
+
+	/**
+	 * Apply random operations to the empty list L and to an ArrayList, with
+	 * the cursor modelled as an index (-1 for before, the size for after),
+	 * and report any difference.  The index is switched on and off along the
+	 * way if indexed is true.
+	 */
+	static void randomTest(LinkedList280<Integer> L, boolean indexed) {
+		String name = L.getClass().getSimpleName() + (indexed ? " (indexed)" : "");
+		L.setIndexed(indexed);
+		java.util.ArrayList<Integer> M = new java.util.ArrayList<Integer>();
+		java.util.Random r = new java.util.Random(280);
+		int pos = -1;
+		for(int step = 0; step < 20000; step++) {
+			int n = M.size();
+			int op = r.nextInt(step % 5000 < 3000 ? 8 : 11);
+			if( op == 0 ) {
+				L.insertFirst(step); M.add(0, step);
+				if( pos >= 0 ) pos++;
+			}
+			else if( op == 1 || op == 2 ) {
+				L.insertLast(step); M.add(step);
+				if( pos == n ) pos++;
+			}
+			else if( op == 3 && pos >= 0 ) {
+				L.insertBefore(step); M.add(pos, step);
+				pos++;
+			}
+			else if( op == 4 ) {
+				if( pos < n ) { L.goForth(); pos++; }
+				else if( n > 0 ) { L.goFirst(); pos = 0; }
+			}
+			else if( op == 5 && n > 0 ) {
+				int k = r.nextInt(n);
+				if( !L.getItemAtIndex(k).equals(M.get(k)) )
+					System.out.println("Error in " + name + ": item at index " + k + " should be " + M.get(k) + " but it is " + L.getItemAtIndex(k));
+			}
+			else if( op == 6 && indexed && r.nextInt(100) == 0 ) {
+				L.setIndexed(!L.isIndexed());
+			}
+			else if( op == 7 && n > 0 ) {
+				int k = r.nextInt(n);
+				L.delete(M.get(k)); M.remove(k);
+				if( pos > k ) pos--;
+			}
+			else if( op == 8 && n > 0 ) {
+				L.deleteFirst(); M.remove(0);
+				if( pos > 0 ) pos--;
+			}
+			else if( op == 9 && n > 0 ) {
+				L.deleteLast(); M.remove(n - 1);
+				if( pos == n ) pos--;
+				else if( pos == n - 1 && n > 1 ) pos--;
+			}
+			else if( op == 10 && pos >= 0 && pos < n ) {
+				L.deleteItem(); M.remove(pos);
+			}
+			if( M.isEmpty() ) {
+				L.goBefore();
+				pos = -1;
+				continue;
+			}
+			if( step % 500 == 0 ) {
+				StringBuilder expected = new StringBuilder();
+				for(Integer x : M) expected.append(x).append(", ");
+				if( !L.toString().equals(expected.toString()) )
+					System.out.println("Error in " + name + ": list should be " + expected + " but it is " + L);
+			}
+			if( !L.firstItem().equals(M.get(0)) || !L.lastItem().equals(M.get(M.size() - 1)) )
+				System.out.println("Error in " + name + ": first and last items should be " + M.get(0) + " and " + M.get(M.size() - 1));
+			if( L.before() != (pos == -1) || L.after() != (pos == M.size()) )
+				System.out.println("Error in " + name + ": cursor should be at " + pos + " after step " + step);
+			else if( L.itemExists() && !L.item().equals(M.get(pos)) )
+				System.out.println("Error in " + name + ": item at the cursor should be " + M.get(pos) + " but it is " + L.item());
+		}
+		try {
+			L.getItemAtIndex(M.size());
+			System.out.println("Error in " + name + ": getItemAtIndex() past the end should throw an exception.");
+		}
+		catch( InvalidArgument280Exception e ) {
+		}
+		try {
+			LinkedList280<Integer> C = L.clone();
+			if( C.isIndexed() != L.isIndexed() || (M.size() > 0 && !C.getItemAtIndex(M.size() - 1).equals(M.get(M.size() - 1))) )
+				System.out.println("Error in " + name + ": a clone should keep the index setting and items.");
+		}
+		catch( CloneNotSupportedException e ) {
+			System.out.println("Error in " + name + ": clone() failed.");
+		}
+	}
 	
 
 }
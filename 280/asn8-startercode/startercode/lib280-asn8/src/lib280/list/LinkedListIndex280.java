@@ -0,0 +1,250 @@
+package lib280.list;
+
+/**
+ * A skip-list index over the nodes of a LinkedList280, giving the node at
+ * any position in expected O(log n) time.  The list itself is the bottom
+ * level; each higher level links a random quarter of the entries of the
+ * level below, and each entry records how many list nodes it spans, so a
+ * search descends from the top level to the wanted rank.  Ranks are
+ * relative, so insertions and deletions at either end of the list only
+ * update the entries nearest that end.  Changes in the middle of the list
+ * make the index invalid, and the list rebuilds it when next needed.
+ */
+class LinkedListIndex280<I> {
+
+	/** Maximum number of levels above the list, enough for 4^16 nodes. */
+	static final int maxLevels = 16;
+
+	/** An index entry: a node promoted to some level. */
+	static class Entry<I> {
+		/** The list node, or null for the sentinel at the start of a level. */
+		LinkedNode280<I> node;
+
+		/** The next entry on the same level, or null if this is the last. */
+		Entry<I> next;
+
+		/** The entry for the same node one level down, or null on the lowest level. */
+		Entry<I> down;
+
+		/**
+		 * Rank of next minus rank of this entry; for the last entry on a level,
+		 * the size of the list minus its rank.  The sentinel has rank -1.
+		 */
+		int width;
+	}
+
+	/** Sentinel at the start of each level; heads[0] is the lowest index level. */
+	Entry<I>[] heads;
+
+	/** Last entry on each level in use. */
+	Entry<I>[] lasts;
+
+	/** Number of levels that have at least one entry besides the sentinel. */
+	int levels;
+
+	/** Number of nodes in the list. */
+	int size;
+
+	/** Does the index match the list? */
+	boolean valid;
+
+	/** State of the generator choosing how high each node is promoted. */
+	int seed = 0x2545F491;
+
+	/** Entries of the node being inserted, one per level it is promoted to. */
+	Entry<I>[] tower;
+
+	@SuppressWarnings("unchecked")
+	LinkedListIndex280() {
+		this.heads = (Entry<I>[]) new Entry<?>[maxLevels];
+		this.lasts = (Entry<I>[]) new Entry<?>[maxLevels];
+		this.tower = (Entry<I>[]) new Entry<?>[maxLevels];
+		for(int k = 0; k < maxLevels; k++) {
+			this.heads[k] = new Entry<I>();
+			if( k > 0 ) this.heads[k].down = this.heads[k - 1];
+		}
+	}
+
+	/**
+	 * Number of levels to promote a new node to: 0 with probability 3/4,
+	 * 1 with probability 3/16, and so on.
+	 */
+	int height() {
+		int x = this.seed;
+		x ^= x << 13;
+		x ^= x >>> 17;
+		x ^= x << 5;
+		this.seed = x;
+		int h = Integer.numberOfTrailingZeros(x | (1 << 2 * maxLevels - 1)) / 2;
+		return Math.min(h, maxLevels);
+	}
+
+	/**
+	 * Create the entries for node on levels 0..h-1, linked downwards, in tower.
+	 */
+	void makeTower(LinkedNode280<I> node, int h) {
+		for(int k = 0; k < h; k++) {
+			Entry<I> e = new Entry<I>();
+			e.node = node;
+			e.down = k > 0 ? this.tower[k - 1] : null;
+			this.tower[k] = e;
+		}
+	}
+
+	/**
+	 * Rebuild the index from the list starting at head.
+	 * Analysis: Time = O(n)
+	 */
+	void rebuild(LinkedNode280<I> head) {
+		int[] lastRank = new int[maxLevels];
+		for(int k = 0; k < maxLevels; k++) {
+			this.heads[k].next = null;
+			this.lasts[k] = this.heads[k];
+			lastRank[k] = -1;
+		}
+		this.levels = 0;
+		int rank = 0;
+		for(LinkedNode280<I> p = head; p != null; p = p.nextNode(), rank++) {
+			int h = this.height();
+			this.makeTower(p, h);
+			for(int k = 0; k < h; k++) {
+				this.lasts[k].width = rank - lastRank[k];
+				this.lasts[k].next = this.tower[k];
+				this.lasts[k] = this.tower[k];
+				lastRank[k] = rank;
+			}
+			if( h > this.levels ) this.levels = h;
+		}
+		this.size = rank;
+		for(int k = 0; k < this.levels; k++)
+			this.lasts[k].width = this.size - lastRank[k];
+		this.valid = true;
+	}
+
+	/**
+	 * Record that node has been inserted at the front of the list.
+	 * Analysis: Time = O(log n) expected
+	 */
+	void insertedFirst(LinkedNode280<I> node) {
+		// Every rank shifts up by one; widths of other entries are unchanged.
+		for(int k = 0; k < this.levels; k++)
+			this.heads[k].width++;
+		this.size++;
+		int h = this.height();
+		this.makeTower(node, h);
+		for(int k = 0; k < h; k++) {
+			Entry<I> s = this.heads[k], e = this.tower[k];
+			if( k < this.levels ) {
+				e.next = s.next;
+				e.width = s.width - 1;
+			}
+			else {
+				e.width = this.size;
+				this.lasts[k] = e;
+			}
+			s.next = e;
+			s.width = 1;
+		}
+		if( h > this.levels ) this.levels = h;
+	}
+
+	/**
+	 * Record that node has been inserted at the end of the list.
+	 * Analysis: Time = O(log n) expected
+	 */
+	void insertedLast(LinkedNode280<I> node) {
+		this.size++;
+		int h = this.height();
+		this.makeTower(node, h);
+		for(int k = 0; k < this.levels; k++)
+			if( k >= h ) this.lasts[k].width++;
+		for(int k = 0; k < h; k++) {
+			Entry<I> e = this.tower[k];
+			e.width = 1;
+			if( k < this.levels ) this.lasts[k].next = e;
+			else {
+				this.heads[k].next = e;
+				this.heads[k].width = this.size;
+			}
+			this.lasts[k] = e;
+		}
+		if( h > this.levels ) this.levels = h;
+	}
+
+	/**
+	 * Drop levels left with no entries.
+	 */
+	void trimLevels() {
+		while( this.levels > 0 && this.heads[this.levels - 1].next == null ) {
+			this.levels--;
+			this.lasts[this.levels] = this.heads[this.levels];
+		}
+	}
+
+	/**
+	 * Record that the first node of the list has been deleted.
+	 * Analysis: Time = O(log n)
+	 */
+	void removedFirst() {
+		for(int k = 0; k < this.levels; k++) {
+			Entry<I> s = this.heads[k];
+			if( s.width == 1 ) {
+				// The first node was promoted to this level.
+				Entry<I> e = s.next;
+				s.next = e.next;
+				s.width = e.width;
+				if( this.lasts[k] == e ) this.lasts[k] = s;
+			}
+			else s.width--;
+		}
+		this.size--;
+		this.trimLevels();
+	}
+
+	/**
+	 * Record that the last node of the list has been deleted.
+	 * Analysis: Time = O(log n) expected
+	 */
+	void removedLast() {
+		int t = this.size - 1;
+		int rank = -1;
+		Entry<I> e = this.levels > 0 ? this.heads[this.levels - 1] : null;
+		for(int k = this.levels - 1; k >= 0; k--) {
+			while( e.next != null && rank + e.width < t ) {
+				rank += e.width;
+				e = e.next;
+			}
+			if( e.next != null ) {
+				// e.next is the entry of the deleted node.
+				e.next = null;
+				this.lasts[k] = e;
+				e.width = t - rank;
+			}
+			else e.width--;
+			e = e.down;
+		}
+		this.size--;
+		this.trimLevels();
+	}
+
+	/**
+	 * The node at position r of the list starting at head.
+	 * Analysis: Time = O(log n) expected
+	 * @precond 0 &lt;= r &lt; size
+	 */
+	LinkedNode280<I> nodeAt(int r, LinkedNode280<I> head) {
+		int rank = -1;
+		Entry<I> e = this.levels > 0 ? this.heads[this.levels - 1] : null;
+		for(int k = this.levels - 1; k >= 0; k--) {
+			while( e.next != null && rank + e.width <= r ) {
+				rank += e.width;
+				e = e.next;
+			}
+			if( k > 0 ) e = e.down;
+		}
+		LinkedNode280<I> p = rank < 0 ? head : e.node;
+		for(int steps = rank < 0 ? r : r - rank; steps > 0; steps--)
+			p = p.nextNode();
+		return p;
+	}
+}
@@ -0,0 +1,495 @@
+package lib280.list;
+
+import lib280.base.CursorPosition280;
+import lib280.exception.*;
+
+/**
+ * The bookkeeping shared by the arrayed lists of primitive values,
+ * IntArrayedList280, LongArrayedList280 and DoubleArrayedList280.  The
+ * layout, cursor and growth policy are those of ArrayedList280: a circular
+ * array in which the first item is at head-1 and the last at tail, either of
+ * fixed capacity or growable (and optionally shrinkable).  This class moves
+ * the indices and the cursor; the subclasses own the array and read and write
+ * its elements, so the values are never boxed.
+ */
+public abstract class PrimitiveArrayedList280 implements Cloneable {
+
+	/**
+	 * Indices of the beginning and end of the list.  The first item is at
+	 * head-1 and the last at tail; head = tail when the list is empty or full.
+	 */
+	protected int head, tail;
+
+	/**
+	 * Size of the array, the number of elements the list can hold before it
+	 * is full (or, if growable, before the array grows).
+	 */
+	protected int capacity;
+
+	/**
+	 * Index of the position of the cursor, or ArrayedListIterator280.beforePos
+	 * or ArrayedListIterator280.afterPos.
+	 */
+	protected int position;
+
+	/**
+	 * Number of elements in the list.
+	 */
+	protected int numEl;
+
+	/**
+	 * Do searches continue or start anew?
+	 */
+	protected boolean continueSearch;
+
+	/**
+	 * Does the array grow when the list is full, rather than insertions failing?
+	 */
+	protected boolean growable;
+
+	/**
+	 * Does the array of a growable list shrink when it is mostly empty?
+	 */
+	protected boolean shrinkable;
+
+	/**
+	 * The capacity below which a growable list never shrinks.
+	 */
+	protected int minCapacity;
+
+	/**
+	 * A saved cursor position, valid until the list next changes its array.
+	 */
+	protected static class Position implements CursorPosition280 {
+		protected int position, head, tail, capacity;
+
+		protected Position(int position, int head, int tail, int capacity) {
+			this.position = position;
+			this.head = head;
+			this.tail = tail;
+			this.capacity = capacity;
+		}
+	}
+
+	/**
+	 * Set up an empty list.  The subclass constructor must then create the array with newElements(capacity).
+	 * @param capacity The initial number of elements the list can hold; for a
+	 *        fixed-capacity list, the maximum.
+	 * @param growable Whether the list grows when it is full.
+	 * @throws InvalidArgument280Exception if a growable list is given a capacity less than 1.
+	 */
+	protected PrimitiveArrayedList280(int capacity, boolean growable) {
+		if( growable && capacity < 1 )
+			throw new InvalidArgument280Exception("A growable list must have a capacity of at least 1.");
+		this.capacity = capacity;
+		this.minCapacity = capacity;
+		this.growable = growable;
+		this.position = ArrayedListIterator280.beforePos;
+	}
+
+	/**
+	 * The array holding the elements.
+	 */
+	protected abstract Object elements();
+
+	/**
+	 * Replace the array holding the elements.
+	 * @param elements An array made by newElements().
+	 */
+	protected abstract void setElements(Object elements);
+
+	/**
+	 * Create an array of the subclass's element type.
+	 * @param n The length of the array.
+	 */
+	protected abstract Object newElements(int n);
+
+	/**
+	 * Copy the element at index from to index to.
+	 */
+	protected abstract void move(int from, int to);
+
+	/**
+	 * Append the element at index i to s.
+	 */
+	protected abstract void appendElement(StringBuilder s, int i);
+
+	protected int mod(int a) {
+		return ((a % this.capacity) + this.capacity) % this.capacity;
+	}
+
+	/**
+	 * Does the list grow when it is full?
+	 * @return true if the list is growable, false if its capacity is fixed.
+	 */
+	public boolean isGrowable() {
+		return this.growable;
+	}
+
+	/**
+	 * Choose whether a growable list halves its array whenever it becomes a
+	 * quarter full.  Its capacity never drops below the initial capacity.
+	 * @param shrinkable Whether the list shrinks.
+	 * @throws InvalidState280Exception if the list is not growable.
+	 */
+	public void setShrinkable(boolean shrinkable) throws InvalidState280Exception {
+		if( !this.growable )
+			throw new InvalidState280Exception("Only a growable list can shrink.");
+		this.shrinkable = shrinkable;
+		this.shrinkIfSparse();
+	}
+
+	/**
+	 * Make sure the list can hold at least n elements without resizing its array.
+	 * Also raises the capacity below which a shrinkable list will not shrink.
+	 * Analysis: Time = O(n) if the array is replaced, O(1) otherwise.
+	 * @param n The number of elements.
+	 * @throws InvalidState280Exception if the list is not growable.
+	 */
+	public void ensureCapacity(int n) throws InvalidState280Exception {
+		if( !this.growable )
+			throw new InvalidState280Exception("The capacity of a fixed-capacity list cannot be changed.");
+		if( n > this.minCapacity ) this.minCapacity = n;
+		if( n > this.capacity ) this.resize(n);
+	}
+
+	/**
+	 * Replace the array with one of size newCapacity, unwrapping the circular
+	 * layout so that the last item is at index 0 and the first at numEl-1.
+	 * The cursor stays on the same item.
+	 * Analysis: Time = O(numEl + newCapacity)
+	 * @param newCapacity The size of the new array.
+	 * @precond newCapacity > numEl
+	 */
+	protected void resize(int newCapacity) {
+		Object oldElements = this.elements();
+		Object newElements = this.newElements(newCapacity);
+		int upper = Math.min(this.numEl, this.capacity - this.tail);
+		System.arraycopy(oldElements, this.tail, newElements, 0, upper);
+		System.arraycopy(oldElements, 0, newElements, upper, this.numEl - upper);
+		if( this.itemExists() )
+			this.position = this.mod(this.position - this.tail);
+		this.setElements(newElements);
+		this.capacity = newCapacity;
+		this.tail = 0;
+		this.head = this.numEl;
+	}
+
+	/**
+	 * Make room for one more element, doubling the array of a growable list if it is full.
+	 * @throws ContainerFull280Exception if a fixed-capacity list is full.
+	 */
+	protected void makeRoom() throws ContainerFull280Exception {
+		if( this.numEl < this.capacity ) return;
+		if( !this.growable ) throw new ContainerFull280Exception();
+		this.resize(2 * this.capacity);
+	}
+
+	/**
+	 * Halve the array of a shrinkable list while it is at most a quarter full.
+	 */
+	protected void shrinkIfSparse() {
+		if( !this.shrinkable ) return;
+		int newCapacity = this.capacity;
+		while( newCapacity / 2 >= this.minCapacity && 4 * this.numEl <= newCapacity )
+			newCapacity = newCapacity / 2;
+		if( newCapacity != this.capacity )
+			this.resize(newCapacity);
+	}
+
+	/**
+	 * Make room for a new first item.
+	 * @return the index at which the new first item must be stored.
+	 * @throws ContainerFull280Exception if a fixed-capacity list is full.
+	 */
+	protected int addFirst() throws ContainerFull280Exception {
+		this.makeRoom();
+		int i = this.head;
+		this.head = this.mod(this.head + 1);
+		this.numEl++;
+		return i;
+	}
+
+	/**
+	 * Make room for a new last item.
+	 * @return the index at which the new last item must be stored.
+	 * @throws ContainerFull280Exception if a fixed-capacity list is full.
+	 */
+	protected int addLast() throws ContainerFull280Exception {
+		this.makeRoom();
+		this.tail = this.mod(this.tail - 1);
+		this.numEl++;
+		return this.tail;
+	}
+
+	/**
+	 * Index of the first item.
+	 * @throws ContainerEmpty280Exception if the list is empty.
+	 */
+	protected int firstIndex() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception();
+		return this.mod(this.head - 1);
+	}
+
+	/**
+	 * Index of the last item.
+	 * @throws ContainerEmpty280Exception if the list is empty.
+	 */
+	protected int lastIndex() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception();
+		return this.tail;
+	}
+
+	/**
+	 * Index of the item at the cursor.
+	 * @throws NoCurrentItem280Exception if there is no item at the cursor.
+	 */
+	protected int cursorIndex() throws NoCurrentItem280Exception {
+		if( !this.itemExists() ) throw new NoCurrentItem280Exception();
+		return this.position;
+	}
+
+	/**
+	 * Index of the item at position idx in the list.  The first item is at position 0.
+	 * @throws InvalidArgument280Exception if there is no item at position idx.
+	 */
+	protected int index(int idx) throws InvalidArgument280Exception {
+		if( idx < 0 || idx >= this.numEl )
+			throw new InvalidArgument280Exception("There is no element at position " + idx + " in the list.");
+		return this.mod(this.head - idx - 1);
+	}
+
+	/**
+	 * Delete the first item from the list.  If the cursor was on it, it moves
+	 * to the new first item.
+	 * @throws ContainerEmpty280Exception if the list is empty.
+	 */
+	public void deleteFirst() throws ContainerEmpty280Exception {
+		int first = this.firstIndex();
+		if( this.position == first )
+			this.position = this.mod(first - 1);
+		this.head = first;
+		this.numEl--;
+		if( this.isEmpty() ) this.position = ArrayedListIterator280.beforePos;
+		this.shrinkIfSparse();
+	}
+
+	/**
+	 * Delete the last item from the list.  If the cursor was on it, it moves
+	 * to the new last item.
+	 * @throws ContainerEmpty280Exception if the list is empty.
+	 */
+	public void deleteLast() throws ContainerEmpty280Exception {
+		int last = this.lastIndex();
+		if( this.position == last )
+			this.position = this.mod(last + 1);
+		this.tail = this.mod(last + 1);
+		this.numEl--;
+		if( this.isEmpty() ) this.position = ArrayedListIterator280.beforePos;
+		this.shrinkIfSparse();
+	}
+
+	/**
+	 * Delete the item at index k, moving the items after it up one place.
+	 * The cursor stays on its item; if it was on the deleted item it moves
+	 * to the following item, or to 'after' if there is none.
+	 * Analysis: Time = O(number of items after k)
+	 */
+	protected void deleteAt(int k) {
+		if( this.position == k ) {
+			if( k == this.tail ) this.position = ArrayedListIterator280.afterPos;
+		}
+		else if( this.itemExists() && this.mod(this.position - this.tail) < this.mod(k - this.tail) )
+			this.position = this.mod(this.position + 1);
+		for(int i = k; i != this.tail; i = this.mod(i - 1))
+			this.move(this.mod(i - 1), i);
+		this.tail = this.mod(this.tail + 1);
+		this.numEl--;
+		this.shrinkIfSparse();
+	}
+
+	/**
+	 * Delete the item at the cursor.  The cursor moves to the following item,
+	 * or to 'after' if the last item was deleted.
+	 * @throws NoCurrentItem280Exception if there is no item at the cursor.
+	 */
+	public void deleteItem() throws NoCurrentItem280Exception {
+		this.deleteAt(this.cursorIndex());
+	}
+
+	/**
+	 * Is there an item at the cursor?
+	 */
+	public boolean itemExists() {
+		return this.position != ArrayedListIterator280.beforePos && this.position != ArrayedListIterator280.afterPos;
+	}
+
+	/**
+	 * Is the cursor in the 'before' position?
+	 */
+	public boolean before() {
+		return this.position == ArrayedListIterator280.beforePos;
+	}
+
+	/**
+	 * Is the cursor in the 'after' position?
+	 */
+	public boolean after() {
+		return this.position == ArrayedListIterator280.afterPos;
+	}
+
+	/**
+	 * Move the cursor to the 'before' position.
+	 */
+	public void goBefore() {
+		this.position = ArrayedListIterator280.beforePos;
+	}
+
+	/**
+	 * Move the cursor to the 'after' position.
+	 */
+	public void goAfter() {
+		this.position = ArrayedListIterator280.afterPos;
+	}
+
+	/**
+	 * Move the cursor to the first item.
+	 * @throws ContainerEmpty280Exception if the list is empty.
+	 */
+	public void goFirst() throws ContainerEmpty280Exception {
+		this.position = this.firstIndex();
+	}
+
+	/**
+	 * Move the cursor to the next item, or to 'after' if it is on the last.
+	 * From 'before' the cursor moves to the first item.
+	 * @throws AfterTheEnd280Exception if the cursor is already 'after'.
+	 */
+	public void goForth() throws AfterTheEnd280Exception {
+		if( this.position == ArrayedListIterator280.afterPos )
+			throw new AfterTheEnd280Exception();
+		else if( this.position == ArrayedListIterator280.beforePos ) {
+			if( this.isEmpty() ) this.position = ArrayedListIterator280.afterPos;
+			else this.position = this.mod(this.head - 1);
+		}
+		else if( this.position == this.tail ) this.position = ArrayedListIterator280.afterPos;
+		else this.position = this.mod(this.position - 1);
+	}
+
+	/**
+	 * The current position of the cursor.  It can be restored by goPosition()
+	 * until the list next inserts or deletes an item.
+	 */
+	public CursorPosition280 currentPosition() {
+		return new Position(this.position, this.head, this.tail, this.capacity);
+	}
+
+	/**
+	 * Move the cursor to a position saved by currentPosition().
+	 * @throws IllegalArgumentException if c was not saved from this list in its current state.
+	 */
+	public void goPosition(CursorPosition280 c) throws IllegalArgumentException {
+		if( !(c instanceof Position) )
+			throw new IllegalArgumentException("Argument is not a position in a primitive arrayed list.");
+		Position p = (Position) c;
+		if( p.capacity != this.capacity || p.head != this.head || p.tail != this.tail )
+			throw new IllegalArgumentException("Position does not match this list.");
+		this.position = p.position;
+	}
+
+	/**
+	 * Set searches to start from the first item.
+	 */
+	public void restartSearches() {
+		this.continueSearch = false;
+	}
+
+	/**
+	 * Set searches to continue from the item after the cursor.
+	 */
+	public void resumeSearches() {
+		this.continueSearch = true;
+	}
+
+	/**
+	 * Move the cursor to where the next search should examine first: the
+	 * first item, or if searches resume, the item after the cursor.
+	 */
+	protected void startSearch() {
+		if( !this.continueSearch ) {
+			if( this.isEmpty() ) this.goAfter();
+			else this.goFirst();
+		}
+		else if( !this.after() )
+			this.goForth();
+	}
+
+	/**
+	 * Remove all items from the list.  A shrinkable list returns to its
+	 * initial capacity.
+	 */
+	public void clear() {
+		if( this.shrinkable && this.capacity > this.minCapacity ) {
+			this.setElements(this.newElements(this.minCapacity));
+			this.capacity = this.minCapacity;
+		}
+		this.head = 0;
+		this.tail = 0;
+		this.numEl = 0;
+		this.position = ArrayedListIterator280.beforePos;
+	}
+
+	/**
+	 * Is the list empty?
+	 */
+	public boolean isEmpty() {
+		return this.numEl == 0;
+	}
+
+	/**
+	 * Is the list full?  A growable list is never full.
+	 */
+	public boolean isFull() {
+		return !this.growable && this.numEl == this.capacity;
+	}
+
+	/**
+	 * Obtain the number of elements in the list.
+	 * @return The number of elements in the list.
+	 */
+	public int count() {
+		return this.numEl;
+	}
+
+	/**
+	 * Obtain the maximum number of elements that can be in the list.  For a
+	 * growable list this is the number it can hold before its array next grows.
+	 * @return The capacity of the list.
+	 */
+	public int capacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * A copy of the list with its own array.
+	 */
+	@Override
+	public PrimitiveArrayedList280 clone() throws CloneNotSupportedException {
+		PrimitiveArrayedList280 c = (PrimitiveArrayedList280) super.clone();
+		Object copy = this.newElements(this.capacity);
+		System.arraycopy(this.elements(), 0, copy, 0, this.capacity);
+		c.setElements(copy);
+		return c;
+	}
+
+	@Override
+	public String toString() {
+		if( this.isEmpty() ) return "<Empty>";
+		StringBuilder s = new StringBuilder();
+		for(int i = this.mod(this.head - 1), k = 0; k < this.numEl; i = this.mod(i - 1), k++) {
+			this.appendElement(s, i);
+			s.append(", ");
+		}
+		return s.toString();
+	}
+}
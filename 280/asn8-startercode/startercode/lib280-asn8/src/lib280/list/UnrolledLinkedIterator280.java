@@ -0,0 +1,155 @@
+package lib280.list;
+
+import lib280.base.LinearIterator280;
+import lib280.exception.AfterTheEnd280Exception;
+import lib280.exception.ContainerEmpty280Exception;
+import lib280.exception.NoCurrentItem280Exception;
+
+/**	A LinearIterator280 for unrolled linked lists.  The current item is
+	identified by its node and its index within the node.  An iterator
+	(or saved cursor position) remains valid only until the list is
+	changed, since insertions and deletions move items between nodes. */
+public class UnrolledLinkedIterator280<I> implements LinearIterator280<I>
+{
+	/**	List being iterated. */
+	protected UnrolledLinkedList280<I> list;
+
+	/**	The node with the current item, or null if there is no current item. */
+	protected UnrolledNode280<I> cur;
+
+	/**	Index of the current item in cur, or UnrolledLinkedList280.beforeIndex
+		or UnrolledLinkedList280.afterIndex if cur is null. */
+	protected int index;
+
+	/**	Create a new iterator for the newList, positioned at its first item. <br>
+		Analysis : Time = O(1)
+		@param newList list to be iterated */
+	public UnrolledLinkedIterator280(UnrolledLinkedList280<I> newList)
+	{
+		list = newList;
+		if (list.isEmpty()) goBefore();
+		else goFirst();
+	}
+
+	/**	Create a new iterator at a specific position in the newList. <br>
+		Analysis : Time = O(1)
+		@param newList list to be iterated
+		@param initialCur the node of the initial position, or null
+		@param initialIndex the index in initialCur, or the before or after index */
+	public UnrolledLinkedIterator280(UnrolledLinkedList280<I> newList,
+			UnrolledNode280<I> initialCur, int initialIndex)
+	{
+		list = newList;
+		cur = initialCur;
+		index = initialIndex;
+	}
+
+	@Override
+	public boolean before()
+	{
+		return cur == null && index == UnrolledLinkedList280.beforeIndex;
+	}
+
+	@Override
+	public boolean after()
+	{
+		return cur == null && index == UnrolledLinkedList280.afterIndex;
+	}
+
+	@Override
+	public boolean itemExists()
+	{
+		return cur != null;
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception
+	{
+		if (!itemExists())
+			throw new NoCurrentItem280Exception("A current item must exist");
+		return cur.item(index);
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception
+	{
+		if (list.isEmpty()) throw new ContainerEmpty280Exception("Cannot move to first element of an empty list.");
+		cur = list.head;
+		index = 0;
+	}
+
+	@Override
+	public void goBefore()
+	{
+		cur = null;
+		index = UnrolledLinkedList280.beforeIndex;
+	}
+
+	@Override
+	public void goForth() throws AfterTheEnd280Exception
+	{
+		if (after())
+			throw new AfterTheEnd280Exception("Cannot advance to next item when already after.");
+		if (before())
+		{
+			if (list.isEmpty()) goAfter();
+			else goFirst();
+		}
+		else if (++index == cur.count)
+		{
+			cur = cur.nextNode;
+			if (cur == null) index = UnrolledLinkedList280.afterIndex;
+			else index = 0;
+		}
+	}
+
+	@Override
+	public void goAfter()
+	{
+		cur = null;
+		index = UnrolledLinkedList280.afterIndex;
+	}
+
+	@Override
+	public String toString()
+	{
+		return list.toString();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public UnrolledLinkedIterator280<I> clone()
+	{
+		try
+		{
+			return (UnrolledLinkedIterator280<I>) super.clone();
+		} catch (CloneNotSupportedException e)
+		{
+			// Should not occur: this is a Cursor280, which implements Cloneable
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean equals(Object other)
+	{
+		if (other instanceof UnrolledLinkedIterator280)
+		{
+			UnrolledLinkedIterator280<I> otherIter = (UnrolledLinkedIterator280<I>) other;
+			return otherIter.cur == cur && otherIter.index == index && otherIter.list == list;
+		}
+		else
+			return false;
+	}
+
+	/**	Hash code consistent with equals: it depends on the identities of the
+		list and node, and on the index. <br>
+		Analysis : Time = O(1) */
+	@Override
+	public int hashCode()
+	{
+		return 31 * (31 * System.identityHashCode(list) + System.identityHashCode(cur)) + index;
+	}
+}
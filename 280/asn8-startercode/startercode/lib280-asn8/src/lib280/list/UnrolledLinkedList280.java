@@ -0,0 +1,725 @@
+package lib280.list;
+
+import lib280.base.CursorPosition280;
+import lib280.exception.*;
+
+/**
+ * A list stored as a doubly linked chain of nodes, each holding a small
+ * array of up to nodeCapacity items.  Walking the list touches one node per
+ * nodeCapacity items rather than one per item, and the per-node header and
+ * links are shared by all the items in the node, so iteration is faster and
+ * the list smaller than a LinkedList280 or BilinkedList280 of the same items.
+ *
+ * Inserting into a full node splits it in half; inserting at either end of
+ * the list into a full end node starts a new node instead, so a list built
+ * by insertFirst() or insertLast() has full nodes.  A node is unlinked when
+ * its last item is deleted, and a node other than the first or last that
+ * falls below a quarter full is merged with, or takes items from, a
+ * neighbour.  Every operation at either end takes constant time, and
+ * cursor insertion and deletion take O(nodeCapacity) time.
+ *
+ * The cursor is the pair (position, index): the node holding the current
+ * item and the item's index within it.  Every insertion and deletion keeps
+ * the cursor on the same item, but a position saved by currentPosition() is
+ * only valid until the list next changes.
+ */
+public class UnrolledLinkedList280<I> implements SimpleList280<I> {
+
+	/**
+	 * Number of items per node of a list created with the default constructor.
+	 */
+	public static final int DEFAULT_NODE_CAPACITY = 32;
+
+	/**
+	 * Values of index when position is null: the cursor is before the first
+	 * item, or after the last.
+	 */
+	protected static final int beforeIndex = -1, afterIndex = -2;
+
+	/**
+	 * First and last nodes in the list, or null if the list is empty.
+	 */
+	protected UnrolledNode280<I> head, tail;
+
+	/**
+	 * Maximum number of items in a node.
+	 */
+	protected int nodeCapacity;
+
+	/**
+	 * Number of items in the list.
+	 */
+	protected int numEl;
+
+	/**
+	 * Node holding the item at the cursor, or null if there is none.
+	 */
+	protected UnrolledNode280<I> position;
+
+	/**
+	 * Index of the item at the cursor in position, or beforeIndex or afterIndex.
+	 */
+	protected int index;
+
+	/**
+	 * Do searches continue or start anew?
+	 */
+	protected boolean continueSearch;
+
+	/**
+	 * Create an empty list with the default node capacity.
+	 */
+	public UnrolledLinkedList280() {
+		this(DEFAULT_NODE_CAPACITY);
+	}
+
+	/**
+	 * Create an empty list.
+	 * @param nodeCapacity The maximum number of items in each node.
+	 * @throws InvalidArgument280Exception if nodeCapacity is less than 2.
+	 */
+	public UnrolledLinkedList280(int nodeCapacity) {
+		if( nodeCapacity < 2 )
+			throw new InvalidArgument280Exception("Nodes must hold at least 2 items.");
+		this.nodeCapacity = nodeCapacity;
+		this.index = beforeIndex;
+	}
+
+	/**
+	 * Create an empty node for this list.  This routine should be overridden
+	 * for classes that extend this class that need a specialized node.
+	 * @return a new, empty node.
+	 */
+	protected UnrolledNode280<I> createNewNode() {
+		return new UnrolledNode280<I>(this.nodeCapacity);
+	}
+
+	/**
+	 * Link a new, empty node into the list after node n, or at the start of the list if n is null.
+	 * @return the new node.
+	 */
+	protected UnrolledNode280<I> addNodeAfter(UnrolledNode280<I> n) {
+		UnrolledNode280<I> m = this.createNewNode();
+		m.prevNode = n;
+		m.nextNode = n == null ? this.head : n.nextNode;
+		if( m.nextNode == null ) this.tail = m;
+		else m.nextNode.prevNode = m;
+		if( n == null ) this.head = m;
+		else n.nextNode = m;
+		return m;
+	}
+
+	/**
+	 * Unlink node n from the list.
+	 */
+	protected void unlink(UnrolledNode280<I> n) {
+		if( n.prevNode == null ) this.head = n.nextNode;
+		else n.prevNode.nextNode = n.nextNode;
+		if( n.nextNode == null ) this.tail = n.prevNode;
+		else n.nextNode.prevNode = n.prevNode;
+		n.prevNode = null;
+		n.nextNode = null;
+	}
+
+	/**
+	 * Insert x at index i of node n, splitting n in half first if it is full.
+	 * The cursor stays on its item.
+	 * Analysis: Time = O(nodeCapacity)
+	 */
+	protected void insertAt(UnrolledNode280<I> n, int i, I x) {
+		if( n.isFull() ) {
+			int half = n.count / 2;
+			UnrolledNode280<I> m = this.addNodeAfter(n);
+			m.takeFromPrev(n.count - half);
+			if( this.position == n && this.index >= half ) {
+				this.position = m;
+				this.index -= half;
+			}
+			if( i > half ) {
+				n = m;
+				i -= half;
+			}
+		}
+		n.insertAt(i, x);
+		if( this.position == n && this.index >= i ) this.index++;
+		this.numEl++;
+	}
+
+	/**
+	 * Delete the item at index i of node n, then unlink or rebalance n as
+	 * needed.  The cursor stays on its item; if it was on the deleted item
+	 * it moves to the following item, or to 'after' if there is none.
+	 * Analysis: Time = O(nodeCapacity)
+	 */
+	protected void deleteAt(UnrolledNode280<I> n, int i) {
+		n.removeAt(i);
+		this.numEl--;
+		if( this.position == n ) {
+			if( this.index > i ) this.index--;
+			else if( this.index == i && i == n.count ) {
+				this.position = n.nextNode;
+				this.index = this.position == null ? afterIndex : 0;
+			}
+		}
+		if( n.count == 0 ) this.unlink(n);
+		else if( n.prevNode != null && n.nextNode != null && n.count < this.nodeCapacity / 4 )
+			this.rebalance(n);
+	}
+
+	/**
+	 * Merge node n, which is less than a quarter full, with the next node if
+	 * their items fit in one node, or otherwise take half of the difference
+	 * from the next node.  The cursor stays on its item.
+	 */
+	protected void rebalance(UnrolledNode280<I> n) {
+		UnrolledNode280<I> m = n.nextNode;
+		int k = n.count + m.count <= this.nodeCapacity ? m.count : (m.count - n.count) / 2;
+		if( this.position == m ) {
+			if( this.index < k ) {
+				this.position = n;
+				this.index += n.count;
+			}
+			else this.index -= k;
+		}
+		n.takeFromNext(k);
+		if( m.count == 0 ) this.unlink(m);
+	}
+
+	@Override
+	public void insertFirst(I x) throws ContainerFull280Exception {
+		UnrolledNode280<I> n = this.head;
+		if( n == null || n.isFull() ) {
+			// Fill a new first node from the end, so each insertion is O(1).
+			n = this.addNodeAfter(null);
+			n.first = this.nodeCapacity;
+		}
+		n.insertAt(0, x);
+		if( this.position == n ) this.index++;
+		this.numEl++;
+	}
+
+	@Override
+	public void insertLast(I x) throws ContainerFull280Exception {
+		UnrolledNode280<I> n = this.tail;
+		if( n == null || n.isFull() ) n = this.addNodeAfter(this.tail);
+		n.insertAt(n.count, x);
+		this.numEl++;
+	}
+
+	@Override
+	public void insert(I x) throws ContainerFull280Exception {
+		this.insertFirst(x);
+	}
+
+	/**
+	 * Insert an element before the current cursor position.  The cursor stays
+	 * on its item, or if it is 'after', the element is inserted last.
+	 * Analysis: Time = O(nodeCapacity)
+	 * @param x - Element to be inserted.
+	 * @precond !before()
+	 * @throws InvalidState280Exception if the cursor is before the first element.
+	 */
+	public void insertBefore(I x) throws InvalidState280Exception {
+		if( this.before() ) throw new InvalidState280Exception("Cannot insertBefore() when the cursor is already before the first element.");
+		if( this.after() ) this.insertLast(x);
+		else this.insertAt(this.position, this.index, x);
+	}
+
+	@Override
+	public I firstItem() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot obtain beginning of an empty list.");
+		return this.head.item(0);
+	}
+
+	@Override
+	public I lastItem() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot obtain item at the end of an empty list.");
+		return this.tail.item(this.tail.count - 1);
+	}
+
+	/**
+	 * Delete the first item.  If the cursor was on it, it moves to the new first item.
+	 * Analysis: Time = O(1)
+	 */
+	@Override
+	public void deleteFirst() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot delete an item from an empty list.");
+		this.deleteAt(this.head, 0);
+		if( this.isEmpty() ) this.goBefore();
+	}
+
+	/**
+	 * Delete the last item.  If the cursor was on it, it moves to the new last item.
+	 * Analysis: Time = O(1)
+	 */
+	@Override
+	public void deleteLast() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot delete an item from an empty list.");
+		UnrolledNode280<I> n = this.tail;
+		if( this.position == n && this.index == n.count - 1 ) {
+			if( this.index > 0 ) this.index--;
+			else if( n.prevNode != null ) {
+				this.position = n.prevNode;
+				this.index = this.position.count - 1;
+			}
+		}
+		this.deleteAt(n, n.count - 1);
+		if( this.isEmpty() ) this.goBefore();
+	}
+
+	/**
+	 * Delete the item at the cursor.  The cursor moves to the following item,
+	 * or to 'after' if the last item was deleted.
+	 * Analysis: Time = O(nodeCapacity)
+	 */
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( !this.itemExists() ) throw new NoCurrentItem280Exception("There is no item at the cursor to delete.");
+		this.deleteAt(this.position, this.index);
+	}
+
+	/**
+	 * Delete the first item equal to x.  The cursor stays on its item, or if
+	 * it was on the deleted item, moves to the following one.
+	 * Analysis: Time = O(count())
+	 */
+	@Override
+	public void delete(I x) throws ItemNotFound280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot delete from an empty list.");
+		for(UnrolledNode280<I> n = this.head; n != null; n = n.nextNode)
+			for(int i = 0; i < n.count; i++)
+				if( this.membershipEquals(x, n.item(i)) ) {
+					this.deleteAt(n, i);
+					return;
+				}
+		throw new ItemNotFound280Exception("Item to be deleted wasn't in the list.");
+	}
+
+	/**
+	 * Obtain the first item equal to y, without moving the cursor.
+	 * Analysis: Time = O(count())
+	 */
+	@Override
+	public I obtain(I y) throws ItemNotFound280Exception {
+		for(UnrolledNode280<I> n = this.head; n != null; n = n.nextNode)
+			for(int i = 0; i < n.count; i++)
+				if( this.membershipEquals(y, n.item(i)) ) return n.item(i);
+		throw new ItemNotFound280Exception("Can't obtain and item that is not in the list.");
+	}
+
+	/**
+	 * Is there an item equal to y in the list?  The cursor does not move.
+	 * Analysis: Time = O(count())
+	 */
+	@Override
+	public boolean has(I y) {
+		for(UnrolledNode280<I> n = this.head; n != null; n = n.nextNode)
+			for(int i = 0; i < n.count; i++)
+				if( this.membershipEquals(y, n.item(i)) ) return true;
+		return false;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean membershipEquals(I x, I y) {
+		if ((x instanceof Comparable) && (y instanceof Comparable))
+			return  0==((Comparable<I>)x).compareTo(y);
+		else return x.equals(y);
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if( !this.itemExists() ) throw new NoCurrentItem280Exception("There is no current item to obtain.");
+		return this.position.item(this.index);
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.position != null;
+	}
+
+	@Override
+	public boolean before() {
+		return this.position == null && this.index == beforeIndex;
+	}
+
+	@Override
+	public boolean after() {
+		return this.position == null && this.index == afterIndex;
+	}
+
+	@Override
+	public void goBefore() {
+		this.position = null;
+		this.index = beforeIndex;
+	}
+
+	@Override
+	public void goAfter() {
+		this.position = null;
+		this.index = afterIndex;
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot position cursor at first element of an empty list.");
+		this.position = this.head;
+		this.index = 0;
+	}
+
+	/**
+	 * Move the cursor to the next item, or to 'after' if it is on the last.
+	 * From 'before' the cursor moves to the first item.
+	 * Analysis: Time = O(1)
+	 */
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		if( this.after() )
+			throw new AfterTheEnd280Exception("Cannot advance to next item when already after the end.");
+		if( this.before() ) {
+			if( this.isEmpty() ) this.goAfter();
+			else this.goFirst();
+		}
+		else if( ++this.index == this.position.count ) {
+			this.position = this.position.nextNode;
+			this.index = this.position == null ? afterIndex : 0;
+		}
+	}
+
+	@Override
+	public void restartSearches() {
+		this.continueSearch = false;
+	}
+
+	@Override
+	public void resumeSearches() {
+		this.continueSearch = true;
+	}
+
+	@Override
+	public void search(I x) {
+		if( this.isEmpty() ) {
+			this.goAfter();
+			return;
+		}
+		if( !this.continueSearch )
+			this.goFirst();
+		else if( !this.after() )
+			this.goForth();
+
+		while( !this.after() && !this.membershipEquals(x, this.item()) )
+			this.goForth();
+	}
+
+	@Override
+	public CursorPosition280 currentPosition() {
+		return new UnrolledLinkedIterator280<I>(this, this.position, this.index);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void goPosition(CursorPosition280 c) {
+		if( !(c instanceof UnrolledLinkedIterator280) )
+			throw new IllegalArgumentException("Argument is not an UnrolledLinkedIterator280.");
+		UnrolledLinkedIterator280<I> iter = (UnrolledLinkedIterator280<I>) c;
+		if( iter.list != this )
+			throw new IllegalArgumentException("Position is not in this list.");
+		this.position = iter.cur;
+		this.index = iter.index;
+	}
+
+	/**
+	 * Iterator for list initialized to first item.
+	 * @timing O(1)
+	 */
+	public UnrolledLinkedIterator280<I> iterator() {
+		return new UnrolledLinkedIterator280<I>(this);
+	}
+
+	@Override
+	public void clear() {
+		this.head = null;
+		this.tail = null;
+		this.numEl = 0;
+		this.goBefore();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.numEl == 0;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	/**
+	 * Obtain the number of elements in the list.
+	 * @timing O(1)
+	 */
+	public int count() {
+		return this.numEl;
+	}
+
+	/**
+	 * A copy of the list with its own nodes, holding the same items, with
+	 * the cursor on the same item.
+	 * @timing O(count())
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public UnrolledLinkedList280<I> clone() throws CloneNotSupportedException {
+		UnrolledLinkedList280<I> c = (UnrolledLinkedList280<I>) super.clone();
+		c.head = null;
+		c.tail = null;
+		c.position = null;
+		for(UnrolledNode280<I> n = this.head; n != null; n = n.nextNode) {
+			UnrolledNode280<I> m = c.addNodeAfter(c.tail);
+			System.arraycopy(n.items, n.first, m.items, n.first, n.count);
+			m.first = n.first;
+			m.count = n.count;
+			if( n == this.position ) c.position = m;
+		}
+		return c;
+	}
+
+	@Override
+	public String toString() {
+		if( this.isEmpty() ) return "<Empty>";
+		StringBuilder result = new StringBuilder();
+		for(UnrolledNode280<I> n = this.head; n != null; n = n.nextNode)
+			for(int i = 0; i < n.count; i++)
+				result.append(n.item(i)).append(", ");
+		return result.toString();
+	}
+
+	/**
+	 * Check the links and fill of the nodes, printing an error for any violation.
+	 */
+	protected void check() {
+		int total = 0;
+		UnrolledNode280<I> prev = null;
+		for(UnrolledNode280<I> n = this.head; n != null; prev = n, n = n.nextNode) {
+			if( n.prevNode != prev ) System.out.println("Error: a node's previous link is wrong.");
+			if( n.count == 0 ) System.out.println("Error: the list has an empty node.");
+			if( n != this.head && n.nextNode != null && n.count < this.nodeCapacity / 4 )
+				System.out.println("Error: an interior node holds only " + n.count + " items.");
+			for(int i = 0; i < n.items.length; i++)
+				if( (i < n.first || i >= n.first + n.count) && n.items[i] != null )
+					System.out.println("Error: an unused slot of a node holds an item.");
+			total += n.count;
+		}
+		if( this.tail != prev ) System.out.println("Error: tail is not the last node.");
+		if( total != this.numEl ) System.out.println("Error: count is " + this.numEl + " but the nodes hold " + total + " items.");
+		if( this.position != null && (this.index < 0 || this.index >= this.position.count) )
+			System.out.println("Error: the cursor index " + this.index + " is outside its node.");
+	}
+
+	/**
+	 * Regression test.
+	 */
+	public static void main(String[] args) {
+		UnrolledLinkedList280<Integer> L = new UnrolledLinkedList280<Integer>(4);
+		if( !L.isEmpty() || !L.before() ) System.out.println("Error: a new list should be empty with the cursor 'before'.");
+		if( !L.toString().equals("<Empty>") ) System.out.println("Error: an empty list should print as <Empty>.");
+
+		L.insert(5);
+		if( !L.before() ) System.out.println("Error: cursor should be in the before() position after inserting into an empty list and it is not.");
+		L.insert(4);
+		L.insertLast(3);
+		L.insertLast(10);
+		L.insertFirst(2);
+		if( !L.toString().equals("2, 4, 5, 3, 10, ") ) System.out.println("Error: list should be 2, 4, 5, 3, 10, but it is: " + L);
+		L.check();
+
+		L.delete(5);
+		if( !L.toString().equals("2, 4, 3, 10, ") ) System.out.println("Error: list should be 2, 4, 3, 10, but it is: " + L);
+		L.deleteFirst();
+		L.deleteLast();
+		if( !L.toString().equals("4, 3, ") ) System.out.println("Error: list should be 4, 3, but it is: " + L);
+		if( L.firstItem() != 4 || L.lastItem() != 3 ) System.out.println("Error: first and last items should be 4 and 3.");
+
+		// insertBefore() keeps the cursor on its item.
+		L.goFirst();
+		L.goForth();
+		L.insertBefore(7);
+		if( L.item() != 3 ) System.out.println("Error: after insertBefore() the cursor should still be at 3.");
+		L.goAfter();
+		L.insertBefore(8);
+		if( !L.after() ) System.out.println("Error: insertBefore() when 'after' should leave the cursor 'after'.");
+		if( !L.toString().equals("4, 7, 3, 8, ") ) System.out.println("Error: list should be 4, 7, 3, 8, but it is: " + L);
+		L.goBefore();
+		try {
+			L.insertBefore(1);
+			System.out.println("Error: insertBefore() when 'before' should throw an exception.");
+		}
+		catch( InvalidState280Exception e ) {
+		}
+
+		// Searching and saved positions.
+		L.search(3);
+		CursorPosition280 p = L.currentPosition();
+		if( !L.has(8) || L.has(9) ) System.out.println("Error: has() is wrong.");
+		if( L.obtain(7) != 7 ) System.out.println("Error: obtain(7) should be 7.");
+		L.goFirst();
+		L.goPosition(p);
+		if( L.item() != 3 ) System.out.println("Error: goPosition() should restore the cursor to 3.");
+		L.search(9);
+		if( !L.after() ) System.out.println("Error: search(9) should end 'after'.");
+		try {
+			L.goForth();
+			System.out.println("Error: goForth() from 'after' should throw an exception.");
+		}
+		catch( AfterTheEnd280Exception e ) {
+		}
+		try {
+			L.delete(9);
+			System.out.println("Error: deleting an absent item should throw an exception.");
+		}
+		catch( ItemNotFound280Exception e ) {
+		}
+
+		// Iterate with an iterator.
+		UnrolledLinkedIterator280<Integer> iter = L.iterator();
+		String s = "";
+		while( iter.itemExists() ) {
+			s += iter.item() + ", ";
+			iter.goForth();
+		}
+		if( !s.equals(L.toString()) ) System.out.println("Error: the iterator gave " + s + " but the list is " + L);
+
+		L.clear();
+		try {
+			L.deleteFirst();
+			System.out.println("Error: deleteFirst() on an empty list should throw an exception.");
+		}
+		catch( ContainerEmpty280Exception e ) {
+		}
+		try {
+			L.deleteItem();
+			System.out.println("Error: deleteItem() with no current item should throw an exception.");
+		}
+		catch( NoCurrentItem280Exception e ) {
+		}
+
+		// Random operations, checked against a java.util.ArrayList and a model cursor.
+		for(int nodeCapacity : new int[] {2, 3, 4, 8, 32}) {
+			L = new UnrolledLinkedList280<Integer>(nodeCapacity);
+			java.util.ArrayList<Integer> A = new java.util.ArrayList<Integer>();
+			int c = beforeIndex;
+			java.util.Random r = new java.util.Random(nodeCapacity);
+			for(int step = 0; step < 20000; step++) {
+				int x = r.nextInt(1000);
+				int op = r.nextInt(step % 4000 < 2000 ? 9 : 12);
+				if( op == 0 ) {
+					L.insertFirst(x);
+					A.add(0, x);
+					if( c >= 0 ) c++;
+				}
+				else if( op == 1 ) {
+					L.insertLast(x);
+					A.add(x);
+				}
+				else if( op == 2 && c != beforeIndex ) {
+					L.insertBefore(x);
+					if( c == afterIndex ) A.add(x);
+					else A.add(c++, x);
+				}
+				else if( op == 3 ) {
+					if( c == afterIndex ) {
+						try {
+							L.goForth();
+							System.out.println("Error: goForth() from 'after' should throw an exception.");
+						}
+						catch( AfterTheEnd280Exception e ) {
+						}
+					}
+					else {
+						L.goForth();
+						if( c == beforeIndex ) c = A.isEmpty() ? afterIndex : 0;
+						else c = c + 1 == A.size() ? afterIndex : c + 1;
+					}
+				}
+				else if( op == 4 && !A.isEmpty() ) {
+					L.goFirst();
+					c = 0;
+				}
+				else if( op == 5 ) {
+					L.search(x);
+					c = A.indexOf(x);
+					if( c < 0 ) c = afterIndex;
+				}
+				else if( op == 6 && r.nextInt(20) == 0 ) {
+					if( r.nextBoolean() ) { L.goBefore(); c = beforeIndex; }
+					else { L.goAfter(); c = afterIndex; }
+				}
+				else if( op == 7 && !A.isEmpty() && r.nextInt(10) == 0 ) {
+					try {
+						UnrolledLinkedList280<Integer> C = L.clone();
+						C.check();
+						if( !C.toString().equals(L.toString()) ) System.out.println("Error: a clone should print the same as the original.");
+						if( C.itemExists() != L.itemExists() || (C.itemExists() && C.item() != L.item()) )
+							System.out.println("Error: a clone should have its cursor on the same item.");
+						C.deleteFirst();
+						if( L.count() != A.size() ) System.out.println("Error: changing a clone changed the original.");
+					}
+					catch( CloneNotSupportedException e ) {
+						System.out.println("Error: clone() failed.");
+					}
+				}
+				else if( op == 8 && !A.isEmpty() ) {
+					L.deleteFirst();
+					A.remove(0);
+					if( c > 0 ) c--;
+					if( A.isEmpty() ) c = beforeIndex;
+				}
+				else if( op == 9 && !A.isEmpty() ) {
+					if( c == A.size() - 1 ) c--;
+					L.deleteLast();
+					A.remove(A.size() - 1);
+					if( A.isEmpty() ) c = beforeIndex;
+				}
+				else if( op == 10 && c >= 0 ) {
+					L.deleteItem();
+					A.remove(c);
+					if( c == A.size() ) c = afterIndex;
+				}
+				else if( op == 11 && A.contains(x) ) {
+					L.delete(x);
+					int k = A.indexOf(x);
+					A.remove(k);
+					if( c == k && c == A.size() ) c = afterIndex;
+					else if( c > k ) c--;
+				}
+
+				if( L.count() != A.size() )
+					System.out.println("Error: count should be " + A.size() + " but it is " + L.count());
+				if( (c == beforeIndex) != L.before() || (c == afterIndex) != L.after() )
+					System.out.println("Error: at step " + step + " the cursor should be " + c + ".");
+				else if( c >= 0 && L.item().intValue() != A.get(c) )
+					System.out.println("Error: at step " + step + " the cursor should be on " + A.get(c) + " but it is on " + L.item());
+				if( step % 100 == 0 ) {
+					L.check();
+					String expected = A.isEmpty() ? "<Empty>" : "";
+					for(Integer y : A) expected += y + ", ";
+					if( !expected.equals(L.toString()) )
+						System.out.println("Error: at step " + step + " the list should be " + expected + " but it is " + L);
+				}
+			}
+		}
+
+		// A list built at the ends has full nodes.
+		L = new UnrolledLinkedList280<Integer>();
+		for(int i = 0; i < 1000; i++) {
+			L.insertLast(i);
+			L.insertFirst(-i);
+		}
+		int nodes = 0;
+		for(UnrolledNode280<Integer> n = L.head; n != null; n = n.nextNode()) nodes++;
+		if( nodes > 2000 / DEFAULT_NODE_CAPACITY + 2 )
+			System.out.println("Error: 2000 items built at the ends should need at most " + (2000 / DEFAULT_NODE_CAPACITY + 2) + " nodes, not " + nodes);
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,164 @@
+package lib280.list;
+
+/**	A node of an UnrolledLinkedList280: a small array of items, of which
+	count are in use starting at index first, with links to the previous
+	and next nodes.  Insertions and deletions move whichever side of the
+	node is shorter, so they are constant time at either end of the node. */
+public class UnrolledNode280<I>
+{
+	/**	Items in the node; items[first..first+count-1] are in use, the rest are null. */
+	protected Object[] items;
+
+	/**	Index in items of the first item of the node. */
+	protected int first;
+
+	/**	Number of items in the node. */
+	protected int count;
+
+	/**	The previous node, or null if this is the first. */
+	protected UnrolledNode280<I> prevNode;
+
+	/**	The next node, or null if this is the last. */
+	protected UnrolledNode280<I> nextNode;
+
+	/**	Construct an empty node that can hold capacity items. <br>
+		Analysis: Time = O(capacity)
+		@param capacity maximum number of items in the node */
+	public UnrolledNode280(int capacity)
+	{
+		items = new Object[capacity];
+	}
+
+	/**	Number of items in the node. <br>
+		Analysis: Time = O(1) */
+	public int count()
+	{
+		return count;
+	}
+
+	/**	Is the node full? <br>
+		Analysis: Time = O(1) */
+	public boolean isFull()
+	{
+		return count == items.length;
+	}
+
+	/**	Item i of the node. <br>
+		Analysis: Time = O(1)
+		@precond 0 &lt;= i &lt; count() */
+	@SuppressWarnings("unchecked")
+	public I item(int i)
+	{
+		return (I) items[first + i];
+	}
+
+	/**	The previous node. <br>
+		Analysis: Time = O(1) */
+	public UnrolledNode280<I> prevNode()
+	{
+		return prevNode;
+	}
+
+	/**	The next node. <br>
+		Analysis: Time = O(1) */
+	public UnrolledNode280<I> nextNode()
+	{
+		return nextNode;
+	}
+
+	/**	Move the items within the array so that the first is at index newFirst. <br>
+		Analysis: Time = O(count)
+		@precond 0 &lt;= newFirst and newFirst + count() &lt;= capacity */
+	protected void moveTo(int newFirst)
+	{
+		if (newFirst == first) return;
+		System.arraycopy(items, first, items, newFirst, count);
+		if (newFirst > first)
+			java.util.Arrays.fill(items, first, Math.min(first + count, newFirst), null);
+		else
+			java.util.Arrays.fill(items, Math.max(first, newFirst + count), first + count, null);
+		first = newFirst;
+	}
+
+	/**	Insert x as item i, moving the items before it down or the items
+		from i on up, whichever are fewer and have room. <br>
+		Analysis: Time = O(min(i, count - i)), or O(count) if that side has no room
+		@precond !isFull() and 0 &lt;= i &lt;= count() */
+	protected void insertAt(int i, I x)
+	{
+		boolean down = first > 0 && (i < count - i || first + count == items.length);
+		if (down)
+		{
+			System.arraycopy(items, first, items, first - 1, i);
+			first--;
+		}
+		else
+		{
+			if (first + count == items.length) moveTo(0);
+			System.arraycopy(items, first + i, items, first + i + 1, count - i);
+		}
+		items[first + i] = x;
+		count++;
+	}
+
+	/**	Remove item i, closing the gap from whichever side is shorter. <br>
+		Analysis: Time = O(min(i, count - i))
+		@precond 0 &lt;= i &lt; count() */
+	protected void removeAt(int i)
+	{
+		if (i < count - i - 1)
+		{
+			if (i > 0) System.arraycopy(items, first, items, first + 1, i);
+			items[first] = null;
+			first++;
+		}
+		else
+		{
+			System.arraycopy(items, first + i + 1, items, first + i, count - i - 1);
+			items[first + count - 1] = null;
+		}
+		count--;
+	}
+
+	/**	Move the first n items of the next node to the end of this one. <br>
+		Analysis: Time = O(count + n)
+		@precond count() + n &lt;= capacity and n &lt;= nextNode().count() */
+	protected void takeFromNext(int n)
+	{
+		UnrolledNode280<I> next = nextNode;
+		if (first + count + n > items.length) moveTo(0);
+		System.arraycopy(next.items, next.first, items, first + count, n);
+		java.util.Arrays.fill(next.items, next.first, next.first + n, null);
+		next.first += n;
+		next.count -= n;
+		count += n;
+	}
+
+	/**	Move the last n items of the previous node to the start of this one. <br>
+		Analysis: Time = O(count + n)
+		@precond count() + n &lt;= capacity and n &lt;= prevNode().count() */
+	protected void takeFromPrev(int n)
+	{
+		UnrolledNode280<I> prev = prevNode;
+		if (first < n) moveTo(items.length - count);
+		int from = prev.first + prev.count - n;
+		System.arraycopy(prev.items, from, items, first - n, n);
+		java.util.Arrays.fill(prev.items, from, from + n, null);
+		prev.count -= n;
+		first -= n;
+		count += n;
+	}
+
+	/**	String representation of the items in the node. <br>
+		Analysis: Time = O(count) */
+	public String toString()
+	{
+		StringBuilder s = new StringBuilder("[");
+		for (int i = 0; i < count; i++)
+		{
+			if (i > 0) s.append(", ");
+			s.append(items[first + i]);
+		}
+		return s.append("]").toString();
+	}
+}
@@ -1,13 +1,22 @@
 package lib280.tree;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import lib280.base.BilinearIterator280;
 import lib280.base.Dispenser280;
 import lib280.base.Searchable280;
+import lib280.base.Visitor280;
+import lib280.exception.AfterTheEnd280Exception;
+import lib280.exception.BeforeTheStart280Exception;
 import lib280.exception.ContainerEmpty280Exception;
+import lib280.exception.InvalidArgument280Exception;
 import lib280.exception.NoCurrentItem280Exception;
 
 
 public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTree280<I>
-	implements Searchable280<I>, Dispenser280<I>
+	implements Searchable280<I>, Dispenser280<I>, BilinearIterator280<I>
 {
 	/**	The current node as set by search. */
 	protected BinaryNode280<I> cur;
@@ -21,6 +30,10 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 	/**	Are equality comparisons done using object reference comparisons?. */
 	protected boolean objectReferenceComparison = false;
 
+	/**	Ancestors of the current node, for moving through the lib280.tree in order
+		(null until first needed).  Cleared whenever the structure changes. */
+	protected BinaryTreePath280<I> path;
+
 
 	public AVLTree280() {
 		this.setRootNode(null);
@@ -172,6 +185,251 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 		objectReferenceComparison = false;
 	}
 
+	/**	Is the current position before the first item, in order?. <br>
+	Analysis: Time = O(1) */
+	public boolean before()
+	{
+		return above();
+	}
+
+	/**	Is the current position after the last item, in order?  This is also
+	the position after an unsuccessful search. <br>
+	Analysis: Time = O(1) */
+	public boolean after()
+	{
+		return below();
+	}
+
+	/**	Move to the position before the first item. <br>
+	Analysis: Time = O(1) */
+	public void goBefore()
+	{
+		parent = null;
+		cur = null;
+	}
+
+	/**	Move to the position after the last item. <br>
+	Analysis: Time = O(1) */
+	public void goAfter()
+	{
+		parent = rootNode;
+		cur = null;
+	}
+
+	/**	The path recording the ancestors of the current node, rebuilt if the
+	cursor has been moved by a search or the lib280.tree has changed since it was
+	last used. <br>
+	Analysis: Time = O(1) if the path is up to date, otherwise O(h) <br>
+	PRECONDITION: <br>
+	<ul>
+		itemExists()
+	</ul> */
+	protected BinaryTreePath280<I> pathToCur()
+	{
+		if (path == null)
+			path = new BinaryTreePath280<I>();
+		if (!path.leadsTo(cur))
+		{
+			path.find(rootNode, cur);
+			path.setOwner(cur);
+		}
+		return path;
+	}
+
+	/**	Make n the current node, with its ancestors in path.  If n is null,
+	move to after the last item (forward) or before the first item, and
+	empty the path, since it no longer leads to any node. <br>
+	Analysis: Time = O(1) */
+	protected void moveTo(BinaryNode280<I> n, boolean forward)
+	{
+		if (n == null)
+		{
+			path.clear();
+			if (forward)
+				goAfter();
+			else
+				goBefore();
+			return;
+		}
+		cur = n;
+		parent = path.parent();
+		path.setOwner(n);
+	}
+
+	/**	Go to the first (smallest) item. <br>
+	Analysis: Time = O(h) <br>
+	PRECONDITION: <br>
+	<ul>
+		!isEmpty()
+	</ul> */
+	public void goFirst() throws ContainerEmpty280Exception
+	{
+		if (isEmpty())
+			throw new ContainerEmpty280Exception("Cannot move to the first item of an empty lib280.tree.");
+		if (path == null)
+			path = new BinaryTreePath280<I>();
+		path.clear();
+		moveTo(path.leftmost(rootNode), true);
+	}
+
+	/**	Go to the last (largest) item. <br>
+	Analysis: Time = O(h) <br>
+	PRECONDITION: <br>
+	<ul>
+		!isEmpty()
+	</ul> */
+	public void goLast() throws ContainerEmpty280Exception
+	{
+		if (isEmpty())
+			throw new ContainerEmpty280Exception("Cannot move to the last item of an empty lib280.tree.");
+		if (path == null)
+			path = new BinaryTreePath280<I>();
+		path.clear();
+		moveTo(path.rightmost(rootNode), false);
+	}
+
+	/**	Advance to the next item in order.  From before the start, go to the first item. <br>
+	Analysis: Time = O(h) worst case, O(1) amortized over a traversal <br>
+	PRECONDITION: <br>
+	<ul>
+		!after()
+	</ul> */
+	public void goForth() throws AfterTheEnd280Exception
+	{
+		if (after())
+			throw new AfterTheEnd280Exception("Cannot advance to the next item when already after the end.");
+		if (before())
+			goFirst();
+		else
+			moveTo(pathToCur().successor(cur), true);
+	}
+
+	/**	Move back to the previous item in order.  From after the end, go to the last item. <br>
+	Analysis: Time = O(h) worst case, O(1) amortized over a traversal <br>
+	PRECONDITION: <br>
+	<ul>
+		!before()
+	</ul> */
+	public void goBack() throws BeforeTheStart280Exception
+	{
+		if (before())
+			throw new BeforeTheStart280Exception("Cannot move back when already before the start.");
+		if (after())
+			goLast();
+		else
+			moveTo(pathToCur().predecessor(cur), false);
+	}
+
+	/**	Visit, in order, every item x with lo <= x <= hi.  The cursor is not moved
+	and nothing is allocated. <br>
+	Analysis: Time = O(h + k), where k = number of items visited
+	@param lo smallest item to visit
+	@param hi largest item to visit
+	@param v the visitor applied to each item
+	@return the number of items visited */
+	public int rangeScan(I lo, I hi, Visitor280<? super I> v)
+	{
+		return BinaryTreePath280.rangeScan(rootNode, lo, hi, v);
+	}
+
+
+	/**
+	 * Build a perfectly balanced subtree of items.get(lo) .. items.get(hi-1),
+	 * recording the subtree heights in every node.  The nodes are created in
+	 * order, so the subtrees are never unbalanced and nothing is rotated.
+	 * @precond the items are in nondecreasing order
+	 * @timing O(hi - lo)
+	 * @return the root of the subtree, or null if lo >= hi.
+	 */
+	protected AVLTreeNode280<I> buildBalanced(List<? extends I> items, int lo, int hi) {
+		if( lo >= hi ) return null;
+		int mid = (lo + hi) >>> 1;
+		AVLTreeNode280<I> left = this.buildBalanced(items, lo, mid);
+		AVLTreeNode280<I> n = this.createNewNode(items.get(mid));
+		AVLTreeNode280<I> right = this.buildBalanced(items, mid + 1, hi);
+		n.setLeftNode(left);
+		n.setRightNode(right);
+		if( left != null ) n.setLtHeight(Math.max(left.getLtHeight(), left.getRtHeight()) + 1);
+		if( right != null ) n.setRtHeight(Math.max(right.getLtHeight(), right.getRtHeight()) + 1);
+		return n;
+	}
+
+	/**
+	 * Replace the contents of this tree by a perfectly balanced tree of the
+	 * given items.  The cursor moves before the first item.
+	 * @precond the items are in nondecreasing order
+	 * @timing O(n), where n = items.size()
+	 */
+	protected void setFromSorted(List<? extends I> items) {
+		this.setRootNode(this.buildBalanced(items, 0, items.size()));
+		this.goBefore();
+		if( this.path != null ) this.path.clear();
+	}
+
+	/**
+	 * A perfectly balanced tree of the items of a sorted array, built
+	 * without any comparisons or rotations beyond checking the order.
+	 * @precond the items are in nondecreasing order
+	 * @throws InvalidArgument280Exception if the items are out of order.
+	 * @timing O(n), where n = items.length
+	 * @param items the items of the new tree, in order
+	 * @return a new tree of the items.
+	 */
+	public static <I extends Comparable<? super I>> AVLTree280<I> fromSorted(I[] items) throws InvalidArgument280Exception {
+		AVLTree280<I> t = new AVLTree280<I>();
+		t.setFromSorted(sortedList(items));
+		return t;
+	}
+
+	/**
+	 * A perfectly balanced tree of the items produced by an iterator in
+	 * sorted order.  The items are gathered into a list first, since the
+	 * shape of the tree depends on how many there are.
+	 * @precond the items are in nondecreasing order
+	 * @throws InvalidArgument280Exception if the items are out of order.
+	 * @timing O(n), where n = number of items
+	 * @param items the items of the new tree, in order
+	 * @return a new tree of the items.
+	 */
+	public static <I extends Comparable<? super I>> AVLTree280<I> fromSorted(Iterator<? extends I> items) throws InvalidArgument280Exception {
+		AVLTree280<I> t = new AVLTree280<I>();
+		t.setFromSorted(sortedList(items));
+		return t;
+	}
+
+	/**
+	 * A new tree holding every item of this tree and every item of other,
+	 * including duplicates.  Both trees are walked in order and merged, and
+	 * the result is built balanced, so no item is inserted.  Neither tree
+	 * (nor its cursor) is changed.
+	 * @timing O(n + m), where n and m are the sizes of the trees
+	 * @param other the tree to merge with this one
+	 * @return a new tree of the items of both trees.
+	 */
+	public AVLTree280<I> merge(AVLTree280<I> other) {
+		ArrayList<I> items = new ArrayList<I>();
+		BinaryTreePath280.mergeInorder(this.rootNode(), other.rootNode(), false, items);
+		AVLTree280<I> result = this.clone();
+		result.setFromSorted(items);
+		return result;
+	}
+
+	/**
+	 * A new tree holding one copy of each item that is in this tree or in
+	 * other (items are the same if compareTo says they are equal).  See
+	 * merge().
+	 * @timing O(n + m), where n and m are the sizes of the trees
+	 * @param other the tree to unite with this one
+	 * @return a new tree of the distinct items of both trees.
+	 */
+	public AVLTree280<I> union(AVLTree280<I> other) {
+		ArrayList<I> items = new ArrayList<I>();
+		BinaryTreePath280.mergeInorder(this.rootNode(), other.rootNode(), true, items);
+		AVLTree280<I> result = this.clone();
+		result.setFromSorted(items);
+		return result;
+	}
+
 
 	/** 
 	 * Insert an item into the lib280.tree.
@@ -179,6 +437,7 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 	 * @param item The item to insert.
 	 */
 	public void insert(I item) {
+		if( this.path != null ) this.path.clear();
 		this.insert(item, null);
 	}
 
@@ -200,7 +459,7 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 		if( item.compareTo(v.item()) < 0) {
 			// go left
 			if( v.leftNode() == null ) {
-				v.setLeftNode(new AVLTreeNode280<I>(item));
+				v.setLeftNode(this.createNewNode(item));
 			}
 			else {
 				this.rootLeftSubtree().insert(item, this.rootNode());
@@ -213,7 +472,7 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 		else { // Observe: duplicate elements are inserted as the rightmost of all their copies.
 			// go right 
 			if( v.rightNode() == null ) {
-				v.setRightNode(new AVLTreeNode280<I>(item));
+				v.setRightNode(this.createNewNode(item));
 			}
 			else {
 				this.rootRightSubtree().insert(item, this.rootNode());			
@@ -378,7 +637,10 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 	}
 
 	/**
-	 * 
+	 * Delete the current item.  The cursor moves to its in-order successor,
+	 * or after the end if it was the last item.
+	 * @precond itemExists()
+	 * @throws NoCurrentItem280Exception if there is no current item.
 	 */
 	public void deleteItem() throws NoCurrentItem280Exception {
 		if(!this.itemExists()) throw new NoCurrentItem280Exception("There is no item to delete.");
@@ -393,6 +655,17 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 			iosCur = iosCur.leftNode();
 		}
 			
+		// With two children the node is kept and the successor's item is
+		// copied into it, so the successor is then at the same node.  With
+		// no right subtree the successor is an ancestor, if there is one.
+		if( this.cur.leftNode() != null && iosCur != null )
+			iosCur = (AVLTreeNode280<I>)this.cur;
+		else if( iosCur == null ) {
+			iosCur = (AVLTreeNode280<I>)this.pathToCur().successor(this.cur);
+			if( iosCur != null ) iosParent = (AVLTreeNode280<I>)this.path.parent();
+		}
+		if( this.path != null ) this.path.clear();
+
 		this.delete(toBeDeleted, null, this);
 
 		// Restore the cursor to the deleted node's inorder successor.
@@ -525,7 +798,25 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 	
 	public AVLTree280<I> clone()
 	{
-		return (AVLTree280<I>) super.clone();
+		AVLTree280<I> result = (AVLTree280<I>) super.clone();
+		result.path = null;
+		return result;
+	}
+
+	/**
+	 * Check the recorded heights and the AVL property of every node in the
+	 * subtree at n, printing an error for each that is wrong.
+	 * @return the actual height of the subtree.
+	 */
+	protected static <I extends Comparable<? super I>> int checkHeights(AVLTreeNode280<I> n) {
+		if( n == null ) return 0;
+		int lt = checkHeights(n.leftNode());
+		int rt = checkHeights(n.rightNode());
+		if( lt != n.getLtHeight() || rt != n.getRtHeight() )
+			System.out.println("Error: node " + n.item() + " records heights " + n.getLtHeight() + "/" + n.getRtHeight() + " but has " + lt + "/" + rt);
+		if( Math.abs(lt - rt) > 1 )
+			System.out.println("Error: node " + n.item() + " is not balanced.");
+		return Math.max(lt, rt) + 1;
 	}
 
 	public static void main(String[] args) {
@@ -595,6 +886,140 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 		T.deleteItem();
 		System.out.println(T);
 
+		// In-order iteration, forwards and backwards, with duplicates.
+		T.clear();
+		java.util.Random r = new java.util.Random(280);
+		int[] values = new int[300];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = 2 * r.nextInt(50);
+			T.insert(values[i]);
+		}
+		java.util.Arrays.sort(values);
+		int i = 0;
+		for(T.goFirst(); T.itemExists(); T.goForth(), i++)
+			if( i >= values.length || T.item() != values[i] ) System.out.println("Error: goForth() visited " + T.item() + " at position " + i);
+		if( i != values.length ) System.out.println("Error: goForth() visited " + i + " items instead of " + values.length);
+		if( !T.after() ) System.out.println("Error: cursor should be after the end of the tree.");
+		try {
+			T.goForth();
+			System.out.println("Error: expected exception advancing when already after the end.");
+		}
+		catch(AfterTheEnd280Exception e) {
+			// Expected, do nothing.
+		}
+		i = values.length - 1;
+		for(T.goBack(); T.itemExists(); T.goBack(), i--)
+			if( i < 0 || T.item() != values[i] ) System.out.println("Error: goBack() visited " + T.item() + " at position " + i);
+		if( i != -1 || !T.before() ) System.out.println("Error: goBack() should end before the start.");
+		T.goForth();
+		if( T.item() != values[0] ) System.out.println("Error: goForth() from before the start should go to the first item.");
+
+		// Continue iterating from a search, and after a deletion and an insertion.
+		T.search(values[150]);
+		T.goForth();
+		if( T.item().compareTo(values[150]) < 0 ) System.out.println("Error: goForth() after search went backwards.");
+		T.goLast();
+		T.goBack();
+		if( T.item() != values[values.length - 2] ) System.out.println("Error: goBack() from the last item is wrong.");
+		T.insert(51);
+		T.search(51);
+		T.deleteItem();
+		T.insert(-1);
+		T.goBack();
+		if( T.item() > 50 ) System.out.println("Error: goBack() after deleteItem() is at " + T.item());
+		T.goForth();
+		if( T.item() < 52 ) System.out.println("Error: goBack() then goForth() after deleteItem() is at " + T.item());
+
+		// Range scans.
+		final int[] sum = new int[1];
+		Visitor280<Integer> adder = new Visitor280<Integer>() {
+			public void visit(Integer x) {
+				sum[0] += x;
+			}
+		};
+		int visited = T.rangeScan(21, 40, adder);
+		int expectedCount = 0, expectedSum = 0;
+		for(T.goFirst(); T.itemExists(); T.goForth())
+			if( T.item() >= 21 && T.item() <= 40 ) {
+				expectedCount++;
+				expectedSum += T.item();
+			}
+		if( visited != expectedCount || sum[0] != expectedSum ) System.out.println("Error: rangeScan(21, 40) visited " + visited + " items summing to " + sum[0]);
+		if( T.rangeScan(200, 300, adder) != 0 ) System.out.println("Error: rangeScan(200, 300) should visit nothing.");
+
+		// Building from sorted input.
+		Integer[] sorted = new Integer[1000];
+		for(i = 0; i < sorted.length; i++)
+			sorted[i] = i / 2;
+		AVLTree280<Integer> B = AVLTree280.fromSorted(sorted);
+		if( checkHeights(B.rootNode()) != 10 ) System.out.println("Error: a tree of 1000 items built from sorted input should have height 10.");
+		i = 0;
+		for(B.goFirst(); B.itemExists(); B.goForth(), i++)
+			if( !B.item().equals(sorted[i]) ) System.out.println("Error: item " + i + " of the built tree should be " + sorted[i]);
+		if( i != sorted.length ) System.out.println("Error: the built tree should have " + sorted.length + " items but has " + i);
+		for(int x = 1000; x < 1100; x++)
+			B.insert(x);
+		checkHeights(B.rootNode());
+		if( !AVLTree280.fromSorted(java.util.Arrays.asList(sorted).iterator()).has(499) ) System.out.println("Error: tree built from an iterator should contain 499.");
+		if( !AVLTree280.fromSorted(new Integer[0]).isEmpty() ) System.out.println("Error: tree built from no items should be empty.");
+		try {
+			AVLTree280.fromSorted(new Integer[] { 1, 3, 2 });
+			System.out.println("Error: expected exception building from unsorted items.");
+		}
+		catch(InvalidArgument280Exception e) {
+			// Expected, do nothing.
+		}
+
+		// Merge and union.
+		AVLTree280<Integer> evens = AVLTree280.fromSorted(new Integer[] { 0, 2, 4, 6, 8 });
+		AVLTree280<Integer> small = AVLTree280.fromSorted(new Integer[] { 1, 2, 3, 4 });
+		int[] merged = { 0, 1, 2, 2, 3, 4, 4, 6, 8 };
+		int[] united = { 0, 1, 2, 3, 4, 6, 8 };
+		AVLTree280<Integer> M = evens.merge(small);
+		AVLTree280<Integer> U = evens.union(small);
+		checkHeights(M.rootNode());
+		checkHeights(U.rootNode());
+		i = 0;
+		for(M.goFirst(); M.itemExists(); M.goForth(), i++)
+			if( i >= merged.length || M.item() != merged[i] ) System.out.println("Error: merge() has " + M.item() + " at position " + i);
+		if( i != merged.length ) System.out.println("Error: merge() should have " + merged.length + " items but has " + i);
+		i = 0;
+		for(U.goFirst(); U.itemExists(); U.goForth(), i++)
+			if( i >= united.length || U.item() != united[i] ) System.out.println("Error: union() has " + U.item() + " at position " + i);
+		if( i != united.length ) System.out.println("Error: union() should have " + united.length + " items but has " + i);
+		if( evens.has(1) || !small.has(1) ) System.out.println("Error: merge() and union() should not change their operands.");
+
+		// Walking off either end and then searching must not reuse the old path.
+		AVLTree280<Integer> W = new AVLTree280<Integer>();
+		for(i = 1; i <= 7; i++)
+			W.insert(i);
+		W.goFirst();
+		W.goBack();
+		W.search(1);
+		W.goForth();
+		if( !W.itemExists() || W.item() != 2 ) System.out.println("Error: goForth() after walking off the start and searching should be at 2.");
+		W.goLast();
+		W.goForth();
+		W.search(7);
+		W.goBack();
+		if( !W.itemExists() || W.item() != 6 ) System.out.println("Error: goBack() after walking off the end and searching should be at 6.");
+		W.goFirst();
+		W.goBack();
+		W.search(1);
+		W.deleteItem();
+		if( !W.itemExists() || W.item() != 2 ) System.out.println("Error: deleteItem() after walking off the start and searching should leave the cursor at 2.");
+
+		T.clear();
+		try {
+			T.goFirst();
+			System.out.println("Error: expected exception moving to the first item of an empty tree.");
+		}
+		catch(ContainerEmpty280Exception e) {
+			// Expected, do nothing.
+		}
+
+		System.out.println("Regression test complete.");
+
 		
 	}
 	
@@ -0,0 +1,671 @@
+package lib280.tree;
+
+import lib280.base.Dispenser280;
+import lib280.base.Searchable280;
+import lib280.exception.NoCurrentItem280Exception;
+
+/**	An AVL tree with the same search, has, insert and deleteItem behaviour
+	as AVLTree280, stored in parallel arrays instead of node objects: node i
+	has its item in items[i], the indices of its children in left[i] and
+	right[i], and its balance factor (height of the right subtree minus
+	height of the left) in balance[i].  Index 0 is the empty tree.
+
+	There are no parent links and nothing is recursive: insert and delete
+	record the path from the root in a small array and retrace it to
+	restore balance.  Deleted nodes go on a free list (linked through
+	left[]) and are reused by later inserts, and the arrays grow by half
+	when they fill, so a node costs about a third of the memory of an
+	AVLTreeNode280 and searches touch a few contiguous arrays.
+
+	As in AVLTree280, duplicates are allowed and are inserted to the right
+	of their equals, and deleteItem() moves the cursor to the deleted item's
+	in-order successor. */
+public class ArrayedAVLTree280<I extends Comparable<? super I>> implements Searchable280<I>, Dispenser280<I>
+{
+	/**	Index of the empty tree. */
+	protected static final int NIL = 0;
+
+	/**	Longest possible path from the root: an AVL tree of height 64 would
+		have more than 2^31 nodes. */
+	protected static final int MAX_HEIGHT = 64;
+
+	/**	Default number of nodes to make room for. */
+	protected static final int defaultCapacity = 16;
+
+	/**	Item of each node. */
+	protected I[] items;
+
+	/**	Left child of each node, or the next free node for nodes on the free list. */
+	protected int[] left;
+
+	/**	Right child of each node. */
+	protected int[] right;
+
+	/**	Height of the right subtree minus height of the left subtree of each node: -1, 0 or 1. */
+	protected byte[] balance;
+
+	/**	Index of the root node, or NIL. */
+	protected int root;
+
+	/**	Number of items in the tree. */
+	protected int count;
+
+	/**	First node that has never been used. */
+	protected int unused;
+
+	/**	First node of the free list, or NIL. */
+	protected int free;
+
+	/**	The current node as set by search, or NIL. */
+	protected int cur;
+
+	/**	Is the cursor above the root (no search yet), rather than below the bottom? */
+	protected boolean above;
+
+	/**	Do searches continue?. */
+	protected boolean searchesContinue = false;
+
+	/**	Nodes on the path from the root used by insert and delete. */
+	protected int[] path = new int[MAX_HEIGHT];
+
+	/**	Direction taken from each node of path: -1 for left, 1 for right. */
+	protected byte[] dir = new byte[MAX_HEIGHT];
+
+	/**
+	 * Create an empty tree.
+	 * @timing O(1)
+	 */
+	public ArrayedAVLTree280() {
+		this(defaultCapacity);
+	}
+
+	/**
+	 * Create an empty tree with room for cap items before its arrays grow.
+	 * @timing O(cap)
+	 * @param cap number of items to make room for
+	 */
+	public ArrayedAVLTree280(int cap) {
+		this.allocate(Math.max(cap, 1) + 1);
+		this.clear();
+	}
+
+	/**
+	 * Allocate node arrays of the given length, keeping the nodes already there.
+	 * @timing O(length)
+	 */
+	protected void allocate(int length) {
+		@SuppressWarnings("unchecked")
+		I[] newItems = (I[]) new Comparable<?>[length];
+		int[] newLeft = new int[length];
+		int[] newRight = new int[length];
+		byte[] newBalance = new byte[length];
+		if( this.items != null ) {
+			System.arraycopy(this.items, 0, newItems, 0, this.unused);
+			System.arraycopy(this.left, 0, newLeft, 0, this.unused);
+			System.arraycopy(this.right, 0, newRight, 0, this.unused);
+			System.arraycopy(this.balance, 0, newBalance, 0, this.unused);
+		}
+		this.items = newItems;
+		this.left = newLeft;
+		this.right = newRight;
+		this.balance = newBalance;
+	}
+
+	/**
+	 * A node holding x with no children, taken from the free list if possible.
+	 * @timing O(1) amortized
+	 */
+	protected int newNode(I x) {
+		int n;
+		if( this.free != NIL ) {
+			n = this.free;
+			this.free = this.left[n];
+		}
+		else {
+			if( this.unused == this.items.length )
+				this.allocate(this.items.length + (this.items.length >> 1) + 1);
+			n = this.unused++;
+		}
+		this.items[n] = x;
+		this.left[n] = NIL;
+		this.right[n] = NIL;
+		this.balance[n] = 0;
+		return n;
+	}
+
+	/**
+	 * Put node n on the free list.
+	 * @timing O(1)
+	 */
+	protected void freeNode(int n) {
+		this.items[n] = null;
+		this.left[n] = this.free;
+		this.right[n] = NIL;
+		this.free = n;
+	}
+
+	/**
+	 * Make r the child of the node path[i-1] in direction dir[i-1], or the root if i is 0.
+	 * @timing O(1)
+	 */
+	protected void linkFromPath(int i, int r) {
+		if( i == 0 )
+			this.root = r;
+		else if( this.dir[i - 1] < 0 )
+			this.left[this.path[i - 1]] = r;
+		else
+			this.right[this.path[i - 1]] = r;
+	}
+
+	/**
+	 * Rotate the subtree rooted at a to the left.
+	 * @precond right[a] != NIL
+	 * @timing O(1)
+	 * @return the new root of the subtree
+	 */
+	protected int rotateLeft(int a) {
+		int b = this.right[a];
+		this.right[a] = this.left[b];
+		this.left[b] = a;
+		this.balance[a] = (byte) (this.balance[a] - 1 - Math.max(this.balance[b], 0));
+		this.balance[b] = (byte) (this.balance[b] - 1 + Math.min(this.balance[a], 0));
+		return b;
+	}
+
+	/**
+	 * Rotate the subtree rooted at a to the right.
+	 * @precond left[a] != NIL
+	 * @timing O(1)
+	 * @return the new root of the subtree
+	 */
+	protected int rotateRight(int a) {
+		int b = this.left[a];
+		this.left[a] = this.right[b];
+		this.right[b] = a;
+		this.balance[a] = (byte) (this.balance[a] + 1 - Math.min(this.balance[b], 0));
+		this.balance[b] = (byte) (this.balance[b] + 1 + Math.max(this.balance[a], 0));
+		return b;
+	}
+
+	/**
+	 * Restore the AVL property at n, whose balance factor is -2 or 2, with a
+	 * single or double rotation.
+	 * @timing O(1)
+	 * @return the new root of the subtree
+	 */
+	protected int rebalance(int n) {
+		if( this.balance[n] > 0 ) {
+			if( this.balance[this.right[n]] < 0 )
+				this.right[n] = this.rotateRight(this.right[n]);
+			return this.rotateLeft(n);
+		}
+		else {
+			if( this.balance[this.left[n]] > 0 )
+				this.left[n] = this.rotateLeft(this.left[n]);
+			return this.rotateRight(n);
+		}
+	}
+
+	/**
+	 * Insert x into the tree.  Duplicates are allowed; x goes to the right
+	 * of any items equal to it.  The cursor is not moved.
+	 * @timing O(log n)
+	 * @param x item to be inserted
+	 */
+	public void insert(I x) {
+		int added = this.newNode(x);
+		this.count++;
+		if( this.root == NIL ) {
+			this.root = added;
+			return;
+		}
+
+		// Walk down to the insertion point, remembering the path.
+		int d = 0;
+		int n = this.root;
+		while( true ) {
+			this.path[d] = n;
+			if( x.compareTo(this.items[n]) < 0 ) {
+				this.dir[d] = -1;
+				if( this.left[n] == NIL ) {
+					this.left[n] = added;
+					break;
+				}
+				n = this.left[n];
+			}
+			else {
+				this.dir[d] = 1;
+				if( this.right[n] == NIL ) {
+					this.right[n] = added;
+					break;
+				}
+				n = this.right[n];
+			}
+			d++;
+		}
+
+		// Retrace: the subtree below path[i] grew by one level on side dir[i].
+		for(int i = d; i >= 0; i--) {
+			int p = this.path[i];
+			this.balance[p] += this.dir[i];
+			if( this.balance[p] == 0 )
+				break;  // p's height did not change
+			if( this.balance[p] == 2 || this.balance[p] == -2 ) {
+				// A rotation after an insert restores p's old height.
+				this.linkFromPath(i, this.rebalance(p));
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Record in path and dir the path from the root to node target, which
+	 * holds x.  Equal items may lie on both sides of a node, so every
+	 * subtree that could hold an item equal to x is searched.
+	 * @precond target is a node of the tree holding x
+	 * @timing O(log n + number of items equal to x)
+	 * @return the number of nodes on the path, target being the last
+	 */
+	protected int pathTo(int target, I x) {
+		// dir[d] is 0 before either subtree of path[d] has been explored,
+		// then the side being explored: -1 for left, 1 for right.
+		int d = 0;
+		this.path[0] = this.root;
+		this.dir[0] = 0;
+		while( d >= 0 ) {
+			int m = this.path[d];
+			if( m == target )
+				return d + 1;
+			int c = x.compareTo(this.items[m]);
+			if( this.dir[d] == 0 ) {
+				this.dir[d] = -1;
+				if( c <= 0 && this.left[m] != NIL ) {
+					this.path[++d] = this.left[m];
+					this.dir[d] = 0;
+					continue;
+				}
+			}
+			if( this.dir[d] == -1 ) {
+				this.dir[d] = 1;
+				if( c >= 0 && this.right[m] != NIL ) {
+					this.path[++d] = this.right[m];
+					this.dir[d] = 0;
+					continue;
+				}
+			}
+			d--;
+		}
+		throw new RuntimeException("Didn't find the item at the cursor while deleting.  This should be impossible.");
+	}
+
+	/**
+	 * Delete the current item.  The cursor moves to the in-order successor
+	 * of the deleted item, or below the bottom of the tree if it had none.
+	 * @precond itemExists()
+	 * @throws NoCurrentItem280Exception if there is no current item.
+	 * @timing O(log n)
+	 */
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no item to delete.");
+
+		int target = this.cur;
+		int len = this.pathTo(target, this.items[target]);
+
+		int successor;
+		if( this.left[target] != NIL && this.right[target] != NIL ) {
+			// Copy the in-order successor into target and delete the
+			// successor's node instead; the cursor stays on target.
+			this.dir[len - 1] = 1;
+			int s = this.right[target];
+			this.path[len++] = s;
+			while( this.left[s] != NIL ) {
+				this.dir[len - 1] = -1;
+				s = this.left[s];
+				this.path[len++] = s;
+			}
+			this.items[target] = this.items[s];
+			successor = target;
+		}
+		else if( this.right[target] != NIL ) {
+			successor = this.right[target];
+			while( this.left[successor] != NIL )
+				successor = this.left[successor];
+		}
+		else {
+			// The successor is the nearest ancestor whose left subtree holds target.
+			successor = NIL;
+			for(int i = len - 2; i >= 0 && successor == NIL; i--)
+				if( this.dir[i] < 0 )
+					successor = this.path[i];
+		}
+
+		// Unlink the last node of the path, which has at most one child.
+		int k = len - 1;
+		int z = this.path[k];
+		this.linkFromPath(k, this.left[z] != NIL ? this.left[z] : this.right[z]);
+		this.freeNode(z);
+		this.count--;
+
+		// Retrace: the subtree below path[i] on side dir[i] lost a level.
+		for(int i = k - 1; i >= 0; i--) {
+			int p = this.path[i];
+			this.balance[p] -= this.dir[i];
+			if( this.balance[p] == 1 || this.balance[p] == -1 )
+				break;  // p's height did not change
+			if( this.balance[p] == 2 || this.balance[p] == -2 ) {
+				int sibling = this.balance[p] > 0 ? this.right[p] : this.left[p];
+				boolean heightUnchanged = this.balance[sibling] == 0;
+				this.linkFromPath(i, this.rebalance(p));
+				if( heightUnchanged )
+					break;
+			}
+		}
+
+		this.cur = successor;
+		this.above = false;
+	}
+
+	/**	Go to item x, if it is in the tree.  If searchesContinue, continue in the right subtree.
+		@timing O(log n) */
+	public void search(I x) {
+		int n;
+		if( !this.searchesContinue || (this.above && this.cur == NIL) )
+			n = this.root;
+		else if( this.cur != NIL )
+			n = this.right[this.cur];
+		else
+			n = NIL;
+
+		while( n != NIL ) {
+			int c = x.compareTo(this.items[n]);
+			if( c < 0 )
+				n = this.left[n];
+			else if( c > 0 )
+				n = this.right[n];
+			else
+				break;
+		}
+		this.cur = n;
+		this.above = false;
+	}
+
+	/**	Does the tree contain an item equal to x?  The cursor is not moved.
+		@timing O(log n) */
+	public boolean has(I x) {
+		int n = this.root;
+		while( n != NIL ) {
+			int c = x.compareTo(this.items[n]);
+			if( c < 0 )
+				n = this.left[n];
+			else if( c > 0 )
+				n = this.right[n];
+			else
+				return true;
+		}
+		return false;
+	}
+
+	/**	Restart searches each time search is called.
+		@timing O(1) */
+	public void restartSearches() {
+		this.searchesContinue = false;
+	}
+
+	/**	Resume searches after each call to search.
+		@timing O(1) */
+	public void resumeSearches() {
+		this.searchesContinue = true;
+	}
+
+	/**	Test whether x equals y using compareTo.
+		@timing O(1) */
+	public boolean membershipEquals(I x, I y) {
+		return 0 == x.compareTo(y);
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("Error retrieving current item: There is no current item.");
+		return this.items[this.cur];
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.cur != NIL;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.root == NIL;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	/**	Number of items in the tree.
+		@timing O(1) */
+	public int count() {
+		return this.count;
+	}
+
+	/**	Number of items the tree can hold before its arrays grow.
+		@timing O(1) */
+	public int capacity() {
+		return this.items.length - 1;
+	}
+
+	/**	The item at the root of the tree.
+		@precond !isEmpty()
+		@throws NoCurrentItem280Exception if the tree is empty.
+		@timing O(1) */
+	public I rootItem() throws NoCurrentItem280Exception {
+		if( this.isEmpty() )
+			throw new NoCurrentItem280Exception("An empty tree has no root item.");
+		return this.items[this.root];
+	}
+
+	/**	Remove every item.  The node arrays keep their size.
+		@timing O(capacity) */
+	@Override
+	public void clear() {
+		java.util.Arrays.fill(this.items, null);
+		this.root = NIL;
+		this.count = 0;
+		this.unused = 1;
+		this.free = NIL;
+		this.cur = NIL;
+		this.above = true;
+	}
+
+	/**	Height of the subtree rooted at node n.
+		@timing O(log n), following the taller side at each node */
+	protected int height(int n) {
+		int h = 0;
+		while( n != NIL ) {
+			h++;
+			n = this.balance[n] < 0 ? this.left[n] : this.right[n];
+		}
+		return h;
+	}
+
+	/**	Height of the tree; 0 if it is empty.
+		@timing O(log n) */
+	public int height() {
+		return this.height(this.root);
+	}
+
+	/**	Form a string representation of the subtree at n that includes level numbers.
+		@timing O(n) */
+	protected String toStringByLevel(int n, int level) {
+		StringBuffer blanks = new StringBuffer((level - 1) * 5);
+		for (int j = 0; j < level - 1; j++)
+			blanks.append("            ");
+
+		String result = new String();
+		if( n != NIL && (this.left[n] != NIL || this.right[n] != NIL) )
+			result += this.toStringByLevel(this.right[n], level + 1);
+		result += "\n" + blanks + level + "/";
+		if( n != NIL ) result += this.balance[n];
+		result += ": ";
+		if( n == NIL )
+			result += "-";
+		else {
+			result += this.items[n];
+			if( this.left[n] != NIL || this.right[n] != NIL )
+				result += this.toStringByLevel(this.left[n], level + 1);
+		}
+		return result;
+	}
+
+	public String toString() {
+		return this.toStringByLevel(this.root, 1);
+	}
+
+	/**	A shallow copy of the tree: the arrays are copied, the items are not.
+		@timing O(capacity) */
+	@SuppressWarnings("unchecked")
+	public ArrayedAVLTree280<I> clone() {
+		try {
+			ArrayedAVLTree280<I> t = (ArrayedAVLTree280<I>) super.clone();
+			t.items = this.items.clone();
+			t.left = this.left.clone();
+			t.right = this.right.clone();
+			t.balance = this.balance.clone();
+			t.path = new int[MAX_HEIGHT];
+			t.dir = new byte[MAX_HEIGHT];
+			return t;
+		}
+		catch (CloneNotSupportedException e) {
+			/* Should not occur: this is a Container280, which is Cloneable. */
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**	Check the AVL and ordering properties of the subtree at n, printing an
+		error for any violation, and return its height.
+		@timing O(n) */
+	protected int check(int n, I lo, I hi) {
+		if( n == NIL ) return 0;
+		if( (lo != null && this.items[n].compareTo(lo) < 0) || (hi != null && this.items[n].compareTo(hi) > 0) )
+			System.out.println("Error: item " + this.items[n] + " is out of order.");
+		int lh = this.check(this.left[n], lo, this.items[n]);
+		int rh = this.check(this.right[n], this.items[n], hi);
+		if( rh - lh != this.balance[n] )
+			System.out.println("Error: node " + this.items[n] + " has balance " + this.balance[n] + " but its subtrees differ by " + (rh - lh));
+		return Math.max(lh, rh) + 1;
+	}
+
+	public static void main(String[] args) {
+		ArrayedAVLTree280<Integer> T = new ArrayedAVLTree280<Integer>();
+
+		// Test left rotations
+		int[] ascending = { 12, 14, 22, 35, 36, 43, 55, 63, 73, 99, 40 };
+		for(int x : ascending)
+			T.insert(x);
+		T.check(T.root, null, null);
+		System.out.println(T);
+
+		// Test right rotations
+		T.clear();
+		int[] descending = { 99, 88, 77, 66, 55, 44, 33, 22, 11, 10, 9 };
+		for(int x : descending)
+			T.insert(x);
+		T.check(T.root, null, null);
+		System.out.println(T);
+
+		if( !T.has(9) ) System.out.println("Error: T reports that it does not contain 9 but it does.");
+		if( !T.has(77) ) System.out.println("Error: T reports that it does not contain 77 but it does.");
+		if( !T.has(44) ) System.out.println("Error: T reports that it does not contain 44 but it does.");
+		if( T.has(15) ) System.out.println("Error: T reports that it has 15, but it doesn't.");
+
+		T.search(9);
+		if( T.item() != 9 ) System.out.println("Error: current item should be 9.");
+		T.deleteItem();
+		if( !T.itemExists() || T.item() != 10 ) System.out.println("Error: cursor should be on 10 after deleting 9.");
+		T.search(11);
+		T.deleteItem();
+		T.insert(101);
+		T.search(66);
+		T.deleteItem();
+		T.search(77);
+		T.deleteItem();
+		if( T.item() != 88 ) System.out.println("Error: cursor should be on 88 after deletion, but it isn't.");
+		T.search(101);
+		T.deleteItem();
+		if( T.itemExists() ) System.out.println("Error: deleting the largest item should leave no current item.");
+		T.check(T.root, null, null);
+		if( T.count() != 7 ) System.out.println("Error: tree should have 7 items but has " + T.count());
+
+		// Deleting from an empty cursor fails.
+		T.search(15);
+		try {
+			T.deleteItem();
+			System.out.println("Error: expected exception deleting when there is no current item.");
+		}
+		catch(NoCurrentItem280Exception e) {
+			// Expected, do nothing.
+		}
+
+		// Many random inserts and deletes, with duplicates, checked against a count of each value.
+		T.clear();
+		java.util.Random r = new java.util.Random(280);
+		int[] copies = new int[500];
+		for(int step = 0; step < 20000; step++) {
+			int x = r.nextInt(copies.length);
+			if( r.nextInt(3) > 0 ) {
+				T.insert(x);
+				copies[x]++;
+			}
+			else if( copies[x] > 0 ) {
+				T.search(x);
+				T.deleteItem();
+				copies[x]--;
+			}
+			if( step % 1000 == 0 ) T.check(T.root, null, null);
+		}
+		T.check(T.root, null, null);
+		int total = 0;
+		for(int x = 0; x < copies.length; x++) {
+			total += copies[x];
+			if( T.has(x) != (copies[x] > 0) ) System.out.println("Error: has(" + x + ") is wrong after random updates.");
+		}
+		if( T.count() != total ) System.out.println("Error: tree should have " + total + " items but has " + T.count());
+		if( T.height() > 1.45 * Math.log(total + 2) / Math.log(2) )
+			System.out.println("Error: tree of " + total + " items has height " + T.height());
+
+		// Find every copy of a duplicated value with resumeSearches().
+		int most = 0;
+		for(int x = 1; x < copies.length; x++)
+			if( copies[x] > copies[most] ) most = x;
+		T.search(most);
+		T.resumeSearches();
+		int found = 0;
+		while( T.itemExists() ) {
+			found++;
+			T.search(most);
+		}
+		T.restartSearches();
+		if( found < 1 ) System.out.println("Error: resumed searches should find " + most);
+
+		// Delete every copy of every value through deleteItem(); the free list is reused.
+		int capacityBefore = T.capacity();
+		for(int x = 0; x < copies.length; x++)
+			for(int c = 0; c < copies[x]; c++) {
+				T.search(x);
+				if( !T.itemExists() ) System.out.println("Error: copy " + c + " of " + x + " not found.");
+				else T.deleteItem();
+			}
+		if( !T.isEmpty() || T.count() != 0 ) System.out.println("Error: tree should be empty.");
+		for(int i = 0; i < total; i++)
+			T.insert(i);
+		if( T.capacity() != capacityBefore ) System.out.println("Error: inserts after deletes should reuse freed nodes.");
+		T.check(T.root, null, null);
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,770 @@
+package lib280.tree;
+
+import lib280.base.Container280;
+import lib280.base.CursorPosition280;
+import lib280.base.Keyed280;
+import lib280.base.Pair280;
+import lib280.dictionary.KeyedDict280;
+import lib280.exception.*;
+
+/**
+ * A B+ tree: the generalization of TwoThreeTree280 to nodes with up to
+ * 'fanout' children.  As in the 2-3 tree, internal nodes hold only keys and
+ * every item is in a leaf, all leaves are at the same depth, and the leaves
+ * are linked in key order for the cursor.  Each node keeps its keys in an
+ * array searched by binary search, and a leaf holds up to fanout items, so
+ * with a fanout of 64 a tree of 10 million items is 4 or 5 levels deep
+ * rather than about 15.
+ *
+ * The cursor works as in IterableTwoThreeTree280, so code written against
+ * KeyedDict280 (searchCeilingOf, then goForth while itemExists) can switch
+ * trees without change.  After an insert or delete the cursor stays on the
+ * same item, or moves to the successor of an item that was deleted.
+ */
+public class BPlusTree280<K extends Comparable<? super K>, I extends Keyed280<K>> implements KeyedDict280<K,I>, Container280 {
+
+	/** Fanout used by the constructor with no arguments. */
+	public static final int DEFAULT_FANOUT = 64;
+
+	/** Maximum number of children of an internal node, and of items in a leaf. */
+	protected int fanout;
+
+	/** Minimum number of children or items of every node but the root. */
+	protected int minFill;
+
+	/** Root of the tree, or null if the tree is empty. */
+	protected BPlusTreeNode280<K,I> rootNode;
+
+	/** The leaf with the smallest keys. */
+	protected BPlusTreeLeafNode280<K,I> smallest;
+
+	/** Number of items in the tree. */
+	protected int count;
+
+	// The cursor is position 'index' of leaf 'cursor'; if cursor is null,
+	// 'pastEnd' says whether it is after the end rather than before the start.
+	protected BPlusTreeLeafNode280<K,I> cursor;
+	protected int index;
+	protected boolean pastEnd;
+
+	/**
+	 * Create an empty tree with the default fanout.
+	 */
+	public BPlusTree280() {
+		this(DEFAULT_FANOUT);
+	}
+
+	/**
+	 * Create an empty tree whose nodes have at most 'fanout' children or items.
+	 * Fanouts from 32 to 256 suit most keys; 3 gives a tree shaped like a 2-3 tree.
+	 * @param fanout maximum number of children of a node
+	 * @throws InvalidArgument280Exception if fanout is less than 3.
+	 */
+	public BPlusTree280(int fanout) throws InvalidArgument280Exception {
+		if( fanout < 3 )
+			throw new InvalidArgument280Exception("The fanout of a B+ tree must be at least 3.");
+		this.fanout = fanout;
+		this.minFill = (fanout + 1) / 2;
+		this.clear();
+	}
+
+	// Nodes have room for one entry more than the fanout, so that an entry
+	// can be added before a full node is split.
+	protected BPlusTreeLeafNode280<K,I> createNewLeafNode() {
+		return new BPlusTreeLeafNode280<K,I>(this.fanout + 1);
+	}
+
+	protected BPlusTreeInternalNode280<K,I> createNewInternalNode() {
+		return new BPlusTreeInternalNode280<K,I>(this.fanout + 1);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.rootNode == null;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		this.rootNode = null;
+		this.smallest = null;
+		this.count = 0;
+		this.goBefore();
+	}
+
+	/**
+	 * The maximum number of children of a node.
+	 * @timing O(1)
+	 */
+	public int fanout() {
+		return this.fanout;
+	}
+
+	/**
+	 * Number of items in the tree.
+	 * @timing O(1)
+	 */
+	public int count() {
+		return this.count;
+	}
+
+	/**
+	 * Determine the height of the tree.
+	 * @timing O(log n), n is the number of items in the tree.
+	 * @return The number of levels of the tree, counting the leaves; 0 if it is empty.
+	 */
+	public int height() {
+		if( this.isEmpty() ) return 0;
+		int height = 1;
+		BPlusTreeNode280<K,I> cur = this.rootNode;
+		while( cur.isInternal() ) {
+			cur = ((BPlusTreeInternalNode280<K,I>) cur).getChild(0);
+			height++;
+		}
+		return height;
+	}
+
+	/**
+	 * The leaf in which an item with key k is, or would be.
+	 * @precond !isEmpty()
+	 * @timing O(log n)
+	 */
+	protected BPlusTreeLeafNode280<K,I> findLeaf(K k) {
+		BPlusTreeNode280<K,I> cur = this.rootNode;
+		while( cur.isInternal() )
+			cur = ((BPlusTreeInternalNode280<K,I>) cur).childFor(k);
+		return (BPlusTreeLeafNode280<K,I>) cur;
+	}
+
+	/**
+	 * Position of the item with key k in leaf.
+	 * @return the position, or -1 if the leaf has no item with key k.
+	 */
+	protected static <K extends Comparable<? super K>, I extends Keyed280<K>> int indexOf(BPlusTreeLeafNode280<K,I> leaf, K k) {
+		int i = leaf.lowerBound(k);
+		return i < leaf.numKeys() && leaf.getKey(i).compareTo(k) == 0 ? i : -1;
+	}
+
+	/**
+	 * Does the tree contain an item with key k?  The cursor is not moved.
+	 * @timing O(log n)
+	 */
+	@Override
+	public boolean has(K k) {
+		return !this.isEmpty() && indexOf(this.findLeaf(k), k) >= 0;
+	}
+
+	/**
+	 * The item with key k.  The cursor is not moved.
+	 * @timing O(log n)
+	 * @throws ItemNotFound280Exception if there is no item with key k.
+	 */
+	@Override
+	public I obtain(K k) throws ItemNotFound280Exception {
+		if( !this.isEmpty() ) {
+			BPlusTreeLeafNode280<K,I> leaf = this.findLeaf(k);
+			int i = indexOf(leaf, k);
+			if( i >= 0 ) return leaf.getItem(i);
+		}
+		throw new ItemNotFound280Exception("The item with key " + k + " was not found in the tree.");
+	}
+
+	/**
+	 * Replace the item having the same key as x by x.
+	 * @timing O(log n)
+	 * @throws ItemNotFound280Exception if there is no item with key x.key().
+	 */
+	@Override
+	public void set(I x) throws ItemNotFound280Exception {
+		if( !this.isEmpty() ) {
+			BPlusTreeLeafNode280<K,I> leaf = this.findLeaf(x.key());
+			int i = indexOf(leaf, x.key());
+			if( i >= 0 ) {
+				leaf.setItem(i, x);
+				return;
+			}
+		}
+		throw new ItemNotFound280Exception("There is no item with key " + x.key() + " to replace.");
+	}
+
+	/**
+	 * Insert x into the tree.
+	 * @timing O(fanout * log n / log fanout)
+	 * @throws DuplicateItems280Exception if an item with key x.key() is already in the tree.
+	 */
+	@Override
+	public void insert(I x) throws DuplicateItems280Exception {
+		K k = x.key();
+		K cursorKey = this.itemExists() ? this.itemKey() : null;
+		if( this.isEmpty() ) {
+			BPlusTreeLeafNode280<K,I> leaf = createNewLeafNode();
+			leaf.insertAt(0, k, x);
+			this.rootNode = leaf;
+			this.smallest = leaf;
+		}
+		else {
+			Pair280<BPlusTreeNode280<K,I>, K> extra = this.insert(this.rootNode, k, x);
+
+			// If the root was split, make a new root above the two halves.
+			if( extra != null ) {
+				BPlusTreeInternalNode280<K,I> newRoot = createNewInternalNode();
+				newRoot.children[0] = this.rootNode;
+				newRoot.insertAt(0, extra.secondItem(), extra.firstItem());
+				this.rootNode = newRoot;
+			}
+		}
+		this.count++;
+		// A split may have moved the current item to another leaf.
+		if( cursorKey != null ) this.searchCeilingOf(cursorKey);
+	}
+
+	/**
+	 * Recursive helper for the public insert() method.
+	 * @param root Root of the (sub)tree into which we are inserting.
+	 * @param k Key of the item to be inserted.
+	 * @param x The item to be inserted.
+	 * @return null, or if root had to be split, the new node holding its upper half
+	 * 		   and the key that separates it from root.
+	 * @throws DuplicateItems280Exception if key k is already in the tree, in which case the tree is unchanged.
+	 */
+	protected Pair280<BPlusTreeNode280<K,I>, K> insert(BPlusTreeNode280<K,I> root, K k, I x) {
+		if( !root.isInternal() ) {
+			BPlusTreeLeafNode280<K,I> leaf = (BPlusTreeLeafNode280<K,I>) root;
+			int i = leaf.lowerBound(k);
+			if( i < leaf.numKeys() && leaf.getKey(i).compareTo(k) == 0 )
+				throw new DuplicateItems280Exception("Key already exists in the tree.");
+			leaf.insertAt(i, k, x);
+			if( leaf.size() <= this.fanout ) return null;
+
+			// Too many items: move the upper half to a new leaf just after this one.
+			BPlusTreeLeafNode280<K,I> newLeaf = createNewLeafNode();
+			leaf.moveTo(leaf.size() / 2, newLeaf);
+			newLeaf.setNext(leaf.next());
+			leaf.setNext(newLeaf);
+			return new Pair280<BPlusTreeNode280<K,I>, K>(newLeaf, newLeaf.getKey(0));
+		}
+		else {
+			BPlusTreeInternalNode280<K,I> node = (BPlusTreeInternalNode280<K,I>) root;
+			int i = node.upperBound(k);
+			Pair280<BPlusTreeNode280<K,I>, K> extra = this.insert(node.getChild(i), k, x);
+			if( extra == null ) return null;
+
+			// Link in the new child just after the one that was split.
+			node.insertAt(i, extra.secondItem(), extra.firstItem());
+			if( node.size() <= this.fanout ) return null;
+
+			// Too many children: move the upper half to a new node.
+			BPlusTreeInternalNode280<K,I> newNode = createNewInternalNode();
+			K middle = node.splitInto(newNode);
+			return new Pair280<BPlusTreeNode280<K,I>, K>(newNode, middle);
+		}
+	}
+
+	/**
+	 * Delete the item with key k.  If the cursor was on it, it moves to the
+	 * next item.
+	 * @timing O(fanout * log n / log fanout)
+	 * @throws ItemNotFound280Exception if there is no item with key k.
+	 */
+	@Override
+	public void delete(K k) throws ItemNotFound280Exception {
+		if( this.isEmpty() )
+			throw new ItemNotFound280Exception("The item with key " + k + " was not found in the tree.");
+		K cursorKey = this.itemExists() ? this.itemKey() : null;
+		this.delete(this.rootNode, k);
+		this.count--;
+
+		// If the root has only one child, replace the root with its child.
+		if( this.rootNode.isInternal() && this.rootNode.numKeys() == 0 )
+			this.rootNode = ((BPlusTreeInternalNode280<K,I>) this.rootNode).getChild(0);
+		else if( this.rootNode.size() == 0 ) {
+			this.rootNode = null;
+			this.smallest = null;
+		}
+		// Merges may have moved the current item; if it was the one deleted,
+		// this finds its successor.
+		if( cursorKey != null ) this.searchCeilingOf(cursorKey);
+	}
+
+	/**
+	 * Recursive helper for the public delete() method.  Any child of root left
+	 * with too few entries takes one from a sibling, or is merged with one.
+	 * @param root root of the current subtree
+	 * @param k The key to be deleted.
+	 * @throws ItemNotFound280Exception if there is no item with key k, in which case the tree is unchanged.
+	 */
+	protected void delete(BPlusTreeNode280<K,I> root, K k) throws ItemNotFound280Exception {
+		if( !root.isInternal() ) {
+			BPlusTreeLeafNode280<K,I> leaf = (BPlusTreeLeafNode280<K,I>) root;
+			int i = indexOf(leaf, k);
+			if( i < 0 )
+				throw new ItemNotFound280Exception("The item with key " + k + " was not found in the tree.");
+			leaf.removeAt(i);
+		}
+		else {
+			BPlusTreeInternalNode280<K,I> node = (BPlusTreeInternalNode280<K,I>) root;
+			int i = node.upperBound(k);
+			this.delete(node.getChild(i), k);
+			if( node.getChild(i).size() < this.minFill )
+				this.rebalance(node, i);
+		}
+	}
+
+	/**
+	 * Restore the minimum fill of child i of parent: take an entry from a
+	 * sibling that can spare one, or else merge the child with a sibling.
+	 * @precond parent.getChild(i).size() == minFill - 1
+	 * @timing O(fanout)
+	 */
+	protected void rebalance(BPlusTreeInternalNode280<K,I> parent, int i) {
+		BPlusTreeNode280<K,I> child = parent.getChild(i);
+		BPlusTreeNode280<K,I> left = i > 0 ? parent.getChild(i - 1) : null;
+		BPlusTreeNode280<K,I> right = i < parent.numKeys() ? parent.getChild(i + 1) : null;
+
+		if( left != null && left.size() > this.minFill ) {
+			// Steal the last entry of the left sibling.
+			if( !child.isInternal() ) {
+				BPlusTreeLeafNode280<K,I> l = (BPlusTreeLeafNode280<K,I>) left;
+				BPlusTreeLeafNode280<K,I> c = (BPlusTreeLeafNode280<K,I>) child;
+				int last = l.size() - 1;
+				c.insertAt(0, l.getKey(last), l.getItem(last));
+				l.removeAt(last);
+				parent.keys[i - 1] = c.getKey(0);
+			}
+			else {
+				BPlusTreeInternalNode280<K,I> l = (BPlusTreeInternalNode280<K,I>) left;
+				BPlusTreeInternalNode280<K,I> c = (BPlusTreeInternalNode280<K,I>) child;
+				int last = l.numKeys() - 1;
+				c.insertFirst(parent.getKey(i - 1), l.getChild(last + 1));
+				parent.keys[i - 1] = l.getKey(last);
+				l.removeAt(last);
+			}
+		}
+		else if( right != null && right.size() > this.minFill ) {
+			// Steal the first entry of the right sibling.
+			if( !child.isInternal() ) {
+				BPlusTreeLeafNode280<K,I> r = (BPlusTreeLeafNode280<K,I>) right;
+				BPlusTreeLeafNode280<K,I> c = (BPlusTreeLeafNode280<K,I>) child;
+				c.insertAt(c.size(), r.getKey(0), r.getItem(0));
+				r.removeAt(0);
+				parent.keys[i] = r.getKey(0);
+			}
+			else {
+				BPlusTreeInternalNode280<K,I> r = (BPlusTreeInternalNode280<K,I>) right;
+				BPlusTreeInternalNode280<K,I> c = (BPlusTreeInternalNode280<K,I>) child;
+				c.insertAt(c.numKeys(), parent.getKey(i), r.getChild(0));
+				parent.keys[i] = r.getKey(0);
+				r.removeFirst();
+			}
+		}
+		else if( left != null )
+			this.merge(parent, i - 1);
+		else
+			this.merge(parent, i);
+	}
+
+	/**
+	 * Merge child j + 1 of parent into child j, and remove it from parent.
+	 * @precond the two children have at most fanout entries between them
+	 * @timing O(fanout)
+	 */
+	protected void merge(BPlusTreeInternalNode280<K,I> parent, int j) {
+		BPlusTreeNode280<K,I> left = parent.getChild(j);
+		BPlusTreeNode280<K,I> right = parent.getChild(j + 1);
+		if( !left.isInternal() ) {
+			BPlusTreeLeafNode280<K,I> l = (BPlusTreeLeafNode280<K,I>) left;
+			BPlusTreeLeafNode280<K,I> r = (BPlusTreeLeafNode280<K,I>) right;
+			r.moveTo(0, l);
+			l.setNext(r.next());
+		}
+		else
+			((BPlusTreeInternalNode280<K,I>) left).absorb(parent.getKey(j), (BPlusTreeInternalNode280<K,I>) right);
+		parent.removeAt(j);
+	}
+
+
+	@Override
+	public K itemKey() throws NoCurrentItem280Exception {
+		if( !itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item from which to obtain its key.");
+		return this.cursor.getKey(this.index);
+	}
+
+	@Override
+	public Pair280<K, I> keyItemPair() throws NoCurrentItem280Exception {
+		if( !itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item from which to obtain its key.");
+		return new Pair280<K, I>(this.itemKey(), this.item());
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if( !itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return this.cursor.getItem(this.index);
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.cursor != null;
+	}
+
+	@Override
+	public boolean before() {
+		return this.cursor == null && !this.pastEnd;
+	}
+
+	@Override
+	public boolean after() {
+		return this.cursor == null && this.pastEnd || this.isEmpty();
+	}
+
+	/**
+	 * Advance the cursor to the next item, following the link to the next leaf
+	 * at the end of a leaf.
+	 * @timing O(1)
+	 */
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		if( this.after() ) throw new AfterTheEnd280Exception("Cannot advance the cursor past the end.");
+		if( this.before() ) this.goFirst();
+		else if( ++this.index == this.cursor.size() ) {
+			this.cursor = this.cursor.next();
+			this.index = 0;
+			this.pastEnd = this.cursor == null;
+		}
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Attempted to move linear iterator to first element of an empty tree.");
+		this.cursor = this.smallest;
+		this.index = 0;
+		this.pastEnd = false;
+	}
+
+	@Override
+	public void goBefore() {
+		this.cursor = null;
+		this.index = 0;
+		this.pastEnd = false;
+	}
+
+	@Override
+	public void goAfter() {
+		this.cursor = null;
+		this.index = 0;
+		this.pastEnd = true;
+	}
+
+	@Override
+	public CursorPosition280 currentPosition() {
+		return new BPlusTreePosition280<K,I>(this.cursor, this.index, this.pastEnd);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void goPosition(CursorPosition280 c) {
+		if( !(c instanceof BPlusTreePosition280) )
+			throw new InvalidArgument280Exception("The provided position was not a BPlusTreePosition280 object.");
+		BPlusTreePosition280<K,I> p = (BPlusTreePosition280<K,I>) c;
+		this.cursor = p.leaf;
+		this.index = p.index;
+		this.pastEnd = p.pastEnd;
+	}
+
+	/**
+	 * Position the cursor at the item with key k, or in the after position
+	 * if there is no such item.
+	 * @timing O(log n)
+	 */
+	@Override
+	public void search(K k) {
+		this.searchCeilingOf(k);
+		if( this.itemExists() && this.itemKey().compareTo(k) != 0 )
+			this.goAfter();
+	}
+
+	/**
+	 * Position the cursor at the smallest item with key at least k, or in the
+	 * after position if there is no such item.  Unlike the linear scan of
+	 * IterableTwoThreeTree280, this goes straight down the tree.
+	 * @timing O(log n)
+	 */
+	@Override
+	public void searchCeilingOf(K k) {
+		if( this.isEmpty() ) {
+			this.goAfter();
+			return;
+		}
+		BPlusTreeLeafNode280<K,I> leaf = this.findLeaf(k);
+		int i = leaf.lowerBound(k);
+		if( i == leaf.size() ) {
+			// Every key in the next leaf is at least the separator above it, which is greater than k.
+			leaf = leaf.next();
+			i = 0;
+		}
+		if( leaf == null )
+			this.goAfter();
+		else {
+			this.cursor = leaf;
+			this.index = i;
+			this.pastEnd = false;
+		}
+	}
+
+	@Override
+	public void setItem(I x) throws NoCurrentItem280Exception, InvalidArgument280Exception {
+		if( !itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item to alter.");
+		if( this.itemKey().compareTo(x.key()) != 0 )
+			throw new InvalidArgument280Exception("The item x does not have the same key as the current item.");
+		this.cursor.setItem(this.index, x);
+	}
+
+	/**
+	 * Remove the current item from the tree, leaving the cursor on its successor.
+	 * @timing O(log n)
+	 */
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( !itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item to delete.");
+		this.delete(this.itemKey());
+	}
+
+
+	/**
+	 * Helper method for printing of the tree.
+	 * @param i Current level of the tree.
+	 * @param root Root of the current subtree.
+	 * @return A string representation of the tree.
+	 */
+	protected String toStringByLevel(BPlusTreeNode280<K,I> root, int i) {
+		StringBuffer result = new StringBuffer();
+		result.append("\n");
+		for(int j = 0; j < i - 1; j++)
+			result.append("     ");
+		result.append(i).append(":");
+		for(int j = 0; j < root.numKeys(); j++)
+			result.append(j == 0 ? "" : " ").append(root.getKey(j));
+		if( root.isInternal() )
+			for(int j = 0; j < root.size(); j++)
+				result.append(toStringByLevel(((BPlusTreeInternalNode280<K,I>) root).getChild(j), i + 1));
+		return result.toString();
+	}
+
+	/**
+	 * String representation of the tree, one node per line, with each node's
+	 * children below it.
+	 */
+	public String toStringByLevel() {
+		if( this.isEmpty() ) return "Empty Tree";
+		else return toStringByLevel(this.rootNode, 1);
+	}
+
+	/**
+	 * 	String representation of the tree, level by level.
+	 */
+	public String toString() {
+		return toStringByLevel();
+	}
+
+	/**
+	 * Check the ordering, fill and linking of the subtree at root, whose keys
+	 * must be in [lo, hi), printing an error for any violation.
+	 * @param isRoot is root the root of the whole tree?
+	 * @return the number of levels of the subtree.
+	 */
+	protected int check(BPlusTreeNode280<K,I> root, K lo, K hi, boolean isRoot) {
+		for(int j = 0; j < root.numKeys(); j++) {
+			K key = root.getKey(j);
+			if( (lo != null && key.compareTo(lo) < 0) || (hi != null && key.compareTo(hi) >= 0)
+					|| (j > 0 && key.compareTo(root.getKey(j - 1)) <= 0) )
+				System.out.println("Error: key " + key + " is out of order.");
+		}
+		if( root.size() > this.fanout || (!isRoot && root.size() < this.minFill) )
+			System.out.println("Error: node with first key " + root.getKey(0) + " has " + root.size() + " entries.");
+		if( !root.isInternal() ) {
+			BPlusTreeLeafNode280<K,I> leaf = (BPlusTreeLeafNode280<K,I>) root;
+			if( leaf.next() != null && leaf.next().getKey(0).compareTo(leaf.getKey(leaf.size() - 1)) <= 0 )
+				System.out.println("Error: leaf after the one ending with " + leaf.getKey(leaf.size() - 1) + " is out of order.");
+			return 1;
+		}
+		BPlusTreeInternalNode280<K,I> node = (BPlusTreeInternalNode280<K,I>) root;
+		int height = -1;
+		for(int j = 0; j < node.size(); j++) {
+			int h = check(node.getChild(j), j == 0 ? lo : node.getKey(j - 1), j == node.numKeys() ? hi : node.getKey(j), false);
+			if( height >= 0 && h != height )
+				System.out.println("Error: leaves below the node with first key " + node.getKey(0) + " are at different depths.");
+			height = h;
+		}
+		return height + 1;
+	}
+
+	/**
+	 * Check the whole tree, including that the linked leaves hold exactly
+	 * count() items, printing an error for any violation.
+	 */
+	protected void check() {
+		if( this.isEmpty() ) {
+			if( this.count != 0 ) System.out.println("Error: empty tree has count " + this.count + ".");
+			return;
+		}
+		this.check(this.rootNode, null, null, true);
+		int n = 0;
+		for(BPlusTreeLeafNode280<K,I> leaf = this.smallest; leaf != null; leaf = leaf.next())
+			n += leaf.size();
+		if( n != this.count )
+			System.out.println("Error: the leaves hold " + n + " items but the count is " + this.count + ".");
+	}
+
+	public static void main(String args[]) {
+
+		class Item implements Keyed280<Integer> {
+			int num;
+
+			@Override
+			public Integer key() {
+				return num;
+			}
+
+			Item(int i) {
+				num = i;
+			}
+		}
+
+		try {
+			new BPlusTree280<Integer, Item>(2);
+			System.out.println("Error: expected InvalidArgument280Exception for a fanout of 2, got none.");
+		}
+		catch(InvalidArgument280Exception e) {
+		}
+
+		for(int fanout : new int[] { 3, 4, 5, 32 }) {
+			BPlusTree280<Integer, Item> T = new BPlusTree280<Integer, Item>(fanout);
+
+			// Check goFirst() on an empty tree.
+			try {
+				T.goFirst();
+				System.out.println("Error: expected ContainerEmpty280 exception calling goFirst() on empty tree, got none.");
+			}
+			catch(ContainerEmpty280Exception e) {
+			}
+
+			// Insert the even numbers 0..1998 in a scrambled order.
+			int n = 1000;
+			for(int i = 0; i < n; i++)
+				T.insert(new Item(2 * ((i * 389) % n)));
+			T.check();
+			if( T.count() != n ) System.out.println("Error: fanout " + fanout + ": count is " + T.count() + ", expected " + n + ".");
+			for(int i = 0; i < 2 * n; i++)
+				if( T.has(i) != (i % 2 == 0) ) System.out.println("Error: fanout " + fanout + ": has(" + i + ") is wrong.");
+			if( T.obtain(500).key() != 500 ) System.out.println("Error: obtain(500) returned the wrong item.");
+
+			try {
+				T.insert(new Item(10));
+				System.out.println("Error: expected DuplicateItems280Exception, got none.");
+			}
+			catch(DuplicateItems280Exception e) {
+			}
+			try {
+				T.delete(11);
+				System.out.println("Error: expected ItemNotFound280Exception deleting an absent key, got none.");
+			}
+			catch(ItemNotFound280Exception e) {
+			}
+			T.check();
+
+			// Iterate in order.
+			int expected = 0;
+			for(T.goFirst(); T.itemExists(); T.goForth()) {
+				if( T.itemKey() != expected ) System.out.println("Error: fanout " + fanout + ": iteration gave " + T.itemKey() + ", expected " + expected + ".");
+				expected += 2;
+			}
+			if( expected != 2 * n || !T.after() ) System.out.println("Error: iteration did not end after the last item.");
+
+			// searchCeilingOf on present and absent keys.
+			T.searchCeilingOf(37);
+			if( !T.itemExists() || T.itemKey() != 38 ) System.out.println("Error: searchCeilingOf(37) should find 38.");
+			T.searchCeilingOf(38);
+			if( !T.itemExists() || T.itemKey() != 38 ) System.out.println("Error: searchCeilingOf(38) should find 38.");
+			T.searchCeilingOf(-5);
+			if( !T.itemExists() || T.itemKey() != 0 ) System.out.println("Error: searchCeilingOf(-5) should find 0.");
+			T.searchCeilingOf(2 * n - 1);
+			if( !T.after() ) System.out.println("Error: searchCeilingOf past the largest key should leave the cursor after the end.");
+			T.search(37);
+			if( !T.after() ) System.out.println("Error: search for an absent key should leave the cursor after the end.");
+
+			// A range scan the way existing KeyedDict280 code does it.
+			int inRange = 0;
+			for(T.searchCeilingOf(101); T.itemExists() && T.itemKey() <= 201; T.goForth())
+				inRange++;
+			if( inRange != 50 ) System.out.println("Error: scan of [101, 201] visited " + inRange + " items, expected 50.");
+
+			// The cursor follows its item through inserts and deletes.
+			T.search(600);
+			T.insert(new Item(601));
+			T.delete(598);
+			if( !T.itemExists() || T.itemKey() != 600 ) System.out.println("Error: cursor did not stay on 600 through an insert and a delete.");
+			T.deleteItem();
+			if( !T.itemExists() || T.itemKey() != 601 ) System.out.println("Error: deleteItem() should leave the cursor on the successor.");
+			T.deleteItem();
+			T.insert(new Item(598));
+			T.insert(new Item(600));
+			T.check();
+
+			// setItem and set.
+			T.search(100);
+			T.setItem(new Item(100));
+			try {
+				T.setItem(new Item(101));
+				System.out.println("Error: expected InvalidArgument280Exception from setItem with another key, got none.");
+			}
+			catch(InvalidArgument280Exception e) {
+			}
+			try {
+				T.set(new Item(101));
+				System.out.println("Error: expected ItemNotFound280Exception from set with an absent key, got none.");
+			}
+			catch(ItemNotFound280Exception e) {
+			}
+
+			// Saved positions.
+			T.search(300);
+			CursorPosition280 p = T.currentPosition();
+			T.goFirst();
+			T.goPosition(p);
+			if( T.itemKey() != 300 ) System.out.println("Error: goPosition did not restore the cursor.");
+
+			// Delete every other item, then the rest, checking along the way.
+			for(int i = 0; i < n; i += 2)
+				T.delete(2 * i);
+			T.check();
+			if( T.count() != n / 2 ) System.out.println("Error: count is " + T.count() + " after deleting half the items.");
+			for(int i = 0; i < 2 * n; i++)
+				if( T.has(i) != (i % 4 == 2) ) System.out.println("Error: fanout " + fanout + ": has(" + i + ") is wrong after deletes.");
+			for(int i = 1; i < n; i += 2) {
+				T.delete(2 * i);
+				if( i % 97 == 0 ) T.check();
+			}
+			if( !T.isEmpty() || T.count() != 0 || T.height() != 0 ) System.out.println("Error: tree is not empty after deleting every item.");
+		}
+
+		// A large fanout keeps the tree shallow.
+		BPlusTree280<Integer, Item> T = new BPlusTree280<Integer, Item>();
+		for(int i = 0; i < 100000; i++)
+			T.insert(new Item((int) ((i * 7919L) % 100000)));
+		T.check();
+		if( T.height() > 4 ) System.out.println("Error: tree of 100000 items with fanout 64 has height " + T.height() + ".");
+
+		T.clear();
+		if( !T.isEmpty() || T.itemExists() ) System.out.println("Error: tree is not empty after clear().");
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,136 @@
+package lib280.tree;
+
+import lib280.base.Keyed280;
+
+/**
+ * An internal node of a BPlusTree280.  It has numKeys + 1 children; every key
+ * in child i is at least keys[i-1] and less than keys[i], so the child to
+ * descend into for a key k is child upperBound(k).
+ */
+public class BPlusTreeInternalNode280<K extends Comparable<? super K>, I extends Keyed280<K>> extends BPlusTreeNode280<K,I> {
+
+	/** The children of the node, in children[0..numKeys]. */
+	protected BPlusTreeNode280<K,I>[] children;
+
+	/**
+	 * Create an internal node with no keys and room for capacity children.
+	 * @param capacity maximum number of children the node can have
+	 */
+	@SuppressWarnings("unchecked")
+	public BPlusTreeInternalNode280(int capacity) {
+		super(capacity - 1);
+		this.children = (BPlusTreeNode280<K,I>[]) new BPlusTreeNode280<?,?>[capacity];
+	}
+
+	@Override
+	public boolean isInternal() {
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return numKeys + 1;
+	}
+
+	/**
+	 * The i'th child of the node.
+	 * @precond 0 <= i < size()
+	 * @timing O(1)
+	 */
+	public BPlusTreeNode280<K,I> getChild(int i) {
+		return children[i];
+	}
+
+	/**
+	 * The child whose subtree holds the keys equal to k, if there are any.
+	 * @timing O(log m) for a node with m keys
+	 */
+	public BPlusTreeNode280<K,I> childFor(K k) {
+		return children[upperBound(k)];
+	}
+
+	/**
+	 * Insert key k at position i and child c just after it, at position i + 1.
+	 * @precond size() < capacity and 0 <= i <= numKeys()
+	 * @timing O(m) for a node with m keys
+	 */
+	public void insertAt(int i, K k, BPlusTreeNode280<K,I> c) {
+		System.arraycopy(keys, i, keys, i + 1, numKeys - i);
+		System.arraycopy(children, i + 1, children, i + 2, numKeys - i);
+		keys[i] = k;
+		children[i + 1] = c;
+		numKeys++;
+	}
+
+	/**
+	 * Remove key i and the child just after it, at position i + 1.
+	 * @precond 0 <= i < numKeys()
+	 * @timing O(m) for a node with m keys
+	 */
+	public void removeAt(int i) {
+		numKeys--;
+		System.arraycopy(keys, i + 1, keys, i, numKeys - i);
+		System.arraycopy(children, i + 2, children, i + 1, numKeys - i);
+		keys[numKeys] = null;
+		children[numKeys + 1] = null;
+	}
+
+	/**
+	 * Add key k and child c in front of the first key and child.
+	 * @precond size() < capacity
+	 * @timing O(m) for a node with m keys
+	 */
+	public void insertFirst(K k, BPlusTreeNode280<K,I> c) {
+		System.arraycopy(keys, 0, keys, 1, numKeys);
+		System.arraycopy(children, 0, children, 1, numKeys + 1);
+		keys[0] = k;
+		children[0] = c;
+		numKeys++;
+	}
+
+	/**
+	 * Remove the first key and the first child.
+	 * @precond numKeys() > 0
+	 * @timing O(m) for a node with m keys
+	 */
+	public void removeFirst() {
+		numKeys--;
+		System.arraycopy(keys, 1, keys, 0, numKeys);
+		System.arraycopy(children, 1, children, 0, numKeys + 1);
+		keys[numKeys] = null;
+		children[numKeys + 1] = null;
+	}
+
+	/**
+	 * Move the upper half of the keys and children of this node into the empty
+	 * node right.  The middle key goes to neither node.
+	 * @timing O(m) for a node with m keys
+	 * @return the middle key, which separates this node from right in their parent.
+	 */
+	public K splitInto(BPlusTreeInternalNode280<K,I> right) {
+		int mid = numKeys / 2;
+		K middle = getKey(mid);
+		right.numKeys = numKeys - mid - 1;
+		System.arraycopy(keys, mid + 1, right.keys, 0, right.numKeys);
+		System.arraycopy(children, mid + 1, right.children, 0, right.numKeys + 1);
+		for(int i = mid; i < numKeys; i++) {
+			keys[i] = null;
+			children[i + 1] = null;
+		}
+		numKeys = mid;
+		return middle;
+	}
+
+	/**
+	 * Move every key and child of the node right, which follows this one, to the
+	 * end of this node, with separator k (their key in the parent) between them.
+	 * @precond size() + right.size() <= capacity
+	 * @timing O(m) for nodes with m keys
+	 */
+	public void absorb(K k, BPlusTreeInternalNode280<K,I> right) {
+		keys[numKeys] = k;
+		System.arraycopy(right.keys, 0, keys, numKeys + 1, right.numKeys);
+		System.arraycopy(right.children, 0, children, numKeys + 1, right.numKeys + 1);
+		numKeys += right.numKeys + 1;
+	}
+}
@@ -0,0 +1,115 @@
+package lib280.tree;
+
+import lib280.base.Keyed280;
+
+/**
+ * A leaf of a BPlusTree280.  It holds a sorted run of items, with their keys
+ * kept alongside in keys[], and is linked to the leaf holding the next run
+ * so that the items can be visited in order without going back up the tree.
+ */
+public class BPlusTreeLeafNode280<K extends Comparable<? super K>, I extends Keyed280<K>> extends BPlusTreeNode280<K,I> {
+
+	/** The items of the leaf; items[i] has key keys[i]. */
+	protected Object[] items;
+
+	/** The leaf with the next larger keys, or null if this is the last leaf. */
+	protected BPlusTreeLeafNode280<K,I> next;
+
+	/**
+	 * Create an empty leaf with room for capacity items.
+	 * @param capacity maximum number of items the leaf can hold
+	 */
+	public BPlusTreeLeafNode280(int capacity) {
+		super(capacity);
+		this.items = new Object[capacity];
+		this.next = null;
+	}
+
+	@Override
+	public boolean isInternal() {
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return numKeys;
+	}
+
+	/**
+	 * The i'th smallest item of the leaf.
+	 * @precond 0 <= i < size()
+	 * @timing O(1)
+	 */
+	@SuppressWarnings("unchecked")
+	public I getItem(int i) {
+		return (I) items[i];
+	}
+
+	/**
+	 * Replace the i'th item of the leaf by x, which must have the same key.
+	 * @precond 0 <= i < size()
+	 * @timing O(1)
+	 */
+	public void setItem(int i, I x) {
+		items[i] = x;
+	}
+
+	/**
+	 * The leaf with the next larger keys.
+	 * @return the next leaf, or null if this is the last one.
+	 */
+	public BPlusTreeLeafNode280<K,I> next() {
+		return next;
+	}
+
+	/**
+	 * Set the leaf with the next larger keys.
+	 * @param next the new next leaf
+	 */
+	public void setNext(BPlusTreeLeafNode280<K,I> next) {
+		this.next = next;
+	}
+
+	/**
+	 * Insert x, with key k, at position i, moving the items after it up one place.
+	 * @precond size() < capacity and 0 <= i <= size()
+	 * @timing O(m) for a leaf of m items
+	 */
+	public void insertAt(int i, K k, I x) {
+		System.arraycopy(keys, i, keys, i + 1, numKeys - i);
+		System.arraycopy(items, i, items, i + 1, numKeys - i);
+		keys[i] = k;
+		items[i] = x;
+		numKeys++;
+	}
+
+	/**
+	 * Remove the item at position i, moving the items after it down one place.
+	 * @precond 0 <= i < size()
+	 * @timing O(m) for a leaf of m items
+	 */
+	public void removeAt(int i) {
+		numKeys--;
+		System.arraycopy(keys, i + 1, keys, i, numKeys - i);
+		System.arraycopy(items, i + 1, items, i, numKeys - i);
+		keys[numKeys] = null;
+		items[numKeys] = null;
+	}
+
+	/**
+	 * Move the items at positions from..size()-1 to the end of leaf dest.
+	 * @precond dest has room for them
+	 * @timing O(m) for a leaf of m items
+	 */
+	public void moveTo(int from, BPlusTreeLeafNode280<K,I> dest) {
+		int n = numKeys - from;
+		System.arraycopy(keys, from, dest.keys, dest.numKeys, n);
+		System.arraycopy(items, from, dest.items, dest.numKeys, n);
+		dest.numKeys += n;
+		for(int i = from; i < numKeys; i++) {
+			keys[i] = null;
+			items[i] = null;
+		}
+		numKeys = from;
+	}
+}
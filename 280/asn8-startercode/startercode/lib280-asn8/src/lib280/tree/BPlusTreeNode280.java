@@ -0,0 +1,86 @@
+package lib280.tree;
+
+import lib280.base.Keyed280;
+
+/**
+ * A node of a BPlusTree280.  Every node keeps its keys in a sorted array and
+ * finds its place among them by binary search.  A leaf has one key per item;
+ * an internal node has one key fewer than it has children.
+ */
+public abstract class BPlusTreeNode280<K extends Comparable<? super K>, I extends Keyed280<K>> {
+
+	/** The keys of the node, in increasing order, in keys[0..numKeys-1]. */
+	protected Object[] keys;
+
+	/** Number of keys in the node. */
+	protected int numKeys;
+
+	/**
+	 * Create an empty node with room for capacity keys.
+	 * @param capacity maximum number of keys the node can hold
+	 */
+	protected BPlusTreeNode280(int capacity) {
+		this.keys = new Object[capacity];
+		this.numKeys = 0;
+	}
+
+	/**
+	 * Determine if the node is internal.
+	 * @return true if the node is internal, false if it is a leaf node.
+	 */
+	public abstract boolean isInternal();
+
+	/**
+	 * Number of entries in the node: items for a leaf, children for an internal node.
+	 * @timing O(1)
+	 */
+	public abstract int size();
+
+	/**
+	 * Number of keys in the node.
+	 * @timing O(1)
+	 */
+	public int numKeys() {
+		return numKeys;
+	}
+
+	/**
+	 * The i'th smallest key of the node.
+	 * @precond 0 <= i < numKeys()
+	 * @timing O(1)
+	 */
+	@SuppressWarnings("unchecked")
+	public K getKey(int i) {
+		return (K) keys[i];
+	}
+
+	/**
+	 * Position of the first key of the node that is greater than or equal to k.
+	 * @timing O(log m) for a node with m keys
+	 * @return an index from 0 to numKeys(); numKeys() if every key is less than k.
+	 */
+	public int lowerBound(K k) {
+		int lo = 0, hi = numKeys;
+		while( lo < hi ) {
+			int mid = (lo + hi) >>> 1;
+			if( getKey(mid).compareTo(k) < 0 ) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Position of the first key of the node that is greater than k.
+	 * @timing O(log m) for a node with m keys
+	 * @return an index from 0 to numKeys(); numKeys() if no key is greater than k.
+	 */
+	public int upperBound(K k) {
+		int lo = 0, hi = numKeys;
+		while( lo < hi ) {
+			int mid = (lo + hi) >>> 1;
+			if( getKey(mid).compareTo(k) <= 0 ) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+}
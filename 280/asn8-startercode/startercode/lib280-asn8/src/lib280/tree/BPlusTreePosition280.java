@@ -0,0 +1,20 @@
+package lib280.tree;
+
+import lib280.base.CursorPosition280;
+import lib280.base.Keyed280;
+
+/**
+ * A saved cursor position of a BPlusTree280: a leaf and a position in it.
+ * It is only valid until the tree is next changed.
+ */
+public class BPlusTreePosition280<K extends Comparable<? super K>, I extends Keyed280<K>> implements CursorPosition280 {
+	BPlusTreeLeafNode280<K,I> leaf;
+	int index;
+	boolean pastEnd;
+
+	BPlusTreePosition280(BPlusTreeLeafNode280<K,I> leaf, int index, boolean pastEnd) {
+		this.leaf = leaf;
+		this.index = index;
+		this.pastEnd = pastEnd;
+	}
+}
@@ -0,0 +1,315 @@
+package lib280.tree;
+
+import java.util.List;
+
+import lib280.base.Visitor280;
+
+/**	The ancestors of a node of a linked binary search tree, from the root
+	down to its parent, used to move a cursor through the tree in order
+	when the nodes have no parent links.  The path remembers which node it
+	leads to, and the tree clears it when its structure changes; the tree
+	rebuilds it with find() when it no longer leads to the current node. */
+public class BinaryTreePath280<I extends Comparable<? super I>>
+{
+	/**	Ancestors of the node, root first. */
+	protected BinaryNode280<I>[] nodes;
+
+	/**	Subtrees of each node already searched by find(). */
+	protected byte[] explored;
+
+	/**	Number of ancestors. */
+	protected int size;
+
+	/**	The node this path leads to. */
+	protected BinaryNode280<I> owner;
+
+	/**	Create an empty path.
+		@timing O(1) */
+	@SuppressWarnings("unchecked")
+	public BinaryTreePath280()
+	{
+		nodes = (BinaryNode280<I>[]) new BinaryNode280<?>[16];
+		explored = new byte[16];
+	}
+
+	/**	Does this path lead to node n?
+		@timing O(1) */
+	public boolean leadsTo(BinaryNode280<I> n)
+	{
+		return owner == n && n != null;
+	}
+
+	/**	Record that the path leads to node n.
+		@timing O(1) */
+	public void setOwner(BinaryNode280<I> n)
+	{
+		owner = n;
+	}
+
+	/**	Remove every node from the path.
+		@timing O(1) */
+	public void clear()
+	{
+		size = 0;
+		owner = null;
+	}
+
+	/**	Add n to the bottom of the path.
+		@timing O(1) amortized */
+	protected void push(BinaryNode280<I> n)
+	{
+		if (size == nodes.length)
+		{
+			@SuppressWarnings("unchecked")
+			BinaryNode280<I>[] larger = (BinaryNode280<I>[]) new BinaryNode280<?>[2 * nodes.length];
+			System.arraycopy(nodes, 0, larger, 0, size);
+			nodes = larger;
+			byte[] largerExplored = new byte[nodes.length];
+			System.arraycopy(explored, 0, largerExplored, 0, size);
+			explored = largerExplored;
+		}
+		nodes[size++] = n;
+	}
+
+	/**	The parent of the node the path leads to, or null if that node is the root.
+		@timing O(1) */
+	public BinaryNode280<I> parent()
+	{
+		return size == 0 ? null : nodes[size - 1];
+	}
+
+	/**	Go down from n to the leftmost node of its subtree, adding n and
+		every node passed to the path.
+		@timing O(h) where h is the height of the subtree
+		@return the leftmost node, or null if n is null */
+	public BinaryNode280<I> leftmost(BinaryNode280<I> n)
+	{
+		if (n == null)
+			return null;
+		while (n.leftNode() != null)
+		{
+			push(n);
+			n = n.leftNode();
+		}
+		return n;
+	}
+
+	/**	Go down from n to the rightmost node of its subtree, adding n and
+		every node passed to the path.
+		@timing O(h) where h is the height of the subtree
+		@return the rightmost node, or null if n is null */
+	public BinaryNode280<I> rightmost(BinaryNode280<I> n)
+	{
+		if (n == null)
+			return null;
+		while (n.rightNode() != null)
+		{
+			push(n);
+			n = n.rightNode();
+		}
+		return n;
+	}
+
+	/**	The in-order successor of n, leaving the path leading to it.
+		@precond the path leads to n
+		@timing O(h) worst case, O(1) amortized over a full traversal
+		@return the successor, or null (with an empty path) if n is the last node */
+	public BinaryNode280<I> successor(BinaryNode280<I> n)
+	{
+		if (n.rightNode() != null)
+		{
+			push(n);
+			return leftmost(n.rightNode());
+		}
+		while (size > 0)
+		{
+			BinaryNode280<I> p = nodes[--size];
+			if (p.leftNode() == n)
+				return p;
+			n = p;
+		}
+		return null;
+	}
+
+	/**	The in-order predecessor of n, leaving the path leading to it.
+		@precond the path leads to n
+		@timing O(h) worst case, O(1) amortized over a full traversal
+		@return the predecessor, or null (with an empty path) if n is the first node */
+	public BinaryNode280<I> predecessor(BinaryNode280<I> n)
+	{
+		if (n.leftNode() != null)
+		{
+			push(n);
+			return rightmost(n.leftNode());
+		}
+		while (size > 0)
+		{
+			BinaryNode280<I> p = nodes[--size];
+			if (p.rightNode() == n)
+				return p;
+			n = p;
+		}
+		return null;
+	}
+
+	/**	The first node, in order, whose item is greater than or equal to x,
+		leaving the path leading to it.
+		@timing O(h)
+		@return the node, or null (with an empty path) if every item is less than x */
+	public BinaryNode280<I> ceiling(BinaryNode280<I> root, I x)
+	{
+		clear();
+		BinaryNode280<I> result = null;
+		int resultDepth = 0;
+		BinaryNode280<I> n = root;
+		while (n != null)
+		{
+			if (x.compareTo(n.item()) <= 0)
+			{
+				result = n;
+				resultDepth = size;
+				push(n);
+				n = n.leftNode();
+			}
+			else
+			{
+				push(n);
+				n = n.rightNode();
+			}
+		}
+		size = resultDepth;
+		return result;
+	}
+
+	/**	The last node, in order, whose item is less than or equal to x,
+		leaving the path leading to it.
+		@timing O(h)
+		@return the node, or null (with an empty path) if every item is greater than x */
+	public BinaryNode280<I> floor(BinaryNode280<I> root, I x)
+	{
+		clear();
+		BinaryNode280<I> result = null;
+		int resultDepth = 0;
+		BinaryNode280<I> n = root;
+		while (n != null)
+		{
+			if (x.compareTo(n.item()) >= 0)
+			{
+				result = n;
+				resultDepth = size;
+				push(n);
+				n = n.rightNode();
+			}
+			else
+			{
+				push(n);
+				n = n.leftNode();
+			}
+		}
+		size = resultDepth;
+		return result;
+	}
+
+	/**	Rebuild the path from root to target.  Items equal to the target's
+		may lie on both sides of a node, so both subtrees are searched when
+		they could hold it.
+		@timing O(h + number of items equal to target's item)
+		@return true if target was found */
+	public boolean find(BinaryNode280<I> root, BinaryNode280<I> target)
+	{
+		clear();
+		if (root == null)
+			return false;
+		I x = target.item();
+		// explored[d] is how many subtrees of nodes[d] have been tried.
+		push(root);
+		explored[0] = 0;
+		while (size > 0)
+		{
+			BinaryNode280<I> n = nodes[size - 1];
+			if (n == target)
+			{
+				size--;
+				return true;
+			}
+			int c = x.compareTo(n.item());
+			if (explored[size - 1] == 0)
+			{
+				explored[size - 1] = 1;
+				if (c <= 0 && n.leftNode() != null)
+				{
+					push(n.leftNode());
+					explored[size - 1] = 0;
+					continue;
+				}
+			}
+			if (explored[size - 1] == 1)
+			{
+				explored[size - 1] = 2;
+				if (c >= 0 && n.rightNode() != null)
+				{
+					push(n.rightNode());
+					explored[size - 1] = 0;
+					continue;
+				}
+			}
+			size--;
+		}
+		return false;
+	}
+
+	/**	Visit, in order, every item of the subtree at n that is between lo and
+		hi inclusive.  Only the subtrees that can hold such items are entered,
+		so this takes O(h + k) time for k items visited.
+		@timing O(h + k)
+		@return the number of items visited */
+	public static <I extends Comparable<? super I>> int rangeScan(BinaryNode280<I> n, I lo, I hi, Visitor280<? super I> v)
+	{
+		int visited = 0;
+		while (n != null)
+		{
+			boolean aboveLo = lo.compareTo(n.item()) <= 0;
+			boolean belowHi = hi.compareTo(n.item()) >= 0;
+			if (aboveLo)
+				visited += rangeScan(n.leftNode(), lo, hi, v);
+			if (aboveLo && belowHi)
+			{
+				v.visit(n.item());
+				visited++;
+			}
+			n = belowHi ? n.rightNode() : null;
+		}
+		return visited;
+	}
+
+	/**	Merge the items of the trees rooted at a and b into out, in order.  If
+		distinct, an item equal to the one added just before it is left out,
+		so each value appears once.  The trees are walked with their own
+		paths, so no cursor is moved.
+		@timing O(n + m) for trees of n and m items */
+	public static <I extends Comparable<? super I>> void mergeInorder(BinaryNode280<I> a, BinaryNode280<I> b, boolean distinct, List<I> out)
+	{
+		BinaryTreePath280<I> pathA = new BinaryTreePath280<I>();
+		BinaryTreePath280<I> pathB = new BinaryTreePath280<I>();
+		BinaryNode280<I> x = pathA.leftmost(a);
+		BinaryNode280<I> y = pathB.leftmost(b);
+		I last = null;
+		while (x != null || y != null)
+		{
+			I next;
+			if (y == null || (x != null && x.item().compareTo(y.item()) <= 0))
+			{
+				next = x.item();
+				x = pathA.successor(x);
+			}
+			else
+			{
+				next = y.item();
+				y = pathB.successor(y);
+			}
+			if (!distinct || last == null || next.compareTo(last) != 0)
+				out.add(next);
+			last = next;
+		}
+	}
+}
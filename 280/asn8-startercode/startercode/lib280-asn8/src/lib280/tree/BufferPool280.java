@@ -0,0 +1,329 @@
+package lib280.tree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import lib280.exception.ContainerFull280Exception;
+import lib280.exception.Storage280Exception;
+
+/**
+ * A fixed number of in-memory frames caching the pages of a paged file.
+ * A page is pinned while it is in use and cannot be evicted until it has
+ * been unpinned as many times as it was pinned; when a frame is needed, the
+ * CLOCK algorithm picks an unpinned page that has not been used recently.
+ *
+ * Changed pages are written through a WriteAheadLog280.  Pages changed since
+ * the last commit() stay in the pool (no steal); commit() appends their
+ * images to the log as one batch, after which they may be written back to
+ * the file whenever they are evicted, once that batch is on disk in the log.
+ * checkpoint() writes back every changed page and empties the log.  So the
+ * file plus the log always hold the state as of a commit, whatever happens
+ * to the pool: the last one, or if the log does not wait for the disk on
+ * each commit, one of the last few.
+ */
+public class BufferPool280 {
+
+	/** The paged file. */
+	protected FileChannel file;
+
+	/** The log through which changes are made durable. */
+	protected WriteAheadLog280 log;
+
+	/** Size of each page. */
+	protected int pageSize;
+
+	/** Contents of the frames, with a ByteBuffer view of each. */
+	protected byte[][] data;
+	protected ByteBuffer[] frames;
+
+	/** Page number held by each frame, or -1 if it is free. */
+	protected int[] pageOf;
+
+	/** Number of times each frame is pinned. */
+	protected int[] pinCount;
+
+	/** Has the page in each frame changed since it was read from the file? */
+	protected boolean[] dirty;
+
+	/** Has the page in each frame changed since the last commit? */
+	protected boolean[] uncommitted;
+
+	/** Log batch holding the last committed image of the page in each frame. */
+	protected long[] batchOf;
+
+	/** CLOCK reference bit of each frame. */
+	protected boolean[] referenced;
+
+	/** The frame holding each page in the pool. */
+	protected HashMap<Integer, Integer> frameOf;
+
+	/** Position of the CLOCK hand. */
+	protected int hand;
+
+	/** Page numbers and images of the frames changed since the last commit. */
+	protected int[] changedPages;
+	protected byte[][] changedData;
+	protected int numChanged;
+
+	/** Number of pins that found the page in the pool, and that had to read it. */
+	protected long hits, misses;
+
+	/**
+	 * Create a pool of numFrames frames over a paged file.
+	 * @param file the paged file
+	 * @param log log through which changes are committed
+	 * @param pageSize size of each page
+	 * @param numFrames number of pages the pool can hold
+	 */
+	public BufferPool280(FileChannel file, WriteAheadLog280 log, int pageSize, int numFrames) {
+		this.file = file;
+		this.log = log;
+		this.pageSize = pageSize;
+		this.data = new byte[numFrames][];
+		this.frames = new ByteBuffer[numFrames];
+		for(int f = 0; f < numFrames; f++) {
+			this.data[f] = new byte[pageSize];
+			this.frames[f] = ByteBuffer.wrap(this.data[f]);
+		}
+		this.pageOf = new int[numFrames];
+		Arrays.fill(this.pageOf, -1);
+		this.pinCount = new int[numFrames];
+		this.dirty = new boolean[numFrames];
+		this.uncommitted = new boolean[numFrames];
+		this.batchOf = new long[numFrames];
+		this.referenced = new boolean[numFrames];
+		this.frameOf = new HashMap<Integer, Integer>(2 * numFrames);
+		this.changedPages = new int[numFrames];
+		this.changedData = new byte[numFrames][];
+	}
+
+	/**
+	 * Number of frames in the pool.
+	 * @timing O(1)
+	 */
+	public int capacity() {
+		return this.frames.length;
+	}
+
+	/**
+	 * Number of pins that found their page already in the pool.
+	 * @timing O(1)
+	 */
+	public long hits() {
+		return this.hits;
+	}
+
+	/**
+	 * Number of pins that had to read their page from the file.
+	 * @timing O(1)
+	 */
+	public long misses() {
+		return this.misses;
+	}
+
+	/**
+	 * Find a frame to hold a new page, evicting the page in it, if any.
+	 * Pinned pages and pages changed since the last commit are skipped;
+	 * others get a second chance if they have been used since the hand last
+	 * passed.
+	 * @return the free frame.
+	 * @throws ContainerFull280Exception if every frame is pinned or uncommitted.
+	 */
+	protected int victim() throws ContainerFull280Exception, Storage280Exception {
+		for(int step = 0; step < 2 * this.frames.length; step++) {
+			int f = this.hand;
+			this.hand = (this.hand + 1) % this.frames.length;
+			if( this.pageOf[f] < 0 ) return f;
+			if( this.pinCount[f] > 0 || this.uncommitted[f] ) continue;
+			if( this.referenced[f] ) {
+				this.referenced[f] = false;
+				continue;
+			}
+			if( this.dirty[f] ) this.writeBack(f);
+			this.frameOf.remove(this.pageOf[f]);
+			this.pageOf[f] = -1;
+			return f;
+		}
+		throw new ContainerFull280Exception("Every page in the buffer pool is pinned or uncommitted.");
+	}
+
+	/**
+	 * Write the page in frame f back to the file, first waiting until the
+	 * log batch holding it is on disk.
+	 * @precond !uncommitted[f]
+	 */
+	protected void writeBack(int f) throws Storage280Exception {
+		this.log.forceThrough(this.batchOf[f]);
+		ByteBuffer b = ByteBuffer.wrap(this.data[f]);
+		long at = (long) this.pageOf[f] * this.pageSize;
+		try {
+			while( b.hasRemaining() )
+				at += this.file.write(b, at);
+		}
+		catch(IOException e) {
+			throw new Storage280Exception("Cannot write page " + this.pageOf[f] + ".", e);
+		}
+		this.dirty[f] = false;
+	}
+
+	/**
+	 * Load page pageNo into frame f, or zero the frame if the page lies past
+	 * the end of the file.
+	 */
+	protected void read(int f, int pageNo) throws Storage280Exception {
+		ByteBuffer b = ByteBuffer.wrap(this.data[f]);
+		long at = (long) pageNo * this.pageSize;
+		try {
+			while( b.hasRemaining() ) {
+				int n = this.file.read(b, at + b.position());
+				if( n < 0 ) break;
+			}
+		}
+		catch(IOException e) {
+			throw new Storage280Exception("Cannot read page " + pageNo + ".", e);
+		}
+		Arrays.fill(this.data[f], b.position(), this.pageSize, (byte) 0);
+	}
+
+	/**
+	 * Put page pageNo in a frame, reading it if zero is false, and pin it.
+	 */
+	protected ByteBuffer pin(int pageNo, boolean zero) throws ContainerFull280Exception, Storage280Exception {
+		Integer found = this.frameOf.get(pageNo);
+		int f;
+		if( found != null ) {
+			f = found;
+			this.hits++;
+			if( zero )
+				Arrays.fill(this.data[f], (byte) 0);
+		}
+		else {
+			f = this.victim();
+			this.misses++;
+			if( zero )
+				Arrays.fill(this.data[f], (byte) 0);
+			else
+				this.read(f, pageNo);
+			this.pageOf[f] = pageNo;
+			this.frameOf.put(pageNo, f);
+			this.dirty[f] = false;
+			this.uncommitted[f] = false;
+			this.batchOf[f] = 0;
+		}
+		if( zero )
+			this.markDirty(pageNo);
+		this.pinCount[f]++;
+		this.referenced[f] = true;
+		return this.frames[f];
+	}
+
+	/**
+	 * Pin page pageNo, reading it from the file if it is not in the pool.
+	 * The page stays in the pool until it is unpinned.
+	 * @timing O(1) if the page is in the pool
+	 * @return the contents of the page; changes to it must be reported with markDirty().
+	 * @throws ContainerFull280Exception if every frame is pinned or uncommitted.
+	 * @throws Storage280Exception if the page cannot be read, or an evicted page written.
+	 */
+	public ByteBuffer pin(int pageNo) throws ContainerFull280Exception, Storage280Exception {
+		return this.pin(pageNo, false);
+	}
+
+	/**
+	 * Pin page pageNo with all of its bytes zero, without reading it, for a page
+	 * that is being (re)used.  The page is marked dirty.
+	 * @timing O(pageSize)
+	 * @throws ContainerFull280Exception if every frame is pinned or uncommitted.
+	 */
+	public ByteBuffer pinNew(int pageNo) throws ContainerFull280Exception, Storage280Exception {
+		return this.pin(pageNo, true);
+	}
+
+	/**
+	 * Release one pin of page pageNo.
+	 * @precond the page is pinned
+	 * @timing O(1)
+	 */
+	public void unpin(int pageNo) {
+		this.pinCount[this.frameOf.get(pageNo)]--;
+	}
+
+	/**
+	 * Record that pinned page pageNo has changed.  It will be logged at the
+	 * next commit.
+	 * @precond the page is pinned
+	 * @timing O(1)
+	 */
+	public void markDirty(int pageNo) {
+		int f = this.frameOf.get(pageNo);
+		this.dirty[f] = true;
+		if( !this.uncommitted[f] ) {
+			this.uncommitted[f] = true;
+			this.changedPages[this.numChanged] = pageNo;
+			this.changedData[this.numChanged] = this.data[f];
+			this.numChanged++;
+		}
+	}
+
+	/**
+	 * Make every change since the last commit durable, by appending the
+	 * changed pages to the log as one batch.  Unless the log waits for the
+	 * disk, a power failure can still lose the batch, but only as a whole.
+	 * @timing O(number of changed pages * pageSize) plus the time to reach the disk
+	 * @throws Storage280Exception if the log cannot be written, in which case nothing is committed.
+	 */
+	public void commit() throws Storage280Exception {
+		if( this.numChanged == 0 ) return;
+		long b = this.log.append(this.changedPages, this.changedData, this.numChanged);
+		for(int i = 0; i < this.numChanged; i++) {
+			int f = this.frameOf.get(this.changedPages[i]);
+			this.uncommitted[f] = false;
+			this.batchOf[f] = b;
+			this.changedData[i] = null;
+		}
+		this.numChanged = 0;
+	}
+
+	/**
+	 * Discard every change since the last commit.  The changed pages are dropped
+	 * from the pool, and the log is replayed into the file so that the next
+	 * read of each gets its last committed image.
+	 * @precond no page is pinned
+	 * @timing O(size of the log)
+	 */
+	public void abort() throws Storage280Exception {
+		if( this.numChanged == 0 ) return;
+		for(int i = 0; i < this.numChanged; i++) {
+			int f = this.frameOf.remove(this.changedPages[i]);
+			this.pageOf[f] = -1;
+			this.dirty[f] = false;
+			this.uncommitted[f] = false;
+			this.pinCount[f] = 0;
+			this.changedData[i] = null;
+		}
+		this.numChanged = 0;
+		this.log.replay(this.file);
+	}
+
+	/**
+	 * Write every changed page back to the file (after the log), wait until
+	 * they are on disk, and empty the log.
+	 * @precond every change has been committed
+	 * @timing O(number of frames * pageSize) plus the time to reach the disk
+	 */
+	public void checkpoint() throws Storage280Exception {
+		for(int f = 0; f < this.frames.length; f++)
+			if( this.pageOf[f] >= 0 && this.dirty[f] )
+				this.writeBack(f);
+		try {
+			this.file.force(true);
+		}
+		catch(IOException e) {
+			throw new Storage280Exception("Cannot write the file to disk.", e);
+		}
+		this.log.truncate();
+	}
+}
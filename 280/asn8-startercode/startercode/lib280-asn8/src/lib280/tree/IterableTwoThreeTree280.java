@@ -1,5 +1,7 @@
 package lib280.tree;
 
+import java.util.Iterator;
+
 import lib280.base.CursorPosition280;
 import lib280.base.Keyed280;
 import lib280.base.Pair280;
@@ -30,6 +32,15 @@ public class IterableTwoThreeTree280<K extends Comparable<? super K>, I extends
 	}
 
 
+	@Override
+	public void clear() {
+		super.clear();
+		this.smallest = null;
+		this.largest = null;
+		this.goBefore();
+	}
+
+
 	@Override
 	public void insert(I newItem) {
 
@@ -349,6 +360,112 @@ public class IterableTwoThreeTree280<K extends Comparable<? super K>, I extends
 	}	
 	
 	
+	@Override
+	protected void leafAddedAfter(LeafTwoThreeNode280<K,I> x, LeafTwoThreeNode280<K,I> pred) {
+		LinkedLeafTwoThreeNode280<K,I> leaf = (LinkedLeafTwoThreeNode280<K, I>) x;
+		LinkedLeafTwoThreeNode280<K,I> before = (LinkedLeafTwoThreeNode280<K, I>) pred;
+		LinkedLeafTwoThreeNode280<K,I> after = before == null ? this.smallest : before.next();
+		leaf.setPrev(before);
+		leaf.setNext(after);
+		if( before == null ) this.smallest = leaf;
+		else before.setNext(leaf);
+		if( after == null ) this.largest = leaf;
+		else after.setPrev(leaf);
+	}
+
+
+	@Override
+	protected void leafAddedBefore(LeafTwoThreeNode280<K,I> x, LeafTwoThreeNode280<K,I> succ) {
+		this.leafAddedAfter(x, ((LinkedLeafTwoThreeNode280<K, I>) succ).prev());
+	}
+
+
+	@Override
+	protected void leafRemoved(LeafTwoThreeNode280<K,I> x) {
+		LinkedLeafTwoThreeNode280<K,I> leaf = (LinkedLeafTwoThreeNode280<K, I>) x;
+		if( leaf.prev() == null ) this.smallest = leaf.next();
+		else leaf.prev().setNext(leaf.next());
+		if( leaf.next() == null ) this.largest = leaf.prev();
+		else leaf.next().setPrev(leaf.prev());
+	}
+
+
+	/**
+	 * Insert every item of a batch, in one pass down the tree.  If the cursor
+	 * is on an item it stays on it; otherwise it stays before or after.
+	 * @throws DuplicateItems280Exception if two items have the same key, or an
+	 * 		   item's key is already in the tree; the tree is then unchanged.
+	 */
+	@Override
+	public void insertAll(I[] items) throws DuplicateItems280Exception {
+		K cursorKey = this.itemExists() ? this.itemKey() : null;
+		boolean wasAfter = this.after();
+		super.insertAll(items);
+		this.restoreCursor(cursorKey, wasAfter);
+	}
+
+
+	/**
+	 * Delete the items with the given keys, in one pass down the tree.  If the
+	 * cursor was on a deleted item, it moves to the next item that remains.
+	 */
+	@Override
+	public void deleteAll(K[] keys) {
+		K cursorKey = this.itemExists() ? this.itemKey() : null;
+		boolean wasAfter = this.after();
+		super.deleteAll(keys);
+		this.restoreCursor(cursorKey, wasAfter);
+	}
+
+
+	/**
+	 * Put the cursor back after a batch operation: on the smallest item with key
+	 * at least cursorKey, or if cursorKey is null, before or after.
+	 */
+	protected void restoreCursor(K cursorKey, boolean wasAfter) {
+		if( cursorKey != null ) {
+			this.searchCeilingOf(cursorKey);
+			if( this.isEmpty() ) this.goAfter();
+		}
+		else if( wasAfter ) this.goAfter();
+		else this.goBefore();
+	}
+
+
+	/**
+	 * An iterable 2-3 tree of the items of a sorted array, built bottom-up,
+	 * with its leaves linked in order.
+	 * @precond the keys of the items are in increasing order
+	 * @timing O(n), where n = items.length
+	 * @param items the items of the new tree, in order
+	 * @return a new tree of the items, with the cursor before the first item.
+	 * @throws InvalidArgument280Exception if the items are out of order.
+	 * @throws DuplicateItems280Exception if two items have the same key.
+	 */
+	public static <K extends Comparable<? super K>, I extends Keyed280<K>> IterableTwoThreeTree280<K,I> bulkLoad(I[] items) throws InvalidArgument280Exception, DuplicateItems280Exception {
+		IterableTwoThreeTree280<K,I> t = new IterableTwoThreeTree280<K,I>();
+		t.setFromSorted(items);
+		return t;
+	}
+
+
+	/**
+	 * An iterable 2-3 tree of the items produced by an iterator in sorted
+	 * order, built bottom-up.  The items are gathered into an array first.
+	 * @precond the keys of the items are in increasing order
+	 * @timing O(n), where n = number of items
+	 * @param items the items of the new tree, in order
+	 * @return a new tree of the items, with the cursor before the first item.
+	 * @throws InvalidArgument280Exception if the items are out of order.
+	 * @throws DuplicateItems280Exception if two items have the same key.
+	 */
+	public static <K extends Comparable<? super K>, I extends Keyed280<K>> IterableTwoThreeTree280<K,I> bulkLoad(Iterator<? extends I> items) throws InvalidArgument280Exception, DuplicateItems280Exception {
+		IterableTwoThreeTree280<K,I> t = new IterableTwoThreeTree280<K,I>();
+		t.setFromSorted(TwoThreeTree280.<K,I>toArray(items));
+		return t;
+	}
+
+
 	@Override
 	public K itemKey() throws NoCurrentItem280Exception {
 		// Return the key of the item in the node
@@ -479,22 +596,19 @@ public class IterableTwoThreeTree280<K extends Comparable<? super K>, I extends
 		// item exists.  If no such item exists, leave 
 		// the cursor in the after position.
 		
-		// This one is easier to do with a linear search.
-		// Could make it potentially faster but the solution is
-		// not obvious -- just use linear search via the cursor.
-		
 		// If it's empty, do nothing; itemExists() will be false.
 		if( this.isEmpty() ) 
 			return;
 		
-		// Find first item item >= k.  If there is no such item,
-		// cursor will end up in after position, and that's fine
-		// since itemExists() will be false.
-		this.goFirst();
-		while(this.itemExists() && this.itemKey().compareTo(k) < 0) {
-			this.goForth();
+		// Find first item >= k by descending the tree.  If there is no 
+		// such item, leave the cursor in the after position.
+		LinkedLeafTwoThreeNode280<K,I> found = this.ceilingLeaf(k, true);
+		if( found == null ) 
+			this.goAfter();
+		else {
+			this.cursor = found;
+			this.prev = found.prev();
 		}
-		
 	}
 
 	@Override
@@ -527,6 +641,103 @@ public class IterableTwoThreeTree280<K extends Comparable<? super K>, I extends
 	
 	
 	
+	/**
+	 * Find the leaf at which a search for k ends: the leaf with the largest key
+	 * that is at most k, or the smallest leaf if every key is larger than k.
+	 * @precond !isEmpty()
+	 * @timing O(log n)
+	 */
+	protected LinkedLeafTwoThreeNode280<K,I> floorOrFirstLeaf(K k) {
+		TwoThreeNode280<K,I> cur = this.rootNode;
+		while( cur.isInternal() ) {
+			if( k.compareTo(cur.getKey1()) < 0 )
+				cur = cur.getLeftSubtree();
+			else if( !cur.isRightChild() || k.compareTo(cur.getKey2()) < 0 )
+				cur = cur.getMiddleSubtree();
+			else
+				cur = cur.getRightSubtree();
+		}
+		return (LinkedLeafTwoThreeNode280<K, I>) cur;
+	}
+
+	/**
+	 * Find the leaf with the smallest key greater than k (or equal to k, if inclusive).
+	 * @timing O(log n)
+	 * @return the leaf, or null if there is none.
+	 */
+	protected LinkedLeafTwoThreeNode280<K,I> ceilingLeaf(K k, boolean inclusive) {
+		if( this.isEmpty() ) return null;
+		LinkedLeafTwoThreeNode280<K,I> leaf = this.floorOrFirstLeaf(k);
+		int c = leaf.getKey1().compareTo(k);
+		return c > 0 || (c == 0 && inclusive) ? leaf : leaf.next();
+	}
+
+	/**
+	 * Find the leaf with the largest key less than k (or equal to k, if inclusive).
+	 * @timing O(log n)
+	 * @return the leaf, or null if there is none.
+	 */
+	protected LinkedLeafTwoThreeNode280<K,I> floorLeaf(K k, boolean inclusive) {
+		if( this.isEmpty() ) return null;
+		LinkedLeafTwoThreeNode280<K,I> leaf = this.floorOrFirstLeaf(k);
+		int c = leaf.getKey1().compareTo(k);
+		return c < 0 || (c == 0 && inclusive) ? leaf : leaf.prev();
+	}
+
+	/**
+	 * Iterate in ascending order over the items with keys between lo and hi.
+	 * The cursor is not used or moved.  The tree must not be changed until
+	 * the scan is finished.
+	 * @param lo the smallest key of the range, or null for no lower bound
+	 * @param loInclusive whether the item with key lo, if any, is included
+	 * @param hi the largest key of the range, or null for no upper bound
+	 * @param hiInclusive whether the item with key hi, if any, is included
+	 * @timing O(log n) to start, then O(1) per item
+	 * @return an iterator over the items in the range.
+	 */
+	public TwoThreeTreeScan280<K,I> scan(K lo, boolean loInclusive, K hi, boolean hiInclusive) {
+		LinkedLeafTwoThreeNode280<K,I> first = lo == null ? this.smallest : this.ceilingLeaf(lo, loInclusive);
+		if( this.isEmpty() ) first = null;
+		return new TwoThreeTreeScan280<K,I>(first, hi, hiInclusive, false, null);
+	}
+
+	/**
+	 * Iterate in descending order over the items with keys between lo and hi,
+	 * following the prev() links of the leaves.  The cursor is not used or
+	 * moved.  The tree must not be changed until the scan is finished.
+	 * @param lo the smallest key of the range, or null for no lower bound
+	 * @param loInclusive whether the item with key lo, if any, is included
+	 * @param hi the largest key of the range, or null for no upper bound
+	 * @param hiInclusive whether the item with key hi, if any, is included
+	 * @timing O(log n) to start, then O(1) per item
+	 * @return an iterator over the items in the range, largest first.
+	 */
+	public TwoThreeTreeScan280<K,I> descendingScan(K lo, boolean loInclusive, K hi, boolean hiInclusive) {
+		LinkedLeafTwoThreeNode280<K,I> first = hi == null ? this.largest : this.floorLeaf(hi, hiInclusive);
+		if( this.isEmpty() ) first = null;
+		return new TwoThreeTreeScan280<K,I>(first, lo, loInclusive, true, null);
+	}
+
+	/**
+	 * Iterate in ascending order over the items whose keys start with prefix.
+	 * The keys of the tree must be Strings.  The cursor is not used or moved.
+	 * The tree must not be changed until the scan is finished.
+	 * @timing O(log n) to start, then O(1) per item
+	 * @return an iterator over the items whose keys start with prefix.
+	 * @throws InvalidArgument280Exception if the keys of the tree are not Strings.
+	 */
+	@SuppressWarnings("unchecked")
+	public TwoThreeTreeScan280<K,I> prefixScan(String prefix) throws InvalidArgument280Exception {
+		if( this.isEmpty() )
+			return new TwoThreeTreeScan280<K,I>(null, null, false, false, prefix);
+		if( !(this.smallest.getKey1() instanceof String) )
+			throw new InvalidArgument280Exception("A prefix scan needs a tree with String keys.");
+		// Every key starting with prefix is at least prefix, and they are
+		// contiguous from there.
+		return new TwoThreeTreeScan280<K,I>(this.ceilingLeaf((K) prefix, true), null, false, false, prefix);
+	}
+
+
 	@Override
 	public String toStringByLevel() {
 		String s = super.toStringByLevel();
@@ -584,6 +795,19 @@ public class IterableTwoThreeTree280<K extends Comparable<? super K>, I extends
 
 		}
 
+		class Loot2 implements Keyed280<Integer> {
+			protected int key;
+
+			@Override
+			public Integer key() {
+				return key;
+			}
+
+			Loot2(int key) {
+				this.key = key;
+			}
+		}
+
 		LinkedList280<Loot> magic_items = new LinkedList280<Loot>();
 
 		// An example of instantiating an item.
@@ -658,6 +882,191 @@ public class IterableTwoThreeTree280<K extends Comparable<? super K>, I extends
 		System.out.println("T.cursor: " + T.cursor.getKey1());
 		System.out.println("T.prev: " + T.prev);
 
+		// Range and prefix scans.
+		T.clear();
+		String[] names = {"Potion of Healing", "Plate Armor", "Blue Ioun Stone", "Potion of Flying",
+				"Leather Armor", "Potion", "+1 Mace", "Pot Lid", "Vampiric Blade", "Potions Guide"};
+		for(String name : names)
+			T.insert(new Loot(name, name.length()));
+		T.search("Plate Armor");
+
+		String got = "";
+		for(TwoThreeTreeScan280<String, Loot> s = T.prefixScan("Potion"); s.hasNext(); )
+			got += s.next().key() + ";";
+		if( !got.equals("Potion;Potion of Flying;Potion of Healing;Potions Guide;") )
+			System.out.println("Error: prefixScan(\"Potion\") gave " + got);
+		if( T.prefixScan("Q").hasNext() || T.prefixScan("Zzz").hasNext() )
+			System.out.println("Error: a prefix scan with no matching keys should be empty.");
+		if( !T.itemExists() || !T.itemKey().equals("Plate Armor") )
+			System.out.println("Error: scans should not move the cursor.");
+
+		got = "";
+		for(TwoThreeTreeScan280<String, Loot> s = T.scan("Leather Armor", false, "Pot Lid", true); s.hasNext(); ) {
+			s.next();
+			got += s.key() + ";";
+		}
+		if( !got.equals("Plate Armor;Pot Lid;") )
+			System.out.println("Error: scan(Leather Armor, Pot Lid] gave " + got);
+
+		got = "";
+		for(TwoThreeTreeScan280<String, Loot> s = T.descendingScan("Blue", true, "Pot Lid", false); s.hasNext(); )
+			got += s.next().key() + ";";
+		if( !got.equals("Plate Armor;Leather Armor;Blue Ioun Stone;") )
+			System.out.println("Error: descendingScan[Blue, Pot Lid) gave " + got);
+
+		int n = 0;
+		for(TwoThreeTreeScan280<String, Loot> s = T.scan(null, false, null, false); s.hasNext(); s.next())
+			n++;
+		for(TwoThreeTreeScan280<String, Loot> s = T.descendingScan(null, false, null, false); s.hasNext(); s.next())
+			n++;
+		if( n != 2 * names.length )
+			System.out.println("Error: unbounded scans visited " + n + " items, expected " + 2 * names.length + ".");
+		if( T.scan("Pot Lid", false, "Pot Lid", true).hasNext() || T.descendingScan("B", true, "A", true).hasNext() )
+			System.out.println("Error: a scan of an empty range should be empty.");
+		try {
+			T.scan("Z", true, null, false).next();
+			System.out.println("Error: expected NoSuchElementException from next() on an empty scan, got none.");
+		}
+		catch(java.util.NoSuchElementException e) {
+		}
+
+		// searchCeilingOf descends the tree.
+		T.searchCeilingOf("Pot");
+		if( !T.itemExists() || !T.itemKey().equals("Pot Lid") || T.prev == null || !T.prev.getKey1().equals("Plate Armor") )
+			System.out.println("Error: searchCeilingOf(\"Pot\") should position the cursor at Pot Lid.");
+		T.searchCeilingOf("Zebra");
+		if( !T.after() )
+			System.out.println("Error: searchCeilingOf past the largest key should leave the cursor after the end.");
+
+		// Scans of a larger tree, against a count of the keys in range.
+		IterableTwoThreeTree280<Integer, Loot2> U = new IterableTwoThreeTree280<Integer, Loot2>();
+		if( U.scan(1, true, 5, true).hasNext() || U.descendingScan(null, false, null, false).hasNext() )
+			System.out.println("Error: scans of an empty tree should be empty.");
+		try {
+			U.insert(new Loot2(1));
+			U.prefixScan("1");
+			System.out.println("Error: expected InvalidArgument280Exception from prefixScan on Integer keys, got none.");
+		}
+		catch(InvalidArgument280Exception e) {
+		}
+		U.clear();
+		for(int i = 0; i < 500; i++)
+			U.insert(new Loot2((i * 37) % 500 * 2));
+		for(int lo = -3; lo < 1003; lo += 17)
+			for(int hi = lo - 2; hi < lo + 60; hi += 7) {
+				int expected = 0;
+				for(int k = 0; k < 1000; k += 2)
+					if( k > lo && k <= hi ) expected++;
+				int up = 0, down = 0;
+				Integer last = null;
+				for(TwoThreeTreeScan280<Integer, Loot2> s = U.scan(lo, false, hi, true); s.hasNext(); up++) {
+					Integer k = s.next().key();
+					if( last != null && k <= last ) System.out.println("Error: scan is not in ascending order.");
+					last = k;
+				}
+				last = null;
+				for(TwoThreeTreeScan280<Integer, Loot2> s = U.descendingScan(lo, false, hi, true); s.hasNext(); down++) {
+					Integer k = s.next().key();
+					if( last != null && k >= last ) System.out.println("Error: descending scan is not in descending order.");
+					last = k;
+				}
+				if( up != expected || down != expected )
+					System.out.println("Error: scans of (" + lo + ", " + hi + "] visited " + up + " and " + down + " items, expected " + expected + ".");
+			}
+
+		// Batch operations keep the leaves linked and the cursor in place.
+		U.clear();
+		java.util.Random R = new java.util.Random(280);
+		java.util.TreeSet<Integer> expectedKeys = new java.util.TreeSet<Integer>();
+		for(int round = 0; round < 200; round++) {
+			int universe = 1 + R.nextInt(round < 100 ? 40 : 2000);
+			if( R.nextBoolean() ) {
+				java.util.TreeSet<Integer> batch = new java.util.TreeSet<Integer>();
+				for(int i = R.nextInt(universe / 2 + 1); i > 0; i--) {
+					int k = R.nextInt(universe);
+					if( !expectedKeys.contains(k) ) batch.add(k);
+				}
+				Loot2[] items = new Loot2[batch.size()];
+				int j = items.length;
+				for(Integer k : batch) items[--j] = new Loot2(k);
+				U.insertAll(items);
+				expectedKeys.addAll(batch);
+			}
+			else {
+				Integer[] keys = new Integer[R.nextInt(universe + 1)];
+				for(int i = 0; i < keys.length; i++) {
+					keys[i] = R.nextInt(universe);
+					expectedKeys.remove(keys[i]);
+				}
+				Integer cursorKey = null;
+				if( !U.isEmpty() ) {
+					U.searchCeilingOf(R.nextInt(universe));
+					if( U.itemExists() ) cursorKey = U.itemKey();
+				}
+				U.deleteAll(keys);
+				if( cursorKey != null ) {
+					Integer successor = expectedKeys.ceiling(cursorKey);
+					if( successor == null ? !U.after() : !U.itemExists() || !U.itemKey().equals(successor) )
+						System.out.println("Error: after deleteAll the cursor should be on " + successor + ".");
+				}
+			}
+			U.check();
+			String forward = "", backward = "", want = "";
+			for(TwoThreeTreeScan280<Integer, Loot2> s = U.scan(null, false, null, false); s.hasNext(); )
+				forward += s.next().key() + ",";
+			for(TwoThreeTreeScan280<Integer, Loot2> s = U.descendingScan(null, false, null, false); s.hasNext(); )
+				backward = s.next().key() + "," + backward;
+			for(Integer k : expectedKeys)
+				want += k + ",";
+			if( !forward.equals(want) || !backward.equals(want) )
+				System.out.println("Error: after batch round " + round + " the linked leaves do not hold the expected keys.");
+		}
+		U.clear();
+		U.insertAll(new Loot2[] { new Loot2(2), new Loot2(4) });
+		U.search(4);
+		U.insertAll(new Loot2[] { new Loot2(3), new Loot2(5), new Loot2(1) });
+		if( !U.itemExists() || U.itemKey() != 4 )
+			System.out.println("Error: insertAll should leave the cursor on the same item.");
+		U.goAfter();
+		U.deleteAll(new Integer[] { 5 });
+		if( !U.after() || U.prev.getKey1() != 4 )
+			System.out.println("Error: deleteAll should leave the cursor after the new largest item.");
+
+		// Bulk loading links the leaves in order.
+		Loot[] sortedLoot = new Loot[names.length];
+		String[] sortedNames = names.clone();
+		java.util.Arrays.sort(sortedNames);
+		for(int i = 0; i < sortedNames.length; i++)
+			sortedLoot[i] = new Loot(sortedNames[i], i);
+		T = IterableTwoThreeTree280.bulkLoad(sortedLoot);
+		T.check();
+		if( !T.before() ) System.out.println("Error: a bulk loaded tree should have its cursor before the first item.");
+		int i = 0;
+		for(T.goFirst(); T.itemExists(); T.goForth(), i++)
+			if( !T.itemKey().equals(sortedNames[i]) )
+				System.out.println("Error: item " + i + " of the bulk loaded tree should be " + sortedNames[i] + ".");
+		if( i != sortedNames.length ) System.out.println("Error: the bulk loaded tree has " + i + " items, expected " + sortedNames.length + ".");
+		got = "";
+		for(TwoThreeTreeScan280<String, Loot> s = T.descendingScan(null, false, "Potion", false); s.hasNext(); )
+			got += s.next().key() + ";";
+		if( !got.equals("Pot Lid;Plate Armor;Leather Armor;Blue Ioun Stone;+1 Mace;") )
+			System.out.println("Error: descending scan of the bulk loaded tree gave " + got);
+		T.search("Potion");
+		T.deleteItem();
+		if( !T.itemExists() || !T.itemKey().equals("Potion of Flying") )
+			System.out.println("Error: deleting from a bulk loaded tree should leave the cursor on the successor.");
+		for(int size = 0; size < 30; size++) {
+			java.util.ArrayList<Loot2> list = new java.util.ArrayList<Loot2>();
+			for(int k = 0; k < size; k++) list.add(new Loot2(k));
+			U = IterableTwoThreeTree280.bulkLoad(list.iterator());
+			U.check();
+			int count = 0;
+			for(TwoThreeTreeScan280<Integer, Loot2> s = U.descendingScan(null, false, null, false); s.hasNext(); count++)
+				if( s.next().key() != size - 1 - count ) System.out.println("Error: the leaves of a bulk loaded tree are not linked in order.");
+			if( count != size ) System.out.println("Error: a tree bulk loaded from " + size + " items has " + count + " linked leaves.");
+		}
+
+		System.out.println("Regression test complete.");
 
 	}
 
@@ -6,7 +6,13 @@
 
 package lib280.tree;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
 import lib280.exception.ContainerEmpty280Exception;
+import lib280.exception.InvalidArgument280Exception;
 
 /**	An implementation of the SimpleTree280 interface with functions to access and 
 	set the root node and the root subtrees.  It also has functions to 
@@ -213,6 +219,40 @@ public class LinkedSimpleTree280<I extends Comparable<? super I>> implements Sim
 			return rootNode().toString();
 	}
 
+	/**	The items of an array as a list, after checking that they are in
+		nondecreasing order.  The array is not copied.
+		Analysis: Time = O(n), where n = items.length
+		@throws InvalidArgument280Exception if the items are out of order. */
+	protected static <I extends Comparable<? super I>> List<I> sortedList(I[] items) throws InvalidArgument280Exception
+	{
+		List<I> result = Arrays.asList(items);
+		checkSorted(result);
+		return result;
+	}
+
+	/**	The remaining items of an iterator as a list, after checking that
+		they are in nondecreasing order.
+		Analysis: Time = O(n), where n = number of items
+		@throws InvalidArgument280Exception if the items are out of order. */
+	protected static <I extends Comparable<? super I>> List<I> sortedList(Iterator<? extends I> items) throws InvalidArgument280Exception
+	{
+		ArrayList<I> result = new ArrayList<I>();
+		while (items.hasNext())
+			result.add(items.next());
+		checkSorted(result);
+		return result;
+	}
+
+	/**	Check that the items are in nondecreasing order.
+		Analysis: Time = O(n), where n = items.size()
+		@throws InvalidArgument280Exception if they are not. */
+	protected static <I extends Comparable<? super I>> void checkSorted(List<? extends I> items) throws InvalidArgument280Exception
+	{
+		for (int i = 1; i < items.size(); i++)
+			if (items.get(i).compareTo(items.get(i - 1)) < 0)
+				throw new InvalidArgument280Exception("Items are not in sorted order: " + items.get(i - 1) + " comes before " + items.get(i) + ".");
+	}
+
 	/**	A shallow clone of this lib280.tree.
 		Analysis: Time = O(1)
 	  */
@@ -0,0 +1,317 @@
+package lib280.tree;
+
+import java.util.Iterator;
+import java.util.List;
+
+import lib280.exception.ContainerEmpty280Exception;
+import lib280.exception.InvalidArgument280Exception;
+
+/**
+ * An AVL tree whose nodes also record the size of their subtrees, so that
+ * the rank of an item, the item of a given rank, and the number of items in
+ * a range can all be found in O(log n) time.  Insertion and deletion update
+ * the sizes along the path they take, and the rotations recompute the sizes
+ * of the two nodes they move.
+ */
+public class OrderStatisticAVLTree280<I extends Comparable<? super I>> extends AVLTree280<I> {
+
+	public OrderStatisticAVLTree280() {
+		super();
+	}
+
+	@Override
+	protected OrderStatisticAVLTreeNode280<I> createNewNode(I item) {
+		return new OrderStatisticAVLTreeNode280<I>(item);
+	}
+
+	@Override
+	public OrderStatisticAVLTreeNode280<I> rootNode() {
+		return (OrderStatisticAVLTreeNode280<I>) super.rootNode();
+	}
+
+	@Override
+	public OrderStatisticAVLTree280<I> rootLeftSubtree() throws ContainerEmpty280Exception {
+		return (OrderStatisticAVLTree280<I>) super.rootLeftSubtree();
+	}
+
+	@Override
+	public OrderStatisticAVLTree280<I> rootRightSubtree() throws ContainerEmpty280Exception {
+		return (OrderStatisticAVLTree280<I>) super.rootRightSubtree();
+	}
+
+	/**
+	 * Insert the item, then recompute the size of the root of this subtree,
+	 * whose children are up to date once the recursion below it returns.
+	 * @param item The item to insert in this lib280.tree.
+	 * @param parent The parent node of the root of this lib280.tree.
+	 */
+	@Override
+	protected void insert(I item, AVLTreeNode280<I> parent) {
+		super.insert(item, parent);
+		this.rootNode().updateSize();
+	}
+
+	/**
+	 * Delete the item, then recompute the size of the root of this subtree.
+	 */
+	@Override
+	protected void delete(I toBeDeleted, AVLTreeNode280<I> parent, AVLTree280<I> originalTree) {
+		super.delete(toBeDeleted, parent, originalTree);
+		if( !this.isEmpty() ) this.rootNode().updateSize();
+	}
+
+	/**
+	 * Perform a left rotation at the root of this lib280.tree, then recompute the
+	 * sizes of the old root (now the left child) and the new root.
+	 * @param parent The parent node of the root of this lib280.tree.
+	 */
+	@Override
+	protected void leftRotation(AVLTreeNode280<I> parent) {
+		super.leftRotation(parent);
+		this.rootNode().leftNode().updateSize();
+		this.rootNode().updateSize();
+	}
+
+	/**
+	 * Perform a right rotation at the root of this lib280.tree, then recompute the
+	 * sizes of the old root (now the right child) and the new root.
+	 * @param parent The parent node of the root of this lib280.tree.
+	 */
+	@Override
+	protected void rightRotation(AVLTreeNode280<I> parent) {
+		super.rightRotation(parent);
+		this.rootNode().rightNode().updateSize();
+		this.rootNode().updateSize();
+	}
+
+	/**
+	 * Build a perfectly balanced subtree as AVLTree280 does, recording the
+	 * subtree sizes as well as the heights.
+	 */
+	@Override
+	protected OrderStatisticAVLTreeNode280<I> buildBalanced(List<? extends I> items, int lo, int hi) {
+		OrderStatisticAVLTreeNode280<I> n = (OrderStatisticAVLTreeNode280<I>) super.buildBalanced(items, lo, hi);
+		if( n != null ) n.updateSize();
+		return n;
+	}
+
+	/**
+	 * A perfectly balanced order-statistic tree of the items of a sorted array.
+	 * @precond the items are in nondecreasing order
+	 * @throws InvalidArgument280Exception if the items are out of order.
+	 * @timing O(n), where n = items.length
+	 */
+	public static <I extends Comparable<? super I>> OrderStatisticAVLTree280<I> fromSorted(I[] items) throws InvalidArgument280Exception {
+		OrderStatisticAVLTree280<I> t = new OrderStatisticAVLTree280<I>();
+		t.setFromSorted(sortedList(items));
+		return t;
+	}
+
+	/**
+	 * A perfectly balanced order-statistic tree of the items produced by an
+	 * iterator in sorted order.
+	 * @precond the items are in nondecreasing order
+	 * @throws InvalidArgument280Exception if the items are out of order.
+	 * @timing O(n), where n = number of items
+	 */
+	public static <I extends Comparable<? super I>> OrderStatisticAVLTree280<I> fromSorted(Iterator<? extends I> items) throws InvalidArgument280Exception {
+		OrderStatisticAVLTree280<I> t = new OrderStatisticAVLTree280<I>();
+		t.setFromSorted(sortedList(items));
+		return t;
+	}
+
+	@Override
+	public OrderStatisticAVLTree280<I> merge(AVLTree280<I> other) {
+		return (OrderStatisticAVLTree280<I>) super.merge(other);
+	}
+
+	@Override
+	public OrderStatisticAVLTree280<I> union(AVLTree280<I> other) {
+		return (OrderStatisticAVLTree280<I>) super.union(other);
+	}
+
+	/**
+	 * Number of items in the tree.
+	 * @timing O(1)
+	 */
+	public int count() {
+		return OrderStatisticAVLTreeNode280.sizeOf(this.rootNode());
+	}
+
+	/**
+	 * Number of items less than x, or less than or equal to x if inclusive.
+	 * @timing O(log n)
+	 */
+	protected int countBelow(I x, boolean inclusive) {
+		int result = 0;
+		OrderStatisticAVLTreeNode280<I> n = this.rootNode();
+		while( n != null ) {
+			int c = x.compareTo(n.item());
+			if( c < 0 || (c == 0 && !inclusive) ) {
+				// n and everything to its right is at least x.
+				n = n.leftNode();
+			}
+			else {
+				result += OrderStatisticAVLTreeNode280.sizeOf(n.leftNode()) + 1;
+				n = n.rightNode();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The rank of x: the number of items in the tree that are less than x.
+	 * If x is in the tree, select(rank(x)) is its first copy.
+	 * @timing O(log n)
+	 * @param x the item whose rank is wanted (it need not be in the tree)
+	 * @return the number of items less than x.
+	 */
+	public int rank(I x) {
+		return this.countBelow(x, false);
+	}
+
+	/**
+	 * The item of rank k: the item that would be at position k (counting
+	 * from 0) if the items were listed in order.
+	 * @precond 0 <= k < count()
+	 * @timing O(log n)
+	 * @param k the rank of the item wanted
+	 * @return the item with exactly k items before it.
+	 * @throws InvalidArgument280Exception if k is not between 0 and count()-1.
+	 */
+	public I select(int k) throws InvalidArgument280Exception {
+		if( k < 0 || k >= this.count() )
+			throw new InvalidArgument280Exception("There is no item of rank " + k + " in a tree of " + this.count() + " items.");
+		OrderStatisticAVLTreeNode280<I> n = this.rootNode();
+		while( true ) {
+			int leftSize = OrderStatisticAVLTreeNode280.sizeOf(n.leftNode());
+			if( k < leftSize )
+				n = n.leftNode();
+			else if( k == leftSize )
+				return n.item();
+			else {
+				k -= leftSize + 1;
+				n = n.rightNode();
+			}
+		}
+	}
+
+	/**
+	 * Number of items x with lo <= x <= hi.
+	 * @timing O(log n)
+	 * @param lo the smallest item to count
+	 * @param hi the largest item to count
+	 * @return the number of items between lo and hi inclusive, or 0 if hi < lo.
+	 */
+	public int countInRange(I lo, I hi) {
+		if( hi.compareTo(lo) < 0 ) return 0;
+		return this.countBelow(hi, true) - this.countBelow(lo, false);
+	}
+
+	public OrderStatisticAVLTree280<I> clone() {
+		return (OrderStatisticAVLTree280<I>) super.clone();
+	}
+
+	/**
+	 * Check that the recorded size of every node in the subtree at n is
+	 * correct, printing an error for each that isn't.
+	 * @return the actual size of the subtree.
+	 */
+	protected static <I extends Comparable<? super I>> int checkSizes(OrderStatisticAVLTreeNode280<I> n) {
+		if( n == null ) return 0;
+		int actual = checkSizes(n.leftNode()) + checkSizes(n.rightNode()) + 1;
+		if( actual != n.getSize() )
+			System.out.println("Error: node " + n.item() + " records size " + n.getSize() + " but has " + actual + " nodes.");
+		return actual;
+	}
+
+	public static void main(String[] args) {
+		OrderStatisticAVLTree280<Integer> T = new OrderStatisticAVLTree280<Integer>();
+
+		if( T.count() != 0 ) System.out.println("Error: an empty tree should have 0 items.");
+		if( T.rank(5) != 0 ) System.out.println("Error: rank(5) in an empty tree should be 0.");
+		try {
+			T.select(0);
+			System.out.println("Error: expected exception selecting from an empty tree.");
+		}
+		catch(InvalidArgument280Exception e) {
+			// Expected, do nothing.
+		}
+
+		// Ascending and descending inserts exercise every kind of rotation.
+		for(int i = 0; i < 100; i++) {
+			T.insert(2 * i);
+			T.insert(399 - 2 * i);
+		}
+		checkSizes(T.rootNode());
+		if( T.count() != 200 ) System.out.println("Error: tree should have 200 items but has " + T.count());
+		for(int k = 0; k < 200; k++) {
+			int expected = k < 100 ? 2 * k : 2 * (k - 100) + 201;
+			if( T.select(k) != expected ) System.out.println("Error: select(" + k + ") should be " + expected + " but is " + T.select(k));
+		}
+		if( T.rank(0) != 0 ) System.out.println("Error: rank(0) should be 0.");
+		if( T.rank(201) != 100 ) System.out.println("Error: rank(201) should be 100 but is " + T.rank(201));
+		if( T.rank(1000) != 200 ) System.out.println("Error: rank(1000) should be 200.");
+		if( T.countInRange(10, 19) != 5 ) System.out.println("Error: countInRange(10, 19) should be 5 but is " + T.countInRange(10, 19));
+		if( T.countInRange(19, 10) != 0 ) System.out.println("Error: countInRange(19, 10) should be 0.");
+
+		// Random inserts and deletes checked against a table of the values present.
+		T.clear();
+		java.util.Random r = new java.util.Random(280);
+		boolean[] present = new boolean[2000];
+		for(int step = 0; step < 5000; step++) {
+			int x = r.nextInt(present.length);
+			if( !present[x] ) {
+				T.insert(x);
+				present[x] = true;
+			}
+			else if( r.nextBoolean() ) {
+				T.search(x);
+				T.deleteItem();
+				present[x] = false;
+			}
+		}
+		checkSizes(T.rootNode());
+		int below = 0;
+		for(int x = 0; x < present.length; x++) {
+			if( T.rank(x) != below ) System.out.println("Error: rank(" + x + ") should be " + below + " but is " + T.rank(x));
+			if( present[x] ) {
+				if( T.select(below) != x ) System.out.println("Error: select(" + below + ") should be " + x);
+				below++;
+			}
+		}
+		if( T.count() != below ) System.out.println("Error: tree should have " + below + " items but has " + T.count());
+		int inRange = 0;
+		for(int x = 500; x <= 1500; x++)
+			if( present[x] ) inRange++;
+		if( T.countInRange(500, 1500) != inRange ) System.out.println("Error: countInRange(500, 1500) should be " + inRange);
+
+		// Duplicates: rank counts only smaller items, countInRange counts every copy.
+		T.insert(3000);
+		T.insert(3000);
+		T.insert(3000);
+		checkSizes(T.rootNode());
+		if( T.rank(3000) != below ) System.out.println("Error: rank(3000) should be " + below);
+		if( T.countInRange(3000, 3000) != 3 ) System.out.println("Error: there should be 3 copies of 3000.");
+		if( T.select(T.count() - 1) != 3000 ) System.out.println("Error: the largest item should be 3000.");
+
+		// Trees built from sorted input, or merged, record their sizes.
+		Integer[] sorted = new Integer[500];
+		for(int k = 0; k < sorted.length; k++)
+			sorted[k] = 3 * k;
+		OrderStatisticAVLTree280<Integer> B = OrderStatisticAVLTree280.fromSorted(sorted);
+		checkSizes(B.rootNode());
+		if( B.select(123) != 369 || B.rank(369) != 123 ) System.out.println("Error: select(123) and rank(369) are wrong in a built tree.");
+		OrderStatisticAVLTree280<Integer> M = B.merge(T);
+		checkSizes(M.rootNode());
+		if( M.count() != B.count() + T.count() ) System.out.println("Error: merge() should have " + (B.count() + T.count()) + " items.");
+		M.insert(-2);
+		M.insert(-1);
+		M.search(-2);
+		M.deleteItem();
+		checkSizes(M.rootNode());
+		if( M.select(0) != -1 ) System.out.println("Error: the smallest item should be -1.");
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,49 @@
+package lib280.tree;
+
+/**	A node of an OrderStatisticAVLTree280, which also records the number of
+	items in the subtree it is the root of. */
+public class OrderStatisticAVLTreeNode280<I extends Comparable<? super I>> extends AVLTreeNode280<I> {
+
+	/** Number of nodes in the subtree rooted at this node, including this node. */
+	protected int size;
+
+	public OrderStatisticAVLTreeNode280(I x) {
+		super(x);
+		size = 1;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * Recompute the size of this node's subtree from the sizes of its children.
+	 * @timing O(1)
+	 */
+	public void updateSize() {
+		this.size = 1 + sizeOf(this.leftNode()) + sizeOf(this.rightNode());
+	}
+
+	/**
+	 * Number of nodes in the subtree rooted at n.
+	 * @timing O(1)
+	 * @return the size of n's subtree, or 0 if n is null.
+	 */
+	public static int sizeOf(OrderStatisticAVLTreeNode280<?> n) {
+		return n == null ? 0 : n.size;
+	}
+
+	@Override
+	public OrderStatisticAVLTreeNode280<I> leftNode() {
+		return (OrderStatisticAVLTreeNode280<I>)super.leftNode();
+	}
+
+	@Override
+	public OrderStatisticAVLTreeNode280<I> rightNode() {
+		return (OrderStatisticAVLTreeNode280<I>) super.rightNode();
+	}
+}
@@ -1,12 +1,21 @@
 package lib280.tree;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import lib280.base.BilinearIterator280;
 import lib280.base.Dispenser280;
 import lib280.base.Searchable280;
+import lib280.base.Visitor280;
+import lib280.exception.AfterTheEnd280Exception;
+import lib280.exception.BeforeTheStart280Exception;
 import lib280.exception.ContainerEmpty280Exception;
+import lib280.exception.InvalidArgument280Exception;
 import lib280.exception.NoCurrentItem280Exception;
 
 public class OrderedSimpleTree280<I extends Comparable<? super I>> extends LinkedSimpleTree280<I>
-			implements Dispenser280<I>, Searchable280<I>
+			implements Dispenser280<I>, Searchable280<I>, BilinearIterator280<I>
 {
 	/**	The current node as set by search. */
 	protected BinaryNode280<I> cur;
@@ -20,6 +29,10 @@ public class OrderedSimpleTree280<I extends Comparable<? super I>> extends Linke
 	/**	Are equality comparisons done using object reference comparisons?. */
 	protected boolean objectReferenceComparison = false;
 
+	/**	Ancestors of the current node, for moving through the lib280.tree in order
+		(null until first needed).  Cleared whenever the structure changes. */
+	protected BinaryTreePath280<I> path;
+
 	/**	Create an empty lib280.tree. <br>
 		Analysis: Time = O(1) */
 	public OrderedSimpleTree280()
@@ -145,6 +158,8 @@ public class OrderedSimpleTree280<I extends Comparable<? super I>> extends Linke
 		Analysis : Time = O(h) worst case, where h = height of the lib280.tree */
 	public void insert(I x)
 	{
+		if (path != null)
+			path.clear();
 		if (isEmpty())
 			rootNode = createNewNode(x);
 		else if (x.compareTo(rootItem()) < 0)
@@ -161,6 +176,95 @@ public class OrderedSimpleTree280<I extends Comparable<? super I>> extends Linke
 		}
 	}
 
+	/**	Build a perfectly balanced subtree of items.get(lo) .. items.get(hi-1). <br>
+		Analysis: Time = O(hi - lo) <br>
+		PRECONDITION: <br>
+		<ul>
+			the items are in nondecreasing order
+		</ul>
+		@return the root of the subtree, or null if lo >= hi */
+	protected BinaryNode280<I> buildBalanced(List<? extends I> items, int lo, int hi)
+	{
+		if (lo >= hi)
+			return null;
+		int mid = (lo + hi) >>> 1;
+		BinaryNode280<I> left = buildBalanced(items, lo, mid);
+		BinaryNode280<I> n = createNewNode(items.get(mid));
+		n.setLeftNode(left);
+		n.setRightNode(buildBalanced(items, mid + 1, hi));
+		return n;
+	}
+
+	/**	Replace the contents of this lib280.tree by a perfectly balanced lib280.tree of
+		the given items, and move the cursor before the first item. <br>
+		Analysis: Time = O(n), where n = items.size() <br>
+		PRECONDITION: <br>
+		<ul>
+			the items are in nondecreasing order
+		</ul> */
+	protected void setFromSorted(List<? extends I> items)
+	{
+		setRootNode(buildBalanced(items, 0, items.size()));
+		goBefore();
+		if (path != null)
+			path.clear();
+	}
+
+	/**	A perfectly balanced lib280.tree of the items of a sorted array, of height
+		about log n rather than the n that inserting them in order gives. <br>
+		Analysis: Time = O(n), where n = items.length <br>
+		PRECONDITION: <br>
+		<ul>
+			the items are in nondecreasing order
+		</ul>
+		@throws InvalidArgument280Exception if the items are out of order. */
+	public static <I extends Comparable<? super I>> OrderedSimpleTree280<I> fromSorted(I[] items) throws InvalidArgument280Exception
+	{
+		OrderedSimpleTree280<I> t = new OrderedSimpleTree280<I>();
+		t.setFromSorted(sortedList(items));
+		return t;
+	}
+
+	/**	A perfectly balanced lib280.tree of the items produced by an iterator in
+		sorted order.  The items are gathered into a list first. <br>
+		Analysis: Time = O(n), where n = number of items <br>
+		PRECONDITION: <br>
+		<ul>
+			the items are in nondecreasing order
+		</ul>
+		@throws InvalidArgument280Exception if the items are out of order. */
+	public static <I extends Comparable<? super I>> OrderedSimpleTree280<I> fromSorted(Iterator<? extends I> items) throws InvalidArgument280Exception
+	{
+		OrderedSimpleTree280<I> t = new OrderedSimpleTree280<I>();
+		t.setFromSorted(sortedList(items));
+		return t;
+	}
+
+	/**	A new, balanced lib280.tree holding every item of this lib280.tree and of other,
+		including duplicates, made by merging the two in order.  Neither
+		lib280.tree (nor its cursor) is changed. <br>
+		Analysis: Time = O(n + m), where n and m are the numbers of items */
+	public OrderedSimpleTree280<I> merge(OrderedSimpleTree280<I> other)
+	{
+		ArrayList<I> items = new ArrayList<I>();
+		BinaryTreePath280.mergeInorder(rootNode(), other.rootNode(), false, items);
+		OrderedSimpleTree280<I> result = clone();
+		result.setFromSorted(items);
+		return result;
+	}
+
+	/**	A new, balanced lib280.tree holding one copy of each item in this lib280.tree
+		or in other.  See merge(). <br>
+		Analysis: Time = O(n + m), where n and m are the numbers of items */
+	public OrderedSimpleTree280<I> union(OrderedSimpleTree280<I> other)
+	{
+		ArrayList<I> items = new ArrayList<I>();
+		BinaryTreePath280.mergeInorder(rootNode(), other.rootNode(), true, items);
+		OrderedSimpleTree280<I> result = clone();
+		result.setFromSorted(items);
+		return result;
+	}
+
 	/**	Delete all items from the data structure. <br>
 		Analysis : Time = O(1) */
 	public void clear()
@@ -168,6 +272,8 @@ public class OrderedSimpleTree280<I extends Comparable<? super I>> extends Linke
 		super.clear();
 		parent = null;
 		cur = null;
+		if (path != null)
+			path.clear();
 	}
 
 	/**	Delete the current item, making its replacement the current item. <br>
@@ -180,6 +286,8 @@ public class OrderedSimpleTree280<I extends Comparable<? super I>> extends Linke
 	{
 		if(!itemExists())
 			throw new NoCurrentItem280Exception("No current item to delete");
+		if (path != null)
+			path.clear();
 
 		boolean foundReplacement = false;
 		BinaryNode280<I> replaceNode = null;
@@ -285,6 +393,153 @@ public class OrderedSimpleTree280<I extends Comparable<? super I>> extends Linke
 		objectReferenceComparison = false;
 	}
 
+	/**	Is the current position before the first item, in order?. <br>
+	Analysis: Time = O(1) */
+	public boolean before()
+	{
+		return above();
+	}
+
+	/**	Is the current position after the last item, in order?  This is also
+	the position after an unsuccessful search. <br>
+	Analysis: Time = O(1) */
+	public boolean after()
+	{
+		return below();
+	}
+
+	/**	Move to the position before the first item. <br>
+	Analysis: Time = O(1) */
+	public void goBefore()
+	{
+		parent = null;
+		cur = null;
+	}
+
+	/**	Move to the position after the last item. <br>
+	Analysis: Time = O(1) */
+	public void goAfter()
+	{
+		parent = rootNode;
+		cur = null;
+	}
+
+	/**	The path recording the ancestors of the current node, rebuilt if the
+	cursor has been moved by a search or the lib280.tree has changed since it was
+	last used. <br>
+	Analysis: Time = O(1) if the path is up to date, otherwise O(h) <br>
+	PRECONDITION: <br>
+	<ul>
+		itemExists()
+	</ul> */
+	protected BinaryTreePath280<I> pathToCur()
+	{
+		if (path == null)
+			path = new BinaryTreePath280<I>();
+		if (!path.leadsTo(cur))
+		{
+			path.find(rootNode, cur);
+			path.setOwner(cur);
+		}
+		return path;
+	}
+
+	/**	Make n the current node, with its ancestors in path.  If n is null,
+	move to after the last item (forward) or before the first item, and
+	empty the path, since it no longer leads to any node. <br>
+	Analysis: Time = O(1) */
+	protected void moveTo(BinaryNode280<I> n, boolean forward)
+	{
+		if (n == null)
+		{
+			path.clear();
+			if (forward)
+				goAfter();
+			else
+				goBefore();
+			return;
+		}
+		cur = n;
+		parent = path.parent();
+		path.setOwner(n);
+	}
+
+	/**	Go to the first (smallest) item. <br>
+	Analysis: Time = O(h) <br>
+	PRECONDITION: <br>
+	<ul>
+		!isEmpty()
+	</ul> */
+	public void goFirst() throws ContainerEmpty280Exception
+	{
+		if (isEmpty())
+			throw new ContainerEmpty280Exception("Cannot move to the first item of an empty lib280.tree.");
+		if (path == null)
+			path = new BinaryTreePath280<I>();
+		path.clear();
+		moveTo(path.leftmost(rootNode), true);
+	}
+
+	/**	Go to the last (largest) item. <br>
+	Analysis: Time = O(h) <br>
+	PRECONDITION: <br>
+	<ul>
+		!isEmpty()
+	</ul> */
+	public void goLast() throws ContainerEmpty280Exception
+	{
+		if (isEmpty())
+			throw new ContainerEmpty280Exception("Cannot move to the last item of an empty lib280.tree.");
+		if (path == null)
+			path = new BinaryTreePath280<I>();
+		path.clear();
+		moveTo(path.rightmost(rootNode), false);
+	}
+
+	/**	Advance to the next item in order.  From before the start, go to the first item. <br>
+	Analysis: Time = O(h) worst case, O(1) amortized over a traversal <br>
+	PRECONDITION: <br>
+	<ul>
+		!after()
+	</ul> */
+	public void goForth() throws AfterTheEnd280Exception
+	{
+		if (after())
+			throw new AfterTheEnd280Exception("Cannot advance to the next item when already after the end.");
+		if (before())
+			goFirst();
+		else
+			moveTo(pathToCur().successor(cur), true);
+	}
+
+	/**	Move back to the previous item in order.  From after the end, go to the last item. <br>
+	Analysis: Time = O(h) worst case, O(1) amortized over a traversal <br>
+	PRECONDITION: <br>
+	<ul>
+		!before()
+	</ul> */
+	public void goBack() throws BeforeTheStart280Exception
+	{
+		if (before())
+			throw new BeforeTheStart280Exception("Cannot move back when already before the start.");
+		if (after())
+			goLast();
+		else
+			moveTo(pathToCur().predecessor(cur), false);
+	}
+
+	/**	Visit, in order, every item x with lo <= x <= hi.  The cursor is not moved
+	and nothing is allocated. <br>
+	Analysis: Time = O(h + k), where k = number of items visited
+	@param lo smallest item to visit
+	@param hi largest item to visit
+	@param v the visitor applied to each item
+	@return the number of items visited */
+	public int rangeScan(I lo, I hi, Visitor280<? super I> v)
+	{
+		return BinaryTreePath280.rangeScan(rootNode, lo, hi, v);
+	}
+
 	/**	Set the left subtree to t (set isEmpty if t == null).  <br>
 		Analysis: Time = O(1)  <br>
 		PRECONDITION: <br>
@@ -304,6 +559,8 @@ public class OrderedSimpleTree280<I extends Comparable<? super I>> extends Linke
 			rootNode.setLeftNode(t.rootNode());
 		else
 			rootNode.setLeftNode(null);
+		if (path != null)
+			path.clear();
 	}
 
 	/**	Set the right subtree to t (set isEmpty if t == null).  <br>
@@ -325,6 +582,8 @@ public class OrderedSimpleTree280<I extends Comparable<? super I>> extends Linke
 			rootNode.setRightNode(t.rootNode());
 		else
 			rootNode.setRightNode(null);
+		if (path != null)
+			path.clear();
 	}
 
 	/**	Is the current position below the bottom of the lib280.tree?. <br>
@@ -367,7 +626,9 @@ public class OrderedSimpleTree280<I extends Comparable<? super I>> extends Linke
 		Analysis: Time = O(1) */
 	public OrderedSimpleTree280<I> clone()
 	{
-		return (OrderedSimpleTree280<I>) super.clone();
+		OrderedSimpleTree280<I> result = (OrderedSimpleTree280<I>) super.clone();
+		result.path = null;
+		return result;
 	}
 
 	protected String toStringInorder(BinaryNode280<I> N) {
@@ -475,6 +736,92 @@ public class OrderedSimpleTree280<I extends Comparable<? super I>> extends Linke
 		}
 		else System.out.println("\n\nAs expected, there was no element 99 in the lib280.tree to delete.");
 
+		// In-order iteration, forwards and backwards, with duplicates.
+		T.clear();
+		java.util.Random r = new java.util.Random(280);
+		int[] values = new int[200];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = r.nextInt(80);
+			T.insert(values[i]);
+		}
+		java.util.Arrays.sort(values);
+		int i = 0;
+		for(T.goFirst(); T.itemExists(); T.goForth(), i++)
+			if( i >= values.length || T.item() != values[i] ) System.out.println("Error: goForth() visited " + T.item() + " at position " + i);
+		if( i != values.length || !T.after() ) System.out.println("Error: goForth() should visit " + values.length + " items then be after the end.");
+		i = values.length - 1;
+		for(T.goLast(); T.itemExists(); T.goBack(), i--)
+			if( i < 0 || T.item() != values[i] ) System.out.println("Error: goBack() visited " + T.item() + " at position " + i);
+		if( i != -1 || !T.before() ) System.out.println("Error: goBack() should end before the start.");
+		try {
+			T.goBack();
+			System.out.println("Error: expected exception moving back when already before the start.");
+		}
+		catch(BeforeTheStart280Exception e) {
+			// Expected, do nothing.
+		}
+
+		// The cursor left by iteration can be used to delete.
+		T.goFirst();
+		T.goForth();
+		T.deleteItem();
+		T.goFirst();
+		if( T.item() != values[0] ) System.out.println("Error: first item should still be " + values[0]);
+		T.goForth();
+		if( T.item() != values[2] ) System.out.println("Error: second item should now be " + values[2]);
+
+		// Range scans.
+		final int[] count = new int[1];
+		Visitor280<Integer> counter = new Visitor280<Integer>() {
+			public void visit(Integer x) {
+				if( x < 10 || x > 30 ) System.out.println("Error: rangeScan(10, 30) visited " + x);
+				count[0]++;
+			}
+		};
+		int expected = 0;
+		for(i = 2; i < values.length; i++)
+			if( values[i] >= 10 && values[i] <= 30 ) expected++;
+		if( values[0] >= 10 && values[0] <= 30 ) expected++;
+		if( T.rangeScan(10, 30, counter) != expected || count[0] != expected )
+			System.out.println("Error: rangeScan(10, 30) should visit " + expected + " items but visited " + count[0]);
+
+		// Building from sorted input gives a balanced tree instead of a list.
+		Integer[] sorted = new Integer[1023];
+		for(i = 0; i < sorted.length; i++)
+			sorted[i] = i;
+		OrderedSimpleTree280<Integer> B = OrderedSimpleTree280.fromSorted(sorted);
+		for(i = 0; i < sorted.length; i++)
+			if( B.searchCount(i) > 10 ) System.out.println("Error: finding " + i + " in a tree built from sorted input took " + B.searchCount(i) + " comparisons.");
+		OrderedSimpleTree280<Integer> U = B.union(OrderedSimpleTree280.fromSorted(java.util.Arrays.asList(500, 1500, 2500).iterator()));
+		i = 0;
+		for(U.goFirst(); U.itemExists(); U.goForth())
+			i++;
+		if( i != 1025 ) System.out.println("Error: union() should have 1025 items but has " + i);
+		if( !U.has(2500) || B.has(2500) ) System.out.println("Error: union() should contain 2500 and leave its operands unchanged.");
+		if( B.merge(B).searchCount(-1) > 12 ) System.out.println("Error: merge() should build a balanced tree.");
+
+		// Walking off either end and then searching must not reuse the old path.
+		OrderedSimpleTree280<Integer> W = new OrderedSimpleTree280<Integer>();
+		for(i = 1; i <= 7; i++)
+			W.insert(i);
+		W.goFirst();
+		W.goBack();
+		W.search(1);
+		W.goForth();
+		if( !W.itemExists() || W.item() != 2 ) System.out.println("Error: goForth() after walking off the start and searching should be at 2.");
+		W.goLast();
+		W.goForth();
+		W.search(7);
+		W.goBack();
+		if( !W.itemExists() || W.item() != 6 ) System.out.println("Error: goBack() after walking off the end and searching should be at 6.");
+		W.goFirst();
+		W.goBack();
+		W.search(1);
+		W.deleteItem();
+		if( !W.itemExists() || W.item() != 2 ) System.out.println("Error: deleteItem() after walking off the start and searching should leave the cursor at 2.");
+
+		System.out.println("Regression test complete.");
+
 	}
 	
 }
@@ -0,0 +1,61 @@
+package lib280.tree;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts values of type T to and from a fixed number of bytes, so that they
+ * can be stored in the pages of a PagedBPlusTree280.
+ */
+public interface PageCodec280<T> {
+
+	/**
+	 * Number of bytes every encoded value takes.
+	 */
+	public int size();
+
+	/**
+	 * Encode x into b at offset, using size() bytes.
+	 * @param b the buffer to write to
+	 * @param offset position in b of the first byte
+	 * @param x the value to encode
+	 */
+	public void write(ByteBuffer b, int offset, T x);
+
+	/**
+	 * Decode the value at offset in b.
+	 * @param b the buffer to read from
+	 * @param offset position in b of the first byte
+	 * @return the decoded value
+	 */
+	public T read(ByteBuffer b, int offset);
+
+	/** Codec for Integer keys. */
+	public static final PageCodec280<Integer> INTEGER = new PageCodec280<Integer>() {
+		public int size() {
+			return 4;
+		}
+
+		public void write(ByteBuffer b, int offset, Integer x) {
+			b.putInt(offset, x);
+		}
+
+		public Integer read(ByteBuffer b, int offset) {
+			return b.getInt(offset);
+		}
+	};
+
+	/** Codec for Long keys. */
+	public static final PageCodec280<Long> LONG = new PageCodec280<Long>() {
+		public int size() {
+			return 8;
+		}
+
+		public void write(ByteBuffer b, int offset, Long x) {
+			b.putLong(offset, x);
+		}
+
+		public Long read(ByteBuffer b, int offset) {
+			return b.getLong(offset);
+		}
+	};
+}
@@ -0,0 +1,1436 @@
+package lib280.tree;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import lib280.base.Container280;
+import lib280.base.CursorPosition280;
+import lib280.base.Keyed280;
+import lib280.base.Pair280;
+import lib280.dictionary.KeyedDict280;
+import lib280.exception.*;
+
+/**
+ * A B+ tree kept in a file, for ordered indexes larger than the heap.  It has
+ * the shape of BPlusTree280, but every node is a fixed-size page of the file,
+ * read and written through FileChannel and cached in a BufferPool280 of
+ * pinned pages with CLOCK replacement.  Leaves are linked to their right
+ * siblings for the cursor and range scans.  Keys and items are stored in a
+ * fixed number of bytes each, given by a PageCodec280 for each.
+ *
+ * Every insert, delete or set is atomic and durable when it returns: the
+ * pages it changed are appended to a write-ahead log (the file name plus
+ * ".wal") as one checksummed batch before any of them can reach the file, and
+ * any complete batches are replayed into the file when it is next opened.
+ * The log is emptied by a checkpoint when it grows large, and on close().
+ *
+ * Apart from the constructor and close(), it is used just like
+ * BPlusTree280 or IterableTwoThreeTree280 through KeyedDict280, with the
+ * same cursor behaviour.  Items returned are decoded copies, so changing one
+ * does not change the tree; use set() or setItem() to store a change.
+ *
+ * Page 0 is a header; every other page is a node or on the free list.
+ * A node page starts with its type, number of keys and (for a leaf) the
+ * page number of the next leaf.  A leaf then holds (key, item) entries; an
+ * internal node holds its child page numbers and then its keys.
+ */
+public class PagedBPlusTree280<K extends Comparable<? super K>, I extends Keyed280<K>> implements KeyedDict280<K,I>, Container280 {
+
+	/** Page size used by the shorter constructor. */
+	public static final int DEFAULT_PAGE_SIZE = 4096;
+
+	/** Number of buffer pool frames used by the shorter constructor. */
+	public static final int DEFAULT_POOL_PAGES = 256;
+
+	/** Log size, in pages, above which a commit is followed by a checkpoint. */
+	public static final int CHECKPOINT_PAGES = 1024;
+
+	// Layout of the header page.
+	protected static final int MAGIC = 0x42504c54;
+	protected static final int H_MAGIC = 0, H_PAGE_SIZE = 4, H_KEY_SIZE = 8, H_ITEM_SIZE = 12,
+			H_ROOT = 16, H_FIRST_LEAF = 20, H_NUM_PAGES = 24, H_COUNT = 28, H_FREE = 32;
+
+	// Layout of a node page.
+	protected static final int TYPE = 0, NUM_KEYS = 4, NEXT = 8, NODE_HEADER = 12;
+	protected static final int FREE = 0, LEAF = 1, INTERNAL = 2;
+
+	/** Page number meaning "no page". */
+	protected static final int NONE = -1;
+
+	protected String fileName;
+	protected FileChannel file;
+	protected WriteAheadLog280 log;
+	protected BufferPool280 pool;
+
+	protected PageCodec280<K> keyCodec;
+	protected PageCodec280<I> itemCodec;
+	protected int pageSize, keySize, itemSize;
+
+	/** Size of a leaf entry: a key and an item. */
+	protected int entrySize;
+
+	/** Maximum items in a leaf, and children of an internal node.  Each page
+		has room for one more, so that an entry can be added before a split. */
+	protected int leafFanout, internalFanout;
+
+	/** Minimum items in a leaf, and children of an internal node, other than the root. */
+	protected int leafMin, internalMin;
+
+	/** Offset of the keys in an internal node page. */
+	protected int internalKeys;
+
+	// Copies of the header fields.
+	protected int root, firstLeaf, numPages, count, freeHead;
+
+	// The cursor is entry 'index' of leaf page 'cursor'; if cursor is NONE,
+	// 'pastEnd' says whether it is after the end rather than before the start.
+	protected int cursor;
+	protected int index;
+	protected boolean pastEnd;
+
+	/** Separator key of the node made by the last split in insert(). */
+	protected K splitKey;
+
+	/**
+	 * Open the tree in the named file, creating it if it does not exist, with
+	 * the default page size and buffer pool.
+	 * @throws Storage280Exception if the file cannot be opened or is not a tree with these codecs.
+	 */
+	public PagedBPlusTree280(String fileName, PageCodec280<K> keyCodec, PageCodec280<I> itemCodec) throws Storage280Exception {
+		this(fileName, keyCodec, itemCodec, DEFAULT_PAGE_SIZE, DEFAULT_POOL_PAGES);
+	}
+
+	/**
+	 * Open the tree in the named file, creating it if it does not exist.  Any
+	 * complete batches in its log are applied first, restoring the state as of
+	 * the last operation that finished before a crash.
+	 * @param fileName name of the file; the log is fileName + ".wal"
+	 * @param keyCodec how keys are stored
+	 * @param itemCodec how items are stored
+	 * @param pageSize size of a page; must be the same as when the file was created
+	 * @param poolPages number of pages cached in memory
+	 * @throws InvalidArgument280Exception if a page cannot hold 4 entries, or poolPages is less than 16.
+	 * @throws Storage280Exception if the file cannot be opened or is not a tree with these codecs.
+	 */
+	public PagedBPlusTree280(String fileName, PageCodec280<K> keyCodec, PageCodec280<I> itemCodec,
+			int pageSize, int poolPages) throws InvalidArgument280Exception, Storage280Exception {
+		this.fileName = fileName;
+		this.keyCodec = keyCodec;
+		this.itemCodec = itemCodec;
+		this.pageSize = pageSize;
+		this.keySize = keyCodec.size();
+		this.itemSize = itemCodec.size();
+		this.entrySize = this.keySize + this.itemSize;
+		this.leafFanout = (pageSize - NODE_HEADER) / this.entrySize - 1;
+		this.internalFanout = (pageSize - NODE_HEADER + this.keySize) / (4 + this.keySize) - 1;
+		this.leafMin = (this.leafFanout + 1) / 2;
+		this.internalMin = (this.internalFanout + 1) / 2;
+		this.internalKeys = NODE_HEADER + 4 * (this.internalFanout + 1);
+		if( this.leafFanout < 3 || this.internalFanout < 3 || pageSize < H_FREE + 4 )
+			throw new InvalidArgument280Exception("A page of " + pageSize + " bytes is too small for these keys and items.");
+		if( poolPages < 16 )
+			throw new InvalidArgument280Exception("The buffer pool must hold at least 16 pages.");
+
+		try {
+			this.file = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			boolean existing = this.file.size() > 0;
+			if( existing ) this.checkHeader();
+			this.log = new WriteAheadLog280(fileName + ".wal", pageSize);
+			this.pool = new BufferPool280(this.file, this.log, pageSize, poolPages);
+			if( existing ) {
+				this.log.replay(this.file);
+				this.log.truncate();
+				this.readHeader();
+			}
+			else {
+				this.root = NONE;
+				this.firstLeaf = NONE;
+				this.numPages = 1;
+				this.count = 0;
+				this.freeHead = NONE;
+				ByteBuffer h = this.pool.pinNew(0);
+				h.putInt(H_MAGIC, MAGIC);
+				h.putInt(H_PAGE_SIZE, pageSize);
+				h.putInt(H_KEY_SIZE, this.keySize);
+				h.putInt(H_ITEM_SIZE, this.itemSize);
+				this.pool.unpin(0);
+				this.writeHeader();
+				this.pool.commit();
+				this.pool.checkpoint();
+			}
+		}
+		catch(IOException e) {
+			throw new Storage280Exception("Cannot open " + fileName + ".", e);
+		}
+		this.goBefore();
+	}
+
+	/**
+	 * Check that the file was created with this page size and these codecs.
+	 */
+	protected void checkHeader() throws IOException, Storage280Exception {
+		ByteBuffer h = ByteBuffer.allocate(16);
+		while( h.hasRemaining() && this.file.read(h, h.position()) >= 0 )
+			;
+		String problem = null;
+		if( h.getInt(H_MAGIC) != MAGIC )
+			problem = " does not hold a PagedBPlusTree280.";
+		else if( h.getInt(H_PAGE_SIZE) != this.pageSize || h.getInt(H_KEY_SIZE) != this.keySize || h.getInt(H_ITEM_SIZE) != this.itemSize )
+			problem = " was created with a different page size or codecs.";
+		if( problem != null ) {
+			this.file.close();
+			throw new Storage280Exception(this.fileName + problem);
+		}
+	}
+
+	/**
+	 * Load the copies of the header fields from the header page.
+	 */
+	protected void readHeader() {
+		ByteBuffer h = this.pool.pin(0);
+		this.root = h.getInt(H_ROOT);
+		this.firstLeaf = h.getInt(H_FIRST_LEAF);
+		this.numPages = h.getInt(H_NUM_PAGES);
+		this.count = h.getInt(H_COUNT);
+		this.freeHead = h.getInt(H_FREE);
+		this.pool.unpin(0);
+	}
+
+	/**
+	 * Store the header fields in the header page.
+	 */
+	protected void writeHeader() {
+		ByteBuffer h = this.pool.pin(0);
+		this.pool.markDirty(0);
+		h.putInt(H_ROOT, this.root);
+		h.putInt(H_FIRST_LEAF, this.firstLeaf);
+		h.putInt(H_NUM_PAGES, this.numPages);
+		h.putInt(H_COUNT, this.count);
+		h.putInt(H_FREE, this.freeHead);
+		this.pool.unpin(0);
+	}
+
+	/**
+	 * Make the changes of the operation that just finished durable, and
+	 * checkpoint if the log has grown large.
+	 */
+	protected void commit() {
+		this.writeHeader();
+		this.pool.commit();
+		if( this.log.size() > (long) CHECKPOINT_PAGES * this.pageSize )
+			this.pool.checkpoint();
+	}
+
+	/**
+	 * Undo the changes of an operation that failed part way, and reload the header.
+	 */
+	protected void abort() {
+		this.pool.abort();
+		this.readHeader();
+		this.goBefore();
+	}
+
+	/**
+	 * Choose whether each operation waits for its log batch to reach the disk
+	 * before returning (the default).  Without it, a power failure can lose
+	 * the last few operations.  The tree is still consistent afterwards: the
+	 * log is forced before any page of an operation is written to the file,
+	 * so each operation is recovered completely or not at all.
+	 * @timing O(1)
+	 */
+	public void setSyncOnCommit(boolean sync) {
+		this.log.setSync(sync);
+	}
+
+	/**
+	 * Write every change to the file and empty the log.
+	 * @throws Storage280Exception if the file cannot be written.
+	 */
+	public void flush() throws Storage280Exception {
+		this.pool.checkpoint();
+	}
+
+	/**
+	 * Flush the tree and close its files.  The tree cannot be used afterwards.
+	 * @throws Storage280Exception if the file cannot be written or closed.
+	 */
+	public void close() throws Storage280Exception {
+		this.flush();
+		this.closeFiles();
+	}
+
+	/**
+	 * Close the files without writing anything, as if the program had
+	 * crashed; the tree cannot be used afterwards.  For testing recovery.
+	 */
+	protected void closeFiles() throws Storage280Exception {
+		try {
+			this.file.close();
+		}
+		catch(IOException e) {
+			throw new Storage280Exception("Cannot close " + this.fileName + ".", e);
+		}
+		this.log.close();
+	}
+
+	/**
+	 * The buffer pool caching the pages of the tree.
+	 * @timing O(1)
+	 */
+	public BufferPool280 pool() {
+		return this.pool;
+	}
+
+
+	// Reading and writing node pages.
+
+	protected static boolean isLeaf(ByteBuffer p) {
+		return p.getInt(TYPE) == LEAF;
+	}
+
+	protected static int numKeys(ByteBuffer p) {
+		return p.getInt(NUM_KEYS);
+	}
+
+	protected static void setNumKeys(ByteBuffer p, int n) {
+		p.putInt(NUM_KEYS, n);
+	}
+
+	/** Number of items of a leaf, or children of an internal node. */
+	protected static int entries(ByteBuffer p) {
+		return isLeaf(p) ? numKeys(p) : numKeys(p) + 1;
+	}
+
+	protected static int next(ByteBuffer p) {
+		return p.getInt(NEXT);
+	}
+
+	protected K leafKey(ByteBuffer p, int j) {
+		return this.keyCodec.read(p, NODE_HEADER + j * this.entrySize);
+	}
+
+	protected I leafItem(ByteBuffer p, int j) {
+		return this.itemCodec.read(p, NODE_HEADER + j * this.entrySize + this.keySize);
+	}
+
+	protected K internalKey(ByteBuffer p, int j) {
+		return this.keyCodec.read(p, this.internalKeys + j * this.keySize);
+	}
+
+	protected static int child(ByteBuffer p, int j) {
+		return p.getInt(NODE_HEADER + 4 * j);
+	}
+
+	/**
+	 * Position of the first key of leaf p that is greater than or equal to k.
+	 * @timing O(log m) for a leaf of m items
+	 */
+	protected int leafLowerBound(ByteBuffer p, K k) {
+		int lo = 0, hi = numKeys(p);
+		while( lo < hi ) {
+			int mid = (lo + hi) >>> 1;
+			if( this.leafKey(p, mid).compareTo(k) < 0 ) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Position of the item with key k in leaf p, or -1 if there is none.
+	 */
+	protected int leafIndexOf(ByteBuffer p, K k) {
+		int i = this.leafLowerBound(p, k);
+		return i < numKeys(p) && this.leafKey(p, i).compareTo(k) == 0 ? i : -1;
+	}
+
+	/**
+	 * The child of internal node p to descend into for key k: the number of its
+	 * keys that are less than or equal to k.
+	 * @timing O(log m) for a node of m keys
+	 */
+	protected int childIndex(ByteBuffer p, K k) {
+		int lo = 0, hi = numKeys(p);
+		while( lo < hi ) {
+			int mid = (lo + hi) >>> 1;
+			if( this.internalKey(p, mid).compareTo(k) <= 0 ) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	/** Move entries [from, to) of leaf p by 'by' places. */
+	protected void shiftLeaf(ByteBuffer p, int from, int to, int by) {
+		System.arraycopy(p.array(), NODE_HEADER + from * this.entrySize, p.array(),
+				NODE_HEADER + (from + by) * this.entrySize, (to - from) * this.entrySize);
+	}
+
+	/** Insert item x with key k at position i of leaf p. */
+	protected void leafInsert(ByteBuffer p, int i, K k, I x) {
+		int n = numKeys(p);
+		this.shiftLeaf(p, i, n, 1);
+		this.keyCodec.write(p, NODE_HEADER + i * this.entrySize, k);
+		this.itemCodec.write(p, NODE_HEADER + i * this.entrySize + this.keySize, x);
+		setNumKeys(p, n + 1);
+	}
+
+	/** Copy entry j of leaf src to position i of leaf dest, which has room for it. */
+	protected void leafInsertFrom(ByteBuffer dest, int i, ByteBuffer src, int j) {
+		int n = numKeys(dest);
+		this.shiftLeaf(dest, i, n, 1);
+		System.arraycopy(src.array(), NODE_HEADER + j * this.entrySize, dest.array(), NODE_HEADER + i * this.entrySize, this.entrySize);
+		setNumKeys(dest, n + 1);
+	}
+
+	/** Remove the item at position i of leaf p. */
+	protected void leafRemove(ByteBuffer p, int i) {
+		int n = numKeys(p);
+		this.shiftLeaf(p, i + 1, n, -1);
+		setNumKeys(p, n - 1);
+	}
+
+	/** Move entries from..end of leaf src to the end of leaf dest. */
+	protected void leafMove(ByteBuffer src, int from, ByteBuffer dest) {
+		int n = numKeys(src), d = numKeys(dest);
+		System.arraycopy(src.array(), NODE_HEADER + from * this.entrySize, dest.array(), NODE_HEADER + d * this.entrySize, (n - from) * this.entrySize);
+		setNumKeys(dest, d + n - from);
+		setNumKeys(src, from);
+	}
+
+	/** Move keys [from, to) of internal node p by 'by' places. */
+	protected void shiftKeys(ByteBuffer p, int from, int to, int by) {
+		System.arraycopy(p.array(), this.internalKeys + from * this.keySize, p.array(),
+				this.internalKeys + (from + by) * this.keySize, (to - from) * this.keySize);
+	}
+
+	/** Move children [from, to) of internal node p by 'by' places. */
+	protected static void shiftChildren(ByteBuffer p, int from, int to, int by) {
+		System.arraycopy(p.array(), NODE_HEADER + 4 * from, p.array(), NODE_HEADER + 4 * (from + by), 4 * (to - from));
+	}
+
+	protected void setInternalKey(ByteBuffer p, int j, K k) {
+		this.keyCodec.write(p, this.internalKeys + j * this.keySize, k);
+	}
+
+	protected static void setChild(ByteBuffer p, int j, int c) {
+		p.putInt(NODE_HEADER + 4 * j, c);
+	}
+
+	/** Insert key k at position i of internal node p, and child c just after it. */
+	protected void internalInsert(ByteBuffer p, int i, K k, int c) {
+		int n = numKeys(p);
+		this.shiftKeys(p, i, n, 1);
+		shiftChildren(p, i + 1, n + 1, 1);
+		this.setInternalKey(p, i, k);
+		setChild(p, i + 1, c);
+		setNumKeys(p, n + 1);
+	}
+
+	/** Remove key i of internal node p and the child just after it. */
+	protected void internalRemove(ByteBuffer p, int i) {
+		int n = numKeys(p);
+		this.shiftKeys(p, i + 1, n, -1);
+		shiftChildren(p, i + 2, n + 1, -1);
+		setNumKeys(p, n - 1);
+	}
+
+	/** Add key k and child c in front of the first key and child of internal node p. */
+	protected void internalInsertFirst(ByteBuffer p, K k, int c) {
+		int n = numKeys(p);
+		this.shiftKeys(p, 0, n, 1);
+		shiftChildren(p, 0, n + 1, 1);
+		this.setInternalKey(p, 0, k);
+		setChild(p, 0, c);
+		setNumKeys(p, n + 1);
+	}
+
+	/** Remove the first key and first child of internal node p. */
+	protected void internalRemoveFirst(ByteBuffer p) {
+		int n = numKeys(p);
+		this.shiftKeys(p, 1, n, -1);
+		shiftChildren(p, 1, n + 1, -1);
+		setNumKeys(p, n - 1);
+	}
+
+	/**
+	 * A page for a new node of the given type, taken from the free list if it
+	 * is not empty.  The page is left pinned.
+	 * @return the page number.
+	 */
+	protected int allocate(int type) {
+		int pageNo;
+		if( this.freeHead != NONE ) {
+			pageNo = this.freeHead;
+			this.freeHead = next(this.pool.pin(pageNo));
+			this.pool.unpin(pageNo);
+		}
+		else
+			pageNo = this.numPages++;
+		ByteBuffer p = this.pool.pinNew(pageNo);
+		p.putInt(TYPE, type);
+		p.putInt(NEXT, NONE);
+		return pageNo;
+	}
+
+	/**
+	 * Put page pageNo, which is no longer in the tree, on the free list.
+	 */
+	protected void free(int pageNo) {
+		ByteBuffer p = this.pool.pin(pageNo);
+		this.pool.markDirty(pageNo);
+		p.putInt(TYPE, FREE);
+		p.putInt(NEXT, this.freeHead);
+		this.pool.unpin(pageNo);
+		this.freeHead = pageNo;
+	}
+
+
+	@Override
+	public boolean isEmpty() {
+		return this.root == NONE;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	/**
+	 * Remove every item.  The file keeps its size; its pages are reused.
+	 * @timing O(1)
+	 */
+	@Override
+	public void clear() {
+		this.root = NONE;
+		this.firstLeaf = NONE;
+		this.numPages = 1;
+		this.count = 0;
+		this.freeHead = NONE;
+		this.commit();
+		this.goBefore();
+	}
+
+	/**
+	 * Number of items in the tree.
+	 * @timing O(1)
+	 */
+	public int count() {
+		return this.count;
+	}
+
+	/**
+	 * Maximum number of items in a leaf page.
+	 * @timing O(1)
+	 */
+	public int leafFanout() {
+		return this.leafFanout;
+	}
+
+	/**
+	 * Maximum number of children of an internal node page.
+	 * @timing O(1)
+	 */
+	public int internalFanout() {
+		return this.internalFanout;
+	}
+
+	/**
+	 * Determine the height of the tree.
+	 * @timing O(log n) page reads
+	 * @return The number of levels of the tree, counting the leaves; 0 if it is empty.
+	 */
+	public int height() {
+		if( this.isEmpty() ) return 0;
+		int height = 1;
+		int pageNo = this.root;
+		while( true ) {
+			ByteBuffer p = this.pool.pin(pageNo);
+			int next = isLeaf(p) ? NONE : child(p, 0);
+			this.pool.unpin(pageNo);
+			if( next == NONE ) return height;
+			pageNo = next;
+			height++;
+		}
+	}
+
+	/**
+	 * The leaf page in which an item with key k is, or would be.
+	 * @precond !isEmpty()
+	 * @timing O(log n) page reads
+	 */
+	protected int findLeaf(K k) {
+		int pageNo = this.root;
+		while( true ) {
+			ByteBuffer p = this.pool.pin(pageNo);
+			if( isLeaf(p) ) {
+				this.pool.unpin(pageNo);
+				return pageNo;
+			}
+			int c = child(p, this.childIndex(p, k));
+			this.pool.unpin(pageNo);
+			pageNo = c;
+		}
+	}
+
+	@Override
+	public boolean has(K k) {
+		if( this.isEmpty() ) return false;
+		int leaf = this.findLeaf(k);
+		boolean found = this.leafIndexOf(this.pool.pin(leaf), k) >= 0;
+		this.pool.unpin(leaf);
+		return found;
+	}
+
+	/**
+	 * A copy of the item with key k.  The cursor is not moved.
+	 * @timing O(log n) page reads
+	 * @throws ItemNotFound280Exception if there is no item with key k.
+	 */
+	@Override
+	public I obtain(K k) throws ItemNotFound280Exception {
+		if( !this.isEmpty() ) {
+			int leaf = this.findLeaf(k);
+			ByteBuffer p = this.pool.pin(leaf);
+			try {
+				int i = this.leafIndexOf(p, k);
+				if( i >= 0 ) return this.leafItem(p, i);
+			}
+			finally {
+				this.pool.unpin(leaf);
+			}
+		}
+		throw new ItemNotFound280Exception("The item with key " + k + " was not found in the tree.");
+	}
+
+	/**
+	 * Replace the item having the same key as x by x.
+	 * @timing O(log n) page reads
+	 * @throws ItemNotFound280Exception if there is no item with key x.key().
+	 */
+	@Override
+	public void set(I x) throws ItemNotFound280Exception {
+		if( !this.isEmpty() ) {
+			int leaf = this.findLeaf(x.key());
+			ByteBuffer p = this.pool.pin(leaf);
+			int i = this.leafIndexOf(p, x.key());
+			if( i < 0 )
+				this.pool.unpin(leaf);
+			else {
+				try {
+					// Marked dirty first, so that abort() drops a half-written page.
+					this.pool.markDirty(leaf);
+					this.itemCodec.write(p, NODE_HEADER + i * this.entrySize + this.keySize, x);
+					this.pool.unpin(leaf);
+					this.commit();
+				}
+				catch(RuntimeException e) {
+					this.abort();
+					throw e;
+				}
+				return;
+			}
+		}
+		throw new ItemNotFound280Exception("There is no item with key " + x.key() + " to replace.");
+	}
+
+	/**
+	 * Insert x into the tree.  When this returns, the insertion is in the log.
+	 * @timing O(log n) page reads, plus one log write
+	 * @throws DuplicateItems280Exception if an item with key x.key() is already in the tree.
+	 */
+	@Override
+	public void insert(I x) throws DuplicateItems280Exception {
+		K k = x.key();
+		K cursorKey = this.itemExists() ? this.itemKey() : null;
+		try {
+			if( this.isEmpty() ) {
+				// pinNew() has marked the new leaf dirty.
+				int leaf = this.allocate(LEAF);
+				this.leafInsert(this.pool.pin(leaf), 0, k, x);
+				this.pool.unpin(leaf);
+				this.pool.unpin(leaf);
+				this.root = leaf;
+				this.firstLeaf = leaf;
+			}
+			else {
+				int extra = this.insert(this.root, k, x);
+
+				// If the root was split, make a new root above the two halves.
+				if( extra != NONE ) {
+					int newRoot = this.allocate(INTERNAL);
+					ByteBuffer p = this.pool.pin(newRoot);
+					setChild(p, 0, this.root);
+					this.internalInsert(p, 0, this.splitKey, extra);
+					this.pool.unpin(newRoot);
+					this.pool.unpin(newRoot);
+					this.root = newRoot;
+				}
+			}
+			this.count++;
+			this.commit();
+		}
+		catch(DuplicateItems280Exception e) {
+			// Found before anything was changed.
+			throw e;
+		}
+		catch(RuntimeException e) {
+			this.abort();
+			throw e;
+		}
+		if( cursorKey != null ) this.searchCeilingOf(cursorKey);
+	}
+
+	/**
+	 * Recursive helper for the public insert() method.
+	 * @param pageNo Root of the (sub)tree into which we are inserting.
+	 * @return NONE, or if the node had to be split, the page of the new node
+	 * 		   holding its upper half, with splitKey set to the key that separates them.
+	 * @throws DuplicateItems280Exception if key k is already in the tree, in which case nothing has changed.
+	 */
+	protected int insert(int pageNo, K k, I x) {
+		ByteBuffer p = this.pool.pin(pageNo);
+		try {
+			if( isLeaf(p) ) {
+				int i = this.leafLowerBound(p, k);
+				if( i < numKeys(p) && this.leafKey(p, i).compareTo(k) == 0 )
+					throw new DuplicateItems280Exception("Key already exists in the tree.");
+				this.pool.markDirty(pageNo);
+				this.leafInsert(p, i, k, x);
+				if( numKeys(p) <= this.leafFanout ) return NONE;
+
+				// Too many items: move the upper half to a new leaf just after this one.
+				int newLeaf = this.allocate(LEAF);
+				ByteBuffer q = this.pool.pin(newLeaf);
+				this.leafMove(p, numKeys(p) / 2, q);
+				q.putInt(NEXT, next(p));
+				p.putInt(NEXT, newLeaf);
+				this.splitKey = this.leafKey(q, 0);
+				this.pool.unpin(newLeaf);
+				this.pool.unpin(newLeaf);
+				return newLeaf;
+			}
+			else {
+				int i = this.childIndex(p, k);
+				int extra = this.insert(child(p, i), k, x);
+				if( extra == NONE ) return NONE;
+
+				// Link in the new child just after the one that was split.
+				this.pool.markDirty(pageNo);
+				this.internalInsert(p, i, this.splitKey, extra);
+				if( numKeys(p) + 1 <= this.internalFanout ) return NONE;
+
+				// Too many children: move the upper half to a new node.  The middle
+				// key moves up to the parent.
+				int n = numKeys(p);
+				int mid = n / 2;
+				int newNode = this.allocate(INTERNAL);
+				ByteBuffer q = this.pool.pin(newNode);
+				int moved = n - mid - 1;
+				System.arraycopy(p.array(), this.internalKeys + (mid + 1) * this.keySize, q.array(), this.internalKeys, moved * this.keySize);
+				System.arraycopy(p.array(), NODE_HEADER + 4 * (mid + 1), q.array(), NODE_HEADER, 4 * (moved + 1));
+				setNumKeys(q, moved);
+				this.splitKey = this.internalKey(p, mid);
+				setNumKeys(p, mid);
+				this.pool.unpin(newNode);
+				this.pool.unpin(newNode);
+				return newNode;
+			}
+		}
+		finally {
+			this.pool.unpin(pageNo);
+		}
+	}
+
+	/**
+	 * Delete the item with key k.  If the cursor was on it, it moves to the
+	 * next item.  When this returns, the deletion is in the log.
+	 * @timing O(log n) page reads, plus one log write
+	 * @throws ItemNotFound280Exception if there is no item with key k.
+	 */
+	@Override
+	public void delete(K k) throws ItemNotFound280Exception {
+		if( this.isEmpty() )
+			throw new ItemNotFound280Exception("The item with key " + k + " was not found in the tree.");
+		K cursorKey = this.itemExists() ? this.itemKey() : null;
+		try {
+			this.delete(this.root, k);
+			this.count--;
+
+			ByteBuffer r = this.pool.pin(this.root);
+			int oldRoot = this.root;
+			if( !isLeaf(r) && numKeys(r) == 0 ) {
+				// The root has only one child: make the child the root.
+				this.root = child(r, 0);
+				this.pool.unpin(oldRoot);
+				this.free(oldRoot);
+			}
+			else if( isLeaf(r) && numKeys(r) == 0 ) {
+				this.root = NONE;
+				this.firstLeaf = NONE;
+				this.pool.unpin(oldRoot);
+				this.free(oldRoot);
+			}
+			else
+				this.pool.unpin(oldRoot);
+			this.commit();
+		}
+		catch(ItemNotFound280Exception e) {
+			// Found before anything was changed.
+			throw e;
+		}
+		catch(RuntimeException e) {
+			this.abort();
+			throw e;
+		}
+		// Merges may have moved the current item; if it was the one deleted,
+		// this finds its successor.
+		if( cursorKey != null ) this.searchCeilingOf(cursorKey);
+	}
+
+	/**
+	 * Recursive helper for the public delete() method.  Any child left with
+	 * too few entries takes one from a sibling, or is merged with one.
+	 * @throws ItemNotFound280Exception if there is no item with key k, in which case nothing has changed.
+	 */
+	protected void delete(int pageNo, K k) throws ItemNotFound280Exception {
+		ByteBuffer p = this.pool.pin(pageNo);
+		try {
+			if( isLeaf(p) ) {
+				int i = this.leafIndexOf(p, k);
+				if( i < 0 )
+					throw new ItemNotFound280Exception("The item with key " + k + " was not found in the tree.");
+				this.pool.markDirty(pageNo);
+				this.leafRemove(p, i);
+			}
+			else {
+				int i = this.childIndex(p, k);
+				int c = child(p, i);
+				this.delete(c, k);
+				ByteBuffer cp = this.pool.pin(c);
+				boolean under = entries(cp) < (isLeaf(cp) ? this.leafMin : this.internalMin);
+				this.pool.unpin(c);
+				if( under ) this.rebalance(pageNo, p, i);
+			}
+		}
+		finally {
+			this.pool.unpin(pageNo);
+		}
+	}
+
+	/**
+	 * Restore the minimum fill of child i of the (pinned) internal node p: take
+	 * an entry from a sibling that can spare one, or else merge the child with
+	 * a sibling.
+	 */
+	protected void rebalance(int pageNo, ByteBuffer p, int i) {
+		int n = numKeys(p);
+		int c = child(p, i);
+		ByteBuffer cp = this.pool.pin(c);
+		boolean leaf = isLeaf(cp);
+		int min = leaf ? this.leafMin : this.internalMin;
+		try {
+			if( i > 0 ) {
+				int l = child(p, i - 1);
+				ByteBuffer lp = this.pool.pin(l);
+				try {
+					if( entries(lp) > min ) {
+						// Steal the last entry of the left sibling.
+						this.pool.markDirty(l);
+						this.pool.markDirty(c);
+						this.pool.markDirty(pageNo);
+						if( leaf ) {
+							this.leafInsertFrom(cp, 0, lp, numKeys(lp) - 1);
+							this.leafRemove(lp, numKeys(lp) - 1);
+							this.setInternalKey(p, i - 1, this.leafKey(cp, 0));
+						}
+						else {
+							int last = numKeys(lp) - 1;
+							this.internalInsertFirst(cp, this.internalKey(p, i - 1), child(lp, last + 1));
+							this.setInternalKey(p, i - 1, this.internalKey(lp, last));
+							setNumKeys(lp, last);
+						}
+						return;
+					}
+				}
+				finally {
+					this.pool.unpin(l);
+				}
+			}
+			if( i < n ) {
+				int r = child(p, i + 1);
+				ByteBuffer rp = this.pool.pin(r);
+				try {
+					if( entries(rp) > min ) {
+						// Steal the first entry of the right sibling.
+						this.pool.markDirty(r);
+						this.pool.markDirty(c);
+						this.pool.markDirty(pageNo);
+						if( leaf ) {
+							this.leafInsertFrom(cp, numKeys(cp), rp, 0);
+							this.leafRemove(rp, 0);
+							this.setInternalKey(p, i, this.leafKey(rp, 0));
+						}
+						else {
+							this.internalInsert(cp, numKeys(cp), this.internalKey(p, i), child(rp, 0));
+							this.setInternalKey(p, i, this.internalKey(rp, 0));
+							this.internalRemoveFirst(rp);
+						}
+						return;
+					}
+				}
+				finally {
+					this.pool.unpin(r);
+				}
+			}
+		}
+		finally {
+			this.pool.unpin(c);
+		}
+		if( i > 0 )
+			this.merge(pageNo, p, i - 1);
+		else
+			this.merge(pageNo, p, i);
+	}
+
+	/**
+	 * Merge child j + 1 of the (pinned) internal node p into child j, and free it.
+	 */
+	protected void merge(int pageNo, ByteBuffer p, int j) {
+		int l = child(p, j), r = child(p, j + 1);
+		ByteBuffer lp = this.pool.pin(l);
+		ByteBuffer rp = this.pool.pin(r);
+		// Every page is marked dirty before it is changed, so that abort() drops
+		// it if a codec fails part way.
+		this.pool.markDirty(l);
+		this.pool.markDirty(r);
+		this.pool.markDirty(pageNo);
+		if( isLeaf(lp) ) {
+			this.leafMove(rp, 0, lp);
+			lp.putInt(NEXT, next(rp));
+		}
+		else {
+			// The separator comes down between the two nodes' keys.
+			int ln = numKeys(lp), rn = numKeys(rp);
+			this.setInternalKey(lp, ln, this.internalKey(p, j));
+			System.arraycopy(rp.array(), this.internalKeys, lp.array(), this.internalKeys + (ln + 1) * this.keySize, rn * this.keySize);
+			System.arraycopy(rp.array(), NODE_HEADER, lp.array(), NODE_HEADER + 4 * (ln + 1), 4 * (rn + 1));
+			setNumKeys(lp, ln + rn + 1);
+		}
+		this.pool.unpin(l);
+		this.pool.unpin(r);
+		this.free(r);
+		this.internalRemove(p, j);
+	}
+
+
+	@Override
+	public K itemKey() throws NoCurrentItem280Exception {
+		if( !itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item from which to obtain its key.");
+		ByteBuffer p = this.pool.pin(this.cursor);
+		K k = this.leafKey(p, this.index);
+		this.pool.unpin(this.cursor);
+		return k;
+	}
+
+	@Override
+	public Pair280<K, I> keyItemPair() throws NoCurrentItem280Exception {
+		if( !itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item from which to obtain its key.");
+		return new Pair280<K, I>(this.itemKey(), this.item());
+	}
+
+	/**
+	 * A copy of the current item.
+	 * @timing O(1) page reads
+	 */
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if( !itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		ByteBuffer p = this.pool.pin(this.cursor);
+		I x = this.leafItem(p, this.index);
+		this.pool.unpin(this.cursor);
+		return x;
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.cursor != NONE;
+	}
+
+	@Override
+	public boolean before() {
+		return this.cursor == NONE && !this.pastEnd;
+	}
+
+	@Override
+	public boolean after() {
+		return this.cursor == NONE && this.pastEnd || this.isEmpty();
+	}
+
+	/**
+	 * Advance the cursor to the next item, following the link to the next leaf
+	 * page at the end of a leaf.
+	 * @timing O(1) page reads
+	 */
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		if( this.after() ) throw new AfterTheEnd280Exception("Cannot advance the cursor past the end.");
+		if( this.before() ) {
+			this.goFirst();
+			return;
+		}
+		ByteBuffer p = this.pool.pin(this.cursor);
+		int n = numKeys(p), next = next(p);
+		this.pool.unpin(this.cursor);
+		if( ++this.index == n ) {
+			this.cursor = next;
+			this.index = 0;
+			this.pastEnd = next == NONE;
+		}
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Attempted to move linear iterator to first element of an empty tree.");
+		this.cursor = this.firstLeaf;
+		this.index = 0;
+		this.pastEnd = false;
+	}
+
+	@Override
+	public void goBefore() {
+		this.cursor = NONE;
+		this.index = 0;
+		this.pastEnd = false;
+	}
+
+	@Override
+	public void goAfter() {
+		this.cursor = NONE;
+		this.index = 0;
+		this.pastEnd = true;
+	}
+
+	/**
+	 * The current position of the cursor, valid until the tree is next changed.
+	 */
+	@Override
+	public CursorPosition280 currentPosition() {
+		return new PagedBPlusTreePosition280(this.cursor, this.index, this.pastEnd);
+	}
+
+	@Override
+	public void goPosition(CursorPosition280 c) {
+		if( !(c instanceof PagedBPlusTreePosition280) )
+			throw new InvalidArgument280Exception("The provided position was not a PagedBPlusTreePosition280 object.");
+		PagedBPlusTreePosition280 pos = (PagedBPlusTreePosition280) c;
+		this.cursor = pos.page;
+		this.index = pos.index;
+		this.pastEnd = pos.pastEnd;
+	}
+
+	/**
+	 * Position the cursor at the item with key k, or in the after position
+	 * if there is no such item.
+	 * @timing O(log n) page reads
+	 */
+	@Override
+	public void search(K k) {
+		this.searchCeilingOf(k);
+		if( this.itemExists() && this.itemKey().compareTo(k) != 0 )
+			this.goAfter();
+	}
+
+	/**
+	 * Position the cursor at the smallest item with key at least k, or in the
+	 * after position if there is no such item.
+	 * @timing O(log n) page reads
+	 */
+	@Override
+	public void searchCeilingOf(K k) {
+		if( this.isEmpty() ) {
+			this.goAfter();
+			return;
+		}
+		int leaf = this.findLeaf(k);
+		ByteBuffer p = this.pool.pin(leaf);
+		int i = this.leafLowerBound(p, k);
+		if( i == numKeys(p) ) {
+			// Every key in the next leaf is greater than k.
+			int next = next(p);
+			this.pool.unpin(leaf);
+			leaf = next;
+			i = 0;
+		}
+		else
+			this.pool.unpin(leaf);
+		if( leaf == NONE )
+			this.goAfter();
+		else {
+			this.cursor = leaf;
+			this.index = i;
+			this.pastEnd = false;
+		}
+	}
+
+	@Override
+	public void setItem(I x) throws NoCurrentItem280Exception, InvalidArgument280Exception {
+		if( !itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item to alter.");
+		if( this.itemKey().compareTo(x.key()) != 0 )
+			throw new InvalidArgument280Exception("The item x does not have the same key as the current item.");
+		try {
+			ByteBuffer p = this.pool.pin(this.cursor);
+			this.pool.markDirty(this.cursor);
+			this.itemCodec.write(p, NODE_HEADER + this.index * this.entrySize + this.keySize, x);
+			this.pool.unpin(this.cursor);
+			this.commit();
+		}
+		catch(RuntimeException e) {
+			this.abort();
+			throw e;
+		}
+	}
+
+	/**
+	 * Remove the current item from the tree, leaving the cursor on its successor.
+	 * @timing O(log n) page reads, plus one log write
+	 */
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( !itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item to delete.");
+		this.delete(this.itemKey());
+	}
+
+	/**
+	 * The keys of the tree, one node per line, with each node's children below it.
+	 */
+	public String toString() {
+		if( this.isEmpty() ) return "Empty Tree";
+		return this.toStringByLevel(this.root, 1);
+	}
+
+	protected String toStringByLevel(int pageNo, int i) {
+		StringBuffer result = new StringBuffer();
+		result.append("\n");
+		for(int j = 0; j < i - 1; j++)
+			result.append("     ");
+		result.append(i).append(":");
+		ByteBuffer p = this.pool.pin(pageNo);
+		boolean leaf = isLeaf(p);
+		int n = numKeys(p);
+		int[] children = new int[leaf ? 0 : n + 1];
+		for(int j = 0; j < n; j++)
+			result.append(j == 0 ? "" : " ").append(leaf ? this.leafKey(p, j) : this.internalKey(p, j));
+		for(int j = 0; j < children.length; j++)
+			children[j] = child(p, j);
+		this.pool.unpin(pageNo);
+		for(int c : children)
+			result.append(this.toStringByLevel(c, i + 1));
+		return result.toString();
+	}
+
+	/**
+	 * Check the ordering, fill and linking of the subtree at page pageNo, whose
+	 * keys must be in [lo, hi), printing an error for any violation.
+	 * @return the number of levels of the subtree.
+	 */
+	protected int check(int pageNo, K lo, K hi, boolean isRoot) {
+		ByteBuffer p = this.pool.pin(pageNo);
+		try {
+			boolean leaf = isLeaf(p);
+			int n = numKeys(p);
+			K last = null;
+			for(int j = 0; j < n; j++) {
+				K key = leaf ? this.leafKey(p, j) : this.internalKey(p, j);
+				if( (lo != null && key.compareTo(lo) < 0) || (hi != null && key.compareTo(hi) >= 0) || (last != null && key.compareTo(last) <= 0) )
+					System.out.println("Error: key " + key + " in page " + pageNo + " is out of order.");
+				last = key;
+			}
+			int min = leaf ? this.leafMin : this.internalMin;
+			int max = leaf ? this.leafFanout : this.internalFanout;
+			if( entries(p) > max || (!isRoot && entries(p) < min) )
+				System.out.println("Error: page " + pageNo + " has " + entries(p) + " entries.");
+			if( leaf ) return 1;
+			int height = -1;
+			for(int j = 0; j <= n; j++) {
+				int h = this.check(child(p, j), j == 0 ? lo : this.internalKey(p, j - 1), j == n ? hi : this.internalKey(p, j), false);
+				if( height >= 0 && h != height )
+					System.out.println("Error: leaves below page " + pageNo + " are at different depths.");
+				height = h;
+			}
+			return height + 1;
+		}
+		finally {
+			this.pool.unpin(pageNo);
+		}
+	}
+
+	/**
+	 * Check the whole tree, including that the linked leaves hold exactly
+	 * count() items in order, printing an error for any violation.
+	 */
+	protected void check() {
+		if( this.isEmpty() ) {
+			if( this.count != 0 ) System.out.println("Error: empty tree has count " + this.count + ".");
+			return;
+		}
+		this.check(this.root, null, null, true);
+		int n = 0;
+		int leaves = 0;
+		for(int leaf = this.firstLeaf; leaf != NONE; leaves++) {
+			if( leaves == this.numPages ) {
+				System.out.println("Error: the linked leaves form a cycle.");
+				return;
+			}
+			ByteBuffer p = this.pool.pin(leaf);
+			n += numKeys(p);
+			int next = next(p);
+			this.pool.unpin(leaf);
+			leaf = next;
+		}
+		if( n != this.count )
+			System.out.println("Error: the leaves hold " + n + " items but the count is " + this.count + ".");
+		for(int f = 0; f < this.pool.capacity(); f++)
+			if( this.pool.pinCount[f] != 0 )
+				System.out.println("Error: page " + this.pool.pageOf[f] + " is still pinned.");
+	}
+
+	/** A quest record: an id, which is its key, a reward and a level. */
+	protected static class Quest implements Keyed280<Integer> {
+		int id;
+		long reward;
+		int level;
+
+		Quest(int id, long reward, int level) {
+			this.id = id;
+			this.reward = reward;
+			this.level = level;
+		}
+
+		@Override
+		public Integer key() {
+			return id;
+		}
+	}
+
+	/** Stores a Quest in 16 bytes.  A negative level fails part way through
+		writing, to test that a failed operation changes nothing. */
+	protected static final PageCodec280<Quest> QUEST = new PageCodec280<Quest>() {
+		public int size() {
+			return 16;
+		}
+
+		public void write(ByteBuffer b, int offset, Quest q) {
+			b.putInt(offset, q.id);
+			b.putLong(offset + 4, q.reward);
+			if( q.level < 0 )
+				throw new InvalidArgument280Exception("A quest cannot have a negative level.");
+			b.putInt(offset + 12, q.level);
+		}
+
+		public Quest read(ByteBuffer b, int offset) {
+			return new Quest(b.getInt(offset), b.getLong(offset + 4), b.getInt(offset + 12));
+		}
+	};
+
+	public static void main(String args[]) throws IOException {
+		File f = File.createTempFile("quests", ".bpt");
+		String name = f.getPath();
+		f.delete();
+		File wal = new File(name + ".wal");
+
+		// Small pages and a small pool, so that there are many levels and many evictions.
+		PagedBPlusTree280<Integer, Quest> T = new PagedBPlusTree280<Integer, Quest>(name, PageCodec280.INTEGER, QUEST, 128, 16);
+		T.setSyncOnCommit(false);
+		if( !T.isEmpty() || T.has(1) ) System.out.println("Error: new tree is not empty.");
+		try {
+			T.goFirst();
+			System.out.println("Error: expected ContainerEmpty280 exception calling goFirst() on empty tree, got none.");
+		}
+		catch(ContainerEmpty280Exception e) {
+		}
+
+		// Insert the even numbers 0..3998 in a scrambled order.
+		int n = 2000;
+		for(int i = 0; i < n; i++) {
+			int id = 2 * ((i * 773) % n);
+			T.insert(new Quest(id, 10L * id, id % 50));
+		}
+		T.check();
+		if( T.count() != n ) System.out.println("Error: count is " + T.count() + ", expected " + n + ".");
+		if( T.height() < 3 ) System.out.println("Error: expected a tree at least 3 levels deep, got " + T.height() + ".");
+		for(int i = 0; i < 2 * n; i++)
+			if( T.has(i) != (i % 2 == 0) ) System.out.println("Error: has(" + i + ") is wrong.");
+		if( T.obtain(500).reward != 5000 ) System.out.println("Error: obtain(500) returned the wrong item.");
+		if( T.pool().misses() == 0 ) System.out.println("Error: a 16 page pool should have had to read pages.");
+		try {
+			T.insert(new Quest(10, 0, 0));
+			System.out.println("Error: expected DuplicateItems280Exception, got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+		}
+		try {
+			T.delete(11);
+			System.out.println("Error: expected ItemNotFound280Exception deleting an absent key, got none.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+		T.check();
+
+		// Iterate in order, and scan a range.
+		int expected = 0;
+		for(T.goFirst(); T.itemExists(); T.goForth()) {
+			if( T.itemKey() != expected ) System.out.println("Error: iteration gave " + T.itemKey() + ", expected " + expected + ".");
+			expected += 2;
+		}
+		if( expected != 2 * n || !T.after() ) System.out.println("Error: iteration did not end after the last item.");
+		int inRange = 0;
+		for(T.searchCeilingOf(101); T.itemExists() && T.itemKey() <= 201; T.goForth())
+			inRange++;
+		if( inRange != 50 ) System.out.println("Error: scan of [101, 201] visited " + inRange + " items, expected 50.");
+		T.search(37);
+		if( !T.after() ) System.out.println("Error: search for an absent key should leave the cursor after the end.");
+
+		// The cursor follows its item through inserts and deletes.
+		T.search(600);
+		T.insert(new Quest(601, 0, 0));
+		T.delete(598);
+		if( !T.itemExists() || T.itemKey() != 600 ) System.out.println("Error: cursor did not stay on 600 through an insert and a delete.");
+		T.deleteItem();
+		if( !T.itemExists() || T.itemKey() != 601 ) System.out.println("Error: deleteItem() should leave the cursor on the successor.");
+		T.deleteItem();
+		T.insert(new Quest(598, 5980, 48));
+		T.insert(new Quest(600, 6000, 0));
+
+		// Items are copies: changes are stored with set and setItem.
+		T.search(100);
+		T.setItem(new Quest(100, 1, 2));
+		T.set(new Quest(102, 3, 4));
+		if( T.obtain(100).reward != 1 || T.obtain(102).level != 4 ) System.out.println("Error: setItem or set did not store the new item.");
+		T.check();
+
+		// A set or setItem that fails part way is undone.
+		try {
+			T.set(new Quest(104, 99, -1));
+			System.out.println("Error: expected InvalidArgument280Exception from set(), got none.");
+		}
+		catch(InvalidArgument280Exception e) {
+		}
+		if( T.obtain(104).reward != 1040 ) System.out.println("Error: a failed set() changed the item.");
+		T.search(106);
+		try {
+			T.setItem(new Quest(106, 99, -1));
+			System.out.println("Error: expected InvalidArgument280Exception from setItem(), got none.");
+		}
+		catch(InvalidArgument280Exception e) {
+		}
+		if( T.obtain(106).reward != 1060 ) System.out.println("Error: a failed setItem() changed the item.");
+		T.check();
+
+		// So is an insert whose item cannot be written, whether or not it
+		// would have split a leaf.
+		for(int bad = 5; bad < 2 * n; bad += 398) {
+			try {
+				T.insert(new Quest(bad, bad, -1));
+				System.out.println("Error: expected InvalidArgument280Exception inserting a bad item, got none.");
+			}
+			catch(InvalidArgument280Exception e) {
+			}
+			if( T.has(bad) || !T.has(bad + 1) || T.count() != n ) System.out.println("Error: a failed insert of " + bad + " changed the tree.");
+		}
+		expected = 0;
+		for(T.goFirst(); T.itemExists(); T.goForth()) {
+			if( T.itemKey() != expected ) System.out.println("Error: after a failed insert, iteration gave " + T.itemKey() + ", expected " + expected + ".");
+			expected += 2;
+		}
+		if( expected != 2 * n ) System.out.println("Error: after a failed insert, iteration stopped at " + expected + ".");
+		T.check();
+
+		// Close and reopen: everything is still there.
+		T.close();
+		if( wal.length() != 0 ) System.out.println("Error: the log should be empty after close().");
+		T = new PagedBPlusTree280<Integer, Quest>(name, PageCodec280.INTEGER, QUEST, 128, 16);
+		T.check();
+		if( T.count() != n || !T.has(3998) || T.obtain(100).reward != 1 ) System.out.println("Error: the tree changed when it was closed and reopened.");
+		for(int bad = 5; bad < 2 * n; bad += 398)
+			if( T.has(bad) || !T.has(bad + 1) ) System.out.println("Error: a failed insert of " + bad + " was saved to the file.");
+
+		// Delete half, then "crash" without flushing: every finished operation
+		// must survive, through the log.
+		for(int i = 0; i < n; i += 2)
+			T.delete(2 * i);
+		T.insert(new Quest(5001, 7, 7));
+		T.closeFiles();
+		if( wal.length() == 0 ) System.out.println("Error: the log should hold the operations since the last checkpoint.");
+
+		// A torn write at the end of the log must be ignored.
+		FileChannel w = FileChannel.open(wal.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		ByteBuffer torn = ByteBuffer.allocate(100);
+		torn.putInt(0, 3);
+		w.write(torn);
+		w.close();
+
+		T = new PagedBPlusTree280<Integer, Quest>(name, PageCodec280.INTEGER, QUEST, 128, 16);
+		T.check();
+		if( T.count() != n / 2 + 1 ) System.out.println("Error: after recovery the count is " + T.count() + ", expected " + (n / 2 + 1) + ".");
+		for(int i = 0; i < 2 * n; i++)
+			if( T.has(i) != (i % 4 == 2) ) System.out.println("Error: after recovery has(" + i + ") is wrong.");
+		if( !T.has(5001) ) System.out.println("Error: the last insert before the crash was lost.");
+
+		// Delete the rest; freed pages are reused.
+		for(int i = 1; i < n; i += 2)
+			T.delete(2 * i);
+		T.delete(5001);
+		if( !T.isEmpty() || T.count() != 0 ) System.out.println("Error: tree is not empty after deleting every item.");
+		int pagesBefore = T.numPages;
+		for(int i = 0; i < 100; i++)
+			T.insert(new Quest(i, i, i));
+		if( T.numPages != pagesBefore ) System.out.println("Error: freed pages were not reused.");
+		T.check();
+		T.clear();
+		if( !T.isEmpty() ) System.out.println("Error: tree is not empty after clear().");
+		T.close();
+
+		// Without sync, a power failure loses the batches not yet forced to
+		// the log.  Evicted pages force the log first, so what is left is the
+		// tree as of some earlier insert, not a mixture.
+		T = new PagedBPlusTree280<Integer, Quest>(name, PageCodec280.INTEGER, QUEST, 128, 16);
+		T.setSyncOnCommit(false);
+		int m = 200;
+		for(int i = 0; i < m; i++)
+			T.insert(new Quest(i, i, i));
+		long forcedSize = T.log.forcedSize;
+		if( forcedSize == 0 ) System.out.println("Error: evicting committed pages should have forced the log.");
+		if( forcedSize == wal.length() ) System.out.println("Error: the last inserts should not have been forced to the log yet.");
+		T.closeFiles();
+		w = FileChannel.open(wal.toPath(), StandardOpenOption.WRITE);
+		w.truncate(forcedSize);
+		w.close();
+		T = new PagedBPlusTree280<Integer, Quest>(name, PageCodec280.INTEGER, QUEST, 128, 16);
+		T.check();
+		int kept = T.count();
+		if( kept == 0 || kept >= m ) System.out.println("Error: expected some but not all inserts to survive the power failure, got " + kept + ".");
+		for(int i = 0; i < m; i++)
+			if( T.has(i) != (i < kept) ) System.out.println("Error: after the power failure has(" + i + ") is wrong.");
+		T.close();
+
+		// Opening with a different page size must fail.
+		try {
+			new PagedBPlusTree280<Integer, Quest>(name, PageCodec280.INTEGER, QUEST, 256, 16);
+			System.out.println("Error: expected Storage280Exception opening with a different page size, got none.");
+		}
+		catch(Storage280Exception e) {
+		}
+
+		new File(name).delete();
+		wal.delete();
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,19 @@
+package lib280.tree;
+
+import lib280.base.CursorPosition280;
+
+/**
+ * A saved cursor position of a PagedBPlusTree280: a leaf page and a position in it.
+ * It is only valid until the tree is next changed.
+ */
+public class PagedBPlusTreePosition280 implements CursorPosition280 {
+	int page;
+	int index;
+	boolean pastEnd;
+
+	PagedBPlusTreePosition280(int page, int index, boolean pastEnd) {
+		this.page = page;
+		this.index = index;
+		this.pastEnd = pastEnd;
+	}
+}
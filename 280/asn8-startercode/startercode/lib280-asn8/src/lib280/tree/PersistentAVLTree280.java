@@ -0,0 +1,397 @@
+package lib280.tree;
+
+import lib280.base.BasicDict280;
+import lib280.exception.ItemNotFound280Exception;
+
+/**
+ * A persistent AVL tree: insert and delete never change a node that is
+ * already in the tree.  Instead they copy the nodes on the path from the
+ * root to the change (path copying) and return a new root, which shares
+ * every untouched subtree with the old one.  Every root ever returned is
+ * therefore an unchanging snapshot of the tree at that moment.
+ *
+ * The tree itself is a single volatile reference to the current root.
+ * Readers (has, obtain, iterator) read it once and work on that snapshot
+ * with no locks, so they never see a half-finished update and never block
+ * writers.  Writers are serialized by synchronizing on the tree; each
+ * builds the new version off to the side and publishes it with one
+ * volatile write, which also publishes the fields of the new nodes.
+ *
+ * There is no shared cursor as in AVLTree280: each reader that wants to
+ * walk the tree gets its own iterator over a snapshot, which stays valid
+ * however the tree changes afterwards.
+ */
+public class PersistentAVLTree280<I extends Comparable<? super I>> implements BasicDict280<I> {
+
+	/** The current version of the tree; null if it is empty. */
+	protected volatile AVLTreeNode280<I> root;
+
+	/**
+	 * Create an empty tree.
+	 * @timing O(1)
+	 */
+	public PersistentAVLTree280() {
+		this.root = null;
+	}
+
+	/**
+	 * The root of the current version of the tree.  The nodes reachable from
+	 * it will never change, so it can be read by any thread without locking.
+	 * @timing O(1)
+	 * @return the current root, or null if the tree is empty.
+	 */
+	public AVLTreeNode280<I> root() {
+		return this.root;
+	}
+
+	/**
+	 * Height of the subtree rooted at n.
+	 * @timing O(1)
+	 */
+	protected static <I extends Comparable<? super I>> int height(AVLTreeNode280<I> n) {
+		return n == null ? 0 : Math.max(n.getLtHeight(), n.getRtHeight()) + 1;
+	}
+
+	/**
+	 * A new node with the given item and children, with its heights set.
+	 * @timing O(1)
+	 */
+	protected static <I extends Comparable<? super I>> AVLTreeNode280<I> node(AVLTreeNode280<I> left, I item, AVLTreeNode280<I> right) {
+		AVLTreeNode280<I> n = new AVLTreeNode280<I>(item);
+		n.setLeftNode(left);
+		n.setRightNode(right);
+		n.setLtHeight(height(left));
+		n.setRtHeight(height(right));
+		return n;
+	}
+
+	/**
+	 * A node with the given item and children that satisfies the AVL property,
+	 * given that the heights of left and right differ by at most 2.  Only new
+	 * nodes are created; left and right are not changed.
+	 * @timing O(1)
+	 * @return the root of the balanced subtree.
+	 */
+	protected static <I extends Comparable<? super I>> AVLTreeNode280<I> balance(AVLTreeNode280<I> left, I item, AVLTreeNode280<I> right) {
+		int lh = height(left);
+		int rh = height(right);
+		if( lh > rh + 1 ) {
+			// Left heavy: single right rotation, or a double rotation if left is right heavy.
+			if( left.getLtHeight() >= left.getRtHeight() )
+				return node(left.leftNode(), left.item(), node(left.rightNode(), item, right));
+			AVLTreeNode280<I> lr = left.rightNode();
+			return node(node(left.leftNode(), left.item(), lr.leftNode()), lr.item(), node(lr.rightNode(), item, right));
+		}
+		if( rh > lh + 1 ) {
+			// Right heavy: single left rotation, or a double rotation if right is left heavy.
+			if( right.getRtHeight() >= right.getLtHeight() )
+				return node(node(left, item, right.leftNode()), right.item(), right.rightNode());
+			AVLTreeNode280<I> rl = right.leftNode();
+			return node(node(left, item, rl.leftNode()), rl.item(), node(rl.rightNode(), right.item(), right.rightNode()));
+		}
+		return node(left, item, right);
+	}
+
+	/**
+	 * The root of a new version of the tree rooted at n with x added.  Duplicates
+	 * go to the right of their equals, as in AVLTree280.  The nodes of the old
+	 * version are not changed, and all but the O(log n) on the path to x are
+	 * shared with the new one.
+	 * @timing O(log n)
+	 * @param n root of the version to add to; null for an empty tree
+	 * @param x item to add
+	 * @return the root of the new version.
+	 */
+	public static <I extends Comparable<? super I>> AVLTreeNode280<I> insert(AVLTreeNode280<I> n, I x) {
+		if( n == null )
+			return node(null, x, null);
+		if( x.compareTo(n.item()) < 0 )
+			return balance(insert(n.leftNode(), x), n.item(), n.rightNode());
+		else
+			return balance(n.leftNode(), n.item(), insert(n.rightNode(), x));
+	}
+
+	/**
+	 * The root of a new version of the tree rooted at n with one item equal to x
+	 * removed, sharing all but the nodes on the path to it with the old version.
+	 * @timing O(log n)
+	 * @param n root of the version to remove from
+	 * @param x item to remove
+	 * @return the root of the new version, or n itself if no item equals x.
+	 */
+	public static <I extends Comparable<? super I>> AVLTreeNode280<I> delete(AVLTreeNode280<I> n, I x) {
+		if( n == null )
+			return null;
+		int c = x.compareTo(n.item());
+		if( c < 0 ) {
+			AVLTreeNode280<I> left = delete(n.leftNode(), x);
+			return left == n.leftNode() ? n : balance(left, n.item(), n.rightNode());
+		}
+		if( c > 0 ) {
+			AVLTreeNode280<I> right = delete(n.rightNode(), x);
+			return right == n.rightNode() ? n : balance(n.leftNode(), n.item(), right);
+		}
+		if( n.leftNode() == null )
+			return n.rightNode();
+		if( n.rightNode() == null )
+			return n.leftNode();
+		// Replace n's item by its in-order successor, removed from the right subtree.
+		AVLTreeNode280<I> s = n.rightNode();
+		while( s.leftNode() != null )
+			s = s.leftNode();
+		return balance(n.leftNode(), s.item(), deleteFirst(n.rightNode()));
+	}
+
+	/**
+	 * The root of a new version of the tree rooted at n without its first item.
+	 * @precond n != null
+	 * @timing O(log n)
+	 */
+	protected static <I extends Comparable<? super I>> AVLTreeNode280<I> deleteFirst(AVLTreeNode280<I> n) {
+		if( n.leftNode() == null )
+			return n.rightNode();
+		return balance(deleteFirst(n.leftNode()), n.item(), n.rightNode());
+	}
+
+	/**
+	 * The node of the tree rooted at n holding an item equal to x.
+	 * @timing O(log n)
+	 * @return the node, or null if there is none.
+	 */
+	protected static <I extends Comparable<? super I>> AVLTreeNode280<I> find(AVLTreeNode280<I> n, I x) {
+		while( n != null ) {
+			int c = x.compareTo(n.item());
+			if( c < 0 )
+				n = n.leftNode();
+			else if( c > 0 )
+				n = n.rightNode();
+			else
+				return n;
+		}
+		return null;
+	}
+
+	/**
+	 * Does the current version of the tree contain an item equal to x?
+	 * Safe to call from any thread without locking.
+	 * @timing O(log n)
+	 */
+	@Override
+	public boolean has(I x) {
+		return find(this.root, x) != null;
+	}
+
+	/**
+	 * The item in the current version of the tree that is equal to y.
+	 * Safe to call from any thread without locking.
+	 * @timing O(log n)
+	 * @throws ItemNotFound280Exception if there is no such item.
+	 */
+	@Override
+	public I obtain(I y) throws ItemNotFound280Exception {
+		AVLTreeNode280<I> n = find(this.root, y);
+		if( n == null )
+			throw new ItemNotFound280Exception("The tree has no item equal to " + y + ".");
+		return n.item();
+	}
+
+	/**
+	 * Insert x, publishing a new version of the tree.  Duplicates are allowed.
+	 * Readers that already hold the old version are not affected.
+	 * @timing O(log n)
+	 */
+	@Override
+	public synchronized void insert(I x) {
+		this.root = insert(this.root, x);
+	}
+
+	/**
+	 * Delete one item equal to x, publishing a new version of the tree.
+	 * @precond has(x)
+	 * @timing O(log n)
+	 * @throws ItemNotFound280Exception if there is no item equal to x.
+	 */
+	@Override
+	public synchronized void delete(I x) throws ItemNotFound280Exception {
+		if( find(this.root, x) == null )
+			throw new ItemNotFound280Exception("The tree has no item equal to " + x + ", so it cannot be deleted.");
+		this.root = delete(this.root, x);
+	}
+
+	/**
+	 * An iterator over the current version of the tree.  It is not affected by
+	 * later inserts and deletes, and each thread can have its own.
+	 * @timing O(1)
+	 */
+	public PersistentAVLTreeIterator280<I> iterator() {
+		return new PersistentAVLTreeIterator280<I>(this.root);
+	}
+
+	@Override
+	public boolean membershipEquals(I x, I y) {
+		return x.compareTo(y) == 0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.root == null;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	/**
+	 * Remove every item, publishing an empty version of the tree.
+	 * @timing O(1)
+	 */
+	@Override
+	public synchronized void clear() {
+		this.root = null;
+	}
+
+	/**
+	 * The items of the current version, in order.
+	 * @timing O(n)
+	 */
+	public String toString() {
+		StringBuffer result = new StringBuffer();
+		PersistentAVLTreeIterator280<I> it = this.iterator();
+		if( !it.isEmpty() )
+			for(it.goFirst(); it.itemExists(); it.goForth())
+				result.append(it.item()).append(" ");
+		return result.toString();
+	}
+
+	/**
+	 * Check that the subtree rooted at n is ordered and AVL balanced, with
+	 * correct recorded heights.
+	 * @return the height of the subtree, or -1 if it is not valid.
+	 */
+	protected static <I extends Comparable<? super I>> int checkAVL(AVLTreeNode280<I> n) {
+		if( n == null ) return 0;
+		if( n.leftNode() != null && n.leftNode().item().compareTo(n.item()) > 0 ) return -1;
+		if( n.rightNode() != null && n.rightNode().item().compareTo(n.item()) < 0 ) return -1;
+		int lh = checkAVL(n.leftNode());
+		int rh = checkAVL(n.rightNode());
+		if( lh < 0 || rh < 0 || lh != n.getLtHeight() || rh != n.getRtHeight() || Math.abs(lh - rh) > 1 )
+			return -1;
+		return Math.max(lh, rh) + 1;
+	}
+
+	/**
+	 * Count the items of a snapshot iterator, checking that they are in
+	 * order.
+	 * @return the number of items, or -1 if they are out of order.
+	 */
+	protected static int countInOrder(PersistentAVLTreeIterator280<Integer> it) {
+		int count = 0;
+		Integer last = null;
+		for(it.goBefore(), it.goForth(); it.itemExists(); it.goForth()) {
+			if( last != null && it.item() < last ) return -1;
+			last = it.item();
+			count++;
+		}
+		return count;
+	}
+
+	public static void main(String args[]) {
+		final PersistentAVLTree280<Integer> T = new PersistentAVLTree280<Integer>();
+
+		if( !T.isEmpty() ) System.out.println("Error: new tree is not empty.");
+		if( !T.iterator().after() ) System.out.println("Error: iterator of an empty tree is not after the end.");
+
+		// Insert in order, the worst case for an unbalanced tree.
+		for(int i=0; i < 1000; i++) T.insert(i);
+		int h = checkAVL(T.root());
+		if( h < 0 ) System.out.println("Error: tree is not a valid AVL tree after inserts.");
+		if( h > 15 ) System.out.println("Error: tree of 1000 items has height " + h + ".");
+		for(int i=0; i < 1000; i++)
+			if( !T.has(i) ) System.out.println("Error: " + i + " not found after insert.");
+		if( T.has(-1) || T.has(1000) ) System.out.println("Error: found an item that was never inserted.");
+		if( T.obtain(500) != 500 ) System.out.println("Error: obtain(500) returned the wrong item.");
+
+		// An iterator taken now must not see later changes.
+		PersistentAVLTreeIterator280<Integer> old = T.iterator();
+		AVLTreeNode280<Integer> oldRoot = T.root();
+		for(int i=0; i < 1000; i += 2) T.delete(i);
+		for(int i=1000; i < 1100; i++) T.insert(i);
+		if( checkAVL(T.root()) < 0 ) System.out.println("Error: tree is not a valid AVL tree after deletes.");
+		if( checkAVL(oldRoot) < 0 ) System.out.println("Error: old version changed by later updates.");
+		if( countInOrder(old) != 1000 ) System.out.println("Error: old iterator did not see exactly the 1000 items of its version.");
+		if( countInOrder(T.iterator()) != 600 ) System.out.println("Error: new iterator did not see the 600 items of the current version.");
+		old.goLast();
+		if( old.item() != 999 ) System.out.println("Error: last item of old version should be 999, got " + old.item() + ".");
+		old.goBack();
+		if( old.item() != 998 ) System.out.println("Error: goBack from 999 in old version should give 998, got " + old.item() + ".");
+		if( T.has(998) ) System.out.println("Error: 998 still in the current version after delete.");
+
+		// The static operations return new versions and leave the old one alone.
+		AVLTreeNode280<Integer> r1 = insert(null, 5);
+		AVLTreeNode280<Integer> r2 = insert(r1, 7);
+		AVLTreeNode280<Integer> r3 = delete(r2, 5);
+		if( find(r1, 7) != null ) System.out.println("Error: static insert changed the old version.");
+		if( find(r2, 5) == null ) System.out.println("Error: static delete changed the old version.");
+		if( find(r3, 5) != null || find(r3, 7) == null ) System.out.println("Error: static delete produced the wrong version.");
+		if( delete(r3, 42) != r3 ) System.out.println("Error: deleting an absent item should return the same version.");
+
+		// Duplicates.
+		PersistentAVLTree280<Integer> D = new PersistentAVLTree280<Integer>();
+		for(int i=0; i < 50; i++) { D.insert(3); D.insert(i); }
+		D.delete(3);
+		D.delete(3);
+		if( countInOrder(D.iterator()) != 98 ) System.out.println("Error: wrong number of items after deleting duplicates.");
+		if( checkAVL(D.root()) < 0 ) System.out.println("Error: tree with duplicates is not a valid AVL tree.");
+
+		try {
+			T.delete(-5);
+			System.out.println("Error: deleting an absent item should throw ItemNotFound280Exception.");
+		}
+		catch(ItemNotFound280Exception e) { /* expected */ }
+		try {
+			T.obtain(-5);
+			System.out.println("Error: obtaining an absent item should throw ItemNotFound280Exception.");
+		}
+		catch(ItemNotFound280Exception e) { /* expected */ }
+
+		T.clear();
+		if( !T.isEmpty() || T.has(1) ) System.out.println("Error: tree not empty after clear.");
+
+		// Concurrent readers: while one thread inserts 0, 1, 2, ... in order,
+		// every snapshot a reader takes must be exactly some prefix 0..k-1.
+		final int N = 20000;
+		final PersistentAVLTree280<Integer> C = new PersistentAVLTree280<Integer>();
+		final boolean[] failed = new boolean[1];
+		final boolean[] done = new boolean[1];
+		Thread[] readers = new Thread[3];
+		for(int r=0; r < readers.length; r++) {
+			readers[r] = new Thread() {
+				public void run() {
+					boolean finished = false;
+					while( !finished ) {
+						synchronized( done ) { finished = done[0]; }
+						PersistentAVLTreeIterator280<Integer> it = C.iterator();
+						int expected = 0;
+						if( !it.isEmpty() ) for(it.goFirst(); it.itemExists(); it.goForth()) {
+							if( it.item() != expected ) { failed[0] = true; return; }
+							expected++;
+						}
+						if( expected > 0 && !C.has(expected - 1) ) { failed[0] = true; return; }
+					}
+				}
+			};
+			readers[r].start();
+		}
+		for(int i=0; i < N; i++) C.insert(i);
+		synchronized( done ) { done[0] = true; }
+		for(int r=0; r < readers.length; r++) {
+			try { readers[r].join(); }
+			catch(InterruptedException e) { System.out.println("Error: interrupted waiting for reader."); }
+		}
+		if( failed[0] ) System.out.println("Error: a reader saw a snapshot that was not a prefix of the inserts.");
+		if( countInOrder(C.iterator()) != N ) System.out.println("Error: concurrent test did not end with " + N + " items.");
+
+		System.out.println("Regression test complete.");
+	}
+}
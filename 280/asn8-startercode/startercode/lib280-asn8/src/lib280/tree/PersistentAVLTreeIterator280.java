@@ -0,0 +1,145 @@
+package lib280.tree;
+
+import lib280.base.BilinearIterator280;
+import lib280.exception.AfterTheEnd280Exception;
+import lib280.exception.BeforeTheStart280Exception;
+import lib280.exception.ContainerEmpty280Exception;
+import lib280.exception.NoCurrentItem280Exception;
+
+/**
+ * An in-order iterator over one version (snapshot) of a PersistentAVLTree280.
+ * The nodes of a version never change, so the iterator stays valid however
+ * the tree is changed after it was made, and any number of threads can each
+ * use their own iterator without locking.
+ */
+public class PersistentAVLTreeIterator280<I extends Comparable<? super I>> implements BilinearIterator280<I> {
+
+	/** Root of the version being iterated over. */
+	protected AVLTreeNode280<I> root;
+
+	/** The current node, or null if before the start or after the end. */
+	protected BinaryNode280<I> cur;
+
+	/** Ancestors of the current node. */
+	protected BinaryTreePath280<I> path;
+
+	/** If there is no current node, is the iterator after the end (rather than before the start)? */
+	protected boolean atEnd;
+
+	/**
+	 * Create an iterator, positioned before the start, over the version of a
+	 * tree rooted at root.
+	 * @timing O(1)
+	 */
+	public PersistentAVLTreeIterator280(AVLTreeNode280<I> root) {
+		this.root = root;
+		this.path = new BinaryTreePath280<I>();
+		this.goBefore();
+	}
+
+	/**
+	 * Is the version being iterated over empty?
+	 * @timing O(1)
+	 */
+	public boolean isEmpty() {
+		return this.root == null;
+	}
+
+	@Override
+	public boolean before() {
+		return this.cur == null && !this.atEnd;
+	}
+
+	@Override
+	public boolean after() {
+		return (this.cur == null && this.atEnd) || this.isEmpty();
+	}
+
+	@Override
+	public void goBefore() {
+		this.cur = null;
+		this.atEnd = false;
+		this.path.clear();
+	}
+
+	@Override
+	public void goAfter() {
+		this.cur = null;
+		this.atEnd = true;
+		this.path.clear();
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		if( this.isEmpty() )
+			throw new ContainerEmpty280Exception("Cannot move to the first item of an empty tree.");
+		this.path.clear();
+		this.cur = this.path.leftmost(this.root);
+	}
+
+	@Override
+	public void goLast() throws ContainerEmpty280Exception {
+		if( this.isEmpty() )
+			throw new ContainerEmpty280Exception("Cannot move to the last item of an empty tree.");
+		this.path.clear();
+		this.cur = this.path.rightmost(this.root);
+	}
+
+	/**
+	 * Advance to the next item in order.  From before the start, go to the first item.
+	 * @timing O(log n) worst case, O(1) amortized over a traversal
+	 */
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		if( this.after() )
+			throw new AfterTheEnd280Exception("Cannot advance to the next item when already after the end.");
+		if( this.before() )
+			this.goFirst();
+		else {
+			this.cur = this.path.successor(this.cur);
+			this.atEnd = this.cur == null;
+		}
+	}
+
+	/**
+	 * Move back to the previous item in order.  From after the end, go to the last item.
+	 * @timing O(log n) worst case, O(1) amortized over a traversal
+	 */
+	@Override
+	public void goBack() throws BeforeTheStart280Exception {
+		if( this.before() || this.isEmpty() )
+			throw new BeforeTheStart280Exception("Cannot move back when already before the start.");
+		if( this.after() )
+			this.goLast();
+		else {
+			this.cur = this.path.predecessor(this.cur);
+			this.atEnd = false;
+		}
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return this.cur.item();
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.cur != null;
+	}
+
+	/**
+	 * A copy of this iterator, at the same position in the same version, that
+	 * moves independently of it.
+	 * @timing O(log n)
+	 */
+	@SuppressWarnings("unchecked")
+	public PersistentAVLTreeIterator280<I> clone() throws CloneNotSupportedException {
+		PersistentAVLTreeIterator280<I> copy = (PersistentAVLTreeIterator280<I>) super.clone();
+		copy.path = new BinaryTreePath280<I>();
+		if( this.cur != null )
+			copy.path.find(this.root, this.cur);
+		return copy;
+	}
+}
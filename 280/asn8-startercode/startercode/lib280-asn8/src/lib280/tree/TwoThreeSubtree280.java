@@ -0,0 +1,21 @@
+package lib280.tree;
+
+import lib280.base.Keyed280;
+
+/**
+ * A 2-3 tree under construction by TwoThreeTree280's batch operations: its
+ * root (null if it is empty), its height (0 for a single leaf) and its
+ * smallest key, which becomes a separator key when it is joined to a tree
+ * on its left.
+ */
+class TwoThreeSubtree280<K extends Comparable<? super K>, I extends Keyed280<K>> {
+	TwoThreeNode280<K,I> root;
+	int height;
+	K min;
+
+	TwoThreeSubtree280(TwoThreeNode280<K,I> root, int height, K min) {
+		this.root = root;
+		this.height = height;
+		this.min = min;
+	}
+}
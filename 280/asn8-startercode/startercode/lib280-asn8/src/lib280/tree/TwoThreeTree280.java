@@ -5,9 +5,14 @@ import lib280.base.Keyed280;
 import lib280.base.Pair280;
 import lib280.dictionary.KeyedBasicDict280;
 import lib280.exception.DuplicateItems280Exception;
+import lib280.exception.InvalidArgument280Exception;
 import lib280.exception.InvalidState280Exception;
 import lib280.exception.ItemNotFound280Exception;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.Random;
 
 
@@ -540,6 +545,119 @@ public class TwoThreeTree280<K extends Comparable<? super K>, I extends Keyed280
 		}		
 	}	
 	
+	/**
+	 * Replace the contents of the tree by the items of a sorted array.  The
+	 * leaves are made in order and the internal levels are built on them
+	 * bottom-up, two or three children per node, so no item is inserted.
+	 * @precond the keys of the items are in increasing order
+	 * @timing O(n), where n = items.length
+	 * @throws InvalidArgument280Exception if the items are out of order.
+	 * @throws DuplicateItems280Exception if two items have the same key.
+	 */
+	protected void setFromSorted(I[] items) throws InvalidArgument280Exception, DuplicateItems280Exception {
+		for(int i = 1; i < items.length; i++) {
+			int c = items[i].key().compareTo(items[i - 1].key());
+			if( c < 0 ) throw new InvalidArgument280Exception("The items are not in order at position " + i + ".");
+			if( c == 0 ) throw new DuplicateItems280Exception("Key " + items[i].key() + " appears twice.");
+		}
+		this.clear();
+		this.batchLeaves = newNodeArray(items.length);
+		this.batchMins = newKeyArray(items.length);
+		LeafTwoThreeNode280<K,I> last = null;
+		for(int i = 0; i < items.length; i++) {
+			LeafTwoThreeNode280<K,I> x = createNewLeafNode(items[i]);
+			this.leafAddedAfter(x, last);
+			this.batchLeaves[i] = x;
+			this.batchMins[i] = x.getKey1();
+			last = x;
+		}
+		this.rootNode = buildFromLeaves(items.length, null).root;
+		this.batchLeaves = null;
+		this.batchMins = null;
+	}
+
+	/**
+	 * Gather the items produced by an iterator into an array.
+	 */
+	@SuppressWarnings("unchecked")
+	protected static <K extends Comparable<? super K>, I extends Keyed280<K>> I[] toArray(Iterator<? extends I> items) {
+		ArrayList<I> list = new ArrayList<I>();
+		while( items.hasNext() )
+			list.add(items.next());
+		return (I[]) list.toArray(new Keyed280<?>[list.size()]);
+	}
+
+	/**
+	 * A 2-3 tree of the items of a sorted array, built bottom-up.
+	 * @precond the keys of the items are in increasing order
+	 * @timing O(n), where n = items.length
+	 * @param items the items of the new tree, in order
+	 * @return a new tree of the items.
+	 * @throws InvalidArgument280Exception if the items are out of order.
+	 * @throws DuplicateItems280Exception if two items have the same key.
+	 */
+	public static <K extends Comparable<? super K>, I extends Keyed280<K>> TwoThreeTree280<K,I> bulkLoad(I[] items) throws InvalidArgument280Exception, DuplicateItems280Exception {
+		TwoThreeTree280<K,I> t = new TwoThreeTree280<K,I>();
+		t.setFromSorted(items);
+		return t;
+	}
+
+	/**
+	 * A 2-3 tree of the items produced by an iterator in sorted order, built
+	 * bottom-up.  The items are gathered into an array first.
+	 * @precond the keys of the items are in increasing order
+	 * @timing O(n), where n = number of items
+	 * @param items the items of the new tree, in order
+	 * @return a new tree of the items.
+	 * @throws InvalidArgument280Exception if the items are out of order.
+	 * @throws DuplicateItems280Exception if two items have the same key.
+	 */
+	public static <K extends Comparable<? super K>, I extends Keyed280<K>> TwoThreeTree280<K,I> bulkLoad(Iterator<? extends I> items) throws InvalidArgument280Exception, DuplicateItems280Exception {
+		TwoThreeTree280<K,I> t = new TwoThreeTree280<K,I>();
+		t.setFromSorted(TwoThreeTree280.<K,I>toArray(items));
+		return t;
+	}
+
+	/**
+	 * Check the subtree at p, printing an error for any violation: its keys
+	 * are in [lo, hi) (a null bound is open), each key of an internal node is
+	 * the smallest key of the subtree to its right, and all of its leaves are
+	 * at the same depth.
+	 * @return the height of the subtree, 0 for a leaf.
+	 */
+	protected int check(TwoThreeNode280<K,I> p, K lo, K hi) {
+		if( !p.isInternal() ) {
+			if( (lo != null && p.getKey1().compareTo(lo) < 0) || (hi != null && p.getKey1().compareTo(hi) >= 0) )
+				System.out.println("Error: leaf " + p.getKey1() + " is out of order.");
+			return 0;
+		}
+		if( p.getMiddleSubtree() == null )
+			System.out.println("Error: internal node with key " + p.getKey1() + " has only one child.");
+		TwoThreeNode280<K,I> c = p.getMiddleSubtree();
+		while( c.isInternal() ) c = c.getLeftSubtree();
+		if( c.getKey1().compareTo(p.getKey1()) != 0 )
+			System.out.println("Error: key1 " + p.getKey1() + " is not the smallest key of the middle subtree.");
+		int h = check(p.getLeftSubtree(), lo, p.getKey1());
+		if( check(p.getMiddleSubtree(), p.getKey1(), p.isRightChild() ? p.getKey2() : hi) != h )
+			System.out.println("Error: leaves below key " + p.getKey1() + " are at different depths.");
+		if( p.isRightChild() ) {
+			c = p.getRightSubtree();
+			while( c.isInternal() ) c = c.getLeftSubtree();
+			if( c.getKey1().compareTo(p.getKey2()) != 0 )
+				System.out.println("Error: key2 " + p.getKey2() + " is not the smallest key of the right subtree.");
+			if( check(p.getRightSubtree(), p.getKey2(), hi) != h )
+				System.out.println("Error: leaves below key " + p.getKey2() + " are at different depths.");
+		}
+		return h + 1;
+	}
+
+	/**
+	 * Check the whole tree, printing an error for any violation.
+	 */
+	protected void check() {
+		if( !this.isEmpty() ) this.check(this.rootNode, null, null);
+	}
+
 	public static void main(String args[]) {
 		
 		// Once again, an hackish unit test because I just didn't have time.  Sorry again.
@@ -605,6 +723,546 @@ public class TwoThreeTree280<K extends Comparable<? super K>, I extends Keyed280
 		
 	
 		}
+
+		// Batch insertions and deletions, against a java.util.TreeSet.
+		Random R = new Random(280);
+		java.util.TreeSet<Integer> expected = new java.util.TreeSet<Integer>();
+		T = new TwoThreeTree280<Integer, myItem>();
+		for(int round = 0; round < 300; round++) {
+			int universe = 1 + R.nextInt(round < 150 ? 60 : 3000);
+			if( R.nextBoolean() ) {
+				java.util.TreeSet<Integer> batch = new java.util.TreeSet<Integer>();
+				int size = R.nextInt(universe / 2 + 1);
+				for(int i = 0; i < size; i++) {
+					int k = R.nextInt(universe);
+					if( !expected.contains(k) ) batch.add(k);
+				}
+				myItem[] items = new myItem[batch.size()];
+				int j = 0;
+				for(Integer k : batch) items[j++] = new myItem(k);
+				java.util.Collections.shuffle(java.util.Arrays.asList(items), R);
+				T.insertAll(items);
+				expected.addAll(batch);
+			}
+			else {
+				Integer[] keys = new Integer[R.nextInt(universe + 1)];
+				for(int i = 0; i < keys.length; i++) {
+					keys[i] = R.nextInt(universe);
+					expected.remove(keys[i]);
+				}
+				T.deleteAll(keys);
+			}
+			T.check();
+			for(int k = -1; k <= universe; k++)
+				if( T.has(k) != expected.contains(k) )
+					System.out.println("Error: after batch round " + round + ", has(" + k + ") is " + T.has(k) + ".");
+			if( round % 50 == 49 ) {
+				// Empty the tree with one batch.
+				T.deleteAll(expected.toArray(new Integer[0]));
+				expected.clear();
+				if( !T.isEmpty() ) System.out.println("Error: deleting every key should empty the tree.");
+			}
+		}
+
+		T.insertAll(new myItem[] { new myItem(1), new myItem(5) });
+		try {
+			T.insertAll(new myItem[] { new myItem(3), new myItem(5) });
+			System.out.println("Error: expected DuplicateItems280Exception inserting a key already in the tree, got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+		}
+		try {
+			T.insertAll(new myItem[] { new myItem(7), new myItem(7) });
+			System.out.println("Error: expected DuplicateItems280Exception for a batch with a repeated key, got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+		}
+		if( T.has(3) || T.has(7) || !T.has(5) )
+			System.out.println("Error: a rejected batch should leave the tree unchanged.");
+
+		// Bulk loading from sorted items.
+		for(int n = 0; n <= 40; n++) {
+			myItem[] items = new myItem[n];
+			for(int i = 0; i < n; i++) items[i] = new myItem(3 * i);
+			TwoThreeTree280<Integer, myItem> B = TwoThreeTree280.bulkLoad(items);
+			B.check();
+			for(int k = -1; k <= 3 * n; k++)
+				if( B.has(k) != (k >= 0 && k % 3 == 0 && k < 3 * n) )
+					System.out.println("Error: tree bulk loaded from " + n + " items gives has(" + k + ") = " + B.has(k) + ".");
+			// The height is as small as possible: the least h with 3^(h-1) >= n.
+			int h = 1;
+			for(int capacity = 1; capacity < n; capacity *= 3) h++;
+			if( n > 0 && B.height() != h )
+				System.out.println("Error: tree bulk loaded from " + n + " items has height " + B.height() + ", expected " + h + ".");
+			B.insert(new myItem(1));
+			B.delete(0);
+			B.check();
+		}
+		myItem[] many = new myItem[100000];
+		for(int i = 0; i < many.length; i++) many[i] = new myItem(i);
+		TwoThreeTree280<Integer, myItem> B = TwoThreeTree280.bulkLoad(java.util.Arrays.asList(many).iterator());
+		B.check();
+		if( B.height() > 12 || !B.has(99999) ) System.out.println("Error: tree bulk loaded from 100000 items is wrong.");
+		try {
+			TwoThreeTree280.bulkLoad(new myItem[] { new myItem(1), new myItem(3), new myItem(2) });
+			System.out.println("Error: expected InvalidArgument280Exception bulk loading unsorted items, got none.");
+		}
+		catch(InvalidArgument280Exception e) {
+		}
+		try {
+			TwoThreeTree280.bulkLoad(new myItem[] { new myItem(1), new myItem(1) });
+			System.out.println("Error: expected DuplicateItems280Exception bulk loading a repeated key, got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+		}
+
+		System.out.println("Regression test complete.");
+	}
+
+	/*
+	 * Batch operations.  The batch is sorted and pushed down the tree in one
+	 * pass: at each node it is split among the children by the node's keys,
+	 * and only children that receive part of it are visited.  Each visited
+	 * node is rebuilt from its children's new subtrees by joining them left
+	 * to right, so it is rebalanced once, however many keys reach it.
+	 */
+
+	/** Buffer of leaves, and their keys, used while rebuilding the leaves under one node. */
+	protected TwoThreeNode280<K,I>[] batchLeaves;
+	protected K[] batchMins;
+
+	/** The leaves under one node before the batch is applied to them. */
+	protected TwoThreeNode280<K,I>[] batchOld;
+
+	/**
+	 * A new array of n nodes.
+	 */
+	@SuppressWarnings("unchecked")
+	protected TwoThreeNode280<K,I>[] newNodeArray(int n) {
+		return (TwoThreeNode280<K,I>[]) new TwoThreeNode280<?,?>[n];
+	}
+
+	/**
+	 * A new array of n keys.
+	 */
+	@SuppressWarnings("unchecked")
+	protected K[] newKeyArray(int n) {
+		return (K[]) new Comparable<?>[n];
+	}
+
+	/**
+	 * Called when a batch operation adds leaf x just after leaf pred (or as
+	 * the first leaf, if pred is null).  Subclasses that link the leaves
+	 * override this.
+	 */
+	protected void leafAddedAfter(LeafTwoThreeNode280<K,I> x, LeafTwoThreeNode280<K,I> pred) {
+	}
+
+	/**
+	 * Called when a batch operation adds leaf x just before leaf succ.
+	 */
+	protected void leafAddedBefore(LeafTwoThreeNode280<K,I> x, LeafTwoThreeNode280<K,I> succ) {
+	}
+
+	/**
+	 * Called when a batch operation removes leaf x from the tree.
+	 */
+	protected void leafRemoved(LeafTwoThreeNode280<K,I> x) {
+	}
+
+	/**
+	 * Position of the first of keys[from..to-1] that is not less than k.
+	 * @precond keys[from..to-1] is sorted
+	 */
+	protected static <K extends Comparable<? super K>> int lowerBound(K[] keys, int from, int to, K k) {
+		while( from < to ) {
+			int mid = (from + to) >>> 1;
+			if( keys[mid].compareTo(k) < 0 ) from = mid + 1;
+			else to = mid;
+		}
+		return from;
+	}
+
+	/**
+	 * The smallest key in the tree.
+	 * @precond !isEmpty()
+	 * @timing O(log n)
+	 */
+	protected K smallestKey() {
+		TwoThreeNode280<K,I> cur = this.rootNode;
+		while( cur.isInternal() )
+			cur = cur.getLeftSubtree();
+		return cur.getKey1();
+	}
+
+	/**
+	 * A 2-node with children left and middle, reusing node spare if it is not null.
+	 */
+	protected TwoThreeNode280<K,I> twoNode(TwoThreeNode280<K,I> spare, TwoThreeNode280<K,I> left, K key1, TwoThreeNode280<K,I> middle) {
+		if( spare == null )
+			return createNewInternalNode(left, key1, middle, null, null);
+		spare.setLeftSubtree(left);
+		spare.setKey1(key1);
+		spare.setMiddleSubtree(middle);
+		if( spare.isRightChild() ) {
+			spare.setKey2(null);
+			spare.setRightSubtree(null);
+		}
+		return spare;
+	}
+
+	/**
+	 * Add x, whose smallest key is k, as the rightmost child of internal node p.
+	 * @return null, or if p had three children, the new node holding its two
+	 * 		   rightmost children, and the key that separates it from p.
+	 */
+	protected Pair280<TwoThreeNode280<K,I>, K> addRightmost(TwoThreeNode280<K,I> p, TwoThreeNode280<K,I> x, K k) {
+		if( !p.isRightChild() ) {
+			p.setRightSubtree(x);
+			p.setKey2(k);
+			return null;
+		}
+		TwoThreeNode280<K,I> extra = createNewInternalNode(p.getRightSubtree(), k, x, null, null);
+		K separator = p.getKey2();
+		p.setKey2(null);
+		p.setRightSubtree(null);
+		return new Pair280<TwoThreeNode280<K,I>, K>(extra, separator);
+	}
+
+	/**
+	 * Add x as the leftmost child of internal node p, where k is the smallest
+	 * key of p's present leftmost child.
+	 * @return null, or if p had three children, the new node holding its two
+	 * 		   leftmost children, and the key that separates it from p.
+	 */
+	protected Pair280<TwoThreeNode280<K,I>, K> addLeftmost(TwoThreeNode280<K,I> p, TwoThreeNode280<K,I> x, K k) {
+		if( !p.isRightChild() ) {
+			p.setRightSubtree(p.getMiddleSubtree());
+			p.setKey2(p.getKey1());
+			p.setMiddleSubtree(p.getLeftSubtree());
+			p.setKey1(k);
+			p.setLeftSubtree(x);
+			return null;
+		}
+		TwoThreeNode280<K,I> extra = createNewInternalNode(x, k, p.getLeftSubtree(), null, null);
+		K separator = p.getKey1();
+		p.setLeftSubtree(p.getMiddleSubtree());
+		p.setKey1(p.getKey2());
+		p.setMiddleSubtree(p.getRightSubtree());
+		p.setKey2(null);
+		p.setRightSubtree(null);
+		return new Pair280<TwoThreeNode280<K,I>, K>(extra, separator);
+	}
+
+	/**
+	 * Join tree b, which is shorter, to the right of the subtree at p, of height h.
+	 * @return null, or a new node to be linked in to the right of p, and its smallest key.
+	 */
+	protected Pair280<TwoThreeNode280<K,I>, K> joinRight(TwoThreeNode280<K,I> p, int h, TwoThreeSubtree280<K,I> b) {
+		if( h == b.height + 1 )
+			return addRightmost(p, b.root, b.min);
+		Pair280<TwoThreeNode280<K,I>, K> extra = joinRight(p.isRightChild() ? p.getRightSubtree() : p.getMiddleSubtree(), h - 1, b);
+		if( extra == null ) return null;
+		return addRightmost(p, extra.firstItem(), extra.secondItem());
+	}
+
+	/**
+	 * Join tree a, which is shorter, to the left of the subtree at p, of
+	 * height h, whose smallest key is min.
+	 * @return null, or a new node to be linked in to the left of p, and the
+	 * 		   key that separates it from p.
+	 */
+	protected Pair280<TwoThreeNode280<K,I>, K> joinLeft(TwoThreeNode280<K,I> p, int h, TwoThreeSubtree280<K,I> a, K min) {
+		if( h == a.height + 1 )
+			return addLeftmost(p, a.root, min);
+		Pair280<TwoThreeNode280<K,I>, K> extra = joinLeft(p.getLeftSubtree(), h - 1, a, min);
+		if( extra == null ) return null;
+		return addLeftmost(p, extra.firstItem(), extra.secondItem());
+	}
+
+	/**
+	 * Join two trees, where every key of a is less than every key of b.  If a
+	 * new root is needed, spare is used for it if it is not null.
+	 * @timing O(1 + difference in the heights of a and b)
+	 * @return the joined tree, which is a or b, updated.
+	 */
+	protected TwoThreeSubtree280<K,I> join(TwoThreeSubtree280<K,I> a, TwoThreeSubtree280<K,I> b, TwoThreeNode280<K,I> spare) {
+		if( a.root == null ) return b;
+		if( b.root == null ) return a;
+		if( a.height == b.height ) {
+			a.root = twoNode(spare, a.root, b.min, b.root);
+			a.height++;
+		}
+		else if( a.height > b.height ) {
+			Pair280<TwoThreeNode280<K,I>, K> extra = joinRight(a.root, a.height, b);
+			if( extra != null ) {
+				a.root = twoNode(spare, a.root, extra.secondItem(), extra.firstItem());
+				a.height++;
+			}
+		}
+		else {
+			Pair280<TwoThreeNode280<K,I>, K> extra = joinLeft(b.root, b.height, a, b.min);
+			if( extra != null ) {
+				b.root = twoNode(spare, extra.firstItem(), extra.secondItem(), b.root);
+				b.height++;
+			}
+			b.min = a.min;
+			return b;
+		}
+		return a;
+	}
+
+	/**
+	 * Build a 2-3 tree over the first n leaves of batchLeaves, grouping them two
+	 * or three at a time, level by level.  Node spare is used for the first
+	 * internal node if it is not null.
+	 * @timing O(n)
+	 */
+	protected TwoThreeSubtree280<K,I> buildFromLeaves(int n, TwoThreeNode280<K,I> spare) {
+		if( n == 0 ) return new TwoThreeSubtree280<K,I>(null, 0, null);
+		K min = this.batchMins[0];
+		int height = 0;
+		while( n > 1 ) {
+			// Split the n nodes of this level into groups of 2 or 3, and replace
+			// each group by its parent.
+			int groups = (n + 2) / 3;
+			int from = 0;
+			for(int g = 0; g < groups; g++) {
+				int size = n / groups + (g < n % groups ? 1 : 0);
+				TwoThreeNode280<K,I> parent = twoNode(spare, this.batchLeaves[from], this.batchMins[from + 1], this.batchLeaves[from + 1]);
+				spare = null;
+				if( size == 3 ) {
+					parent.setRightSubtree(this.batchLeaves[from + 2]);
+					parent.setKey2(this.batchMins[from + 2]);
+				}
+				this.batchLeaves[g] = parent;
+				this.batchMins[g] = this.batchMins[from];
+				from += size;
+			}
+			n = groups;
+			height++;
+		}
+		return new TwoThreeSubtree280<K,I>(this.batchLeaves[0], height, min);
+	}
+
+	/**
+	 * Append leaf x to batchLeaves, which holds n leaves, growing it if needed.
+	 */
+	protected void addBatchLeaf(int n, TwoThreeNode280<K,I> x) {
+		if( this.batchLeaves == null || n == this.batchLeaves.length ) {
+			int capacity = this.batchLeaves == null ? 16 : 2 * n;
+			TwoThreeNode280<K,I>[] leaves = newNodeArray(capacity);
+			K[] mins = newKeyArray(capacity);
+			if( this.batchLeaves != null ) {
+				System.arraycopy(this.batchLeaves, 0, leaves, 0, n);
+				System.arraycopy(this.batchMins, 0, mins, 0, n);
+			}
+			this.batchLeaves = leaves;
+			this.batchMins = mins;
+		}
+		this.batchLeaves[n] = x;
+		this.batchMins[n] = x.getKey1();
+	}
+
+	/**
+	 * Apply the batch to a sequence of existing leaves, leaving the new
+	 * sequence of leaves in batchLeaves.
+	 * @param leaves the existing leaves, in order (at most 3)
+	 * @param numLeaves number of existing leaves
+	 * @param keys sorted keys of the batch
+	 * @param items items to insert, in the order of keys, or null to delete the keys
+	 * @return the number of leaves in batchLeaves.
+	 */
+	protected int mergeLeaves(TwoThreeNode280<K,I>[] leaves, int numLeaves, K[] keys, I[] items, int from, int to) {
+		int n = 0;
+		int e = 0;
+		int j = from;
+		if( items == null ) {
+			for(; e < numLeaves; e++) {
+				LeafTwoThreeNode280<K,I> leaf = (LeafTwoThreeNode280<K,I>) leaves[e];
+				j = lowerBound(keys, j, to, leaf.getKey1());
+				if( j < to && keys[j].compareTo(leaf.getKey1()) == 0 )
+					this.leafRemoved(leaf);
+				else
+					addBatchLeaf(n++, leaf);
+			}
+			return n;
+		}
+		while( e < numLeaves || j < to ) {
+			if( j == to || (e < numLeaves && leaves[e].getKey1().compareTo(keys[j]) < 0) )
+				addBatchLeaf(n++, leaves[e++]);
+			else {
+				LeafTwoThreeNode280<K,I> x = createNewLeafNode(items[j++]);
+				if( n > 0 )
+					this.leafAddedAfter(x, (LeafTwoThreeNode280<K,I>) this.batchLeaves[n - 1]);
+				else if( numLeaves > 0 )
+					this.leafAddedBefore(x, (LeafTwoThreeNode280<K,I>) leaves[0]);
+				else
+					this.leafAddedAfter(x, null);
+				addBatchLeaf(n++, x);
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Apply keys[from..to-1] of the batch to the subtree at internal node p.
+	 * @param p root of the subtree
+	 * @param h height of the subtree
+	 * @param min smallest key of the subtree
+	 * @param keys sorted keys of the batch
+	 * @param items items to insert, in the order of keys, or null to delete the keys
+	 * @return the new subtree, which may be empty, shorter or taller.
+	 */
+	protected TwoThreeSubtree280<K,I> applyBatch(TwoThreeNode280<K,I> p, int h, K min, K[] keys, I[] items, int from, int to) {
+		TwoThreeNode280<K,I> c0 = p.getLeftSubtree(), c1 = p.getMiddleSubtree(), c2 = p.getRightSubtree();
+		K k1 = p.getKey1(), k2 = c2 == null ? null : p.getKey2();
+
+		if( h == 1 ) {
+			// The children are leaves: rebuild them as a unit.
+			this.batchOld[0] = c0;
+			this.batchOld[1] = c1;
+			this.batchOld[2] = c2;
+			int n = mergeLeaves(this.batchOld, c2 == null ? 2 : 3, keys, items, from, to);
+			if( n < 2 || n > 3 )
+				return buildFromLeaves(n, p);
+			// Still two or three leaves: p stays their parent.
+			twoNode(p, this.batchLeaves[0], this.batchMins[1], this.batchLeaves[1]);
+			if( n == 3 ) {
+				p.setRightSubtree(this.batchLeaves[2]);
+				p.setKey2(this.batchMins[2]);
+			}
+			return new TwoThreeSubtree280<K,I>(p, 1, this.batchMins[0]);
+		}
+
+		int b1 = lowerBound(keys, from, to, k1);
+		int b2 = c2 == null ? to : lowerBound(keys, b1, to, k2);
+		TwoThreeSubtree280<K,I> t0 = from < b1 ? applyBatch(c0, h - 1, min, keys, items, from, b1) : null;
+		TwoThreeSubtree280<K,I> t1 = b1 < b2 ? applyBatch(c1, h - 1, k1, keys, items, b1, b2) : null;
+		TwoThreeSubtree280<K,I> t2 = b2 < to ? applyBatch(c2, h - 1, k2, keys, items, b2, to) : null;
+
+		// If every child that changed kept its height, just relink them.
+		if( (t0 == null || (t0.root != null && t0.height == h - 1))
+				&& (t1 == null || (t1.root != null && t1.height == h - 1))
+				&& (t2 == null || (t2.root != null && t2.height == h - 1)) ) {
+			TwoThreeSubtree280<K,I> result = t0 != null ? t0 : t1 != null ? t1 : t2;
+			if( t0 != null ) {
+				p.setLeftSubtree(t0.root);
+				min = t0.min;
+			}
+			if( t1 != null ) {
+				p.setMiddleSubtree(t1.root);
+				p.setKey1(t1.min);
+			}
+			if( t2 != null ) {
+				p.setRightSubtree(t2.root);
+				p.setKey2(t2.min);
+			}
+			result.root = p;
+			result.height = h;
+			result.min = min;
+			return result;
+		}
+
+		// Otherwise join the children's new subtrees, left to right.
+		if( t0 == null ) t0 = new TwoThreeSubtree280<K,I>(c0, h - 1, min);
+		if( t1 == null ) t1 = new TwoThreeSubtree280<K,I>(c1, h - 1, k1);
+		TwoThreeSubtree280<K,I> result = join(t0, t1, p);
+		TwoThreeNode280<K,I> spare = result.root == p ? null : p;
+		if( c2 != null ) {
+			if( t2 == null ) t2 = new TwoThreeSubtree280<K,I>(c2, h - 1, k2);
+			result = join(result, t2, spare);
+		}
+		return result;
+	}
+
+	/**
+	 * Apply a sorted batch to the whole tree.
+	 */
+	protected void applyBatch(K[] keys, I[] items) {
+		TwoThreeSubtree280<K,I> result;
+		this.batchOld = newNodeArray(3);
+		this.batchOld[0] = this.rootNode;
+		if( this.isEmpty() || !this.rootNode.isInternal() )
+			result = buildFromLeaves(mergeLeaves(this.batchOld, this.isEmpty() ? 0 : 1, keys, items, 0, keys.length), null);
+		else
+			result = applyBatch(this.rootNode, this.height() - 1, this.smallestKey(), keys, items, 0, keys.length);
+		this.rootNode = result.root;
+		this.batchOld = null;
+		this.batchLeaves = null;
+		this.batchMins = null;
+	}
+
+	/**
+	 * Does the subtree at p hold any of keys[from..to-1]?
+	 * @precond keys[from..to-1] is sorted
+	 */
+	protected boolean hasAny(TwoThreeNode280<K,I> p, K[] keys, int from, int to) {
+		if( !p.isInternal() ) {
+			int j = lowerBound(keys, from, to, p.getKey1());
+			return j < to && keys[j].compareTo(p.getKey1()) == 0;
+		}
+		int middle = lowerBound(keys, from, to, p.getKey1());
+		int right = p.isRightChild() ? lowerBound(keys, middle, to, p.getKey2()) : to;
+		return (from < middle && hasAny(p.getLeftSubtree(), keys, from, middle))
+				|| (middle < right && hasAny(p.getMiddleSubtree(), keys, middle, right))
+				|| (right < to && hasAny(p.getRightSubtree(), keys, right, to));
+	}
+
+	/**
+	 * Insert every item of a batch.  The batch is sorted (unless it already
+	 * is) and applied in one pass down the tree, visiting each affected node
+	 * once.  This is much faster than inserting the items one at a time when
+	 * their keys are close together, as when they are mostly new largest keys.
+	 * @param items the items to insert, in any order
+	 * @timing O(m log m + k) for m items, where k is the number of nodes on the
+	 * 		   paths to them; k is at most m log n, and much less when they are close together.
+	 * @throws DuplicateItems280Exception if two items have the same key, or an
+	 * 		   item's key is already in the tree; the tree is then unchanged.
+	 */
+	public void insertAll(I[] items) throws DuplicateItems280Exception {
+		if( items.length == 0 ) return;
+		K[] keys = newKeyArray(items.length);
+		boolean inOrder = true;
+		for(int i = 0; i < items.length; i++) {
+			keys[i] = items[i].key();
+			if( i > 0 && keys[i].compareTo(keys[i - 1]) <= 0 ) inOrder = false;
+		}
+		I[] sorted = items;
+		if( !inOrder ) {
+			sorted = Arrays.copyOf(items, items.length);
+			Arrays.sort(sorted, new Comparator<I>() {
+				public int compare(I x, I y) {
+					return x.key().compareTo(y.key());
+				}
+			});
+			for(int i = 0; i < sorted.length; i++) {
+				keys[i] = sorted[i].key();
+				if( i > 0 && keys[i].compareTo(keys[i - 1]) == 0 )
+					throw new DuplicateItems280Exception("Key " + keys[i] + " appears twice in the batch.");
+			}
+		}
+		if( !this.isEmpty() && hasAny(this.rootNode, keys, 0, keys.length) )
+			throw new DuplicateItems280Exception("A key in the batch already exists in the lib280.tree.");
+		applyBatch(keys, sorted);
+	}
+
+	/**
+	 * Delete the items with the given keys.  Keys that are not in the tree are
+	 * ignored, as by delete().  The keys are sorted (unless they already are)
+	 * and applied in one pass down the tree, visiting each affected node once.
+	 * @param keys the keys to delete, in any order
+	 * @timing O(m log m + k) for m keys, where k is the number of nodes on the paths to them
+	 */
+	public void deleteAll(K[] keys) {
+		if( keys.length == 0 || this.isEmpty() ) return;
+		K[] sorted = keys;
+		for(int i = 1; i < keys.length && sorted == keys; i++)
+			if( keys[i].compareTo(keys[i - 1]) < 0 ) {
+				sorted = Arrays.copyOf(keys, keys.length);
+				Arrays.sort(sorted);
+			}
+		applyBatch(sorted, null);
 	}
 
 	@Override
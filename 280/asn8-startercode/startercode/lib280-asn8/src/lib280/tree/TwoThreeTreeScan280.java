@@ -0,0 +1,103 @@
+package lib280.tree;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import lib280.base.Keyed280;
+
+/**
+ * An iterator over the items of an IterableTwoThreeTree280 whose keys lie in
+ * a range, in ascending or descending order.  It walks the linked leaves
+ * directly, comparing each key with the far end of the range, so a step
+ * takes O(1) time and allocates nothing; it does not use or move the tree's
+ * cursor.  The tree must not be changed while a scan is in progress.
+ */
+public class TwoThreeTreeScan280<K extends Comparable<? super K>, I extends Keyed280<K>> implements Iterator<I> {
+
+	/** The leaf holding the next item to return, or null if there is none. */
+	protected LinkedLeafTwoThreeNode280<K,I> node;
+
+	/** The end of the range at which the scan stops, or null if it runs to the end of the tree. */
+	protected K end;
+
+	/** Is the item with key 'end', if any, part of the scan? */
+	protected boolean endInclusive;
+
+	/** Does the scan follow the prev() links rather than the next() links? */
+	protected boolean descending;
+
+	/** If not null, the scan stops at the first key that does not start with this. */
+	protected String prefix;
+
+	/** The key of the item last returned by next(). */
+	protected K key;
+
+	/**
+	 * Create a scan starting at leaf first.
+	 * @param first the leaf holding the first item of the scan, or null for an empty scan
+	 * @param end the key at which the scan stops, or null to scan to the end of the tree
+	 * @param endInclusive whether the item with key end, if any, is returned
+	 * @param descending whether to scan in descending order
+	 * @param prefix if not null, the scan stops at the first key not starting with prefix
+	 */
+	protected TwoThreeTreeScan280(LinkedLeafTwoThreeNode280<K,I> first, K end, boolean endInclusive, boolean descending, String prefix) {
+		this.node = first;
+		this.end = end;
+		this.endInclusive = endInclusive;
+		this.descending = descending;
+		this.prefix = prefix;
+		this.stopIfPastEnd();
+	}
+
+	/**
+	 * Drop the current leaf, ending the scan, if its key is past the end of the range.
+	 */
+	protected void stopIfPastEnd() {
+		if( this.node == null ) return;
+		K k = this.node.getKey1();
+		if( this.end != null ) {
+			int c = k.compareTo(this.end);
+			if( this.descending ) c = -c;
+			if( c > 0 || (c == 0 && !this.endInclusive) ) {
+				this.node = null;
+				return;
+			}
+		}
+		if( this.prefix != null && !((String) k).startsWith(this.prefix) )
+			this.node = null;
+	}
+
+	/**
+	 * Is there another item in the scan?
+	 * @timing O(1)
+	 */
+	@Override
+	public boolean hasNext() {
+		return this.node != null;
+	}
+
+	/**
+	 * The next item of the scan.
+	 * @timing O(1)
+	 * @throws NoSuchElementException if the scan has ended.
+	 */
+	@Override
+	public I next() throws NoSuchElementException {
+		if( this.node == null )
+			throw new NoSuchElementException("The scan has no more items.");
+		I x = this.node.getData();
+		this.key = this.node.getKey1();
+		this.node = this.descending ? this.node.prev() : this.node.next();
+		this.stopIfPastEnd();
+		return x;
+	}
+
+	/**
+	 * The key of the item last returned by next(), without calling its key() method.
+	 * @precond next() has been called
+	 * @timing O(1)
+	 */
+	public K key() {
+		return this.key;
+	}
+}
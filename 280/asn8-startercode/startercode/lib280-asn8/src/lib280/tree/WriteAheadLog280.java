@@ -0,0 +1,262 @@
+package lib280.tree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import lib280.exception.Storage280Exception;
+
+/**
+ * A redo log of whole page images for a paged file.  Each commit appends one
+ * batch: the number of pages, then each page number and image, then a CRC32
+ * of the batch.  A batch counts only once it is completely on disk with a
+ * matching checksum, so a crash part way through appending one (a torn
+ * write) loses just that batch, and the pages it holds are never applied.
+ *
+ * The log is replayed into the paged file when the file is opened, and
+ * truncated once every page in it has been written to the file (a checkpoint).
+ *
+ * Batches are numbered from 1 in the order they are appended.  A page image
+ * from batch b must not be written to the paged file until the log is on disk
+ * through batch b (the write-ahead rule); otherwise a power failure could
+ * lose the batch while keeping some of its pages, leaving, say, half of a
+ * split in the file.  When append() does not wait for the disk, the buffer
+ * pool keeps the rule by calling forceThrough() before each write back.
+ */
+public class WriteAheadLog280 {
+
+	/** The log file. */
+	protected FileChannel channel;
+
+	/** Size of each page image. */
+	protected int pageSize;
+
+	/** Should append() wait until the batch is on disk? */
+	protected boolean sync;
+
+	/** Number of the last batch appended, and of the last one known to be on disk. */
+	protected long appended, forced;
+
+	/** Size of the log when it was last known to be on disk. */
+	protected long forcedSize;
+
+	/** Buffer in which batches are assembled; grows as needed. */
+	protected ByteBuffer batch;
+
+	/** Checksum of the batch being written or read. */
+	protected CRC32 crc;
+
+	/**
+	 * Open, or create, the log in the named file.
+	 * @param fileName name of the log file
+	 * @param pageSize size of each page image
+	 * @throws Storage280Exception if the file cannot be opened.
+	 */
+	public WriteAheadLog280(String fileName, int pageSize) throws Storage280Exception {
+		try {
+			this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+		catch(IOException e) {
+			throw new Storage280Exception("Cannot open the log file " + fileName + ".", e);
+		}
+		this.pageSize = pageSize;
+		this.sync = true;
+		this.batch = ByteBuffer.allocate(4 + 8 * (4 + pageSize) + 8);
+		this.crc = new CRC32();
+	}
+
+	/**
+	 * Choose whether each append waits for the batch to reach the disk.  If not,
+	 * a power failure can lose the last few batches that were appended, but
+	 * never one whose pages have reached the paged file.
+	 * @timing O(1)
+	 */
+	public void setSync(boolean sync) {
+		this.sync = sync;
+	}
+
+	/**
+	 * Append one batch holding the images of n pages, and (if sync) wait until
+	 * it is on disk.  When this returns, the batch will survive a crash of the
+	 * program; it survives a power failure only if sync is on, or once
+	 * forceThrough() has been called with its number.
+	 * @param pageNos page numbers of the images
+	 * @param pages the images; pages[i] is page pageNos[i]
+	 * @param n number of images
+	 * @timing O(n * pageSize) plus the time to reach the disk
+	 * @return the number of the batch.
+	 * @throws Storage280Exception if the batch cannot be written.
+	 */
+	public long append(int[] pageNos, byte[][] pages, int n) throws Storage280Exception {
+		int length = 4 + n * (4 + this.pageSize) + 8;
+		if( this.batch.capacity() < length )
+			this.batch = ByteBuffer.allocate(Math.max(length, 2 * this.batch.capacity()));
+		this.batch.clear();
+		this.batch.putInt(n);
+		for(int i = 0; i < n; i++) {
+			this.batch.putInt(pageNos[i]);
+			this.batch.put(pages[i], 0, this.pageSize);
+		}
+		this.crc.reset();
+		this.crc.update(this.batch.array(), 0, this.batch.position());
+		this.batch.putLong(this.crc.getValue());
+		this.batch.flip();
+		long start = -1;
+		try {
+			start = this.channel.size();
+			long position = start;
+			while( this.batch.hasRemaining() )
+				position += this.channel.write(this.batch, position);
+			this.appended++;
+			if( this.sync ) {
+				this.channel.force(false);
+				this.forced = this.appended;
+				this.forcedSize = position;
+			}
+		}
+		catch(IOException e) {
+			// Cut off any part of the batch that was written, so that later
+			// batches are not hidden behind it when the log is replayed.
+			try {
+				if( start >= 0 ) this.channel.truncate(start);
+			}
+			catch(IOException ignored) {
+			}
+			throw new Storage280Exception("Cannot append to the log.", e);
+		}
+		return this.appended;
+	}
+
+	/**
+	 * Wait until every batch up to and including batch b is on disk.
+	 * @param b number of a batch returned by append()
+	 * @timing O(1) if batch b is already on disk, otherwise the time to reach the disk
+	 * @throws Storage280Exception if the log cannot be written.
+	 */
+	public void forceThrough(long b) throws Storage280Exception {
+		if( b <= this.forced ) return;
+		this.force();
+	}
+
+	/**
+	 * Wait until every batch appended so far is on disk.
+	 * @timing the time to reach the disk
+	 * @throws Storage280Exception if the log cannot be written.
+	 */
+	public void force() throws Storage280Exception {
+		try {
+			this.channel.force(false);
+			this.forced = this.appended;
+			this.forcedSize = this.channel.size();
+		}
+		catch(IOException e) {
+			throw new Storage280Exception("Cannot write the log to disk.", e);
+		}
+	}
+
+	/**
+	 * Read exactly length bytes at position into the batch buffer.
+	 * @return false if the log ends first.
+	 */
+	protected boolean readFully(long position, int length) throws IOException {
+		if( this.batch.capacity() < length )
+			this.batch = ByteBuffer.allocate(length);
+		this.batch.clear();
+		this.batch.limit(length);
+		while( this.batch.hasRemaining() ) {
+			int read = this.channel.read(this.batch, position + this.batch.position());
+			if( read < 0 ) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Write the pages of every complete batch of the log, in order, to file,
+	 * and wait until they are on disk.  The log is forced first, so that no
+	 * page reaches the file before its batch.  Replaying a log more than once
+	 * gives the same result.
+	 * @param file the paged file
+	 * @timing O(size of the log)
+	 * @return the number of batches applied.
+	 * @throws Storage280Exception if the log cannot be read or the file written.
+	 */
+	public int replay(FileChannel file) throws Storage280Exception {
+		int applied = 0;
+		try {
+			this.channel.force(false);
+			long position = 0;
+			long size = this.channel.size();
+			this.forced = this.appended;
+			this.forcedSize = size;
+			while( position + 4 <= size ) {
+				if( !this.readFully(position, 4) ) break;
+				int n = this.batch.getInt(0);
+				long length = 4 + (long) n * (4 + this.pageSize) + 8;
+				if( n < 0 || position + length > size ) break;
+				if( !this.readFully(position, (int) length) ) break;
+				this.crc.reset();
+				this.crc.update(this.batch.array(), 0, (int) length - 8);
+				if( this.batch.getLong((int) length - 8) != this.crc.getValue() ) break;
+				for(int i = 0; i < n; i++) {
+					int offset = 4 + i * (4 + this.pageSize);
+					int pageNo = this.batch.getInt(offset);
+					ByteBuffer image = ByteBuffer.wrap(this.batch.array(), offset + 4, this.pageSize);
+					long at = (long) pageNo * this.pageSize;
+					while( image.hasRemaining() )
+						at += file.write(image, at);
+				}
+				position += length;
+				applied++;
+			}
+			file.force(true);
+		}
+		catch(IOException e) {
+			throw new Storage280Exception("Cannot replay the log.", e);
+		}
+		return applied;
+	}
+
+	/**
+	 * Size of the log in bytes.
+	 * @timing O(1)
+	 */
+	public long size() throws Storage280Exception {
+		try {
+			return this.channel.size();
+		}
+		catch(IOException e) {
+			throw new Storage280Exception("Cannot read the size of the log.", e);
+		}
+	}
+
+	/**
+	 * Empty the log.  Only safe once every page in it is on disk in the paged file.
+	 * @timing O(1)
+	 */
+	public void truncate() throws Storage280Exception {
+		try {
+			this.channel.truncate(0);
+			this.channel.force(true);
+			this.forced = this.appended;
+			this.forcedSize = 0;
+		}
+		catch(IOException e) {
+			throw new Storage280Exception("Cannot truncate the log.", e);
+		}
+	}
+
+	/**
+	 * Close the log file.
+	 */
+	public void close() throws Storage280Exception {
+		try {
+			this.channel.close();
+		}
+		catch(IOException e) {
+			throw new Storage280Exception("Cannot close the log.", e);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package lib280.bench;
+
+import lib280.base.IntKeyed280;
+
+/**
+ * The item type stored in every keyed or ordered container under benchmark.
+ * It is both IntKeyed280 (for the dictionaries, boxed or not) and Comparable
+ * (for the ordered trees and heaps), and the key is boxed once up front so that boxing is not
+ * part of any measurement.
+ */
+public class BenchItem implements IntKeyed280, Comparable<BenchItem> {
+
+	/** Key of the item, boxed once at construction. */
+	protected Integer key;
+
+	/** Payload so that the item is not just a wrapped key. */
+	protected long payload;
+
+	/**
+	 * Create a new benchmark item.
+	 * @param key the key of the new item
+	 */
+	public BenchItem(Integer key) {
+		this.key = key;
+		this.payload = (long) key * 31;
+	}
+
+	@Override
+	public Integer key() {
+		return key;
+	}
+
+	@Override
+	public int intKey() {
+		return key;
+	}
+
+	/**
+	 * The payload of the item.
+	 * @return the payload of the item.
+	 */
+	public long payload() {
+		return payload;
+	}
+
+	@Override
+	public int compareTo(BenchItem o) {
+		return this.key.compareTo(o.key);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return (o instanceof BenchItem) && ((BenchItem) o).key.equals(this.key);
+	}
+
+	@Override
+	public int hashCode() {
+		return key.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return key.toString();
+	}
+}
@@ -0,0 +1,126 @@
+package lib280.bench;
+
+/**
+ * The measured score of one benchmark configuration, in the same shape as a
+ * JMH "avgt" result: mean time per operation over the measurement iterations
+ * and the half-width of its 99.9% confidence interval.
+ */
+public class BenchmarkResult {
+
+	/** Suite the container belongs to. */
+	public final String suite;
+
+	/** Name of the container. */
+	public final String container;
+
+	/** Operation measured. */
+	public final Operation operation;
+
+	/** Number of keys. */
+	public final int size;
+
+	/** Key distribution. */
+	public final KeyDistribution distribution;
+
+	/** Operations per invocation used to normalize the timings. */
+	public final long opsPerInvocation;
+
+	/** Nanoseconds per operation of every measurement iteration. */
+	public final double[] samples;
+
+	/** Mean bytes allocated per operation, or NaN if it could not be measured. */
+	public final double allocBytesPerOp;
+
+	/**
+	 * Record a result.
+	 * @param b the benchmark that was run
+	 * @param op the operation measured
+	 * @param w the workload it was run on
+	 * @param opsPerInvocation operations per invocation
+	 * @param samples nanoseconds per operation of every measurement iteration
+	 * @param allocBytesPerOp mean bytes allocated per operation, or NaN if unknown
+	 */
+	public BenchmarkResult(ContainerBenchmark b, Operation op, Workload w, long opsPerInvocation, double[] samples,
+			double allocBytesPerOp) {
+		this.suite = b.suite();
+		this.container = b.name();
+		this.operation = op;
+		this.size = w.size;
+		this.distribution = w.distribution;
+		this.opsPerInvocation = opsPerInvocation;
+		this.samples = samples;
+		this.allocBytesPerOp = allocBytesPerOp;
+	}
+
+	/**
+	 * Name of the benchmark, e.g. "list.LinkedList280.insert".
+	 * @return the name of the benchmark.
+	 */
+	public String benchmark() {
+		return suite + "." + container + "." + operation.name().toLowerCase();
+	}
+
+	/**
+	 * Mean nanoseconds per operation.
+	 * @return the score.
+	 */
+	public double score() {
+		double sum = 0;
+		for(double s : samples)
+			sum += s;
+		return sum / samples.length;
+	}
+
+	/**
+	 * Half-width of the 99.9% confidence interval of the score (using the
+	 * normal approximation), or NaN if there was only one iteration.
+	 * @return the score error.
+	 */
+	public double scoreError() {
+		if( samples.length < 2 ) return Double.NaN;
+		double mean = score();
+		double ss = 0;
+		for(double s : samples)
+			ss += (s - mean) * (s - mean);
+		double stddev = Math.sqrt(ss / (samples.length - 1));
+		return 3.291 * stddev / Math.sqrt(samples.length);
+	}
+
+	/**
+	 * This result as a JSON object.
+	 * @return the JSON text of this result.
+	 */
+	public String toJson() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\"benchmark\": \"").append(benchmark()).append('"');
+		sb.append(", \"suite\": \"").append(suite).append('"');
+		sb.append(", \"container\": \"").append(container).append('"');
+		sb.append(", \"operation\": \"").append(operation.name().toLowerCase()).append('"');
+		sb.append(", \"size\": ").append(size);
+		sb.append(", \"distribution\": \"").append(distribution.name().toLowerCase()).append('"');
+		sb.append(", \"mode\": \"avgt\", \"unit\": \"ns/op\"");
+		sb.append(", \"iterations\": ").append(samples.length);
+		sb.append(", \"opsPerInvocation\": ").append(opsPerInvocation);
+		sb.append(", \"score\": ").append(jsonNumber(score()));
+		sb.append(", \"scoreError\": ").append(jsonNumber(scoreError()));
+		sb.append(", \"gc.alloc.rate.norm\": ").append(jsonNumber(allocBytesPerOp));
+		sb.append(", \"rawData\": [");
+		for(int i = 0; i < samples.length; i++) {
+			if( i > 0 ) sb.append(", ");
+			sb.append(jsonNumber(samples[i]));
+		}
+		sb.append("]}");
+		return sb.toString();
+	}
+
+	/** JSON has no NaN, so it is written as null. */
+	protected static String jsonNumber(double d) {
+		return Double.isNaN(d) || Double.isInfinite(d) ? "null" : Double.toString(d);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%-56s %-10s %9d %14.3f +- %10.3f ns/op %10.1f B/op",
+				benchmark(), distribution.name().toLowerCase(), size, score(), scoreError(), allocBytesPerOp);
+	}
+}
@@ -0,0 +1,177 @@
+package lib280.bench;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+/**
+ * Runs the container benchmarks over a grid of sizes, key distributions and
+ * operations and writes the results as JSON.
+ * 
+ * Every configuration is run the way JMH runs an "avgt" benchmark with a
+ * per-invocation setup: a number of warmup iterations followed by a number of
+ * measurement iterations, each of which starts from a freshly reset container
+ * (populated, untimed, for everything but INSERT) and times one pass of the
+ * operation over the whole workload.  All workloads are generated from a
+ * fixed seed so every container sees the same keys.  Where the JVM can
+ * report per-thread allocation, the bytes allocated per operation are also
+ * recorded, as JMH's gc profiler does ("gc.alloc.rate.norm").
+ * 
+ * Usage: java lib280.bench.BenchmarkRunner [options]
+ *   -sizes 1000,10000,...   container sizes (default 1e3 through 1e7)
+ *   -dist sequential,...    key distributions (default all)
+ *   -ops insert,search,...  operations (default all)
+ *   -suite list,tree,...    suites to run (default all)
+ *   -filter text            only containers whose name contains text
+ *   -wi n                   warmup iterations (default 3)
+ *   -i n                    measurement iterations (default 5)
+ *   -seed n                 workload seed (default 280)
+ *   -out file               JSON output file (default bench-results.json)
+ */
+public class BenchmarkRunner {
+
+	/** Written to by every invocation so that no result is dead code. */
+	public static volatile long sink;
+
+	/** Per-thread allocation counter, or null if this JVM does not provide one. */
+	protected static final com.sun.management.ThreadMXBean allocationCounter = allocationCounter();
+
+	/** Sizes run by default. */
+	protected static final int[] defaultSizes = {1000, 10000, 100000, 1000000, 10000000};
+
+	/**
+	 * Every benchmark, from every suite.
+	 * @return all benchmarks.
+	 */
+	public static ContainerBenchmark[] allBenchmarks() {
+		ArrayList<ContainerBenchmark> all = new ArrayList<ContainerBenchmark>();
+		for(ContainerBenchmark[] suite : new ContainerBenchmark[][] {
+				ListBenchmarks.all(), TreeBenchmarks.all(), HashTableBenchmarks.all(),
+				DispenserBenchmarks.all(), GraphBenchmarks.all() })
+			for(ContainerBenchmark b : suite)
+				all.add(b);
+		return all.toArray(new ContainerBenchmark[0]);
+	}
+
+	/** The JVM's per-thread allocation counter, or null if it has none. */
+	protected static com.sun.management.ThreadMXBean allocationCounter() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if( !(bean instanceof com.sun.management.ThreadMXBean) ) return null;
+		com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) bean;
+		if( !counter.isThreadAllocatedMemorySupported() ) return null;
+		counter.setThreadAllocatedMemoryEnabled(true);
+		return counter;
+	}
+
+	/** Bytes allocated so far by the current thread, or 0 if that is not known. */
+	protected static long allocatedBytes() {
+		return allocationCounter == null ? 0 : allocationCounter.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Measure one configuration.
+	 * @param b the benchmark
+	 * @param op the operation to measure
+	 * @param w the workload
+	 * @param warmups number of warmup iterations
+	 * @param iterations number of measurement iterations
+	 * @return the result.
+	 */
+	public static BenchmarkResult measure(ContainerBenchmark b, Operation op, Workload w, int warmups, int iterations) {
+		long ops = Math.max(1, b.opsPerInvocation(op, w));
+		double[] samples = new double[iterations];
+		double allocated = 0;
+		for(int i = -warmups; i < iterations; i++) {
+			b.reset(w);
+			if( op != Operation.INSERT )
+				sink += b.insert(w);
+			long startBytes = allocatedBytes();
+			long start = System.nanoTime();
+			sink += b.run(op, w);
+			long elapsed = System.nanoTime() - start;
+			long bytes = allocatedBytes() - startBytes;
+			if( i >= 0 ) {
+				samples[i] = (double) elapsed / ops;
+				allocated += (double) bytes / ops;
+			}
+		}
+		double allocNorm = allocationCounter == null ? Double.NaN : allocated / iterations;
+		return new BenchmarkResult(b, op, w, ops, samples, allocNorm);
+	}
+
+	/** Parse a comma separated list of ints. */
+	protected static int[] parseInts(String s) {
+		String[] parts = s.split(",");
+		int[] result = new int[parts.length];
+		for(int i = 0; i < parts.length; i++)
+			result[i] = (int) Double.parseDouble(parts[i].trim());
+		return result;
+	}
+
+	/** Whether list, a comma separated list or null for "everything", contains s. */
+	protected static boolean selected(String list, String s) {
+		if( list == null ) return true;
+		for(String part : list.split(","))
+			if( part.trim().equalsIgnoreCase(s) ) return true;
+		return false;
+	}
+
+	public static void main(String[] args) throws IOException {
+		int[] sizes = defaultSizes;
+		String dists = null, ops = null, suites = null, filter = null;
+		String out = "bench-results.json";
+		int warmups = 3, iterations = 5;
+		long seed = 280;
+
+		for(int i = 0; i < args.length; i++) {
+			String a = args[i];
+			if( i + 1 >= args.length ) throw new IllegalArgumentException("Missing value for " + a);
+			String v = args[++i];
+			if( a.equals("-sizes") ) sizes = parseInts(v);
+			else if( a.equals("-dist") ) dists = v;
+			else if( a.equals("-ops") ) ops = v;
+			else if( a.equals("-suite") ) suites = v;
+			else if( a.equals("-filter") ) filter = v;
+			else if( a.equals("-wi") ) warmups = Integer.parseInt(v);
+			else if( a.equals("-i") ) iterations = Integer.parseInt(v);
+			else if( a.equals("-seed") ) seed = Long.parseLong(v);
+			else if( a.equals("-out") ) out = v;
+			else throw new IllegalArgumentException("Unknown option " + a);
+		}
+		if( iterations < 1 ) throw new IllegalArgumentException("At least one measurement iteration is required.");
+
+		ArrayList<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+		for(int size : sizes) {
+			for(KeyDistribution d : KeyDistribution.values()) {
+				if( !selected(dists, d.name()) ) continue;
+				Workload w = null;
+				int wLookups = -1;
+				for(ContainerBenchmark b : allBenchmarks()) {
+					if( !selected(suites, b.suite()) ) continue;
+					if( filter != null && !b.name().contains(filter) ) continue;
+					for(Operation op : Operation.values()) {
+						if( !selected(ops, op.name()) || size > b.maxSize(op, d) ) continue;
+						// Workloads are shared between containers that want the same lookup stream length.
+						if( w == null || wLookups != b.numLookups(size) ) {
+							wLookups = b.numLookups(size);
+							w = new Workload(size, wLookups, d, seed);
+						}
+						BenchmarkResult r = measure(b, op, w, warmups, iterations);
+						System.out.println(r);
+						results.add(r);
+					}
+				}
+			}
+		}
+
+		PrintWriter pw = new PrintWriter(new FileWriter(out));
+		pw.println("[");
+		for(int i = 0; i < results.size(); i++)
+			pw.println("  " + results.get(i).toJson() + (i < results.size() - 1 ? "," : ""));
+		pw.println("]");
+		pw.close();
+		System.out.println("Wrote " + results.size() + " results to " + out);
+	}
+}
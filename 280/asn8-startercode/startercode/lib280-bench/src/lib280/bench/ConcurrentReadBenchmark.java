@@ -0,0 +1,319 @@
+package lib280.bench;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+
+import lib280.hashtable.ConcurrentKeyedChainedHashTable280;
+import lib280.hashtable.KeyedChainedHashTable280;
+import lib280.list.KeyedSkipList280;
+import lib280.tree.AVLTree280;
+import lib280.tree.PersistentAVLTree280;
+
+/**
+ * Measures how read throughput of a shared dictionary scales with the
+ * number of reading threads, the way a JMH "thrpt" benchmark run with
+ * -t 1, 2, 4, ... would.  ConcurrentKeyedChainedHashTable280,
+ * PersistentAVLTree280 and KeyedSkipList280 are read without locks;
+ * KeyedChainedHashTable280 and AVLTree280 behind one global lock are their
+ * baselines.  With -writes, that percentage of each thread's operations
+ * insert or delete keys of the thread's own, so that writers contend with
+ * readers and with each other.
+ *
+ * Usage: java lib280.bench.ConcurrentReadBenchmark [options]
+ *   -size n          number of items in the table (default 1000000)
+ *   -threads 1,2,... thread counts (default 1, 2, 4, ... up to the number of cores)
+ *   -dist name       key distribution of the lookups (default random)
+ *   -writes p        percentage of operations that insert or delete (default 0)
+ *   -wi n            warmup iterations (default 2)
+ *   -i n             measurement iterations (default 5)
+ *   -ms n            length of each iteration in milliseconds (default 1000)
+ *   -out file        JSON output file (default concurrent-read-results.json)
+ */
+public class ConcurrentReadBenchmark {
+
+	/** Written to by every reader so that no lookup is dead code. */
+	public static volatile long sink;
+
+	/** A table under test, as seen by the readers. */
+	protected static abstract class SharedTable {
+		abstract String suite();
+		abstract String name();
+		abstract void fill(Workload w);
+		/** Look up the i'th lookup key of w. */
+		abstract long read(Workload w, int i);
+		/** Insert x if it is absent, or else delete it; no other thread writes x. */
+		abstract void write(BenchItem x);
+	}
+
+	/** ConcurrentKeyedChainedHashTable280, read without locks. */
+	protected static class ConcurrentTable extends SharedTable {
+		ConcurrentKeyedChainedHashTable280<Integer, BenchItem> table = new ConcurrentKeyedChainedHashTable280<Integer, BenchItem>();
+
+		String suite() {
+			return "hashtable";
+		}
+
+		String name() {
+			return "ConcurrentKeyedChainedHashTable280";
+		}
+
+		void fill(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				table.insert(w.items[i]);
+		}
+
+		long read(Workload w, int i) {
+			return table.obtain(w.boxedLookups[i]).payload();
+		}
+
+		void write(BenchItem x) {
+			if( table.has(x.key()) ) table.delete(x.key());
+			else table.insert(x);
+		}
+	}
+
+	/** KeyedChainedHashTable280 behind one global lock. */
+	protected static class LockedTable extends SharedTable {
+		KeyedChainedHashTable280<Integer, BenchItem> table = new KeyedChainedHashTable280<Integer, BenchItem>();
+
+		String suite() {
+			return "hashtable";
+		}
+
+		String name() {
+			return "KeyedChainedHashTable280-globalLock";
+		}
+
+		void fill(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				table.insert(w.items[i]);
+		}
+
+		long read(Workload w, int i) {
+			synchronized(this) {
+				return table.obtain(w.boxedLookups[i]).payload();
+			}
+		}
+
+		void write(BenchItem x) {
+			synchronized(this) {
+				if( table.has(x.key()) ) table.delete(x.key());
+				else table.insert(x);
+			}
+		}
+	}
+
+	/** PersistentAVLTree280, read without locks from the current snapshot. */
+	protected static class PersistentTree extends SharedTable {
+		PersistentAVLTree280<BenchItem> tree = new PersistentAVLTree280<BenchItem>();
+
+		String suite() {
+			return "tree";
+		}
+
+		String name() {
+			return "PersistentAVLTree280";
+		}
+
+		void fill(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				tree.insert(w.items[i]);
+		}
+
+		long read(Workload w, int i) {
+			return tree.obtain(w.lookupItems[i]).payload();
+		}
+
+		void write(BenchItem x) {
+			if( tree.has(x) ) tree.delete(x);
+			else tree.insert(x);
+		}
+	}
+
+	/** AVLTree280 behind one global lock; its searches move the shared cursor. */
+	protected static class LockedTree extends SharedTable {
+		AVLTree280<BenchItem> tree = new AVLTree280<BenchItem>();
+
+		String suite() {
+			return "tree";
+		}
+
+		String name() {
+			return "AVLTree280-globalLock";
+		}
+
+		void fill(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				tree.insert(w.items[i]);
+		}
+
+		long read(Workload w, int i) {
+			synchronized(this) {
+				tree.search(w.lookupItems[i]);
+				return tree.item().payload();
+			}
+		}
+
+		void write(BenchItem x) {
+			synchronized(this) {
+				tree.search(x);
+				if( tree.itemExists() ) tree.deleteItem();
+				else tree.insert(x);
+			}
+		}
+	}
+
+	/** KeyedSkipList280, read and written without locks. */
+	protected static class SkipList extends SharedTable {
+		KeyedSkipList280<Integer, BenchItem> list = new KeyedSkipList280<Integer, BenchItem>(true);
+
+		String suite() {
+			return "list";
+		}
+
+		String name() {
+			return "KeyedSkipList280";
+		}
+
+		void fill(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				list.insert(w.items[i]);
+		}
+
+		long read(Workload w, int i) {
+			return list.get(w.boxedLookups[i]).payload();
+		}
+
+		void write(BenchItem x) {
+			if( list.has(x.key()) ) list.delete(x.key());
+			else list.insert(x);
+		}
+	}
+
+	/** Number of keys each thread inserts and deletes, in turn, when writing. */
+	protected static final int writeKeysPerThread = 4096;
+
+	/**
+	 * Run threads readers against t for ms milliseconds.  If writePercent is
+	 * positive, about that percentage of each reader's operations are writes
+	 * instead, of negative keys, which the workload never uses, so that the
+	 * reads still find their keys.
+	 * @return operations per second over all threads.
+	 */
+	protected static double run(final SharedTable t, final Workload w, final int threads, final long ms, final int writePercent) throws InterruptedException {
+		final long[] ops = new long[threads];
+		final long deadline = System.nanoTime() + ms * 1000000L;
+		Thread[] readers = new Thread[threads];
+		for(int r = 0; r < threads; r++) {
+			final int id = r;
+			readers[r] = new Thread() {
+				public void run() {
+					int numKeys = w.lookups.length;
+					int i = (id * 7919) % numKeys;
+					long n = 0, sum = 0;
+					BenchItem[] writeItems = new BenchItem[writePercent > 0 ? writeKeysPerThread : 0];
+					for(int k = 0; k < writeItems.length; k++)
+						writeItems[k] = new BenchItem(-(1 + id + threads * k));
+					int nextWrite = 0;
+					// Check the clock only every 1024 operations.
+					while( System.nanoTime() < deadline ) {
+						for(int j = 0; j < 1024; j++) {
+							if( writePercent > 0 && j % 100 < writePercent ) {
+								t.write(writeItems[nextWrite]);
+								if( ++nextWrite == writeItems.length ) nextWrite = 0;
+								continue;
+							}
+							sum += t.read(w, i);
+							if( ++i == numKeys ) i = 0;
+						}
+						n += 1024;
+					}
+					ops[id] = n;
+					sink += sum;
+				}
+			};
+		}
+		long start = System.nanoTime();
+		for(Thread r : readers) r.start();
+		for(Thread r : readers) r.join();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		long total = 0;
+		for(long n : ops) total += n;
+		return total / seconds;
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int size = 1000000;
+		int[] threadCounts = null;
+		KeyDistribution dist = KeyDistribution.RANDOM;
+		int warmups = 2, iterations = 5, writePercent = 0;
+		long ms = 1000;
+		String out = "concurrent-read-results.json";
+
+		for(int i = 0; i < args.length; i++) {
+			String a = args[i];
+			if( i + 1 >= args.length ) throw new IllegalArgumentException("Missing value for " + a);
+			String v = args[++i];
+			if( a.equals("-size") ) size = (int) Double.parseDouble(v);
+			else if( a.equals("-threads") ) threadCounts = BenchmarkRunner.parseInts(v);
+			else if( a.equals("-dist") ) dist = KeyDistribution.valueOf(v.toUpperCase());
+			else if( a.equals("-writes") ) writePercent = Integer.parseInt(v);
+			else if( a.equals("-wi") ) warmups = Integer.parseInt(v);
+			else if( a.equals("-i") ) iterations = Integer.parseInt(v);
+			else if( a.equals("-ms") ) ms = Long.parseLong(v);
+			else if( a.equals("-out") ) out = v;
+			else throw new IllegalArgumentException("Unknown option " + a);
+		}
+		if( threadCounts == null ) {
+			ArrayList<Integer> counts = new ArrayList<Integer>();
+			for(int t = 1; t <= Runtime.getRuntime().availableProcessors(); t *= 2)
+				counts.add(t);
+			threadCounts = new int[counts.size()];
+			for(int i = 0; i < threadCounts.length; i++)
+				threadCounts[i] = counts.get(i);
+		}
+
+		Workload w = new Workload(size, Math.min(size, 1 << 20), dist, 280);
+		ArrayList<String> results = new ArrayList<String>();
+		if( writePercent < 0 || writePercent > 100 ) throw new IllegalArgumentException("-writes must be between 0 and 100");
+		String op = writePercent > 0 ? "readwrite" : "read";
+		for(SharedTable t : new SharedTable[] { new ConcurrentTable(), new LockedTable(), new PersistentTree(), new LockedTree(), new SkipList() }) {
+			t.fill(w);
+			for(int threads : threadCounts) {
+				double[] samples = new double[iterations];
+				for(int i = -warmups; i < iterations; i++) {
+					double score = run(t, w, threads, ms, writePercent);
+					if( i >= 0 ) samples[i] = score;
+				}
+				double mean = 0;
+				for(double s : samples) mean += s;
+				mean /= samples.length;
+				System.out.println(String.format("%-40s threads %3d %16.0f ops/s", t.name(), threads, mean));
+				StringBuilder sb = new StringBuilder();
+				sb.append("{\"benchmark\": \"").append(t.suite()).append('.').append(t.name()).append('.').append(op).append('"');
+				sb.append(", \"threads\": ").append(threads);
+				if( writePercent > 0 ) sb.append(", \"writePercent\": ").append(writePercent);
+				sb.append(", \"size\": ").append(size);
+				sb.append(", \"distribution\": \"").append(dist.name().toLowerCase()).append('"');
+				sb.append(", \"mode\": \"thrpt\", \"unit\": \"ops/s\"");
+				sb.append(", \"iterations\": ").append(iterations);
+				sb.append(", \"score\": ").append(mean);
+				sb.append(", \"rawData\": [");
+				for(int i = 0; i < samples.length; i++)
+					sb.append(i > 0 ? ", " : "").append(samples[i]);
+				sb.append("]}");
+				results.add(sb.toString());
+			}
+		}
+
+		PrintWriter pw = new PrintWriter(new FileWriter(out));
+		pw.println("[");
+		for(int i = 0; i < results.size(); i++)
+			pw.println("  " + results.get(i) + (i < results.size() - 1 ? "," : ""));
+		pw.println("]");
+		pw.close();
+		System.out.println("Wrote " + results.size() + " results to " + out);
+	}
+}
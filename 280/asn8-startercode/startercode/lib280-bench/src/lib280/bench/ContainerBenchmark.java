@@ -0,0 +1,109 @@
+package lib280.bench;
+
+/**
+ * A benchmark of one lib280 container type.  Subclasses create the container
+ * and implement each Operation against it; the BenchmarkRunner takes care of
+ * building workloads, warming up, timing and reporting.
+ * 
+ * Each operation method returns a value derived from the items it touched so
+ * that the JIT cannot discard the work.
+ */
+public abstract class ContainerBenchmark {
+
+	/** Default maximum length of the lookup stream. */
+	protected static final int defaultMaxLookups = 100000;
+
+	/**
+	 * Name of the lib280 package the container belongs to, e.g. "list".
+	 * @return the suite name.
+	 */
+	public abstract String suite();
+
+	/**
+	 * Name of the container under test, e.g. "LinkedList280".
+	 * @return the container name.
+	 */
+	public abstract String name();
+
+	/**
+	 * Replace the container with a new, empty one that can hold w.size items.
+	 * @param w the workload about to be run
+	 */
+	public abstract void reset(Workload w);
+
+	/**
+	 * Insert every key of w, in order, into the (empty) container.
+	 * @param w the workload
+	 * @return a value derived from the work done
+	 */
+	public abstract long insert(Workload w);
+
+	/**
+	 * Look up every key of w.lookups in the container.
+	 * @param w the workload
+	 * @return a value derived from the work done
+	 */
+	public abstract long search(Workload w);
+
+	/**
+	 * Remove every item from the container.
+	 * @param w the workload
+	 * @return a value derived from the work done
+	 */
+	public abstract long delete(Workload w);
+
+	/**
+	 * Visit every item of the container.
+	 * @param w the workload
+	 * @return a value derived from the work done
+	 */
+	public abstract long iterate(Workload w);
+
+	/**
+	 * Largest size for which operation op is run with distribution d.
+	 * Override to skip configurations that are quadratic or that do not fit
+	 * in memory for this container.
+	 * @param op the operation
+	 * @param d the key distribution
+	 * @return the largest size to run.
+	 */
+	public int maxSize(Operation op, KeyDistribution d) {
+		return Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Length of the lookup stream for a container of n items.  Containers
+	 * with linear-time search should override this with a shorter stream.
+	 * @param n number of items in the container
+	 * @return number of lookups to perform.
+	 */
+	public int numLookups(int n) {
+		return Math.min(n, defaultMaxLookups);
+	}
+
+	/**
+	 * Number of operations that one invocation of op performs on w, used to
+	 * normalize timings to a per-operation cost.
+	 * @param op the operation
+	 * @param w the workload
+	 * @return operations per invocation.
+	 */
+	public long opsPerInvocation(Operation op, Workload w) {
+		return op == Operation.SEARCH ? w.lookups.length : w.size;
+	}
+
+	/**
+	 * Run operation op.
+	 * @param op the operation to run
+	 * @param w the workload
+	 * @return a value derived from the work done
+	 */
+	public long run(Operation op, Workload w) {
+		switch(op) {
+			case INSERT: return insert(w);
+			case SEARCH: return search(w);
+			case DELETE: return delete(w);
+			default: return iterate(w);
+		}
+	}
+}
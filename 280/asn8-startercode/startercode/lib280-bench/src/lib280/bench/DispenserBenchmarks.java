@@ -0,0 +1,358 @@
+package lib280.bench;
+
+import lib280.base.Dispenser280;
+import lib280.dispenser.ArrayedQueue280;
+import lib280.dispenser.ArrayedStack280;
+import lib280.dispenser.IntArrayedQueue280;
+import lib280.dispenser.IntArrayedStack280;
+import lib280.dispenser.LinkedQueue280;
+import lib280.dispenser.LinkedStack280;
+import lib280.dispenser.PriorityQueue280;
+import lib280.tree.ArrayedBinaryTreeIterator280;
+import lib280.tree.ArrayedHeap280;
+import lib280.tree.ArrayedMinHeap280;
+import lib280.tree.IterableArrayedHeap280;
+
+/**
+ * Benchmarks for the lib280.dispenser containers and the arrayed heaps.
+ * Dispensers only expose their current item, so SEARCH is not run and
+ * ITERATE is only run where the container provides an iterator.
+ */
+public class DispenserBenchmarks {
+
+	/**
+	 * Common benchmark of a Dispenser280: insert() every item, then
+	 * item()/deleteItem() until it is empty.
+	 */
+	public static abstract class DispenserBenchmark extends ContainerBenchmark {
+
+		/** The dispenser under test. */
+		protected Dispenser280<BenchItem> dispenser;
+
+		@Override
+		public String suite() {
+			return "dispenser";
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				dispenser.insert(w.items[i]);
+			return dispenser.item().payload();
+		}
+
+		@Override
+		public long search(Workload w) {
+			return 0;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			long sum = 0;
+			while( !dispenser.isEmpty() ) {
+				sum += dispenser.item().payload();
+				dispenser.deleteItem();
+			}
+			return sum;
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			return 0;
+		}
+
+		@Override
+		public int maxSize(Operation op, KeyDistribution d) {
+			return op == Operation.INSERT || op == Operation.DELETE ? Integer.MAX_VALUE : 0;
+		}
+	}
+
+	/** ArrayedQueue280. */
+	public static class ArrayedQueueBenchmark extends DispenserBenchmark {
+		@Override
+		public String name() {
+			return "ArrayedQueue280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			dispenser = new ArrayedQueue280<BenchItem>(w.size);
+		}
+	}
+
+	/** LinkedQueue280. */
+	public static class LinkedQueueBenchmark extends DispenserBenchmark {
+		@Override
+		public String name() {
+			return "LinkedQueue280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			dispenser = new LinkedQueue280<BenchItem>();
+		}
+	}
+
+	/** ArrayedStack280. */
+	public static class ArrayedStackBenchmark extends DispenserBenchmark {
+		@Override
+		public String name() {
+			return "ArrayedStack280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			dispenser = new ArrayedStack280<BenchItem>(w.size);
+		}
+	}
+
+	/** LinkedStack280. */
+	public static class LinkedStackBenchmark extends DispenserBenchmark {
+		@Override
+		public String name() {
+			return "LinkedStack280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			dispenser = new LinkedStack280<BenchItem>();
+		}
+	}
+
+	/** ArrayedHeap280. */
+	public static class ArrayedHeapBenchmark extends DispenserBenchmark {
+		@Override
+		public String name() {
+			return "ArrayedHeap280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			dispenser = new ArrayedHeap280<BenchItem>(w.size);
+		}
+	}
+
+	/** ArrayedMinHeap280. */
+	public static class ArrayedMinHeapBenchmark extends DispenserBenchmark {
+		@Override
+		public String name() {
+			return "ArrayedMinHeap280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			dispenser = new ArrayedMinHeap280<BenchItem>(w.size);
+		}
+	}
+
+	/** IterableArrayedHeap280, which can also be iterated in array order. */
+	public static class IterableArrayedHeapBenchmark extends DispenserBenchmark {
+		@Override
+		public String name() {
+			return "IterableArrayedHeap280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			dispenser = new IterableArrayedHeap280<BenchItem>(w.size);
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			ArrayedBinaryTreeIterator280<BenchItem> iter = ((IterableArrayedHeap280<BenchItem>) dispenser).iterator();
+			long sum = 0;
+			iter.goFirst();
+			while( iter.itemExists() ) {
+				sum += iter.item().payload();
+				iter.goForth();
+			}
+			return sum;
+		}
+
+		@Override
+		public int maxSize(Operation op, KeyDistribution d) {
+			return op == Operation.SEARCH ? 0 : Integer.MAX_VALUE;
+		}
+	}
+
+	/** IntArrayedQueue280, inserting the unboxed keys rather than items. */
+	public static class IntArrayedQueueBenchmark extends ContainerBenchmark {
+
+		/** The queue under test. */
+		protected IntArrayedQueue280 queue;
+
+		@Override
+		public String suite() {
+			return "dispenser";
+		}
+
+		@Override
+		public String name() {
+			return "IntArrayedQueue280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			queue = new IntArrayedQueue280(w.size);
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				queue.insert(w.keys[i]);
+			return queue.item();
+		}
+
+		@Override
+		public long search(Workload w) {
+			return 0;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			long sum = 0;
+			while( !queue.isEmpty() ) {
+				sum += queue.item();
+				queue.deleteItem();
+			}
+			return sum;
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			return 0;
+		}
+
+		@Override
+		public int maxSize(Operation op, KeyDistribution d) {
+			return op == Operation.INSERT || op == Operation.DELETE ? Integer.MAX_VALUE : 0;
+		}
+	}
+
+	/** IntArrayedStack280, inserting the unboxed keys rather than items. */
+	public static class IntArrayedStackBenchmark extends ContainerBenchmark {
+
+		/** The stack under test. */
+		protected IntArrayedStack280 stack;
+
+		@Override
+		public String suite() {
+			return "dispenser";
+		}
+
+		@Override
+		public String name() {
+			return "IntArrayedStack280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			stack = new IntArrayedStack280(w.size);
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				stack.insert(w.keys[i]);
+			return stack.item();
+		}
+
+		@Override
+		public long search(Workload w) {
+			return 0;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			long sum = 0;
+			while( !stack.isEmpty() ) {
+				sum += stack.item();
+				stack.deleteItem();
+			}
+			return sum;
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			return 0;
+		}
+
+		@Override
+		public int maxSize(Operation op, KeyDistribution d) {
+			return op == Operation.INSERT || op == Operation.DELETE ? Integer.MAX_VALUE : 0;
+		}
+	}
+
+	/** PriorityQueue280, which is not a Dispenser280 but plays the same role. */
+	public static class PriorityQueueBenchmark extends ContainerBenchmark {
+
+		/** The queue under test. */
+		protected PriorityQueue280<BenchItem> queue;
+
+		@Override
+		public String suite() {
+			return "dispenser";
+		}
+
+		@Override
+		public String name() {
+			return "PriorityQueue280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			queue = new PriorityQueue280<BenchItem>(w.size);
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				queue.insert(w.items[i]);
+			return queue.maxItem().payload();
+		}
+
+		@Override
+		public long search(Workload w) {
+			return 0;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			long sum = 0;
+			while( !queue.isEmpty() ) {
+				sum += queue.maxItem().payload();
+				queue.deleteMax();
+			}
+			return sum;
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			return 0;
+		}
+
+		@Override
+		public int maxSize(Operation op, KeyDistribution d) {
+			return op == Operation.INSERT || op == Operation.DELETE ? Integer.MAX_VALUE : 0;
+		}
+	}
+
+	/**
+	 * All benchmarks in this suite.
+	 * @return the dispenser benchmarks.
+	 */
+	public static ContainerBenchmark[] all() {
+		return new ContainerBenchmark[] {
+				new ArrayedQueueBenchmark(),
+				new LinkedQueueBenchmark(),
+				new ArrayedStackBenchmark(),
+				new LinkedStackBenchmark(),
+				new IntArrayedQueueBenchmark(),
+				new IntArrayedStackBenchmark(),
+				new ArrayedHeapBenchmark(),
+				new ArrayedMinHeapBenchmark(),
+				new IterableArrayedHeapBenchmark(),
+				new PriorityQueueBenchmark()
+		};
+	}
+}
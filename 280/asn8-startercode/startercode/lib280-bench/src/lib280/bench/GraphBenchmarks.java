@@ -0,0 +1,135 @@
+package lib280.bench;
+
+import lib280.graph.Edge280;
+import lib280.graph.GraphAdjListRep280;
+import lib280.graph.GraphMatrixRep280;
+import lib280.graph.GraphWithCursors280;
+import lib280.graph.Vertex280;
+
+/**
+ * Benchmarks for the lib280.graph representations.  The graph has one vertex
+ * per key, and the keys (in insertion order) are joined into a single
+ * undirected cycle, so insert adds n edges, search asks whether a key is
+ * adjacent to its successor on the cycle, delete removes every edge and
+ * iterate visits every edge of every vertex.  Vertices are created by reset(),
+ * outside the timed region.
+ */
+public class GraphBenchmarks {
+
+	/** Common benchmark of the GraphWithCursors280 operations. */
+	public static abstract class GraphBenchmark extends ContainerBenchmark {
+
+		/** The graph under test. */
+		protected GraphWithCursors280<Vertex280, Edge280<Vertex280>> graph;
+
+		/** successor[k] is the index of the vertex that follows vertex k+1 on the cycle. */
+		protected int[] successor;
+
+		/**
+		 * Create a new, edgeless graph with n vertices.
+		 * @param n number of vertices
+		 * @return the new graph.
+		 */
+		protected abstract GraphWithCursors280<Vertex280, Edge280<Vertex280>> newGraph(int n);
+
+		@Override
+		public String suite() {
+			return "graph";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			graph = newGraph(w.size);
+			graph.ensureVertices(w.size);
+			successor = new int[w.size];
+			for(int i = 0; i < w.size; i++)
+				successor[w.keys[i]] = w.keys[(i + 1) % w.size] + 1;
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				graph.addEdge(w.keys[i] + 1, successor[w.keys[i]]);
+			return graph.numEdges();
+		}
+
+		@Override
+		public long search(Workload w) {
+			long hits = 0;
+			for(int i = 0; i < w.lookups.length; i++)
+				if( graph.isAdjacent(w.lookups[i] + 1, successor[w.lookups[i]]) ) hits++;
+			return hits;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			for(int i = 0; i < w.size; i++) {
+				graph.eSearch(graph.vertex(w.keys[i] + 1), graph.vertex(successor[w.keys[i]]));
+				if( graph.eItemExists() ) graph.deleteEItem();
+			}
+			return graph.numEdges();
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			long sum = 0;
+			for(int i = 1; i <= w.size; i++) {
+				graph.eGoFirst(graph.vertex(i));
+				while( graph.eItemExists() ) {
+					sum += graph.eItemAdjacentIndex();
+					graph.eGoForth();
+				}
+			}
+			return sum;
+		}
+	}
+
+	/** GraphAdjListRep280. */
+	public static class GraphAdjListRepBenchmark extends GraphBenchmark {
+		@Override
+		public String name() {
+			return "GraphAdjListRep280";
+		}
+
+		@Override
+		protected GraphWithCursors280<Vertex280, Edge280<Vertex280>> newGraph(int n) {
+			return new GraphAdjListRep280<Vertex280, Edge280<Vertex280>>(n, false);
+		}
+
+		/** Vertices are created reflectively, which is too slow past a million. */
+		@Override
+		public int maxSize(Operation op, KeyDistribution d) {
+			return 1000000;
+		}
+	}
+
+	/** GraphMatrixRep280. */
+	public static class GraphMatrixRepBenchmark extends GraphBenchmark {
+		@Override
+		public String name() {
+			return "GraphMatrixRep280";
+		}
+
+		@Override
+		protected GraphWithCursors280<Vertex280, Edge280<Vertex280>> newGraph(int n) {
+			return new GraphMatrixRep280<Vertex280, Edge280<Vertex280>>(n, false);
+		}
+
+		/** The matrix takes n^2 space. */
+		@Override
+		public int maxSize(Operation op, KeyDistribution d) {
+			return 10000;
+		}
+	}
+
+	/**
+	 * All benchmarks in this suite.
+	 * @return the graph benchmarks.
+	 */
+	public static ContainerBenchmark[] all() {
+		return new ContainerBenchmark[] {
+				new GraphAdjListRepBenchmark(),
+				new GraphMatrixRepBenchmark()
+		};
+	}
+}
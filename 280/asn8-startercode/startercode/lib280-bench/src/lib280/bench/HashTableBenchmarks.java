@@ -0,0 +1,237 @@
+package lib280.bench;
+
+import lib280.hashtable.ChainedHashTable280;
+import lib280.hashtable.IntKeyedOpenAddressingHashTable280;
+import lib280.hashtable.KeyedChainedHashTable280;
+import lib280.hashtable.KeyedOpenAddressingHashTable280;
+
+/**
+ * Benchmarks for the lib280.hashtable containers.
+ */
+public class HashTableBenchmarks {
+
+	/** ChainedHashTable280, sized for a load factor of one since it never grows. */
+	public static class ChainedHashTableBenchmark extends ContainerBenchmark {
+
+		/** The table under test. */
+		protected ChainedHashTable280<Integer> table;
+
+		@Override
+		public String suite() {
+			return "hashtable";
+		}
+
+		@Override
+		public String name() {
+			return "ChainedHashTable280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			table = new ChainedHashTable280<Integer>(w.size);
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				table.insert(w.boxedKeys[i]);
+			return table.count();
+		}
+
+		@Override
+		public long search(Workload w) {
+			long hits = 0;
+			for(int i = 0; i < w.boxedLookups.length; i++)
+				if( table.has(w.boxedLookups[i]) ) hits++;
+			return hits;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				table.delete(w.boxedKeys[i]);
+			return table.count();
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			long sum = 0;
+			table.goFirst();
+			while( table.itemExists() ) {
+				sum += table.item();
+				table.goForth();
+			}
+			return sum;
+		}
+	}
+
+	/** KeyedChainedHashTable280, starting from its default size. */
+	public static class KeyedChainedHashTableBenchmark extends ContainerBenchmark {
+
+		/** The table under test. */
+		protected KeyedChainedHashTable280<Integer, BenchItem> table;
+
+		@Override
+		public String suite() {
+			return "hashtable";
+		}
+
+		@Override
+		public String name() {
+			return "KeyedChainedHashTable280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			table = new KeyedChainedHashTable280<Integer, BenchItem>();
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				table.insert(w.items[i]);
+			return table.capacity();
+		}
+
+		@Override
+		public long search(Workload w) {
+			long sum = 0;
+			for(int i = 0; i < w.boxedLookups.length; i++)
+				sum += table.obtain(w.boxedLookups[i]).payload();
+			return sum;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				table.delete(w.boxedKeys[i]);
+			return table.capacity();
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			long sum = 0;
+			table.goFirst();
+			while( table.itemExists() ) {
+				sum += table.item().payload();
+				table.goForth();
+			}
+			return sum;
+		}
+	}
+
+	/** KeyedChainedHashTable280 loaded in one call to buildFrom(), trusting the keys to be unique. */
+	public static class KeyedChainedHashTableBulkBenchmark extends KeyedChainedHashTableBenchmark {
+
+		@Override
+		public String name() {
+			return "KeyedChainedHashTable280-bulk";
+		}
+
+		@Override
+		public long insert(Workload w) {
+			table = KeyedChainedHashTable280.buildFrom(w.items, true);
+			return table.capacity();
+		}
+	}
+
+	/** KeyedOpenAddressingHashTable280, starting from its default size. */
+	public static class KeyedOpenAddressingHashTableBenchmark extends ContainerBenchmark {
+
+		/** The table under test. */
+		protected KeyedOpenAddressingHashTable280<Integer, BenchItem> table;
+
+		@Override
+		public String suite() {
+			return "hashtable";
+		}
+
+		@Override
+		public String name() {
+			return "KeyedOpenAddressingHashTable280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			table = new KeyedOpenAddressingHashTable280<Integer, BenchItem>();
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				table.insert(w.items[i]);
+			return table.capacity();
+		}
+
+		@Override
+		public long search(Workload w) {
+			long sum = 0;
+			for(int i = 0; i < w.boxedLookups.length; i++)
+				sum += table.obtain(w.boxedLookups[i]).payload();
+			return sum;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				table.delete(w.boxedKeys[i]);
+			return table.capacity();
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			long sum = 0;
+			table.goFirst();
+			while( table.itemExists() ) {
+				sum += table.item().payload();
+				table.goForth();
+			}
+			return sum;
+		}
+	}
+
+	/** IntKeyedOpenAddressingHashTable280, using the unboxed int methods. */
+	public static class IntKeyedOpenAddressingHashTableBenchmark extends KeyedOpenAddressingHashTableBenchmark {
+
+		@Override
+		public String name() {
+			return "IntKeyedOpenAddressingHashTable280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			table = new IntKeyedOpenAddressingHashTable280<BenchItem>();
+		}
+
+		@Override
+		public long search(Workload w) {
+			IntKeyedOpenAddressingHashTable280<BenchItem> t = (IntKeyedOpenAddressingHashTable280<BenchItem>) table;
+			long sum = 0;
+			for(int i = 0; i < w.lookups.length; i++)
+				sum += t.obtain(w.lookups[i]).payload();
+			return sum;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			IntKeyedOpenAddressingHashTable280<BenchItem> t = (IntKeyedOpenAddressingHashTable280<BenchItem>) table;
+			for(int i = 0; i < w.size; i++)
+				t.delete(w.keys[i]);
+			return t.capacity();
+		}
+	}
+
+	/**
+	 * All benchmarks in this suite.
+	 * @return the hash table benchmarks.
+	 */
+	public static ContainerBenchmark[] all() {
+		return new ContainerBenchmark[] {
+				new ChainedHashTableBenchmark(),
+				new KeyedChainedHashTableBenchmark(),
+				new KeyedChainedHashTableBulkBenchmark(),
+				new KeyedOpenAddressingHashTableBenchmark(),
+				new IntKeyedOpenAddressingHashTableBenchmark()
+		};
+	}
+}
@@ -0,0 +1,101 @@
+package lib280.bench;
+
+import java.util.Random;
+
+/**
+ * The key distributions that a benchmark is swept over.  A distribution
+ * decides two things: the order in which the n distinct keys 0..n-1 are
+ * inserted, and which keys are asked for by the lookup stream.
+ */
+public enum KeyDistribution {
+
+	/** Keys are inserted in increasing order and looked up round-robin. */
+	SEQUENTIAL,
+
+	/** Keys are inserted in a random order and looked up uniformly at random. */
+	RANDOM,
+
+	/**
+	 * Keys are inserted in a random order and looked up with a Zipfian skew
+	 * (theta = 0.99), so a handful of keys receive most of the lookups.
+	 */
+	ZIPFIAN;
+
+	/** Skew of the Zipfian lookup stream. */
+	protected static final double zipfTheta = 0.99;
+
+	/**
+	 * The order in which the keys 0..n-1 are inserted.
+	 * @param n number of keys
+	 * @param rng source of randomness
+	 * @return a permutation of 0..n-1
+	 */
+	public int[] insertOrder(int n, Random rng) {
+		int[] keys = new int[n];
+		for(int i = 0; i < n; i++)
+			keys[i] = i;
+		if( this != SEQUENTIAL ) {
+			// Fisher-Yates shuffle.
+			for(int i = n - 1; i > 0; i--) {
+				int j = rng.nextInt(i + 1);
+				int tmp = keys[i];
+				keys[i] = keys[j];
+				keys[j] = tmp;
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * A stream of keys to look up.  Every key in the stream is present in the
+	 * container, i.e. it is one of the values in insertOrder.
+	 * @param insertOrder the keys that were inserted, in insertion order
+	 * @param m length of the lookup stream
+	 * @param rng source of randomness
+	 * @return m keys to look up
+	 */
+	public int[] lookups(int[] insertOrder, int m, Random rng) {
+		int n = insertOrder.length;
+		int[] result = new int[m];
+		switch(this) {
+			case SEQUENTIAL:
+				for(int i = 0; i < m; i++)
+					result[i] = i % n;
+				break;
+			case RANDOM:
+				for(int i = 0; i < m; i++)
+					result[i] = insertOrder[rng.nextInt(n)];
+				break;
+			case ZIPFIAN:
+				// Gray et al., "Quickly generating billion-record synthetic databases".
+				// Rank r is mapped through the (shuffled) insertion order so that the
+				// hot keys are scattered over the key space.
+				double zetaN = zeta(n, zipfTheta);
+				double zeta2 = zeta(2, zipfTheta);
+				double alpha = 1.0 / (1.0 - zipfTheta);
+				double eta = (1 - Math.pow(2.0 / n, 1 - zipfTheta)) / (1 - zeta2 / zetaN);
+				for(int i = 0; i < m; i++) {
+					double u = rng.nextDouble();
+					double uz = u * zetaN;
+					int rank;
+					if( uz < 1.0 ) rank = 0;
+					else if( uz < 1.0 + Math.pow(0.5, zipfTheta) ) rank = 1;
+					else rank = (int) (n * Math.pow(eta * u - eta + 1, alpha));
+					result[i] = insertOrder[Math.min(rank, n - 1)];
+				}
+				break;
+		}
+		return result;
+	}
+
+	/**
+	 * The generalized harmonic number H(n, theta).
+	 * @timing O(n)
+	 */
+	protected static double zeta(int n, double theta) {
+		double sum = 0;
+		for(int i = 1; i <= n; i++)
+			sum += 1.0 / Math.pow(i, theta);
+		return sum;
+	}
+}
@@ -0,0 +1,332 @@
+package lib280.bench;
+
+import lib280.list.ArrayedList280;
+import lib280.list.BilinkedList280;
+import lib280.list.IntArrayedList280;
+import lib280.list.KeyedSkipList280;
+import lib280.list.LinkedList280;
+import lib280.list.SimpleList280;
+import lib280.list.UnrolledLinkedList280;
+
+/**
+ * Benchmarks for the lib280.list containers.
+ */
+public class ListBenchmarks {
+
+	/**
+	 * Common benchmark of the SimpleList280 operations: insertLast() to insert,
+	 * has() to search, deleteFirst() to delete and the list's own cursor to
+	 * iterate.
+	 */
+	public static abstract class SimpleListBenchmark extends ContainerBenchmark {
+
+		/** The list under test. */
+		protected SimpleList280<Integer> list;
+
+		@Override
+		public String suite() {
+			return "list";
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				list.insertLast(w.boxedKeys[i]);
+			return list.lastItem();
+		}
+
+		@Override
+		public long search(Workload w) {
+			long hits = 0;
+			for(int i = 0; i < w.boxedLookups.length; i++)
+				if( list.has(w.boxedLookups[i]) ) hits++;
+			return hits;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			long sum = 0;
+			while( !list.isEmpty() ) {
+				sum += list.firstItem();
+				list.deleteFirst();
+			}
+			return sum;
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			long sum = 0;
+			list.goFirst();
+			while( list.itemExists() ) {
+				sum += list.item();
+				list.goForth();
+			}
+			return sum;
+		}
+
+		/** Searching a list is linear, so keep the lookup stream short. */
+		@Override
+		public int numLookups(int n) {
+			return Math.min(n, 1000);
+		}
+
+		/** Even a short lookup stream is too slow to search past 100000 items. */
+		@Override
+		public int maxSize(Operation op, KeyDistribution d) {
+			return op == Operation.SEARCH ? 100000 : Integer.MAX_VALUE;
+		}
+	}
+
+	/** LinkedList280. */
+	public static class LinkedListBenchmark extends SimpleListBenchmark {
+		@Override
+		public String name() {
+			return "LinkedList280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			list = new LinkedList280<Integer>();
+		}
+	}
+
+	/**
+	 * LinkedList280 with its skip-list index, emptied from the end with
+	 * deleteLast(), which an unindexed singly linked list can only do in
+	 * linear time per item.
+	 */
+	public static class IndexedLinkedListBenchmark extends SimpleListBenchmark {
+		@Override
+		public String name() {
+			return "LinkedList280-indexed";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			LinkedList280<Integer> l = new LinkedList280<Integer>();
+			l.setIndexed(true);
+			list = l;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			long sum = 0;
+			while( !list.isEmpty() ) {
+				sum += list.lastItem();
+				list.deleteLast();
+			}
+			return sum;
+		}
+	}
+
+	/** BilinkedList280. */
+	public static class BilinkedListBenchmark extends SimpleListBenchmark {
+		@Override
+		public String name() {
+			return "BilinkedList280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			list = new BilinkedList280<Integer>();
+		}
+	}
+
+	/** UnrolledLinkedList280 with the default node capacity. */
+	public static class UnrolledLinkedListBenchmark extends SimpleListBenchmark {
+		@Override
+		public String name() {
+			return "UnrolledLinkedList280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			list = new UnrolledLinkedList280<Integer>();
+		}
+	}
+
+	/** ArrayedList280. */
+	public static class ArrayedListBenchmark extends SimpleListBenchmark {
+		@Override
+		public String name() {
+			return "ArrayedList280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			list = new ArrayedList280<Integer>(w.size);
+		}
+	}
+
+	/** ArrayedList280 in growable mode, starting from the default capacity. */
+	public static class GrowableArrayedListBenchmark extends SimpleListBenchmark {
+		@Override
+		public String name() {
+			return "ArrayedList280-growable";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			list = new ArrayedList280<Integer>();
+		}
+	}
+
+	/** ArrayedList280 in growable mode that also shrinks as it is emptied. */
+	public static class ShrinkableArrayedListBenchmark extends SimpleListBenchmark {
+		@Override
+		public String name() {
+			return "ArrayedList280-shrinkable";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			ArrayedList280<Integer> l = new ArrayedList280<Integer>();
+			l.setShrinkable(true);
+			list = l;
+		}
+	}
+
+	/**
+	 * IntArrayedList280, the same operations as SimpleListBenchmark on the
+	 * unboxed keys.
+	 */
+	public static class IntArrayedListBenchmark extends ContainerBenchmark {
+
+		/** The list under test. */
+		protected IntArrayedList280 list;
+
+		@Override
+		public String suite() {
+			return "list";
+		}
+
+		@Override
+		public String name() {
+			return "IntArrayedList280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			list = new IntArrayedList280();
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				list.insertLast(w.keys[i]);
+			return list.lastItem();
+		}
+
+		@Override
+		public long search(Workload w) {
+			long hits = 0;
+			for(int i = 0; i < w.lookups.length; i++)
+				if( list.has(w.lookups[i]) ) hits++;
+			return hits;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			long sum = 0;
+			while( !list.isEmpty() ) {
+				sum += list.firstItem();
+				list.deleteFirst();
+			}
+			return sum;
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			long sum = 0;
+			list.goFirst();
+			while( list.itemExists() ) {
+				sum += list.item();
+				list.goForth();
+			}
+			return sum;
+		}
+
+		@Override
+		public int numLookups(int n) {
+			return Math.min(n, 1000);
+		}
+
+		@Override
+		public int maxSize(Operation op, KeyDistribution d) {
+			return op == Operation.SEARCH ? 100000 : Integer.MAX_VALUE;
+		}
+	}
+
+	/** KeyedSkipList280 with one cursor, on the same operations as BPlusTree280. */
+	public static class KeyedSkipListBenchmark extends ContainerBenchmark {
+
+		/** The list under test. */
+		protected KeyedSkipList280<Integer, BenchItem> list;
+
+		@Override
+		public String suite() {
+			return "list";
+		}
+
+		@Override
+		public String name() {
+			return "KeyedSkipList280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			list = new KeyedSkipList280<Integer, BenchItem>();
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				list.insert(w.items[i]);
+			return list.count();
+		}
+
+		@Override
+		public long search(Workload w) {
+			long sum = 0;
+			for(int i = 0; i < w.boxedLookups.length; i++)
+				sum += list.obtain(w.boxedLookups[i]).payload();
+			return sum;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				list.delete(w.boxedKeys[i]);
+			return list.isEmpty() ? 0 : 1;
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			long sum = 0;
+			list.goFirst();
+			while( list.itemExists() ) {
+				sum += list.item().payload();
+				list.goForth();
+			}
+			return sum;
+		}
+	}
+
+	/**
+	 * All benchmarks in this suite.
+	 * @return the list benchmarks.
+	 */
+	public static ContainerBenchmark[] all() {
+		return new ContainerBenchmark[] {
+				new LinkedListBenchmark(),
+				new IndexedLinkedListBenchmark(),
+				new BilinkedListBenchmark(),
+				new UnrolledLinkedListBenchmark(),
+				new ArrayedListBenchmark(),
+				new GrowableArrayedListBenchmark(),
+				new ShrinkableArrayedListBenchmark(),
+				new IntArrayedListBenchmark(),
+				new KeyedSkipListBenchmark()
+		};
+	}
+}
@@ -0,0 +1,19 @@
+package lib280.bench;
+
+/**
+ * The operations that every container benchmark measures.
+ */
+public enum Operation {
+
+	/** Insert all n keys into an empty container. */
+	INSERT,
+
+	/** Look up every key of the lookup stream in a container holding n keys. */
+	SEARCH,
+
+	/** Remove all n keys from a container holding n keys. */
+	DELETE,
+
+	/** Visit every item of a container holding n keys with its cursor. */
+	ITERATE
+}
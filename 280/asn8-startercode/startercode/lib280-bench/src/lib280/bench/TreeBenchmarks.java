@@ -0,0 +1,484 @@
+package lib280.bench;
+
+import java.util.Arrays;
+
+import lib280.base.BilinearIterator280;
+import lib280.tree.AVLTree280;
+import lib280.tree.ArrayedAVLTree280;
+import lib280.tree.BPlusTree280;
+import lib280.tree.IterableTwoThreeTree280;
+import lib280.tree.OrderedSimpleTree280;
+import lib280.tree.TwoThreeTree280;
+import lib280.tree.TwoThreeTreeScan280;
+
+/**
+ * Benchmarks for the ordered lib280.tree containers.  The arrayed heaps live
+ * in lib280.tree too, but they are dispensers and are benchmarked in
+ * DispenserBenchmarks.
+ */
+public class TreeBenchmarks {
+
+	/**
+	 * In-order traversal with the tree's cursor.
+	 * @timing O(n)
+	 */
+	protected static long inorderSum(BilinearIterator280<BenchItem> t) {
+		long sum = 0;
+		t.goBefore();
+		if( t.after() ) return 0;  // an empty tree
+		for(t.goForth(); t.itemExists(); t.goForth())
+			sum += t.item().payload();
+		return sum;
+	}
+
+	/** AVLTree280. */
+	public static class AVLTreeBenchmark extends ContainerBenchmark {
+
+		/** The tree under test. */
+		protected AVLTree280<BenchItem> tree;
+
+		@Override
+		public String suite() {
+			return "tree";
+		}
+
+		@Override
+		public String name() {
+			return "AVLTree280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			tree = new AVLTree280<BenchItem>();
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				tree.insert(w.items[i]);
+			return tree.rootItem().payload();
+		}
+
+		@Override
+		public long search(Workload w) {
+			long hits = 0;
+			for(int i = 0; i < w.lookupItems.length; i++)
+				if( tree.has(w.lookupItems[i]) ) hits++;
+			return hits;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			long sum = 0;
+			for(int i = 0; i < w.size; i++) {
+				tree.search(w.items[i]);
+				sum += tree.item().payload();
+				tree.deleteItem();
+			}
+			return sum;
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			return inorderSum(tree);
+		}
+	}
+
+	/** AVLTree280 built in one pass from the items in sorted order. */
+	public static class AVLTreeFromSortedBenchmark extends AVLTreeBenchmark {
+
+		/** The workload's items, sorted before timing starts. */
+		protected BenchItem[] sorted;
+
+		@Override
+		public String name() {
+			return "AVLTree280-fromSorted";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			super.reset(w);
+			sorted = Arrays.copyOf(w.items, w.size);
+			Arrays.sort(sorted);
+		}
+
+		@Override
+		public long insert(Workload w) {
+			tree = AVLTree280.fromSorted(sorted);
+			return tree.rootItem().payload();
+		}
+	}
+
+	/** ArrayedAVLTree280, the array-backed AVL tree, on the same operations as AVLTree280. */
+	public static class ArrayedAVLTreeBenchmark extends ContainerBenchmark {
+
+		/** The tree under test. */
+		protected ArrayedAVLTree280<BenchItem> tree;
+
+		@Override
+		public String suite() {
+			return "tree";
+		}
+
+		@Override
+		public String name() {
+			return "ArrayedAVLTree280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			tree = new ArrayedAVLTree280<BenchItem>();
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				tree.insert(w.items[i]);
+			return tree.rootItem().payload();
+		}
+
+		@Override
+		public long search(Workload w) {
+			long hits = 0;
+			for(int i = 0; i < w.lookupItems.length; i++)
+				if( tree.has(w.lookupItems[i]) ) hits++;
+			return hits;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			long sum = 0;
+			for(int i = 0; i < w.size; i++) {
+				tree.search(w.items[i]);
+				sum += tree.item().payload();
+				tree.deleteItem();
+			}
+			return sum;
+		}
+
+		/** ArrayedAVLTree280 has no traversal. */
+		@Override
+		public long iterate(Workload w) {
+			return 0;
+		}
+
+		@Override
+		public int maxSize(Operation op, KeyDistribution d) {
+			return op == Operation.ITERATE ? 0 : Integer.MAX_VALUE;
+		}
+	}
+
+	/** OrderedSimpleTree280 (an unbalanced binary search tree). */
+	public static class OrderedSimpleTreeBenchmark extends ContainerBenchmark {
+
+		/** The tree under test. */
+		protected OrderedSimpleTree280<BenchItem> tree;
+
+		@Override
+		public String suite() {
+			return "tree";
+		}
+
+		@Override
+		public String name() {
+			return "OrderedSimpleTree280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			tree = new OrderedSimpleTree280<BenchItem>();
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				tree.insert(w.items[i]);
+			return tree.rootItem().payload();
+		}
+
+		@Override
+		public long search(Workload w) {
+			long hits = 0;
+			for(int i = 0; i < w.lookupItems.length; i++)
+				if( tree.has(w.lookupItems[i]) ) hits++;
+			return hits;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			long sum = 0;
+			for(int i = 0; i < w.size; i++) {
+				tree.search(w.items[i]);
+				sum += tree.item().payload();
+				tree.deleteItem();
+			}
+			return sum;
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			return inorderSum(tree);
+		}
+
+		/** Sorted input degenerates the tree into a list; insert() then recurses n deep. */
+		@Override
+		public int maxSize(Operation op, KeyDistribution d) {
+			return d == KeyDistribution.SEQUENTIAL ? 1000 : Integer.MAX_VALUE;
+		}
+	}
+
+	/** TwoThreeTree280. */
+	public static class TwoThreeTreeBenchmark extends ContainerBenchmark {
+
+		/** The tree under test. */
+		protected TwoThreeTree280<Integer, BenchItem> tree;
+
+		@Override
+		public String suite() {
+			return "tree";
+		}
+
+		@Override
+		public String name() {
+			return "TwoThreeTree280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			tree = new TwoThreeTree280<Integer, BenchItem>();
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				tree.insert(w.items[i]);
+			return tree.height();
+		}
+
+		@Override
+		public long search(Workload w) {
+			long sum = 0;
+			for(int i = 0; i < w.boxedLookups.length; i++)
+				sum += tree.obtain(w.boxedLookups[i]).payload();
+			return sum;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				tree.delete(w.boxedKeys[i]);
+			return tree.isEmpty() ? 0 : 1;
+		}
+
+		/** TwoThreeTree280 has no iterator. */
+		@Override
+		public long iterate(Workload w) {
+			return 0;
+		}
+
+		@Override
+		public int maxSize(Operation op, KeyDistribution d) {
+			return op == Operation.ITERATE ? 0 : Integer.MAX_VALUE;
+		}
+	}
+
+	/** TwoThreeTree280, inserting and deleting with insertAll and deleteAll in batches. */
+	public static class TwoThreeTreeBatchBenchmark extends TwoThreeTreeBenchmark {
+
+		/** Number of items in each batch. */
+		protected static final int BATCH = 1000;
+
+		@Override
+		public String name() {
+			return "TwoThreeTree280-batch" + BATCH;
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int from = 0; from < w.size; from += BATCH)
+				tree.insertAll(Arrays.copyOfRange(w.items, from, Math.min(from + BATCH, w.size)));
+			return tree.height();
+		}
+
+		@Override
+		public long delete(Workload w) {
+			for(int from = 0; from < w.size; from += BATCH)
+				tree.deleteAll(Arrays.copyOfRange(w.boxedKeys, from, Math.min(from + BATCH, w.size)));
+			return tree.isEmpty() ? 0 : 1;
+		}
+	}
+
+	/** TwoThreeTree280 built bottom-up from the items in sorted order. */
+	public static class TwoThreeTreeBulkLoadBenchmark extends TwoThreeTreeBenchmark {
+
+		/** The workload's items, sorted before timing starts. */
+		protected BenchItem[] sorted;
+
+		@Override
+		public String name() {
+			return "TwoThreeTree280-bulkLoad";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			super.reset(w);
+			sorted = Arrays.copyOf(w.items, w.size);
+			Arrays.sort(sorted);
+		}
+
+		@Override
+		public long insert(Workload w) {
+			tree = TwoThreeTree280.bulkLoad(sorted);
+			return tree.height();
+		}
+	}
+
+	/** IterableTwoThreeTree280. */
+	public static class IterableTwoThreeTreeBenchmark extends TwoThreeTreeBenchmark {
+
+		@Override
+		public String name() {
+			return "IterableTwoThreeTree280";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			tree = new IterableTwoThreeTree280<Integer, BenchItem>();
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			IterableTwoThreeTree280<Integer, BenchItem> t = (IterableTwoThreeTree280<Integer, BenchItem>) tree;
+			long sum = 0;
+			t.goFirst();
+			while( t.itemExists() ) {
+				sum += t.item().payload();
+				t.goForth();
+			}
+			return sum;
+		}
+
+		@Override
+		public int maxSize(Operation op, KeyDistribution d) {
+			return Integer.MAX_VALUE;
+		}
+	}
+
+	/** IterableTwoThreeTree280, iterating with an unbounded scan rather than the cursor. */
+	public static class IterableTwoThreeTreeScanBenchmark extends IterableTwoThreeTreeBenchmark {
+
+		@Override
+		public String name() {
+			return "IterableTwoThreeTree280-scan";
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			IterableTwoThreeTree280<Integer, BenchItem> t = (IterableTwoThreeTree280<Integer, BenchItem>) tree;
+			long sum = 0;
+			for(TwoThreeTreeScan280<Integer, BenchItem> s = t.scan(null, false, null, false); s.hasNext(); )
+				sum += s.next().payload();
+			return sum;
+		}
+	}
+
+	/** IterableTwoThreeTree280 built bottom-up from the items in sorted order. */
+	public static class IterableTwoThreeTreeBulkLoadBenchmark extends IterableTwoThreeTreeBenchmark {
+
+		/** The workload's items, sorted before timing starts. */
+		protected BenchItem[] sorted;
+
+		@Override
+		public String name() {
+			return "IterableTwoThreeTree280-bulkLoad";
+		}
+
+		@Override
+		public void reset(Workload w) {
+			super.reset(w);
+			sorted = Arrays.copyOf(w.items, w.size);
+			Arrays.sort(sorted);
+		}
+
+		@Override
+		public long insert(Workload w) {
+			tree = IterableTwoThreeTree280.bulkLoad(sorted);
+			return tree.height();
+		}
+	}
+
+	/** BPlusTree280 with the default fanout, on the same operations as IterableTwoThreeTree280. */
+	public static class BPlusTreeBenchmark extends ContainerBenchmark {
+
+		/** The tree under test. */
+		protected BPlusTree280<Integer, BenchItem> tree;
+
+		@Override
+		public String suite() {
+			return "tree";
+		}
+
+		@Override
+		public String name() {
+			return "BPlusTree280-f" + BPlusTree280.DEFAULT_FANOUT;
+		}
+
+		@Override
+		public void reset(Workload w) {
+			tree = new BPlusTree280<Integer, BenchItem>();
+		}
+
+		@Override
+		public long insert(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				tree.insert(w.items[i]);
+			return tree.height();
+		}
+
+		@Override
+		public long search(Workload w) {
+			long sum = 0;
+			for(int i = 0; i < w.boxedLookups.length; i++)
+				sum += tree.obtain(w.boxedLookups[i]).payload();
+			return sum;
+		}
+
+		@Override
+		public long delete(Workload w) {
+			for(int i = 0; i < w.size; i++)
+				tree.delete(w.boxedKeys[i]);
+			return tree.isEmpty() ? 0 : 1;
+		}
+
+		@Override
+		public long iterate(Workload w) {
+			long sum = 0;
+			tree.goFirst();
+			while( tree.itemExists() ) {
+				sum += tree.item().payload();
+				tree.goForth();
+			}
+			return sum;
+		}
+	}
+
+	/**
+	 * All benchmarks in this suite.
+	 * @return the tree benchmarks.
+	 */
+	public static ContainerBenchmark[] all() {
+		return new ContainerBenchmark[] {
+				new AVLTreeBenchmark(),
+				new AVLTreeFromSortedBenchmark(),
+				new ArrayedAVLTreeBenchmark(),
+				new OrderedSimpleTreeBenchmark(),
+				new TwoThreeTreeBenchmark(),
+				new TwoThreeTreeBatchBenchmark(),
+				new TwoThreeTreeBulkLoadBenchmark(),
+				new IterableTwoThreeTreeBenchmark(),
+				new IterableTwoThreeTreeScanBenchmark(),
+				new IterableTwoThreeTreeBulkLoadBenchmark(),
+				new BPlusTreeBenchmark()
+		};
+	}
+}
@@ -0,0 +1,63 @@
+package lib280.bench;
+
+import java.util.Random;
+
+/**
+ * The input of one benchmark configuration: n distinct keys in insertion
+ * order and a stream of keys to look up, in every form the containers want
+ * them (primitive, boxed and as items).  Everything is allocated before
+ * timing starts.
+ */
+public class Workload {
+
+	/** Number of distinct keys. */
+	public final int size;
+
+	/** Distribution the keys were drawn from. */
+	public final KeyDistribution distribution;
+
+	/** Keys 0..size-1 in insertion order. */
+	public final int[] keys;
+
+	/** The keys in insertion order, boxed. */
+	public final Integer[] boxedKeys;
+
+	/** The keys in insertion order, as items. */
+	public final BenchItem[] items;
+
+	/** Keys to look up; every one of them is in keys. */
+	public final int[] lookups;
+
+	/** The lookup keys, boxed. */
+	public final Integer[] boxedLookups;
+
+	/** The lookup keys as items distinct from (but equal to) those in items. */
+	public final BenchItem[] lookupItems;
+
+	/**
+	 * Generate a workload.
+	 * @param size number of distinct keys
+	 * @param numLookups length of the lookup stream
+	 * @param distribution distribution of insertion order and lookups
+	 * @param seed seed so that every container sees the same workload
+	 */
+	public Workload(int size, int numLookups, KeyDistribution distribution, long seed) {
+		Random rng = new Random(seed);
+		this.size = size;
+		this.distribution = distribution;
+		this.keys = distribution.insertOrder(size, rng);
+		this.boxedKeys = new Integer[size];
+		this.items = new BenchItem[size];
+		for(int i = 0; i < size; i++) {
+			this.boxedKeys[i] = Integer.valueOf(keys[i]);
+			this.items[i] = new BenchItem(boxedKeys[i]);
+		}
+		this.lookups = distribution.lookups(keys, numLookups, rng);
+		this.boxedLookups = new Integer[numLookups];
+		this.lookupItems = new BenchItem[numLookups];
+		for(int i = 0; i < numLookups; i++) {
+			this.boxedLookups[i] = Integer.valueOf(lookups[i]);
+			this.lookupItems[i] = new BenchItem(boxedLookups[i]);
+		}
+	}
+}